@@ -6,6 +6,7 @@ import mod.chiselsandbits.api.multistate.accessor.IAreaAccessor;
 import mod.chiselsandbits.api.multistate.accessor.IStateAccessor;
 import mod.chiselsandbits.api.multistate.accessor.IStateEntryInfo;
 import mod.chiselsandbits.api.multistate.mutator.world.IWorldAreaMutator;
+import net.minecraft.util.math.AxisAlignedBB;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.vector.Vector3d;
 import net.minecraft.world.IWorld;
@@ -88,6 +89,22 @@ public interface IChiselingContext extends IStateAccessor
         return this.include(Vector3d.atLowerCornerOf(inWorldPosition).add(relativeInBlockPosition));
     }
 
+    /**
+     * Includes the given area in the world of this context, retrievable via {@link #getWorld()}, in
+     * the current {@link IWorldAreaMutator}.
+     *
+     * This is equivalent to including both corners of the area, but allows the implementation to grow
+     * the current {@link IWorldAreaMutator} in a single step, instead of once for every included position.
+     *
+     * @param worldArea The area in the current world to include, both corners are included.
+     * @return The context, possibly with a mutated {@link IWorldAreaMutator}.
+     */
+    @NotNull
+    default IChiselingContext include(final AxisAlignedBB worldArea) {
+        return this.include(new Vector3d(worldArea.minX, worldArea.minY, worldArea.minZ))
+                 .include(new Vector3d(worldArea.maxX, worldArea.maxY, worldArea.maxZ));
+    }
+
     /**
      * Marks the current context as complete, so that it can not be reused for interactions which
      * will follow this one.
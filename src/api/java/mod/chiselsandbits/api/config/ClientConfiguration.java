@@ -75,7 +75,8 @@ public class ClientConfiguration extends AbstractConfiguration
 
         bitStorageContentCacheSize = defineLong(builder, "bit-storage-content-models", 100, 0, Long.MAX_VALUE);
         modelCacheSize = defineLong(builder, "block-models", 10000, 3500, 20000);
-        faceLayerCacheSize = defineLong(builder, "block-faces", 10000, 3500, 20000);
+        //Weighed in face layers, most faces have one or two of them.
+        faceLayerCacheSize = defineLong(builder, "block-faces", 20000, 7000, 40000);
 
         swapToCategory(builder, "performance.model-building");
 
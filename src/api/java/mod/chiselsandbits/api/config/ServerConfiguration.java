@@ -18,6 +18,7 @@ public class ServerConfiguration extends AbstractConfiguration
     public ForgeConfigSpec.IntValue bagStackSize;
     public ForgeConfigSpec.EnumValue<StateEntrySize> bitSize;
     public ForgeConfigSpec.IntValue changeTrackerSize;
+    public ForgeConfigSpec.IntValue chiseledUpdateBytesPerTick;
 
     protected ServerConfiguration(final ForgeConfigSpec.Builder builder)
     {
@@ -35,5 +36,11 @@ public class ServerConfiguration extends AbstractConfiguration
         bitSize = defineEnum(builder, "bit-size", StateEntrySize.ONE_SIXTEENTH);
 
         finishCategory(builder);
+
+        createCategory(builder, "performance.network");
+
+        chiseledUpdateBytesPerTick = defineInteger(builder, "chiseled-update-bytes-per-tick", 65536, 1024, Integer.MAX_VALUE);
+
+        finishCategory(builder);
     }
 }
\ No newline at end of file
@@ -1,8 +1,11 @@
 package mod.chiselsandbits.api.multistate.accessor;
 
+import mod.chiselsandbits.api.multistate.StateEntrySize;
+import mod.chiselsandbits.api.multistate.accessor.callback.BitVisitor;
 import mod.chiselsandbits.api.multistate.accessor.identifier.IAreaShapeIdentifier;
 import mod.chiselsandbits.api.multistate.accessor.sortable.IPositionMutator;
 import mod.chiselsandbits.api.multistate.snapshot.IMultiStateSnapshot;
+import mod.chiselsandbits.api.util.StateEntryFilter;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.vector.Vector3d;
 
@@ -30,6 +33,45 @@ public interface IAreaAccessor extends IStateAccessor
      */
     Stream<IStateEntryInfo> stream();
 
+    /**
+     * Visits all entries inside the accessors range, in the same order as {@link #stream()}.
+     * Unlike the stream, implementations are not required to create an entry object for each bit.
+     *
+     * The default implementation falls back to the stream, and as such is only suited for accessors covering a single block.
+     * Accessors covering multiple blocks need to offset the coordinates by the position of the block that holds the bit.
+     *
+     * @param visitor The visitor to invoke for each bit.
+     */
+    default void forEachBit(final BitVisitor visitor)
+    {
+        final int bitsPerBlockSide = StateEntrySize.current().getBitsPerBlockSide();
+        stream().forEach(entry -> visitor.visit(
+          (int) Math.floor(entry.getStartPoint().x() * bitsPerBlockSide),
+          (int) Math.floor(entry.getStartPoint().y() * bitsPerBlockSide),
+          (int) Math.floor(entry.getStartPoint().z() * bitsPerBlockSide),
+          entry.getState()
+        ));
+    }
+
+    /**
+     * Visits the entries inside the accessors range whose state matches the given filter, in the same order as {@link #forEachBit(BitVisitor)}.
+     * Accessors backed by a palette evaluate the filter once per palette entry instead of once per bit.
+     *
+     * @param filter The state based filter for the entries to visit.
+     * @param visitor The visitor to invoke for each matching bit.
+     * @throws IllegalArgumentException When the filter is not state based.
+     */
+    default void forEachMatchingBit(final StateEntryFilter filter, final BitVisitor visitor)
+    {
+        if (!filter.isStateBased())
+            throw new IllegalArgumentException("The filter: " + filter.getName() + " is not state based.");
+
+        forEachBit((x, y, z, state) -> {
+            if (filter.test(state))
+                visitor.visit(x, y, z, state);
+        });
+    }
+
     /**
      * Indicates if the given target is inside of the current accessor.
      *
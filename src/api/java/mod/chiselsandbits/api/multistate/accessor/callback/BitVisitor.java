@@ -0,0 +1,15 @@
+package mod.chiselsandbits.api.multistate.accessor.callback;
+
+import net.minecraft.block.BlockState;
+
+/**
+ * Callback used to visit the bits of an area without creating state entry objects.
+ *
+ * The coordinates are bit coordinates, relative to the lowest bit of the block that contains the start point of the area.
+ */
+@FunctionalInterface
+public interface BitVisitor
+{
+
+    void visit(int x, int y, int z, BlockState state);
+}
@@ -1,7 +1,9 @@
 package mod.chiselsandbits.api.multistate.mutator;
 
 import mod.chiselsandbits.api.exceptions.SpaceOccupiedException;
+import mod.chiselsandbits.api.multistate.StateEntrySize;
 import mod.chiselsandbits.api.multistate.accessor.IAreaAccessor;
+import mod.chiselsandbits.api.multistate.mutator.callback.BitMutator;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.Blocks;
 import net.minecraft.util.math.BlockPos;
@@ -22,6 +24,32 @@ public interface IAreaMutator extends IAreaAccessor
      */
     Stream<IMutableStateEntryInfo> mutableStream();
 
+    /**
+     * Visits all mutable entries inside the mutators range, in the same order as {@link #forEachBit(mod.chiselsandbits.api.multistate.accessor.callback.BitVisitor)}.
+     * The state returned by the mutator overrides the visited bit, returning the visited state leaves the bit untouched.
+     *
+     * The default implementation falls back to the mutable stream, and as such is only suited for mutators covering a single block.
+     *
+     * @param mutator The mutator to invoke for each bit.
+     */
+    default void mutateEachBit(final BitMutator mutator)
+    {
+        final int bitsPerBlockSide = StateEntrySize.current().getBitsPerBlockSide();
+        mutableStream().forEach(entry -> {
+            final BlockState newState = mutator.mutate(
+              (int) Math.floor(entry.getStartPoint().x() * bitsPerBlockSide),
+              (int) Math.floor(entry.getStartPoint().y() * bitsPerBlockSide),
+              (int) Math.floor(entry.getStartPoint().z() * bitsPerBlockSide),
+              entry.getState()
+            );
+
+            if (newState != entry.getState())
+            {
+                entry.overrideState(newState);
+            }
+        });
+    }
+
     /**
      * Sets the target state in the current area, using the offset from the area as well as the in area target offset.
      *
@@ -0,0 +1,16 @@
+package mod.chiselsandbits.api.multistate.mutator.callback;
+
+import net.minecraft.block.BlockState;
+
+/**
+ * Callback used to visit, and potentially replace, the bits of an area without creating state entry objects.
+ *
+ * The coordinates are bit coordinates, relative to the lowest bit of the block that contains the start point of the area.
+ * Returning the passed in state leaves the bit untouched, any other state overrides the bit.
+ */
+@FunctionalInterface
+public interface BitMutator
+{
+
+    BlockState mutate(int x, int y, int z, BlockState state);
+}
@@ -0,0 +1,186 @@
+package mod.chiselsandbits.api.util;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import mod.chiselsandbits.api.block.state.id.IBlockStateIdManager;
+import mod.chiselsandbits.api.multistate.accessor.IStateEntryInfo;
+import net.minecraft.block.BlockState;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+/**
+ * A named filter for state entries, interned by its name and identified by a small numeric id.
+ * <p>
+ * Registering a filter under a name which is already known returns the existing filter, so every filter exists only once
+ * and is only equal to itself. Caches can therefore key on the id of a filter instead of on arbitrary predicate instances.
+ * <p>
+ * Filters which only depend on the state of an entry are state based, and can be evaluated once per palette entry
+ * of an area instead of once per bit, see {@link #testStateId(int)}.
+ */
+public final class StateEntryFilter implements Predicate<IStateEntryInfo>
+{
+    private static final Map<String, StateEntryFilter> FILTERS_BY_NAME = Maps.newHashMap();
+    private static final List<StateEntryFilter>        FILTERS_BY_ID   = Lists.newArrayList();
+
+    private final int                        id;
+    private final String                     name;
+    @Nullable
+    private final Predicate<BlockState>      statePredicate;
+    private final Predicate<IStateEntryInfo> entryPredicate;
+
+    private StateEntryFilter(
+      final int id,
+      final String name,
+      @Nullable final Predicate<BlockState> statePredicate,
+      final Predicate<IStateEntryInfo> entryPredicate)
+    {
+        this.id = id;
+        this.name = name;
+        this.statePredicate = statePredicate;
+        this.entryPredicate = entryPredicate;
+    }
+
+    /**
+     * Registers a filter which only depends on the state of an entry.
+     *
+     * @param name The name of the filter.
+     * @param statePredicate The predicate for the states to include.
+     * @return The filter registered under the given name, which is the existing one if the name is already known.
+     */
+    public static StateEntryFilter ofState(final String name, final Predicate<BlockState> statePredicate)
+    {
+        return register(name, statePredicate, stateEntryInfo -> statePredicate.test(stateEntryInfo.getState()));
+    }
+
+    /**
+     * Registers a filter which depends on more than the state of an entry, for example on its position.
+     *
+     * @param name The name of the filter.
+     * @param entryPredicate The predicate for the entries to include.
+     * @return The filter registered under the given name, which is the existing one if the name is already known.
+     */
+    public static StateEntryFilter ofEntry(final String name, final Predicate<IStateEntryInfo> entryPredicate)
+    {
+        return register(name, null, entryPredicate);
+    }
+
+    private static synchronized StateEntryFilter register(
+      final String name,
+      @Nullable final Predicate<BlockState> statePredicate,
+      final Predicate<IStateEntryInfo> entryPredicate)
+    {
+        return FILTERS_BY_NAME.computeIfAbsent(name, key -> {
+            final StateEntryFilter filter = new StateEntryFilter(FILTERS_BY_ID.size(), key, statePredicate, entryPredicate);
+            FILTERS_BY_ID.add(filter);
+            return filter;
+        });
+    }
+
+    public static synchronized Optional<StateEntryFilter> get(final String name)
+    {
+        return Optional.ofNullable(FILTERS_BY_NAME.get(name));
+    }
+
+    public static synchronized Optional<StateEntryFilter> get(final int id)
+    {
+        if (id < 0 || id >= FILTERS_BY_ID.size())
+            return Optional.empty();
+
+        return Optional.of(FILTERS_BY_ID.get(id));
+    }
+
+    /**
+     * Gets the filter which includes the entries that are included by both this and the given filter.
+     * The combined filter is registered under the names of both filters, and is state based if both filters are.
+     *
+     * @param other The other filter.
+     * @return The combined filter.
+     */
+    public StateEntryFilter and(final StateEntryFilter other)
+    {
+        final String combinedName = name + "&" + other.name;
+        if (isStateBased() && other.isStateBased())
+            return ofState(combinedName, state -> test(state) && other.test(state));
+
+        return ofEntry(combinedName, stateEntryInfo -> test(stateEntryInfo) && other.test(stateEntryInfo));
+    }
+
+    public int getId()
+    {
+        return id;
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    /**
+     * Indicates if this filter only depends on the state of an entry.
+     *
+     * @return True when the filter is state based.
+     */
+    public boolean isStateBased()
+    {
+        return statePredicate != null;
+    }
+
+    @Override
+    public boolean test(final IStateEntryInfo stateEntryInfo)
+    {
+        return entryPredicate.test(stateEntryInfo);
+    }
+
+    /**
+     * Tests the given state against this filter.
+     *
+     * @param state The state to test.
+     * @return True when entries with the given state are included.
+     * @throws IllegalStateException When this filter is not state based.
+     */
+    public boolean test(final BlockState state)
+    {
+        if (statePredicate == null)
+            throw new IllegalStateException("The filter: " + name + " is not state based.");
+
+        return statePredicate.test(state);
+    }
+
+    /**
+     * Tests the state with the given id against this filter.
+     * Meant to be evaluated once per palette entry of an area, instead of once per bit.
+     *
+     * @param stateId The id of the state to test.
+     * @return True when entries with the given state are included.
+     * @throws IllegalStateException When this filter is not state based.
+     */
+    public boolean testStateId(final int stateId)
+    {
+        return test(IBlockStateIdManager.getInstance().getBlockStateFrom(stateId));
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return id;
+    }
+
+    @Override
+    public boolean equals(final Object obj)
+    {
+        return obj == this;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "StateEntryFilter{" +
+                 "id=" + id +
+                 ", name='" + name + '\'' +
+                 '}';
+    }
+}
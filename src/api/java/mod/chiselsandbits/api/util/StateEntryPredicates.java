@@ -1,9 +1,5 @@
 package mod.chiselsandbits.api.util;
 
-import mod.chiselsandbits.api.multistate.accessor.IStateEntryInfo;
-
-import java.util.function.Predicate;
-
 public class StateEntryPredicates
 {
     private StateEntryPredicates()
@@ -11,64 +7,13 @@ public class StateEntryPredicates
         throw new IllegalStateException("Can not instantiate an instance of: StateEntryPredicates. This is a utility class");
     }
 
-    public static final Predicate<IStateEntryInfo> NOT_AIR = new Predicate<IStateEntryInfo>() {
-        @Override
-        public boolean test(final IStateEntryInfo iStateEntryInfo)
-        {
-            return !iStateEntryInfo.getState().isAir();
-        }
-
-        @Override
-        public int hashCode()
-        {
-            return 0;
-        }
-
-        @Override
-        public boolean equals(final Object obj)
-        {
-            return obj == this;
-        }
-    };
-
-    public static final Predicate<IStateEntryInfo> ALL = new Predicate<IStateEntryInfo>()
-    {
-        @Override
-        public boolean test(final IStateEntryInfo iStateEntryInfo)
-        {
-            return true;
-        }
-
-        @Override
-        public int hashCode()
-        {
-            return 1;
-        }
+    public static final StateEntryFilter NOT_AIR = StateEntryFilter.ofState("not_air", state -> !state.isAir());
 
-        @Override
-        public boolean equals(final Object obj)
-        {
-            return obj == this;
-        }
-    };
+    public static final StateEntryFilter ALL = StateEntryFilter.ofState("all", state -> true);
 
-    public static final Predicate<IStateEntryInfo> COLLIDEABLE_ONLY = new Predicate<IStateEntryInfo>() {
-        @Override
-        public boolean test(final IStateEntryInfo iStateEntryInfo)
-        {
-            return iStateEntryInfo.getState().getFluidState().isEmpty() && !iStateEntryInfo.getState().isAir();
-        }
+    public static final StateEntryFilter COLLIDEABLE_ONLY = StateEntryFilter.ofState("collideable", state -> state.getFluidState().isEmpty() && !state.isAir());
 
-        @Override
-        public int hashCode()
-        {
-            return 2;
-        }
+    public static final StateEntryFilter FLUID_ONLY = StateEntryFilter.ofState("fluid_only", state -> !state.getFluidState().isEmpty());
 
-        @Override
-        public boolean equals(final Object obj)
-        {
-            return obj == this;
-        }
-    };
+    public static final StateEntryFilter NOT_FLUID = StateEntryFilter.ofState("not_fluid", state -> state.getFluidState().isEmpty());
 }
@@ -14,6 +14,7 @@ public class NbtConstants
     public static final String COMPRESSED_STORAGE = "compressedStorage";
     public static final String DATA_IS_COMPRESSED = "isCompressed";
     public static final String COMPRESSED_DATA = "compressedData";
+    public static final String COMPACT_DATA = "compactData";
     public static final String PALETTE = "palette";
     public static final String BLOCK_STATES  = "blockStates";
     public static final String COLUMN_BLOCK_LIST = "columnBlockList";
@@ -35,4 +36,5 @@ public class NbtConstants
     public static final String INVENTORY = "Inventory";
     public static final String CONTENTS = "contents";
     public static final String BLOCK_ENTITY_DATA = "BlockEntityTag";
+    public static final String SYNC_VERSION = "syncVersion";
 }
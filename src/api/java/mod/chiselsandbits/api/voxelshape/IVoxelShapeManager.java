@@ -4,7 +4,7 @@ import mod.chiselsandbits.api.IChiselsAndBitsAPI;
 import mod.chiselsandbits.api.multistate.accessor.IAreaAccessor;
 import mod.chiselsandbits.api.multistate.accessor.identifier.IAreaShapeIdentifier;
 import mod.chiselsandbits.api.multistate.accessor.IStateEntryInfo;
-import mod.chiselsandbits.api.util.SingleBlockBlockReader;
+import mod.chiselsandbits.api.util.StateEntryPredicates;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.shapes.VoxelShape;
 
@@ -42,11 +42,10 @@ public interface IVoxelShapeManager
      * @param offset The offset to apply to the voxelshape during calculation or cache lookup.
      * @return The shape of the accessor.
      */
-    @SuppressWarnings("deprecation")
     default VoxelShape get(
       final IAreaAccessor accessor,
       final BlockPos offset) {
-        return get(accessor, offset, ignored -> iStateEntryInfo -> !iStateEntryInfo.getState().isAir(new SingleBlockBlockReader(iStateEntryInfo.getState()), BlockPos.ZERO), true);
+        return get(accessor, offset, ignored -> StateEntryPredicates.NOT_AIR, true);
     }
 
     /**
@@ -89,6 +88,8 @@ public interface IVoxelShapeManager
      * @param accessor The accessor to get the shape of.
      * @param offset The offset to apply to the voxelshape during calculation or cache lookup.
      * @param selectablePredicateBuilder The predicate that determines what state entries to include.
+     *                                   Shapes of {@link mod.chiselsandbits.api.util.StateEntryFilter registered filters} are cached by the id of the filter,
+     *                                   other predicates are cached by their equality.
      * @param simplify Indicates if the returned voxelshape should be simplified. Generally good for performance, but might cause some shapes to not work properly.
      * @return The shape of the accessor.
      */
@@ -106,11 +107,10 @@ public interface IVoxelShapeManager
      * @param offset The offset to apply to the voxelshape during cache lookup.
      * @return The optional, optionally containing the voxel shape.
      */
-    @SuppressWarnings("deprecation")
     default Optional<VoxelShape> getCached(
       final IAreaShapeIdentifier identifier,
       final BlockPos offset) {
-        return getCached(identifier, offset, iStateEntryInfo -> !iStateEntryInfo.getState().isAir(new SingleBlockBlockReader(iStateEntryInfo.getState()), BlockPos.ZERO));
+        return getCached(identifier, offset, StateEntryPredicates.NOT_AIR);
     };
 
     /**
@@ -4,8 +4,10 @@ import mod.chiselsandbits.api.IChiselsAndBitsAPI;
 import mod.chiselsandbits.api.multistate.accessor.IAreaAccessor;
 import mod.chiselsandbits.api.multistate.accessor.IStateEntryInfo;
 import mod.chiselsandbits.api.multistate.accessor.identifier.IAreaShapeIdentifier;
-import mod.chiselsandbits.utils.SimpleMaxSizedCache;
+import mod.chiselsandbits.api.util.StateEntryFilter;
+import mod.chiselsandbits.utils.StripedLruCache;
 import net.minecraft.util.math.AxisAlignedBB;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.Collection;
 import java.util.Objects;
@@ -21,7 +23,7 @@ public class AABBManager
         return INSTANCE;
     }
 
-    private final SimpleMaxSizedCache<Key, Collection<AxisAlignedBB>> cache = new SimpleMaxSizedCache<>(
+    private final StripedLruCache<Key, Collection<AxisAlignedBB>> cache = new StripedLruCache<>(
       IChiselsAndBitsAPI.getInstance().getConfiguration().getCommon().collisionBoxCacheSize::get
     );
 
@@ -40,7 +42,7 @@ public class AABBManager
           selectablePredicate
         );
 
-        return cache.get(
+        return cache.computeIfAbsent(
           cacheKey,
           () -> AABBCompressor.compressStates(accessor, selectablePredicate)
         );
@@ -51,13 +53,22 @@ public class AABBManager
         this.cache.clear();
     }
 
+    /**
+     * The key of cached boxes: the identifier of the shape and the filter of the entries.
+     * Registered filters are keyed by their id, other predicates by their own equality.
+     */
     private static final class Key {
+        private static final int UNREGISTERED_FILTER_ID = -1;
+
         private final IAreaShapeIdentifier identifier;
-        private final Predicate<IStateEntryInfo> predicate;
+        private final int filterId;
+        @Nullable
+        private final Predicate<IStateEntryInfo> unregisteredPredicate;
 
         private Key(final IAreaShapeIdentifier identifier, final Predicate<IStateEntryInfo> predicate) {
             this.identifier = identifier;
-            this.predicate = predicate;
+            this.filterId = predicate instanceof StateEntryFilter ? ((StateEntryFilter) predicate).getId() : UNREGISTERED_FILTER_ID;
+            this.unregisteredPredicate = predicate instanceof StateEntryFilter ? null : predicate;
         }
 
         @Override
@@ -72,13 +83,13 @@ public class AABBManager
                 return false;
             }
             final Key key = (Key) o;
-            return Objects.equals(identifier, key.identifier) && Objects.equals(predicate, key.predicate);
+            return filterId == key.filterId && Objects.equals(identifier, key.identifier) && Objects.equals(unregisteredPredicate, key.unregisteredPredicate);
         }
 
         @Override
         public int hashCode()
         {
-            return Objects.hash(identifier, predicate);
+            return Objects.hash(identifier, filterId, unregisteredPredicate);
         }
     }
 }
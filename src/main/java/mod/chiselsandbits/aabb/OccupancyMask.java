@@ -0,0 +1,128 @@
+package mod.chiselsandbits.aabb;
+
+/**
+ * A 16x16x16 occupancy mask stored as 4096 bits.
+ * <p>
+ * Bit {@code x + 16 * y + 256 * z} represents the cell at the given coordinates, so each row along x occupies 16 bits
+ * and every long holds four consecutive rows of the same z layer.
+ */
+public final class OccupancyMask
+{
+    public static final int SIZE = 16;
+
+    private static final int ROW_MASK = (1 << SIZE) - 1;
+
+    private final long[] words = new long[SIZE * SIZE * SIZE / Long.SIZE];
+
+    public void set(final int x, final int y, final int z)
+    {
+        final int index = x + SIZE * (y + SIZE * z);
+        words[index >>> 6] |= 1L << (index & 63);
+    }
+
+    public boolean get(final int x, final int y, final int z)
+    {
+        final int index = x + SIZE * (y + SIZE * z);
+        return (words[index >>> 6] & (1L << (index & 63))) != 0;
+    }
+
+    public boolean isEmpty()
+    {
+        for (final long word : words)
+        {
+            if (word != 0)
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int cardinality()
+    {
+        int count = 0;
+        for (final long word : words)
+        {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Greedily splits the occupied cells into disjoint boxes and clears the mask while doing so.
+     * <p>
+     * Starting at the lowest occupied cell, a run is grown along x, then the run is extended along y for as long as
+     * the next row contains it entirely, and finally the resulting rectangle is extended along z the same way.
+     *
+     * @param consumer Receives each box, with inclusive minimum and exclusive maximum cell coordinates.
+     */
+    public void extractBoxes(final IBoxConsumer consumer)
+    {
+        for (int z = 0; z < SIZE; z++)
+        {
+            for (int y = 0; y < SIZE; y++)
+            {
+                int row = getRow(y, z);
+                while (row != 0)
+                {
+                    final int minX = Integer.numberOfTrailingZeros(row);
+                    final int length = Integer.numberOfTrailingZeros(~(row >>> minX));
+                    final int run = ((1 << length) - 1) << minX;
+
+                    int maxY = y + 1;
+                    while (maxY < SIZE && (getRow(maxY, z) & run) == run)
+                    {
+                        maxY++;
+                    }
+
+                    int maxZ = z + 1;
+                    while (maxZ < SIZE && containsRun(run, y, maxY, maxZ))
+                    {
+                        maxZ++;
+                    }
+
+                    for (int clearedZ = z; clearedZ < maxZ; clearedZ++)
+                    {
+                        for (int clearedY = y; clearedY < maxY; clearedY++)
+                        {
+                            clearRun(run, clearedY, clearedZ);
+                        }
+                    }
+
+                    consumer.accept(minX, y, z, minX + length, maxY, maxZ);
+                    row = getRow(y, z);
+                }
+            }
+        }
+    }
+
+    private boolean containsRun(final int run, final int minY, final int maxY, final int z)
+    {
+        for (int y = minY; y < maxY; y++)
+        {
+            if ((getRow(y, z) & run) != run)
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int getRow(final int y, final int z)
+    {
+        final int row = y + SIZE * z;
+        return (int) (words[row >>> 2] >>> ((row & 3) << 4)) & ROW_MASK;
+    }
+
+    private void clearRun(final int run, final int y, final int z)
+    {
+        final int row = y + SIZE * z;
+        words[row >>> 2] &= ~(((long) run) << ((row & 3) << 4));
+    }
+
+    @FunctionalInterface
+    public interface IBoxConsumer
+    {
+        void accept(int minX, int minY, int minZ, int maxX, int maxY, int maxZ);
+    }
+}
@@ -8,7 +8,6 @@ import mod.chiselsandbits.api.config.Configuration;
 import mod.chiselsandbits.api.exceptions.SpaceOccupiedException;
 import mod.chiselsandbits.api.item.multistate.IMultiStateItemFactory;
 import mod.chiselsandbits.api.multistate.StateEntrySize;
-import mod.chiselsandbits.api.multistate.accessor.IAreaAccessor;
 import mod.chiselsandbits.api.multistate.mutator.batched.IBatchMutation;
 import mod.chiselsandbits.api.multistate.snapshot.IMultiStateSnapshot;
 import mod.chiselsandbits.api.util.ArrayUtils;
@@ -52,6 +51,7 @@ import org.jetbrains.annotations.Nullable;
 
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
 
 @SuppressWarnings("deprecation")
 public class ChiseledBlock extends Block implements IMultiStateBlock, IWaterLoggable
@@ -351,11 +351,12 @@ public class ChiseledBlock extends Block implements IMultiStateBlock, IWaterLogg
     @Override
     public @NotNull VoxelShape getBlockSupportShape(final @NotNull BlockState state, final @NotNull IBlockReader reader, final @NotNull BlockPos pos)
     {
-        final VoxelShape shape = getBlockEntityFromOrThrow(reader, pos)
-                                   .map(multiStateBlockEntity -> IVoxelShapeManager.getInstance().get(multiStateBlockEntity,
-                                     areaAccessor -> StateEntryPredicates.COLLIDEABLE_ONLY))
-                                   .orElse(VoxelShapes.empty());
+        return getShape(reader, pos, ChiseledBlockEntity.ShapeType.SUPPORT, ChiseledBlock::calculateSupportShape);
+    }
 
+    private static VoxelShape calculateSupportShape(final IMultiStateBlockEntity multiStateBlockEntity)
+    {
+        final VoxelShape shape = IVoxelShapeManager.getInstance().get(multiStateBlockEntity, areaAccessor -> StateEntryPredicates.COLLIDEABLE_ONLY);
         return shape.isEmpty() ? VoxelShapes.block() : shape;
     }
 
@@ -381,10 +382,12 @@ public class ChiseledBlock extends Block implements IMultiStateBlock, IWaterLogg
     @Override
     public VoxelShape getShape(@NotNull final BlockState state, @NotNull final IBlockReader worldIn, @NotNull final BlockPos pos, @NotNull final ISelectionContext context)
     {
-        final VoxelShape shape = getBlockEntityFromOrThrow(worldIn, pos)
-                                   .map(multiStateBlockEntity -> IVoxelShapeManager.getInstance().get(multiStateBlockEntity))
-                                   .orElse(VoxelShapes.empty());
+        return getShape(worldIn, pos, ChiseledBlockEntity.ShapeType.SELECTION, ChiseledBlock::calculateSelectionShape);
+    }
 
+    private static VoxelShape calculateSelectionShape(final IMultiStateBlockEntity multiStateBlockEntity)
+    {
+        final VoxelShape shape = IVoxelShapeManager.getInstance().get(multiStateBlockEntity);
         return shape.isEmpty() ? VoxelShapes.block() : shape;
     }
 
@@ -392,18 +395,15 @@ public class ChiseledBlock extends Block implements IMultiStateBlock, IWaterLogg
     @Override
     public VoxelShape getCollisionShape(@NotNull final BlockState state, @NotNull final IBlockReader worldIn, @NotNull final BlockPos pos, @NotNull final ISelectionContext context)
     {
-        final VoxelShape shape = getBlockEntityFromOrThrow(worldIn, pos)
-                                   .map(multiStateBlockEntity -> IVoxelShapeManager.getInstance().get(multiStateBlockEntity,
-                                     areaAccessor -> StateEntryPredicates.COLLIDEABLE_ONLY))
-                                   .orElse(VoxelShapes.empty());
+        return getShape(worldIn, pos, ChiseledBlockEntity.ShapeType.COLLISION, ChiseledBlock::calculateCollisionShape);
+    }
 
+    private static VoxelShape calculateCollisionShape(final IMultiStateBlockEntity multiStateBlockEntity)
+    {
+        final VoxelShape shape = IVoxelShapeManager.getInstance().get(multiStateBlockEntity, areaAccessor -> StateEntryPredicates.COLLIDEABLE_ONLY);
         if (shape.isEmpty()) {
-            final boolean justFluids = getBlockEntityFromOrThrow(worldIn, pos)
-                                         .map(IAreaAccessor::stream)
-                                         .map(stream -> stream
-                                           .allMatch(stateEntry -> stateEntry.getState().isAir() || !stateEntry.getState().getFluidState().isEmpty())
-                                         )
-                                         .orElse(false);
+            final boolean justFluids = multiStateBlockEntity.stream()
+                                         .allMatch(stateEntry -> stateEntry.getState().isAir() || !stateEntry.getState().getFluidState().isEmpty());
 
             return justFluids ? shape : VoxelShapes.block();
         }
@@ -411,6 +411,23 @@ public class ChiseledBlock extends Block implements IMultiStateBlock, IWaterLogg
         return shape;
     }
 
+    /**
+     * Looks up a shape of the block entity at the given position.
+     * Chiseled block entities keep their shapes until their contents change, so repeated queries do not calculate them again.
+     */
+    private VoxelShape getShape(
+      final IBlockReader reader,
+      final BlockPos pos,
+      final ChiseledBlockEntity.ShapeType type,
+      final Function<IMultiStateBlockEntity, VoxelShape> calculator)
+    {
+        return getBlockEntityFromOrThrow(reader, pos)
+                 .map(multiStateBlockEntity -> multiStateBlockEntity instanceof ChiseledBlockEntity
+                                                 ? ((ChiseledBlockEntity) multiStateBlockEntity).getShape(type, calculator)
+                                                 : calculator.apply(multiStateBlockEntity))
+                 .orElse(VoxelShapes.block());
+    }
+
     @NotNull
     @Override
     public VoxelShape getVisualShape(@NotNull final BlockState state, @NotNull final IBlockReader reader, @NotNull final BlockPos pos, @NotNull final ISelectionContext context)
@@ -1,11 +1,9 @@
 package mod.chiselsandbits.block.entities;
 
-import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Maps;
-import com.google.common.collect.Multimap;
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
-import mod.chiselsandbits.ChiselsAndBits;
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
 import mod.chiselsandbits.api.block.entity.IMultiStateBlockEntity;
 import mod.chiselsandbits.api.block.state.id.IBlockStateIdManager;
 import mod.chiselsandbits.api.change.IChangeTracker;
@@ -14,11 +12,12 @@ import mod.chiselsandbits.api.chiseling.eligibility.IEligibilityManager;
 import mod.chiselsandbits.api.exceptions.SpaceOccupiedException;
 import mod.chiselsandbits.api.multistate.StateEntrySize;
 import mod.chiselsandbits.api.multistate.accessor.IStateEntryInfo;
+import mod.chiselsandbits.api.multistate.accessor.callback.BitVisitor;
 import mod.chiselsandbits.api.multistate.accessor.identifier.IAreaShapeIdentifier;
-import mod.chiselsandbits.api.multistate.accessor.identifier.ILongArrayBackedAreaShapeIdentifier;
 import mod.chiselsandbits.api.multistate.accessor.sortable.IPositionMutator;
 import mod.chiselsandbits.api.multistate.mutator.IMutableStateEntryInfo;
 import mod.chiselsandbits.api.multistate.mutator.batched.IBatchMutation;
+import mod.chiselsandbits.api.multistate.mutator.callback.BitMutator;
 import mod.chiselsandbits.api.multistate.mutator.callback.StateClearer;
 import mod.chiselsandbits.api.multistate.mutator.callback.StateSetter;
 import mod.chiselsandbits.api.multistate.mutator.world.IInWorldMutableStateEntryInfo;
@@ -26,13 +25,26 @@ import mod.chiselsandbits.api.multistate.snapshot.IMultiStateSnapshot;
 import mod.chiselsandbits.api.multistate.statistics.IMultiStateObjectStatistics;
 import mod.chiselsandbits.api.util.*;
 import mod.chiselsandbits.api.util.constants.NbtConstants;
+import mod.chiselsandbits.block.entities.dirty.DirtyBlockEntityQueue;
 import mod.chiselsandbits.client.model.data.ChiseledBlockModelDataManager;
 import mod.chiselsandbits.legacy.LegacyLoadManager;
-import mod.chiselsandbits.network.packets.TileEntityUpdatedPacket;
+import mod.chiselsandbits.network.packets.ChunkChiseledBlocksPacket;
+import mod.chiselsandbits.network.scheduling.ChiseledBlockSyncState;
+import mod.chiselsandbits.network.scheduling.ChiseledBlockSyncUpdate;
+import mod.chiselsandbits.network.scheduling.ChiseledBlockSyncer;
+import mod.chiselsandbits.network.scheduling.ChiseledUpdateScheduler;
+import mod.chiselsandbits.network.scheduling.ChunkPayloadScheduler;
 import mod.chiselsandbits.registrars.ModTileEntityTypes;
+import mod.chiselsandbits.multistate.snapshot.LazilyDecodingSingleBlockMultiStateSnapshot;
+import mod.chiselsandbits.storage.LazilyDecodedStorageData;
+import mod.chiselsandbits.storage.PackedStateStorage;
+import mod.chiselsandbits.storage.SharedPaletteCodec;
+import mod.chiselsandbits.storage.StateChangeBuffer;
+import mod.chiselsandbits.storage.StateDeltaCodec;
+import mod.chiselsandbits.storage.StorageNbtCache;
+import mod.chiselsandbits.utils.BlockStatePropertyTable;
 import mod.chiselsandbits.utils.ChunkSectionUtils;
 import mod.chiselsandbits.utils.CompressionUtils;
-import mod.chiselsandbits.utils.MultiStateSnapshotUtils;
 import net.minecraft.block.Block;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.Blocks;
@@ -47,7 +59,10 @@ import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.Direction;
 import net.minecraft.util.Mirror;
 import net.minecraft.util.Rotation;
+import net.minecraft.util.concurrent.ThreadTaskExecutor;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.shapes.VoxelShape;
 import net.minecraft.util.math.vector.Vector3d;
 import net.minecraft.util.math.vector.Vector3i;
 import net.minecraft.world.IWorld;
@@ -57,13 +72,16 @@ import net.minecraftforge.client.model.data.IModelData;
 import net.minecraftforge.client.model.data.ModelDataMap;
 import net.minecraftforge.common.util.Constants;
 import net.minecraftforge.common.util.INBTSerializable;
+import net.minecraftforge.fml.LogicalSide;
+import net.minecraftforge.fml.LogicalSidedProvider;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
 import java.util.zip.DataFormatException;
@@ -75,21 +93,64 @@ public class ChiseledBlockEntity extends TileEntity implements IMultiStateBlockE
 
     public static final float ONE_THOUSANDS       = 1 / 1000f;
     private final MutableStatistics mutableStatistics;
-    private final Map<UUID, IBatchMutation> batchMutations = Maps.newConcurrentMap();
-    private       ChunkSection      compressedSection;
+    private       int                openBatchMutations = 0;
+    private       PackedStateStorage storage;
+    private final StateChangeBuffer  pendingChanges;
+    private final ChiseledBlockSyncState syncState;
+    private final ChiseledBlockSyncer    syncer;
+    private final StorageNbtCache    savedDataCache     = new StorageNbtCache();
+    //The loaded block entity data, until the storage is decoded from it on the first access of a bit.
+    private final LazilyDecodedStorageData undecodedData = new LazilyDecodedStorageData();
     private IModelData modelData = new ModelDataMap.Builder().build();
+    private volatile ShapeMemo shapeMemo = null;
 
     public ChiseledBlockEntity()
     {
         super(ModTileEntityTypes.CHISELED.get());
-        compressedSection = new ChunkSection(0); //We always use a minimal y level to lookup. Makes calculations internally easier.
+        storage = new PackedStateStorage(StateEntrySize.current().getBitsPerBlockSide(), Blocks.AIR.defaultBlockState());
+        pendingChanges = new StateChangeBuffer(storage.getSize());
+        syncState = new ChiseledBlockSyncState(storage.getSize());
+        syncer = new ChiseledBlockSyncer(new SyncedBlock(), syncState, DirtyBlockEntityQueue.getInstance());
         mutableStatistics = new MutableStatistics(this::getLevel, this::getBlockPos);
     }
 
+    /**
+     * Gets one of the shapes of this block, which is only calculated again once the contents of this block changed.
+     * The contents are identified by the storage instance and its version, which changes with every modification.
+     *
+     * @param type The type of the shape.
+     * @param calculator Calculates the shape when it is not known for the current contents.
+     * @return The shape.
+     */
+    public VoxelShape getShape(final ShapeType type, final Function<? super ChiseledBlockEntity, VoxelShape> calculator)
+    {
+        applyPendingChanges();
+        final PackedStateStorage currentStorage = getStorage();
+        final int version = currentStorage.getVersion();
+
+        ShapeMemo memo = this.shapeMemo;
+        if (memo == null || memo.storage != currentStorage || memo.version != version)
+        {
+            memo = new ShapeMemo(currentStorage, version);
+            this.shapeMemo = memo;
+        }
+
+        final VoxelShape knownShape = memo.shapes.get(type.ordinal());
+        if (knownShape != null)
+        {
+            return knownShape;
+        }
+
+        final VoxelShape shape = calculator.apply(this);
+        memo.shapes.set(type.ordinal(), shape);
+        return shape;
+    }
+
     @Override
     public IAreaShapeIdentifier createNewShapeIdentifier()
     {
-        return new Identifier(this.compressedSection);
+        applyPendingChanges();
+        return getStorage().createShapeIdentifier();
     }
 
     @Override
@@ -97,7 +158,7 @@ public class ChiseledBlockEntity extends TileEntity implements IMultiStateBlockE
     {
         return BlockPosStreamProvider.getForRange(StateEntrySize.current().getBitsPerBlockSide())
                  .map(blockPos -> new StateEntry(
-                   compressedSection.getBlockState(
+                   getBlockStateAt(
                      blockPos.getX(),
                      blockPos.getY(),
                      blockPos.getZ()
@@ -110,6 +171,23 @@ public class ChiseledBlockEntity extends TileEntity implements IMultiStateBlockE
                  );
     }
 
+    @Override
+    public void forEachBit(final BitVisitor visitor)
+    {
+        applyPendingChanges();
+        getStorage().forEachBit(visitor);
+    }
+
+    @Override
+    public void forEachMatchingBit(final StateEntryFilter filter, final BitVisitor visitor)
+    {
+        if (!filter.isStateBased())
+            throw new IllegalArgumentException("The filter: " + filter.getName() + " is not state based.");
+
+        applyPendingChanges();
+        getStorage().forEachMatchingBit(filter::testStateId, visitor);
+    }
+
     /**
      * Indicates if the given target is inside of the current accessor.
      *
@@ -142,7 +220,7 @@ public class ChiseledBlockEntity extends TileEntity implements IMultiStateBlockE
 
         final BlockPos inAreaPos = new BlockPos(inAreaTarget.multiply(StateEntrySize.current().getBitsPerBlockSide(), StateEntrySize.current().getBitsPerBlockSide(), StateEntrySize.current().getBitsPerBlockSide()));
 
-        final BlockState currentState = this.compressedSection.getBlockState(
+        final BlockState currentState = getBlockStateAt(
           inAreaPos.getX(),
           inAreaPos.getY(),
           inAreaPos.getZ()
@@ -193,7 +271,7 @@ public class ChiseledBlockEntity extends TileEntity implements IMultiStateBlockE
     @Override
     public IMultiStateSnapshot createSnapshot()
     {
-        return MultiStateSnapshotUtils.createFromSection(this.compressedSection);
+        return new LazilyDecodingSingleBlockMultiStateSnapshot(createEffectiveStorage());
     }
 
     @SuppressWarnings("ConstantConditions")
@@ -213,27 +291,22 @@ public class ChiseledBlockEntity extends TileEntity implements IMultiStateBlockE
             final ChunkSection legacyDataSection = LegacyLoadManager.getInstance().attemptLegacyBlockEntityLoad(nbt);
             if (ChunkSection.isEmpty(legacyDataSection)) {
                 //We will fail to load, so lets reset all data.
-                for (int x = 0; x < StateEntrySize.current().getBitsPerBlockSide(); x++)
-                {
-                    for (int y = 0; y < StateEntrySize.current().getBitsPerBlockSide(); y++)
-                    {
-                        for (int z = 0; z < StateEntrySize.current().getBitsPerBlockSide(); z++)
-                        {
-                            this.compressedSection.setBlockState(x, y, z, Blocks.AIR.defaultBlockState(), false);
-                        }
-                    }
-                }
-                this.mutableStatistics.recalculate(this.compressedSection, false);
+                this.pendingChanges.clear();
+                this.syncState.requireFullSync();
+                this.undecodedData.clear();
+                getStorage().fill(Blocks.AIR.defaultBlockState());
+                this.mutableStatistics.recalculate(getStorage(), false);
                 return true;
             }
 
             //Update a temporary instance of the statistics to make this work.
+            final PackedStateStorage legacyStorage = ChunkSectionUtils.toStorage(legacyDataSection);
             final MutableStatistics legacyStatistics = new MutableStatistics(this::getLevel, this::getBlockPos);
-            legacyStatistics.recalculate(legacyDataSection, false);
+            legacyStatistics.recalculate(legacyStorage, false);
 
             //Now write all data into our nbt structure.
             final CompoundNBT chiselBlockData = new CompoundNBT();
-            final CompoundNBT compressedSectionData = ChunkSectionUtils.serializeNBT(legacyDataSection);
+            final CompoundNBT compressedSectionData = ChunkSectionUtils.serializeNBT(legacyStorage);
             chiselBlockData.put(NbtConstants.COMPRESSED_STORAGE, compressedSectionData);
             chiselBlockData.put(NbtConstants.STATISTICS, legacyStatistics.serializeNBT());
 
@@ -242,14 +315,15 @@ public class ChiseledBlockEntity extends TileEntity implements IMultiStateBlockE
         }
 
         final CompoundNBT chiselBlockData = nbt.getCompound(NbtConstants.CHISEL_BLOCK_ENTITY_DATA);
-        final CompoundNBT compressedSectionData = chiselBlockData.getCompound(NbtConstants.COMPRESSED_STORAGE);
         final CompoundNBT statisticsData = chiselBlockData.getCompound(NbtConstants.STATISTICS);
 
-        ChunkSectionUtils.deserializeNBT(
-          this.compressedSection,
-          compressedSectionData
-        );
+        this.pendingChanges.clear();
+        this.syncState.requireFullSync();
+        //The statistics are loaded separately, so do not rely on the storage version alone here.
+        this.savedDataCache.invalidate();
 
+        //The statistics answer everything the world asks for, the storage is only decoded once a bit is accessed.
+        this.undecodedData.set(chiselBlockData.copy());
         mutableStatistics.deserializeNBT(statisticsData);
         return false;
     }
@@ -281,80 +355,185 @@ public class ChiseledBlockEntity extends TileEntity implements IMultiStateBlockE
     @Override
     public void handleUpdateTag(final BlockState state, final CompoundNBT tag)
     {
-        byte[] compressedStorageData = tag.getByteArray(NbtConstants.CHISEL_BLOCK_ENTITY_DATA);
+        if (!tag.contains(NbtConstants.CHISEL_BLOCK_ENTITY_DATA))
+        {
+            //Sent with the chunk data, the bits follow in the chunk payload.
+            return;
+        }
+
+        decodeUpdateTag(tag).ifPresent(this::applyDecodedUpdate);
+    }
+
+    /**
+     * Decodes the storage and statistics of an update tag without touching any block entity,
+     * so that the inflating and reading of the bits can happen off the main thread.
+     *
+     * @param tag The update tag, as created by {@link #getFullUpdateTag()}.
+     * @return The decoded update, or empty when the tag could not be decoded.
+     */
+    public static Optional<DecodedUpdate> decodeUpdateTag(final CompoundNBT tag)
+    {
+        final byte[] storageData = tag.getByteArray(NbtConstants.CHISEL_BLOCK_ENTITY_DATA);
 
+        final ByteBuf buffer;
         if (tag.contains(NbtConstants.DATA_IS_COMPRESSED) && tag.getBoolean(NbtConstants.DATA_IS_COMPRESSED)) {
             try
             {
-                compressedStorageData = CompressionUtils.decompress(compressedStorageData);
+                buffer = CompressionUtils.NETWORK.decompress(storageData);
             }
-            catch (IOException | DataFormatException e)
+            catch (DataFormatException e)
             {
                 LOGGER.error("Failed to update the block entity data on a chiseled block!", e);
-                return;
+                return Optional.empty();
             }
         }
+        else
+        {
+            buffer = Unpooled.wrappedBuffer(storageData);
+        }
 
-        final ByteBuf buffer = Unpooled.wrappedBuffer(compressedStorageData);
-        this.deserializeFrom(new PacketBuffer(buffer));
+        final DecodedUpdate update = new DecodedUpdate(tag.getInt(NbtConstants.SYNC_VERSION));
+        final PacketBuffer packetBuffer = new PacketBuffer(buffer);
+        update.storage.deserializeFrom(packetBuffer);
+        update.statistics.deserializeFrom(packetBuffer);
         buffer.release();
+
+        return Optional.of(update);
+    }
+
+    /**
+     * Replaces the contents of this block entity with the given decoded update.
+     * The storage of the update is taken over, so an update can only be applied once.
+     *
+     * @param update The update to apply.
+     */
+    public void applyDecodedUpdate(final DecodedUpdate update)
+    {
+        this.pendingChanges.clear();
+        this.syncState.requireFullSync();
+        this.savedDataCache.invalidate();
+        this.undecodedData.clear();
+        this.storage = update.storage;
+        this.mutableStatistics.copyFrom(update.statistics);
+        this.syncState.syncedTo(update.syncVersion);
+        ChiseledBlockModelDataManager.getInstance().updateModelData(this);
     }
 
     @NotNull
     @Override
     public CompoundNBT save(@NotNull final CompoundNBT compound)
     {
-        final CompoundNBT nbt = super.save(compound);
-        final CompoundNBT chiselBlockData = new CompoundNBT();
-        final CompoundNBT compressedSectionData = ChunkSectionUtils.serializeNBTCompressed(this.compressedSection);
-        chiselBlockData.put(NbtConstants.COMPRESSED_STORAGE, compressedSectionData);
-        chiselBlockData.put(NbtConstants.STATISTICS, mutableStatistics.serializeNBT());
+        applyPendingChanges();
 
-        nbt.put(NbtConstants.CHISEL_BLOCK_ENTITY_DATA, chiselBlockData);
+        final CompoundNBT nbt = super.save(compound);
+        //Blocks whose bits were not accessed since they were loaded write the loaded data back, without decoding it.
+        //The statistics only change together with the storage, so both are reused until the storage is modified.
+        nbt.put(NbtConstants.CHISEL_BLOCK_ENTITY_DATA, this.undecodedData.save(() -> savedDataCache.getOrWrite(getStorage(), () -> {
+            final CompoundNBT chiselBlockData = new CompoundNBT();
+            //The region file is compressed already, compressing the storage on its own as well only costs time.
+            final CompoundNBT compactSectionData = ChunkSectionUtils.serializeNBTCompact(getStorage());
+            chiselBlockData.put(NbtConstants.COMPRESSED_STORAGE, compactSectionData);
+            chiselBlockData.put(NbtConstants.STATISTICS, mutableStatistics.serializeNBT());
+            return chiselBlockData;
+        })));
 
         return nbt;
     }
 
     /**
      * For tile entities, ensures the chunk containing the tile entity is saved to disk later - the game won't think it hasn't changed and skip it.
+     * On the server the changes are queued and propagated once at the end of the tick, regardless of how many bits got modified.
      */
     @Override
     public void setChanged()
     {
-        if (getLevel() != null && this.batchMutations.isEmpty())
+        if (getLevel() != null && this.openBatchMutations == 0)
         {
-            mutableStatistics.recalculate(this.compressedSection, true);
+            this.syncer.markChanged();
+        }
+    }
 
-            super.setChanged();
+    /**
+     * Estimates the amount of bytes a full snapshot of this block entity takes up on the wire, without creating it.
+     *
+     * @return The estimated size in bytes.
+     */
+    public int getEstimatedSnapshotSize()
+    {
+        applyPendingChanges();
+        return getStorage().getEstimatedSerializedSize() + 64;
+    }
 
-            getLevel().getLightEngine().checkBlock(getBlockPos());
-            getLevel().sendBlockUpdated(getBlockPos(), Blocks.AIR.defaultBlockState(), getBlockState(), Constants.BlockFlags.DEFAULT);
+    /**
+     * Applies a delta received from the server.
+     *
+     * @param baseVersion The sync version the delta was created against.
+     * @param newVersion The sync version after the delta has been applied.
+     * @param delta The encoded delta.
+     * @return True when the delta was applied, false when this block entity is out of sync and needs a full snapshot.
+     */
+    public boolean applySyncDelta(final int baseVersion, final int newVersion, final byte[] delta)
+    {
+        if (baseVersion != this.syncState.getSyncVersion())
+        {
+            return false;
+        }
 
-            if (!getLevel().isClientSide())
-            {
-                ChiselsAndBits.getInstance().getNetworkChannel().sendToTrackingChunk(
-                  new TileEntityUpdatedPacket(this),
-                  getLevel().getChunkAt(getBlockPos())
-                );
-                getLevel().updateNeighborsAt(getBlockPos(), getLevel().getBlockState(getBlockPos()).getBlock());
-            }
+        final ByteBuf buffer = Unpooled.wrappedBuffer(delta);
+        try
+        {
+            applyPendingChanges();
+            StateDeltaCodec.read(new PacketBuffer(buffer), this.pendingChanges);
+        }
+        catch (RuntimeException e)
+        {
+            LOGGER.warn("Failed to read a chiseled block delta, requesting a full update.", e);
+            this.pendingChanges.clear();
+            return false;
+        }
+        finally
+        {
+            buffer.release();
         }
+
+        applyPendingChanges();
+        this.syncState.syncedTo(newVersion);
+        ChiseledBlockModelDataManager.getInstance().updateModelData(this);
+        return true;
     }
 
     private boolean shouldUpdateWorld() {
-        return this.getLevel() != null && this.batchMutations.size() == 0 && this.getLevel() instanceof ServerWorld;
+        return this.getLevel() != null && this.openBatchMutations == 0 && this.getLevel() instanceof ServerWorld;
     }
 
     @Nullable
     @Override
     public SUpdateTileEntityPacket getUpdatePacket()
     {
-        return new SUpdateTileEntityPacket(worldPosition, 255, getUpdateTag());
+        return new SUpdateTileEntityPacket(worldPosition, 255, getFullUpdateTag());
     }
 
+    /**
+     * The tag which is sent with the chunk data. It does not contain the bits, those are sent for all chiseled blocks
+     * of the chunk at once by a {@link ChunkChiseledBlocksPacket} after the chunk data, see {@link ChunkPayloadScheduler}.
+     */
     @NotNull
     @Override
     public CompoundNBT getUpdateTag()
+    {
+        if (getLevel() instanceof ServerWorld)
+        {
+            ChunkPayloadScheduler.getInstance().markChunkDataSent((ServerWorld) getLevel(), new ChunkPos(getBlockPos()));
+        }
+
+        return super.getUpdateTag();
+    }
+
+    /**
+     * The tag which brings a single client side block entity fully up to date.
+     */
+    @NotNull
+    public CompoundNBT getFullUpdateTag()
     {
         //Special compound version which just contains the bit array!
         final CompoundNBT updateTag = super.getUpdateTag();
@@ -362,36 +541,63 @@ public class ChiseledBlockEntity extends TileEntity implements IMultiStateBlockE
         final ByteBuf buffer = Unpooled.buffer();
         final PacketBuffer innerPacketBuffer = new PacketBuffer(buffer);
         this.serializeInto(innerPacketBuffer);
-        final byte[] data = buffer.array();
+        //Only the readable bytes are compressed, the unused capacity of the buffer is not part of the data.
+        final byte[] compressedData = CompressionUtils.NETWORK.compress(buffer);
         buffer.release();
 
-        try
-        {
-            final byte[] compressedData = CompressionUtils.compress(data);
-            updateTag.putBoolean(NbtConstants.DATA_IS_COMPRESSED, true);
-            updateTag.putByteArray(NbtConstants.CHISEL_BLOCK_ENTITY_DATA, compressedData);
-        }
-        catch (IOException e)
-        {
-            LOGGER.warn("Failed to compress network data.", e);
-            updateTag.putBoolean(NbtConstants.DATA_IS_COMPRESSED, false);
-            updateTag.putByteArray(NbtConstants.CHISEL_BLOCK_ENTITY_DATA, data);
-        }
+        updateTag.putBoolean(NbtConstants.DATA_IS_COMPRESSED, true);
+        updateTag.putByteArray(NbtConstants.CHISEL_BLOCK_ENTITY_DATA, compressedData);
 
+        updateTag.putInt(NbtConstants.SYNC_VERSION, this.syncState.getSyncVersion());
         return updateTag;
     }
 
+    /**
+     * Writes this block entity as an entry of a chunk payload, with its storage referencing the shared palette of the writer.
+     *
+     * @param writer The writer of the chunk payload.
+     * @param packetBuffer The buffer to write to.
+     */
+    public void writeChunkPayloadEntry(final SharedPaletteCodec.Writer writer, final PacketBuffer packetBuffer)
+    {
+        applyPendingChanges();
+        packetBuffer.writeVarInt(this.syncState.getSyncVersion());
+        writer.writeStorage(getStorage(), packetBuffer);
+        mutableStatistics.serializeInto(packetBuffer);
+    }
+
+    /**
+     * Reads an entry written by {@link #writeChunkPayloadEntry(SharedPaletteCodec.Writer, PacketBuffer)} without touching any block entity.
+     *
+     * @param reader The reader of the chunk payload.
+     * @param packetBuffer The buffer to read from.
+     * @return The decoded update.
+     * @throws IllegalArgumentException When the entry is malformed.
+     */
+    public static DecodedUpdate readChunkPayloadEntry(final SharedPaletteCodec.Reader reader, final PacketBuffer packetBuffer)
+    {
+        final DecodedUpdate update = new DecodedUpdate(packetBuffer.readVarInt());
+        reader.readStorage(update.storage, packetBuffer);
+        update.statistics.deserializeFrom(packetBuffer);
+        return update;
+    }
+
     @Override
     public void serializeInto(@NotNull final PacketBuffer packetBuffer)
     {
-        compressedSection.write(packetBuffer);
+        applyPendingChanges();
+        getStorage().serializeInto(packetBuffer);
         mutableStatistics.serializeInto(packetBuffer);
     }
 
     @Override
     public void deserializeFrom(@NotNull final PacketBuffer packetBuffer)
     {
-        compressedSection.read(packetBuffer);
+        this.pendingChanges.clear();
+        this.syncState.requireFullSync();
+        this.savedDataCache.invalidate();
+        this.undecodedData.clear();
+        getStorage().deserializeFrom(packetBuffer);
         mutableStatistics.deserializeFrom(packetBuffer);
         ChiseledBlockModelDataManager.getInstance().updateModelData(this);
     }
@@ -406,7 +612,7 @@ public class ChiseledBlockEntity extends TileEntity implements IMultiStateBlockE
     {
         return BlockPosStreamProvider.getForRange(StateEntrySize.current().getBitsPerBlockSide())
                  .map(blockPos -> new StateEntry(
-                   compressedSection.getBlockState(blockPos.getX(), blockPos.getY(), blockPos.getZ()),
+                   getBlockStateAt(blockPos.getX(), blockPos.getY(), blockPos.getZ()),
                    getLevel(),
                    getBlockPos(),
                    blockPos,
@@ -415,6 +621,35 @@ public class ChiseledBlockEntity extends TileEntity implements IMultiStateBlockE
                  );
     }
 
+    @Override
+    public void mutateEachBit(final BitMutator mutator)
+    {
+        if (getLevel() == null)
+        {
+            return;
+        }
+
+        //Collect all changes into a single update.
+        try(final IBatchMutation ignored = batch()) {
+            final int bitsPerBlockSide = getStorage().getSide();
+            for (int x = 0; x < bitsPerBlockSide; x++)
+            {
+                for (int y = 0; y < bitsPerBlockSide; y++)
+                {
+                    for (int z = 0; z < bitsPerBlockSide; z++)
+                    {
+                        final BlockState currentState = getBlockStateAt(x, y, z);
+                        final BlockState newState = mutator.mutate(x, y, z, currentState);
+                        if (newState != currentState)
+                        {
+                            setBlockStateAt(x, y, z, currentState, newState);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
     @SuppressWarnings("deprecation")
     @Override
     public void setInAreaTarget(final BlockState blockState, final Vector3d inAreaTarget) throws SpaceOccupiedException
@@ -431,7 +666,7 @@ public class ChiseledBlockEntity extends TileEntity implements IMultiStateBlockE
 
         final BlockPos inAreaPos = new BlockPos(inAreaTarget.multiply(StateEntrySize.current().getBitsPerBlockSide(), StateEntrySize.current().getBitsPerBlockSide(), StateEntrySize.current().getBitsPerBlockSide()));
 
-        final BlockState currentState = this.compressedSection.getBlockState(
+        final BlockState currentState = getBlockStateAt(
           inAreaPos.getX(),
           inAreaPos.getY(),
           inAreaPos.getZ()
@@ -451,31 +686,133 @@ public class ChiseledBlockEntity extends TileEntity implements IMultiStateBlockE
             return;
         }
 
-        this.compressedSection.setBlockState(
+        setBlockStateAt(
           inAreaPos.getX(),
           inAreaPos.getY(),
           inAreaPos.getZ(),
-          blockState,
-          true
+          currentState,
+          blockState
         );
 
-        if (blockState.isAir() && !currentState.isAir())
+        if (getLevel() != null)
+        {
+            setChanged();
+        }
+    }
+
+    /**
+     * Reads the state of the given bit, taking the pending changes of the open batch mutations into account on the owning thread.
+     */
+    private BlockState getBlockStateAt(final int x, final int y, final int z)
+    {
+        final int index = getStorage().getIndex(x, y, z);
+        if (this.pendingChanges.isEmpty() || !isOnOwningThread())
         {
-            mutableStatistics.onBlockStateRemoved(currentState, inAreaPos, shouldUpdateWorld());
+            return getStorage().getBlockState(index);
         }
-        else if (!blockState.isAir() && currentState.isAir())
+
+        return IBlockStateIdManager.getInstance().getBlockStateFrom(
+          this.pendingChanges.getStateId(index, getStorage().getStateId(index))
+        );
+    }
+
+    /**
+     * Writes the state of the given bit.
+     * While a batch mutation is open the change is only buffered, and written together with all other changes when the last batch closes.
+     */
+    private void setBlockStateAt(final int x, final int y, final int z, final BlockState currentState, final BlockState blockState)
+    {
+        if (this.openBatchMutations > 0)
         {
-            mutableStatistics.onBlockStateAdded(blockState, inAreaPos, shouldUpdateWorld());
+            this.pendingChanges.put(getStorage().getIndex(x, y, z), IBlockStateIdManager.getInstance().getIdFrom(blockState));
+            return;
         }
-        else if (!blockState.isAir() && !currentState.isAir())
+
+        getStorage().setBlockState(x, y, z, blockState);
+        this.syncState.markChanged(getStorage().getIndex(x, y, z));
+        mutableStatistics.onBlockStateChanged(currentState, blockState, x, y, z, shouldUpdateWorld());
+    }
+
+    /**
+     * Writes all pending changes into the storage in a single sweep, and updates the statistics from them.
+     * The world itself is updated when the changes are flushed.
+     * <p>
+     * Only the thread which owns this block entity touches the pending changes. Other threads, like the model builders and the renderer,
+     * leave them alone and read the storage as it was before the open batch mutations, whose changes trigger a rebuild once they are applied.
+     */
+    private void applyPendingChanges()
+    {
+        if (this.pendingChanges.isEmpty() || !isOnOwningThread())
         {
-            mutableStatistics.onBlockStateReplaced(currentState, blockState, inAreaPos, shouldUpdateWorld());
+            return;
         }
 
-        if (getLevel() != null)
+        final int side = getStorage().getSide();
+        for (int position = 0; position < this.pendingChanges.size(); position++)
         {
-            setChanged();
+            final int index = this.pendingChanges.getIndexAt(position);
+            final int newStateId = this.pendingChanges.getStateIdAt(position);
+            final int currentStateId = getStorage().setStateId(index, newStateId);
+            if (currentStateId != newStateId)
+            {
+                this.syncState.markChanged(index);
+                mutableStatistics.onBlockStateChanged(
+                  IBlockStateIdManager.getInstance().getBlockStateFrom(currentStateId),
+                  IBlockStateIdManager.getInstance().getBlockStateFrom(newStateId),
+                  index % side,
+                  index / (side * side),
+                  (index / side) % side,
+                  false
+                );
+            }
+        }
+
+        this.pendingChanges.clear();
+    }
+
+    /**
+     * Indicates if the current thread is the main thread of the side this block entity lives on.
+     * Block entities without a level are only used by whoever created them.
+     */
+    private boolean isOnOwningThread()
+    {
+        if (getLevel() == null)
+        {
+            return true;
+        }
+
+        final ThreadTaskExecutor<?> workQueue = LogicalSidedProvider.WORKQUEUE.get(getLevel().isClientSide() ? LogicalSide.CLIENT : LogicalSide.SERVER);
+        return workQueue == null || workQueue.isSameThread();
+    }
+
+    /**
+     * Returns the storage, decoding it from the loaded data first when this is the first access since the block entity was loaded.
+     * Chunks which are loaded without any of their bits being accessed, for example for ticking tickets, never decode their storages.
+     */
+    private PackedStateStorage getStorage()
+    {
+        if (this.undecodedData.isPending())
+        {
+            this.undecodedData.decodeInto(
+              this.storage,
+              (target, data) -> ChunkSectionUtils.deserializeNBT(target, data.getCompound(NbtConstants.COMPRESSED_STORAGE))
+            );
+        }
+
+        return this.storage;
+    }
+
+    /**
+     * Creates a copy of the storage with all pending changes applied to it, or without them when called off the owning thread.
+     */
+    private PackedStateStorage createEffectiveStorage()
+    {
+        final PackedStateStorage effectiveStorage = getStorage().copy();
+        if (isOnOwningThread())
+        {
+            this.pendingChanges.applyTo(effectiveStorage);
         }
+        return effectiveStorage;
     }
 
     @Override
@@ -533,7 +870,7 @@ public class ChiseledBlockEntity extends TileEntity implements IMultiStateBlockE
             return;
         }
 
-        final BlockState currentState = this.compressedSection.getBlockState(
+        final BlockState currentState = getBlockStateAt(
           inAreaPos.getX(),
           inAreaPos.getY(),
           inAreaPos.getZ()
@@ -546,27 +883,14 @@ public class ChiseledBlockEntity extends TileEntity implements IMultiStateBlockE
 
         final BlockState blockState = Blocks.AIR.defaultBlockState();
 
-        this.compressedSection.setBlockState(
+        setBlockStateAt(
           inAreaPos.getX(),
           inAreaPos.getY(),
           inAreaPos.getZ(),
-          blockState,
-          true
+          currentState,
+          blockState
         );
 
-        if (blockState.isAir() && !currentState.isAir())
-        {
-            mutableStatistics.onBlockStateRemoved(currentState, inAreaPos, shouldUpdateWorld());
-        }
-        else if (!blockState.isAir() && currentState.isAir())
-        {
-            mutableStatistics.onBlockStateAdded(blockState, inAreaPos, shouldUpdateWorld());
-        }
-        else if (!blockState.isAir() && !currentState.isAir())
-        {
-            mutableStatistics.onBlockStateReplaced(currentState, blockState, inAreaPos, shouldUpdateWorld());
-        }
-
         if (getLevel() != null)
         {
             setChanged();
@@ -608,19 +932,15 @@ public class ChiseledBlockEntity extends TileEntity implements IMultiStateBlockE
 
         //Large operation, better batch this together to prevent weird updates.
         try(final IBatchMutation ignored = batch()) {
-            this.compressedSection = ChunkSectionUtils.rotate90Degrees(
-              this.compressedSection,
+            applyPendingChanges();
+            this.syncState.requireFullSync();
+            this.storage = ChunkSectionUtils.rotate90Degrees(
+              getStorage(),
               axis,
               rotationCount
             );
-            this.mutableStatistics.clear();
-
-            BlockPosStreamProvider.getForRange(StateEntrySize.current().getBitsPerBlockSide())
-              .forEach(position -> this.mutableStatistics.onBlockStateAdded(
-                this.compressedSection.getBlockState(position.getX(), position.getY(), position.getZ()),
-                position,
-                shouldUpdateWorld()
-              ));
+            //Moving bits around does not change their counts, only the statistics which depend on positions.
+            this.mutableStatistics.recalculatePositions(getStorage());
         }
     }
 
@@ -669,18 +989,14 @@ public class ChiseledBlockEntity extends TileEntity implements IMultiStateBlockE
 
         //Large operation, better batch this together to prevent weird updates.
         try(final IBatchMutation ignored = batch()) {
-            this.compressedSection = ChunkSectionUtils.mirror(
-              this.compressedSection,
+            applyPendingChanges();
+            this.syncState.requireFullSync();
+            this.storage = ChunkSectionUtils.mirror(
+              getStorage(),
               axis
             );
-            this.mutableStatistics.clear();
-
-            BlockPosStreamProvider.getForRange(StateEntrySize.current().getBitsPerBlockSide())
-              .forEach(position -> this.mutableStatistics.onBlockStateAdded(
-                this.compressedSection.getBlockState(position.getX(), position.getY(), position.getZ()),
-                position,
-                shouldUpdateWorld()
-              ));
+            //Moving bits around does not change their counts, only the statistics which depend on positions.
+            this.mutableStatistics.recalculatePositions(getStorage());
         }
     }
 
@@ -698,13 +1014,11 @@ public class ChiseledBlockEntity extends TileEntity implements IMultiStateBlockE
         }
 
         try(IBatchMutation batchMutation = batch()) {
-            BlockPosStreamProvider.getForRange(StateEntrySize.current().getBitsPerBlockSide())
-              .forEach(blockPos -> this.compressedSection.setBlockState(
-                blockPos.getX(),
-                blockPos.getY(),
-                blockPos.getZ(),
-                currentState
-              ));
+            //Filling overrides every bit, so there is no point in applying the pending changes first.
+            this.pendingChanges.clear();
+            this.syncState.requireFullSync();
+            this.undecodedData.clear();
+            getStorage().fill(currentState);
 
             this.mutableStatistics.initializeWith(currentState);
         }
@@ -720,7 +1034,7 @@ public class ChiseledBlockEntity extends TileEntity implements IMultiStateBlockE
     {
         return BlockPosStreamProvider.getForRange(StateEntrySize.current().getBitsPerBlockSide())
                  .map(blockPos -> new StateEntry(
-                   compressedSection.getBlockState(blockPos.getX(), blockPos.getY(), blockPos.getZ()),
+                   getBlockStateAt(blockPos.getX(), blockPos.getY(), blockPos.getZ()),
                    getLevel(),
                    getBlockPos(),
                    blockPos,
@@ -736,7 +1050,7 @@ public class ChiseledBlockEntity extends TileEntity implements IMultiStateBlockE
                  .map(blockPos -> {
                      final Vector3i pos = positionMutator.mutate(blockPos);
                        return new StateEntry(
-                         compressedSection.getBlockState(pos.getX(), pos.getY(), pos.getZ()),
+                         getBlockStateAt(pos.getX(), pos.getY(), pos.getZ()),
                          getLevel(),
                          getBlockPos(),
                          pos,
@@ -749,29 +1063,29 @@ public class ChiseledBlockEntity extends TileEntity implements IMultiStateBlockE
     @Override
     public IBatchMutation batch()
     {
-        final UUID id = UUID.randomUUID();
-
-        this.batchMutations.put(id, new BatchMutationLock(() -> {
-            this.batchMutations.remove(id);
+        this.openBatchMutations++;
+        return new BatchMutationLock(() -> {
+            this.openBatchMutations--;
 
-            if (this.batchMutations.isEmpty())
+            if (this.openBatchMutations == 0)
             {
+                applyPendingChanges();
                 setChanged();
             }
-        }));
-        return this.batchMutations.get(id);
+        });
     }
 
     @Override
     public IBatchMutation batch(final IChangeTracker changeTracker)
     {
         final IBatchMutation innerMutation = batch();
-        final IMultiStateSnapshot before = this.createSnapshot();
-        return () -> {
-            final IMultiStateSnapshot after = this.createSnapshot();
+        //Both snapshots are plain copies of the storage with the pending changes applied, no full serialization is needed.
+        final IMultiStateSnapshot before = new LazilyDecodingSingleBlockMultiStateSnapshot(createEffectiveStorage());
+        return new BatchMutationLock(() -> {
+            final IMultiStateSnapshot after = new LazilyDecodingSingleBlockMultiStateSnapshot(createEffectiveStorage());
             innerMutation.close();
             changeTracker.onBlockUpdated(getBlockPos(), before, after);
-        };
+        });
     }
 
     public void setModelData(final IModelData modelData)
@@ -889,8 +1203,18 @@ public class ChiseledBlockEntity extends TileEntity implements IMultiStateBlockE
 
         private final Supplier<IWorld>   worldReaderSupplier;
         private final Supplier<BlockPos> positionSupplier;
-        private final Map<BlockState, Integer> countMap     = Maps.newConcurrentMap();
-        private final Multimap<Vector2i, Integer> columnBlockedMap = HashMultimap.create();
+
+        //Palette of all non-air states which were seen since the last clear, slots are not freed when their count drops to zero.
+        private final Reference2IntOpenHashMap<BlockState> slotsByState = new Reference2IntOpenHashMap<>();
+        private       BlockState[]                         slotStates   = new BlockState[4];
+        private       int[]                                slotCounts   = new int[4];
+        private       int                                  slotCount    = 0;
+        private       int                                  primarySlot  = -1;
+
+        //One mask per x-z column, bit y is set when the bit at that height blocks skylight.
+        private final long[] columnBlockedMasks;
+        private       int    blockedColumnCount = 0;
+
         private       BlockState               primaryState = Blocks.AIR.defaultBlockState();
         private int   totalUsedBlockCount           = 0;
         private int   totalUsedChecksWeakPowerCount = 0;
@@ -901,6 +1225,8 @@ public class ChiseledBlockEntity extends TileEntity implements IMultiStateBlockE
         {
             this.worldReaderSupplier = worldReaderSupplier;
             this.positionSupplier = positionSupplier;
+            this.slotsByState.defaultReturnValue(-1);
+            this.columnBlockedMasks = new long[StateEntrySize.current().getBitsPerLayer()];
         }
 
         @Override
@@ -912,13 +1238,27 @@ public class ChiseledBlockEntity extends TileEntity implements IMultiStateBlockE
         @Override
         public boolean isEmpty()
         {
-            return this.countMap.size() == 1 && this.countMap.getOrDefault(Blocks.AIR.defaultBlockState(), 0) == 4096;
+            return this.totalUsedBlockCount == 0;
         }
 
         @Override
         public Map<BlockState, Integer> getStateCounts()
         {
-            return Collections.unmodifiableMap(countMap);
+            //Grab local references first, this might be called from a model building thread while the palette grows.
+            final BlockState[] states = this.slotStates;
+            final int[] counts = this.slotCounts;
+            final int size = Math.min(this.slotCount, Math.min(states.length, counts.length));
+
+            final Map<BlockState, Integer> stateCounts = Maps.newHashMap();
+            for (int slot = 0; slot < size; slot++)
+            {
+                if (counts[slot] > 0 && states[slot] != null)
+                {
+                    stateCounts.put(states[slot], counts[slot]);
+                }
+            }
+
+            return Collections.unmodifiableMap(stateCounts);
         }
 
         @Override
@@ -948,18 +1288,31 @@ public class ChiseledBlockEntity extends TileEntity implements IMultiStateBlockE
         @Override
         public float getRelativeBlockHardness(final PlayerEntity player)
         {
-            final double totalRelativeHardness = (this.countMap.entrySet().stream()
-                                                    .mapToDouble(entry -> (double) entry.getKey().getDestroyProgress(
-                                                      player,
-                                                      new SingleBlockWorldReader(
-                                                        entry.getKey(),
-                                                        this.positionSupplier.get(),
-                                                        this.worldReaderSupplier.get()
-                                                      ),
-                                                      this.positionSupplier.get()
-                                                    ) * entry.getValue())
-                                                    .filter(Double::isFinite)
-                                                    .sum());
+            //The destroy progress depends on the player, so it is only evaluated once per used state and not per bit.
+            double totalRelativeHardness = 0;
+            for (int slot = 0; slot < this.slotCount; slot++)
+            {
+                final BlockState blockState = this.slotStates[slot];
+                if (this.slotCounts[slot] <= 0 || BlockStatePropertyTable.get(blockState).getHardness() < 0)
+                {
+                    continue;
+                }
+
+                final double relativeHardness = (double) blockState.getDestroyProgress(
+                  player,
+                  new SingleBlockWorldReader(
+                    blockState,
+                    this.positionSupplier.get(),
+                    this.worldReaderSupplier.get()
+                  ),
+                  this.positionSupplier.get()
+                ) * this.slotCounts[slot];
+
+                if (Double.isFinite(relativeHardness))
+                {
+                    totalRelativeHardness += relativeHardness;
+                }
+            }
 
             if (totalRelativeHardness == 0 || Double.isNaN(totalRelativeHardness) || Double.isInfinite(totalRelativeHardness))
             {
@@ -972,102 +1325,152 @@ public class ChiseledBlockEntity extends TileEntity implements IMultiStateBlockE
         @Override
         public boolean canPropagateSkylight()
         {
-            for (int x = 0; x < StateEntrySize.current().getBitsPerBlockSide(); x++)
+            return this.blockedColumnCount < this.columnBlockedMasks.length;
+        }
+
+        private void onBlockStateChanged(final BlockState currentState, final BlockState newState, final int x, final int y, final int z, final boolean updateWorld)
+        {
+            final BlockStatePropertyTable.Properties currentProperties = BlockStatePropertyTable.get(currentState);
+            final BlockStatePropertyTable.Properties newProperties = BlockStatePropertyTable.get(newState);
+            if (currentProperties.isAir() && newProperties.isAir())
             {
-                for (int y = 0; y < StateEntrySize.current().getBitsPerBlockSide(); y++)
-                {
-                    final Vector2i coordinate = new Vector2i(x, y);
+                return;
+            }
 
-                    if (!this.columnBlockedMap.containsKey(coordinate))
-                    {
-                        return true;
-                    }
-                }
+            final boolean isTopLayer = y == StateEntrySize.current().getBitsPerBlockSide() - 1;
+            if (!currentProperties.isAir())
+            {
+                decrementSlot(getSlot(currentState));
+                applyProperties(currentProperties, isTopLayer, -1);
             }
 
-            return false;
+            if (!newProperties.isAir())
+            {
+                incrementSlot(getOrCreateSlot(newState));
+                applyProperties(newProperties, isTopLayer, 1);
+            }
+
+            setColumnBlocked(x, y, z, !newProperties.propagatesSkylightDown());
+            updatePrimaryState(updateWorld);
         }
 
-        private void onBlockStateAdded(final BlockState blockState, final BlockPos pos, final boolean updateWorld)
+        private void applyProperties(final BlockStatePropertyTable.Properties properties, final boolean isTopLayer, final int count)
         {
-            countMap.putIfAbsent(blockState, 0);
-            countMap.computeIfPresent(blockState, (state, currentCount) -> currentCount + 1);
-            updatePrimaryState(updateWorld);
+            this.totalUsedBlockCount += count;
+            this.totalLightLevel += properties.getLightEmission() * count;
 
-            this.totalUsedBlockCount++;
-
-            if (blockState.shouldCheckWeakPower(
-              new SingleBlockWorldReader(
-                blockState,
-                this.positionSupplier.get(),
-                this.worldReaderSupplier.get()
-              ),
-              this.positionSupplier.get(),
-              Direction.NORTH
-            ))
+            if (properties.checksWeakPower())
             {
-                this.totalUsedChecksWeakPowerCount++;
+                this.totalUsedChecksWeakPowerCount += count;
             }
 
-            if (pos.getY() == 15)
+            if (isTopLayer)
             {
-                this.totalUpperSurfaceSlipperiness += blockState.getSlipperiness(
-                  new SingleBlockWorldReader(
-                    blockState,
-                    this.positionSupplier.get(),
-                    this.worldReaderSupplier.get()
-                  ),
-                  this.positionSupplier.get(),
-                  null
-                );
+                this.totalUpperSurfaceSlipperiness += properties.getSlipperiness() * count;
             }
+        }
 
-            this.totalLightLevel += blockState.getLightValue(
-              new SingleBlockWorldReader(
-                blockState,
-                this.positionSupplier.get(),
-                this.worldReaderSupplier.get()
-              ),
-              this.positionSupplier.get()
-            );
+        private int getSlot(final BlockState blockState)
+        {
+            return this.slotsByState.getInt(blockState);
+        }
 
-            if (!blockState.propagatesSkylightDown(new SingleBlockWorldReader(
-                blockState,
-                this.positionSupplier.get(),
-                this.worldReaderSupplier.get()
-              ),
-              this.positionSupplier.get()))
+        private int getOrCreateSlot(final BlockState blockState)
+        {
+            final int slot = this.slotsByState.getInt(blockState);
+            if (slot >= 0)
             {
-                this.columnBlockedMap.put(
-                  new Vector2i(pos.getX(), pos.getZ()),
-                  pos.getY()
-                );
+                return slot;
+            }
+
+            if (this.slotCount == this.slotStates.length)
+            {
+                this.slotStates = Arrays.copyOf(this.slotStates, this.slotCount * 2);
+                this.slotCounts = Arrays.copyOf(this.slotCounts, this.slotCount * 2);
+            }
+
+            final int newSlot = this.slotCount++;
+            this.slotStates[newSlot] = blockState;
+            this.slotCounts[newSlot] = 0;
+            this.slotsByState.put(blockState, newSlot);
+            return newSlot;
+        }
+
+        private void incrementSlot(final int slot)
+        {
+            this.slotCounts[slot]++;
+            if (this.primarySlot < 0 || this.slotCounts[slot] > this.slotCounts[this.primarySlot])
+            {
+                this.primarySlot = slot;
+            }
+        }
+
+        private void decrementSlot(final int slot)
+        {
+            if (slot < 0)
+            {
+                return;
+            }
+
+            this.slotCounts[slot]--;
+            if (slot == this.primarySlot)
+            {
+                //Only the loss of the primary state requires a look at the other states, and that scan is over the palette, not the bits.
+                this.primarySlot = findPrimarySlot();
+            }
+        }
+
+        private void addToSlot(final BlockState blockState, final int count)
+        {
+            final int slot = getOrCreateSlot(blockState);
+            this.slotCounts[slot] += count;
+        }
+
+        private int findPrimarySlot()
+        {
+            int candidate = -1;
+            for (int slot = 0; slot < this.slotCount; slot++)
+            {
+                if (this.slotCounts[slot] > 0 && (candidate < 0 || this.slotCounts[slot] > this.slotCounts[candidate]))
+                {
+                    candidate = slot;
+                }
+            }
+
+            return candidate;
+        }
+
+        private void setColumnBlocked(final int x, final int y, final int z, final boolean blocked)
+        {
+            final int column = x * StateEntrySize.current().getBitsPerBlockSide() + z;
+            final long currentMask = this.columnBlockedMasks[column];
+            final long newMask = blocked ? currentMask | (1L << y) : currentMask & ~(1L << y);
+            if (currentMask == newMask)
+            {
+                return;
+            }
+
+            this.columnBlockedMasks[column] = newMask;
+            if (currentMask == 0)
+            {
+                this.blockedColumnCount++;
+            }
+            else if (newMask == 0)
+            {
+                this.blockedColumnCount--;
             }
         }
 
         private void updatePrimaryState(final boolean updateWorld)
         {
             final BlockState currentPrimary = primaryState;
-            primaryState = this.countMap.entrySet()
-                             .stream()
-                             .filter(e -> !e.getKey().isAir(new SingleBlockBlockReader(
-                                 e.getKey(),
-                                 this.positionSupplier.get(),
-                                 this.worldReaderSupplier.get()
-                               ),
-                               this.positionSupplier.get()))
-                             .min((o1, o2) -> -1 * (o1.getValue() - o2.getValue()))
-                             .map(Map.Entry::getKey)
-                             .orElseGet(Blocks.AIR::defaultBlockState);
-
-            final boolean primaryIsAir = this.primaryState.isAir(new SingleBlockBlockReader(
-                this.primaryState,
-                this.positionSupplier.get(),
-                this.worldReaderSupplier.get()
-              ),
-              this.positionSupplier.get());
-
-            if ((this.countMap.getOrDefault(primaryState, 0) == StateEntrySize.current().getBitsPerBlock() || primaryIsAir || currentPrimary != primaryState) && updateWorld) {
+            final int primaryCount = this.primarySlot < 0 ? 0 : this.slotCounts[this.primarySlot];
+            primaryState = this.primarySlot < 0 ? Blocks.AIR.defaultBlockState() : this.slotStates[this.primarySlot];
+
+            //The palette never contains air, so the primary state is only air when no other state is present.
+            final boolean primaryIsAir = this.primarySlot < 0;
+
+            if ((primaryCount == StateEntrySize.current().getBitsPerBlock() || primaryIsAir || currentPrimary != primaryState) && updateWorld) {
                 if (primaryIsAir) {
                     this.worldReaderSupplier.get().setBlock(
                       this.positionSupplier.get(),
@@ -1075,7 +1478,7 @@ public class ChiseledBlockEntity extends TileEntity implements IMultiStateBlockE
                       Constants.BlockFlags.BLOCK_UPDATE | Constants.BlockFlags.UPDATE_NEIGHBORS
                     );
                 }
-                else if (this.countMap.getOrDefault(primaryState, 0) == StateEntrySize.current().getBitsPerBlock())
+                else if (primaryCount == StateEntrySize.current().getBitsPerBlock())
                 {
                     this.worldReaderSupplier.get().setBlock(
                       this.positionSupplier.get(),
@@ -1098,181 +1501,33 @@ public class ChiseledBlockEntity extends TileEntity implements IMultiStateBlockE
             }
         }
 
-        private void onBlockStateRemoved(final BlockState blockState, final BlockPos pos, final boolean updateWorld)
-        {
-            countMap.computeIfPresent(blockState, (state, currentCount) -> currentCount - 1);
-            countMap.remove(blockState, 0);
-            updatePrimaryState(updateWorld);
-
-            this.totalUsedBlockCount--;
-
-            if (blockState.shouldCheckWeakPower(
-              new SingleBlockWorldReader(
-                blockState,
-                this.positionSupplier.get(),
-                this.worldReaderSupplier.get()
-              ),
-              this.positionSupplier.get(),
-              Direction.NORTH
-            ))
-            {
-                this.totalUsedChecksWeakPowerCount--;
-            }
-
-            if (pos.getY() == 15)
-            {
-                this.totalUpperSurfaceSlipperiness -= blockState.getSlipperiness(
-                  new SingleBlockWorldReader(
-                    blockState,
-                    this.positionSupplier.get(),
-                    this.worldReaderSupplier.get()
-                  ),
-                  this.positionSupplier.get(),
-                  null
-                );
-            }
-
-            this.totalLightLevel -= blockState.getLightValue(
-              new SingleBlockWorldReader(
-                blockState,
-                this.positionSupplier.get(),
-                this.worldReaderSupplier.get()
-              ),
-              this.positionSupplier.get()
-            );
-
-            this.columnBlockedMap.remove(
-              new Vector2i(pos.getX(), pos.getZ()),
-              pos.getY()
-            );
-        }
-
-        private void onBlockStateReplaced(final BlockState currentState, final BlockState newState, final BlockPos pos, final boolean updateWorld)
-        {
-            countMap.computeIfPresent(currentState, (state, currentCount) -> currentCount - 1);
-            countMap.remove(currentState, 0);
-            countMap.putIfAbsent(newState, 0);
-            countMap.computeIfPresent(newState, (state, currentCount) -> currentCount + 1);
-            updatePrimaryState(updateWorld);
-
-            if (currentState.shouldCheckWeakPower(
-              new SingleBlockWorldReader(
-                currentState,
-                this.positionSupplier.get(),
-                this.worldReaderSupplier.get()
-              ),
-              this.positionSupplier.get(),
-              Direction.NORTH
-            ))
-            {
-                this.totalUsedChecksWeakPowerCount--;
-            }
-
-            if (newState.shouldCheckWeakPower(
-              new SingleBlockWorldReader(
-                newState,
-                this.positionSupplier.get(),
-                this.worldReaderSupplier.get()
-              ),
-              this.positionSupplier.get(),
-              Direction.NORTH
-            ))
-            {
-                this.totalUsedChecksWeakPowerCount++;
-            }
-
-            if (pos.getY() == 15)
-            {
-                this.totalUpperSurfaceSlipperiness -= currentState.getSlipperiness(
-                  new SingleBlockWorldReader(
-                    currentState,
-                    this.positionSupplier.get(),
-                    this.worldReaderSupplier.get()
-                  ),
-                  this.positionSupplier.get(),
-                  null
-                );
-
-                this.totalUpperSurfaceSlipperiness += newState.getSlipperiness(
-                  new SingleBlockWorldReader(
-                    newState,
-                    this.positionSupplier.get(),
-                    this.worldReaderSupplier.get()
-                  ),
-                  this.positionSupplier.get(),
-                  null
-                );
-            }
-
-            this.totalLightLevel -= currentState.getLightValue(
-              new SingleBlockWorldReader(
-                currentState,
-                this.positionSupplier.get(),
-                this.worldReaderSupplier.get()
-              ),
-              this.positionSupplier.get()
-            );
-
-            this.totalLightLevel += newState.getLightValue(
-              new SingleBlockWorldReader(
-                newState,
-                this.positionSupplier.get(),
-                this.worldReaderSupplier.get()
-              ),
-              this.positionSupplier.get()
-            );
-
-            if (currentState.propagatesSkylightDown(
-              new SingleBlockWorldReader(
-                newState,
-                this.positionSupplier.get(),
-                this.worldReaderSupplier.get()
-              ),
-              this.positionSupplier.get()
-            ))
-            {
-                if (!newState.propagatesSkylightDown(
-                  new SingleBlockWorldReader(
-                    newState,
-                    this.positionSupplier.get(),
-                    this.worldReaderSupplier.get()
-                  ),
-                  this.positionSupplier.get()
-                ))
-                {
-                    this.columnBlockedMap.remove(new Vector2i(pos.getX(), pos.getZ()), pos.getY());
-                }
-            }
-            else if (newState.propagatesSkylightDown(
-              new SingleBlockWorldReader(
-                newState,
-                this.positionSupplier.get(),
-                this.worldReaderSupplier.get()
-              ),
-              this.positionSupplier.get()
-            ))
-            {
-                this.columnBlockedMap.put(new Vector2i(pos.getX(), pos.getZ()), pos.getY());
-            }
-        }
-
         @Override
         public void serializeInto(@NotNull final PacketBuffer packetBuffer)
         {
             packetBuffer.writeVarInt(IBlockStateIdManager.getInstance().getIdFrom(this.primaryState));
 
-            packetBuffer.writeVarInt(this.countMap.size());
-            for (final Map.Entry<BlockState, Integer> blockStateIntegerEntry : this.countMap.entrySet())
+            packetBuffer.writeVarInt(getUsedSlotCount());
+            for (int slot = 0; slot < this.slotCount; slot++)
             {
-                packetBuffer.writeVarInt(IBlockStateIdManager.getInstance().getIdFrom(blockStateIntegerEntry.getKey()));
-                packetBuffer.writeVarInt(blockStateIntegerEntry.getValue());
+                if (this.slotCounts[slot] > 0)
+                {
+                    packetBuffer.writeVarInt(IBlockStateIdManager.getInstance().getIdFrom(this.slotStates[slot]));
+                    packetBuffer.writeVarInt(this.slotCounts[slot]);
+                }
             }
-            packetBuffer.writeVarInt(this.columnBlockedMap.size());
-            for (final Map.Entry<Vector2i, Integer> vector2iIntegerEntry : this.columnBlockedMap.entries())
+
+            final int bitsPerBlockSide = StateEntrySize.current().getBitsPerBlockSide();
+            packetBuffer.writeVarInt(getBlockedColumnEntryCount());
+            for (int column = 0; column < this.columnBlockedMasks.length; column++)
             {
-                packetBuffer.writeVarInt(vector2iIntegerEntry.getKey().getX());
-                packetBuffer.writeVarInt(vector2iIntegerEntry.getKey().getY());
-                packetBuffer.writeVarInt(vector2iIntegerEntry.getValue());
+                long mask = this.columnBlockedMasks[column];
+                while (mask != 0)
+                {
+                    packetBuffer.writeVarInt(column / bitsPerBlockSide);
+                    packetBuffer.writeVarInt(column % bitsPerBlockSide);
+                    packetBuffer.writeVarInt(Long.numberOfTrailingZeros(mask));
+                    mask &= mask - 1;
+                }
             }
 
             packetBuffer.writeVarInt(this.totalUsedBlockCount);
@@ -1284,29 +1539,27 @@ public class ChiseledBlockEntity extends TileEntity implements IMultiStateBlockE
         @Override
         public void deserializeFrom(@NotNull final PacketBuffer packetBuffer)
         {
-            this.countMap.clear();
-            this.columnBlockedMap.clear();
+            clear();
 
             this.primaryState = IBlockStateIdManager.getInstance().getBlockStateFrom(packetBuffer.readVarInt());
 
             final int stateCount = packetBuffer.readVarInt();
             for (int i = 0; i < stateCount; i++)
             {
-                this.countMap.put(
+                addToSlot(
                   IBlockStateIdManager.getInstance().getBlockStateFrom(packetBuffer.readVarInt()),
                   packetBuffer.readVarInt()
                 );
             }
+            restorePrimarySlot();
+
             final int columnBlockCount = packetBuffer.readVarInt();
             for (int i = 0; i < columnBlockCount; i++)
             {
-                this.columnBlockedMap.put(
-                  new Vector2i(
-                    packetBuffer.readVarInt(),
-                    packetBuffer.readVarInt()
-                  ),
-                  packetBuffer.readVarInt()
-                );
+                final int x = packetBuffer.readVarInt();
+                final int z = packetBuffer.readVarInt();
+                final int y = packetBuffer.readVarInt();
+                setColumnBlocked(x, y, z, true);
             }
 
             this.totalUsedBlockCount = packetBuffer.readVarInt();
@@ -1323,28 +1576,40 @@ public class ChiseledBlockEntity extends TileEntity implements IMultiStateBlockE
             nbt.put(NbtConstants.PRIMARY_STATE, NBTUtil.writeBlockState(this.primaryState));
 
             final ListNBT blockStateList = new ListNBT();
-            for (final Map.Entry<BlockState, Integer> blockStateIntegerEntry : this.countMap.entrySet())
+            for (int slot = 0; slot < this.slotCount; slot++)
             {
+                if (this.slotCounts[slot] <= 0)
+                {
+                    continue;
+                }
+
                 final CompoundNBT stateNbt = new CompoundNBT();
 
-                stateNbt.put(NbtConstants.BLOCK_STATE, NBTUtil.writeBlockState(blockStateIntegerEntry.getKey()));
-                stateNbt.putInt(NbtConstants.COUNT, blockStateIntegerEntry.getValue());
+                stateNbt.put(NbtConstants.BLOCK_STATE, NBTUtil.writeBlockState(this.slotStates[slot]));
+                stateNbt.putInt(NbtConstants.COUNT, this.slotCounts[slot]);
 
                 blockStateList.add(stateNbt);
             }
+
+            final int bitsPerBlockSide = StateEntrySize.current().getBitsPerBlockSide();
             final ListNBT columnBlockList = new ListNBT();
-            for (final Map.Entry<Vector2i, Integer> vector2iIntegerEntry : this.columnBlockedMap.entries())
+            for (int column = 0; column < this.columnBlockedMasks.length; column++)
             {
-                final CompoundNBT columnBlockNbt = new CompoundNBT();
-                final CompoundNBT coordinateNbt = new CompoundNBT();
+                long mask = this.columnBlockedMasks[column];
+                while (mask != 0)
+                {
+                    final CompoundNBT columnBlockNbt = new CompoundNBT();
+                    final CompoundNBT coordinateNbt = new CompoundNBT();
 
-                coordinateNbt.putInt(NbtConstants.X_COORDINATE, vector2iIntegerEntry.getKey().getX());
-                coordinateNbt.putInt(NbtConstants.Y_COORDINATE, vector2iIntegerEntry.getKey().getY());
+                    coordinateNbt.putInt(NbtConstants.X_COORDINATE, column / bitsPerBlockSide);
+                    coordinateNbt.putInt(NbtConstants.Y_COORDINATE, column % bitsPerBlockSide);
 
-                columnBlockNbt.put(NbtConstants.COORDINATE, coordinateNbt);
-                columnBlockNbt.putInt(NbtConstants.VALUE, vector2iIntegerEntry.getValue());
+                    columnBlockNbt.put(NbtConstants.COORDINATE, coordinateNbt);
+                    columnBlockNbt.putInt(NbtConstants.VALUE, Long.numberOfTrailingZeros(mask));
 
-                columnBlockList.add(columnBlockNbt);
+                    columnBlockList.add(columnBlockNbt);
+                    mask &= mask - 1;
+                }
             }
 
             nbt.put(NbtConstants.BLOCK_STATES, blockStateList);
@@ -1361,7 +1626,7 @@ public class ChiseledBlockEntity extends TileEntity implements IMultiStateBlockE
         @Override
         public void deserializeNBT(final CompoundNBT nbt)
         {
-            this.countMap.clear();
+            clear();
 
             this.primaryState = NBTUtil.readBlockState(nbt.getCompound(NbtConstants.PRIMARY_STATE));
 
@@ -1370,11 +1635,12 @@ public class ChiseledBlockEntity extends TileEntity implements IMultiStateBlockE
             {
                 final CompoundNBT stateNbt = blockStateList.getCompound(i);
 
-                this.countMap.put(
+                addToSlot(
                   NBTUtil.readBlockState(stateNbt.getCompound(NbtConstants.BLOCK_STATE)),
                   stateNbt.getInt(NbtConstants.COUNT)
                 );
             }
+            restorePrimarySlot();
 
             final ListNBT columnBlockList = nbt.getList(NbtConstants.COLUMN_BLOCK_LIST, Constants.NBT.TAG_COMPOUND);
             for (int i = 0; i < columnBlockList.size(); i++)
@@ -1382,12 +1648,11 @@ public class ChiseledBlockEntity extends TileEntity implements IMultiStateBlockE
                 final CompoundNBT columnBlockNbt = columnBlockList.getCompound(i);
                 final CompoundNBT coordinateNbt = columnBlockNbt.getCompound(NbtConstants.COORDINATE);
 
-                this.columnBlockedMap.put(
-                  new Vector2i(
-                    coordinateNbt.getInt(NbtConstants.X_COORDINATE),
-                    coordinateNbt.getInt(NbtConstants.Y_COORDINATE)
-                  ),
-                  columnBlockNbt.getInt(NbtConstants.VALUE)
+                setColumnBlocked(
+                  coordinateNbt.getInt(NbtConstants.X_COORDINATE),
+                  columnBlockNbt.getInt(NbtConstants.VALUE),
+                  coordinateNbt.getInt(NbtConstants.Y_COORDINATE),
+                  true
                 );
             }
 
@@ -1400,62 +1665,30 @@ public class ChiseledBlockEntity extends TileEntity implements IMultiStateBlockE
         public void initializeWith(final BlockState blockState)
         {
             clear();
-            final boolean isAir = blockState.isAir(new SingleBlockWorldReader(
-                blockState,
-                this.positionSupplier.get(),
-                this.worldReaderSupplier.get()
-              ),
-              this.positionSupplier.get());
+            final BlockStatePropertyTable.Properties properties = BlockStatePropertyTable.get(blockState);
 
             this.primaryState = blockState;
-            if (!isAir)
+            if (properties.isAir())
             {
-                this.countMap.put(blockState, StateEntrySize.current().getBitsPerBlock());
+                return;
             }
-            this.totalUsedBlockCount = isAir ? 0 : StateEntrySize.current().getBitsPerBlock();
-
-            if (blockState.shouldCheckWeakPower(
-              new SingleBlockWorldReader(
-                blockState,
-                this.positionSupplier.get(),
-                this.worldReaderSupplier.get()
-              ),
-              this.positionSupplier.get(),
-              Direction.NORTH
-            ))
+
+            addToSlot(blockState, StateEntrySize.current().getBitsPerBlock());
+            restorePrimarySlot();
+
+            this.totalUsedBlockCount = StateEntrySize.current().getBitsPerBlock();
+            this.totalLightLevel = properties.getLightEmission() * StateEntrySize.current().getBitsPerBlock();
+            this.totalUpperSurfaceSlipperiness = properties.getSlipperiness() * StateEntrySize.current().getBitsPerLayer();
+
+            if (properties.checksWeakPower())
             {
                 this.totalUsedChecksWeakPowerCount = StateEntrySize.current().getBitsPerBlock();
             }
 
-            this.totalLightLevel += (blockState.getLightValue(
-              new SingleBlockWorldReader(
-                blockState,
-                this.positionSupplier.get(),
-                this.worldReaderSupplier.get()
-              ),
-              this.positionSupplier.get()
-            ) * StateEntrySize.current().getBitsPerBlock());
-
-            this.totalUpperSurfaceSlipperiness += (blockState.getSlipperiness(
-              new SingleBlockWorldReader(
-                blockState,
-                this.positionSupplier.get(),
-                this.worldReaderSupplier.get()
-              ),
-              this.positionSupplier.get(),
-              null
-            ) * StateEntrySize.current().getBitsPerBlock());
-
-
-            if (!blockState.propagatesSkylightDown(new SingleBlockWorldReader(
-                blockState,
-                this.positionSupplier.get(),
-                this.worldReaderSupplier.get()
-              ),
-              this.positionSupplier.get()))
+            if (!properties.propagatesSkylightDown())
             {
-                BlockPosStreamProvider.getForRange(StateEntrySize.current().getBitsPerBlockSide())
-                  .forEach(pos -> columnBlockedMap.put(new Vector2i(pos.getX(), pos.getZ()), pos.getY()));
+                Arrays.fill(this.columnBlockedMasks, getFullColumnMask());
+                this.blockedColumnCount = this.columnBlockedMasks.length;
             }
         }
 
@@ -1463,8 +1696,14 @@ public class ChiseledBlockEntity extends TileEntity implements IMultiStateBlockE
         {
             this.primaryState = Blocks.AIR.defaultBlockState();
 
-            this.countMap.clear();
-            this.columnBlockedMap.clear();
+            this.slotsByState.clear();
+            Arrays.fill(this.slotStates, null);
+            Arrays.fill(this.slotCounts, 0);
+            this.slotCount = 0;
+            this.primarySlot = -1;
+
+            Arrays.fill(this.columnBlockedMasks, 0);
+            this.blockedColumnCount = 0;
 
             this.totalUsedBlockCount = 0;
             this.totalUsedChecksWeakPowerCount = 0;
@@ -1472,117 +1711,262 @@ public class ChiseledBlockEntity extends TileEntity implements IMultiStateBlockE
             this.totalLightLevel = 0;
         }
 
-        private void recalculate(final ChunkSection source, final boolean updateWorld)
+        private void copyFrom(final MutableStatistics other)
         {
             clear();
 
-            source.getStates().count(countMap::put);
-            countMap.remove(Blocks.AIR.defaultBlockState());
-            updatePrimaryState(updateWorld);
+            this.primaryState = other.primaryState;
+            for (int slot = 0; slot < other.slotCount; slot++)
+            {
+                if (other.slotCounts[slot] > 0)
+                {
+                    addToSlot(other.slotStates[slot], other.slotCounts[slot]);
+                }
+            }
+            restorePrimarySlot();
 
-            this.totalUsedBlockCount = countMap.values().stream().mapToInt(i -> i).sum();
+            System.arraycopy(other.columnBlockedMasks, 0, this.columnBlockedMasks, 0, this.columnBlockedMasks.length);
+            this.blockedColumnCount = other.blockedColumnCount;
 
-            countMap.forEach((blockState, count) -> {
-                if (blockState.shouldCheckWeakPower(
-                  new SingleBlockWorldReader(
-                    blockState,
-                    this.positionSupplier.get(),
-                    this.worldReaderSupplier.get()
-                  ),
-                  this.positionSupplier.get(),
-                  Direction.NORTH
-                ))
+            this.totalUsedBlockCount = other.totalUsedBlockCount;
+            this.totalUsedChecksWeakPowerCount = other.totalUsedChecksWeakPowerCount;
+            this.totalUpperSurfaceSlipperiness = other.totalUpperSurfaceSlipperiness;
+            this.totalLightLevel = other.totalLightLevel;
+        }
+
+        private void recalculate(final PackedStateStorage source, final boolean updateWorld)
+        {
+            clear();
+
+            //The counts only depend on the palette of the storage, so each state is resolved once instead of once per bit.
+            final int paletteSize = source.getPaletteSize();
+            for (int paletteSlot = 0; paletteSlot < paletteSize; paletteSlot++)
+            {
+                final int count = source.getPaletteCount(paletteSlot);
+                if (count <= 0)
+                {
+                    continue;
+                }
+
+                final BlockState blockState = IBlockStateIdManager.getInstance().getBlockStateFrom(source.getPaletteStateId(paletteSlot));
+                final BlockStatePropertyTable.Properties properties = BlockStatePropertyTable.get(blockState);
+                if (properties.isAir())
+                {
+                    continue;
+                }
+
+                addToSlot(blockState, count);
+
+                this.totalUsedBlockCount += count;
+                this.totalLightLevel += properties.getLightEmission() * count;
+                if (properties.checksWeakPower())
                 {
                     this.totalUsedChecksWeakPowerCount += count;
                 }
+            }
 
-                this.totalLightLevel += (blockState.getLightValue(
-                  new SingleBlockWorldReader(
-                    blockState,
-                    this.positionSupplier.get(),
-                    this.worldReaderSupplier.get()
-                  ),
-                  this.positionSupplier.get()
-                ) * count);
-            });
-
-            BlockPosStreamProvider.getForRange(StateEntrySize.current().getBitsPerBlockSide())
-              .forEach(pos -> {
-                  final BlockState blockState = source.getBlockState(pos.getX(), pos.getY(), pos.getZ());
-                  if (pos.getY() == 15)
-                  {
-                      this.totalUpperSurfaceSlipperiness += (blockState.getSlipperiness(
-                        new SingleBlockWorldReader(
-                          blockState,
-                          this.positionSupplier.get(),
-                          this.worldReaderSupplier.get()
-                        ),
-                        this.positionSupplier.get(),
-                        null
-                      ));
-                  }
-
-                  if (!blockState.propagatesSkylightDown(
-                    new SingleBlockWorldReader(
-                      blockState,
-                      this.positionSupplier.get(),
-                      this.worldReaderSupplier.get()
-                    ),
-                    this.positionSupplier.get()
-                  ))
-                  {
-                      columnBlockedMap.put(new Vector2i(pos.getX(), pos.getZ()), pos.getY());
-                  }
-              });
+            recalculatePositions(source);
+
+            this.primarySlot = findPrimarySlot();
+            updatePrimaryState(updateWorld);
+        }
+
+        /**
+         * Recalculates the skylight columns and the slipperiness of the upper surface, keeping all counts and the primary state.
+         * Used when the bits of the storage were only moved around, for example by a rotation.
+         *
+         * @param source The storage to read the positions from.
+         */
+        private void recalculatePositions(final PackedStateStorage source)
+        {
+            Arrays.fill(this.columnBlockedMasks, 0);
+            this.blockedColumnCount = 0;
+            this.totalUpperSurfaceSlipperiness = 0;
+
+            //Resolve the properties once per palette slot of the storage, the pass over the bits below then only reads primitives.
+            final int paletteSize = source.getPaletteSize();
+            final boolean[] blocksSkylight = new boolean[paletteSize];
+            final float[] slipperiness = new float[paletteSize];
+            for (int paletteSlot = 0; paletteSlot < paletteSize; paletteSlot++)
+            {
+                if (source.getPaletteCount(paletteSlot) <= 0)
+                {
+                    continue;
+                }
+
+                final BlockState blockState = IBlockStateIdManager.getInstance().getBlockStateFrom(source.getPaletteStateId(paletteSlot));
+                final BlockStatePropertyTable.Properties properties = BlockStatePropertyTable.get(blockState);
+                blocksSkylight[paletteSlot] = !properties.propagatesSkylightDown();
+                if (!properties.isAir())
+                {
+                    slipperiness[paletteSlot] = properties.getSlipperiness();
+                }
+            }
+
+            final int bitsPerBlockSide = source.getSide();
+            int index = 0;
+            for (int y = 0; y < bitsPerBlockSide; y++)
+            {
+                final boolean isTopLayer = y == bitsPerBlockSide - 1;
+                for (int z = 0; z < bitsPerBlockSide; z++)
+                {
+                    for (int x = 0; x < bitsPerBlockSide; x++, index++)
+                    {
+                        final int paletteSlot = source.getPaletteSlot(index);
+                        if (isTopLayer)
+                        {
+                            this.totalUpperSurfaceSlipperiness += slipperiness[paletteSlot];
+                        }
+
+                        if (blocksSkylight[paletteSlot])
+                        {
+                            setColumnBlocked(x, y, z, true);
+                        }
+                    }
+                }
+            }
+        }
+
+        private void restorePrimarySlot()
+        {
+            this.primarySlot = findPrimarySlot();
+
+            //Prefer the stored primary state when it is tied with another state, so that loading does not change the primary state.
+            final int storedPrimarySlot = getSlot(this.primaryState);
+            if (storedPrimarySlot >= 0 && this.primarySlot >= 0 && this.slotCounts[storedPrimarySlot] == this.slotCounts[this.primarySlot])
+            {
+                this.primarySlot = storedPrimarySlot;
+            }
+        }
+
+        private int getUsedSlotCount()
+        {
+            int count = 0;
+            for (int slot = 0; slot < this.slotCount; slot++)
+            {
+                if (this.slotCounts[slot] > 0)
+                {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        private int getBlockedColumnEntryCount()
+        {
+            int count = 0;
+            for (final long mask : this.columnBlockedMasks)
+            {
+                count += Long.bitCount(mask);
+            }
+            return count;
+        }
+
+        private static long getFullColumnMask()
+        {
+            final int bitsPerBlockSide = StateEntrySize.current().getBitsPerBlockSide();
+            return bitsPerBlockSide == Long.SIZE ? -1L : (1L << bitsPerBlockSide) - 1;
         }
     }
 
-    private static final class Identifier implements ILongArrayBackedAreaShapeIdentifier
+    public enum ShapeType
+    {
+        SELECTION,
+        COLLISION,
+        SUPPORT
+    }
+
+    /**
+     * Connects the syncer to the world this block entity lives in.
+     */
+    private final class SyncedBlock implements ChiseledBlockSyncer.ISyncedBlock
     {
+        @Override
+        public BlockPos getBlockPos()
+        {
+            return ChiseledBlockEntity.this.getBlockPos();
+        }
 
-        private final long[] identifyingPayload;
+        @Override
+        public boolean isClientSide()
+        {
+            return getLevel() != null && getLevel().isClientSide();
+        }
 
-        private Identifier(final ChunkSection section)
+        @Override
+        public boolean canFlushChanges()
         {
-            this.identifyingPayload = Arrays.copyOf(
-              section.getStates().storage.getRaw(),
-              section.getStates().storage.getRaw().length
-            );
+            return getLevel() != null && !isRemoved();
         }
 
         @Override
-        public int hashCode()
+        public PackedStateStorage getSyncedStorage()
         {
-            return Arrays.hashCode(identifyingPayload);
+            applyPendingChanges();
+            return getStorage();
         }
 
         @Override
-        public boolean equals(final Object o)
+        public int getEstimatedSnapshotSize()
         {
-            if (this == o)
-            {
-                return true;
-            }
-            if (!(o instanceof ILongArrayBackedAreaShapeIdentifier))
+            return ChiseledBlockEntity.this.getEstimatedSnapshotSize();
+        }
+
+        @Override
+        public void onChangesFlushed()
+        {
+            mutableStatistics.recalculate(getStorage(), true);
+
+            ChiseledBlockEntity.super.setChanged();
+
+            getLevel().getLightEngine().checkBlock(getBlockPos());
+            getLevel().sendBlockUpdated(getBlockPos(), Blocks.AIR.defaultBlockState(), getBlockState(), Constants.BlockFlags.DEFAULT);
+            if (!getLevel().isClientSide())
             {
-                return false;
+                getLevel().updateNeighborsAt(getBlockPos(), getLevel().getBlockState(getBlockPos()).getBlock());
             }
-            final ILongArrayBackedAreaShapeIdentifier that = (ILongArrayBackedAreaShapeIdentifier) o;
-            return Arrays.equals(identifyingPayload, that.getBackingData());
         }
 
         @Override
-        public String toString()
+        public void sendUpdate(final ChiseledBlockSyncUpdate update)
         {
-            return "Identifier{" +
-                     "identifyingPayload=" + Arrays.toString(identifyingPayload) +
-                     '}';
+            ChiseledUpdateScheduler.getInstance().enqueue((ServerWorld) getLevel(), update);
         }
+    }
 
-        @Override
-        public long[] getBackingData()
+    private static final class ShapeMemo
+    {
+        private final PackedStateStorage                storage;
+        private final int                               version;
+        private final AtomicReferenceArray<VoxelShape> shapes = new AtomicReferenceArray<>(ShapeType.values().length);
+
+        private ShapeMemo(final PackedStateStorage storage, final int version)
+        {
+            this.storage = storage;
+            this.version = version;
+        }
+    }
+
+    /**
+     * The storage and statistics of an update tag, decoded ahead of being applied to a block entity.
+     */
+    public static final class DecodedUpdate
+    {
+        private final PackedStateStorage storage;
+        private final MutableStatistics  statistics;
+        private final int                syncVersion;
+
+        private DecodedUpdate(final int syncVersion)
+        {
+            this.storage = new PackedStateStorage(StateEntrySize.current().getBitsPerBlockSide(), Blocks.AIR.defaultBlockState());
+            //Only used to carry the decoded values, the statistics never update the world.
+            this.statistics = new MutableStatistics(() -> null, () -> BlockPos.ZERO);
+            this.syncVersion = syncVersion;
+        }
+
+        public int getSyncVersion()
         {
-            return identifyingPayload;
+            return syncVersion;
         }
     }
 
@@ -1590,21 +1974,20 @@ public class ChiseledBlockEntity extends TileEntity implements IMultiStateBlockE
     {
 
         private final Runnable closeCallback;
+        private       boolean  closed = false;
 
         private BatchMutationLock(final Runnable closeCallback) {this.closeCallback = closeCallback;}
 
         @Override
         public void close()
         {
+            if (this.closed)
+            {
+                return;
+            }
+
+            this.closed = true;
             this.closeCallback.run();
         }
     }
-
-
-
-
-
-
-
-
 }
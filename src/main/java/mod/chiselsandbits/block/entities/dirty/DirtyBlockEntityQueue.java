@@ -0,0 +1,82 @@
+package mod.chiselsandbits.block.entities.dirty;
+
+import com.google.common.collect.Sets;
+
+import java.util.Set;
+
+/**
+ * Collects the block entities which got modified during a server tick,
+ * and flushes each of them exactly once when the tick ends.
+ */
+public class DirtyBlockEntityQueue
+{
+    private static final DirtyBlockEntityQueue INSTANCE = new DirtyBlockEntityQueue();
+
+    public static DirtyBlockEntityQueue getInstance()
+    {
+        return INSTANCE;
+    }
+
+    private Set<IDirtyBlockEntity> dirtyBlockEntities = Sets.newLinkedHashSet();
+
+    DirtyBlockEntityQueue()
+    {
+    }
+
+    /**
+     * Marks the given block entity as dirty.
+     * Marking a block entity multiple times before the next flush has no additional effect.
+     *
+     * @param blockEntity The block entity to mark.
+     */
+    public synchronized void markDirty(final IDirtyBlockEntity blockEntity)
+    {
+        this.dirtyBlockEntities.add(blockEntity);
+    }
+
+    /**
+     * Indicates if the given block entity is waiting to be flushed.
+     *
+     * @param blockEntity The block entity to check.
+     * @return True when the block entity is marked as dirty.
+     */
+    public synchronized boolean isDirty(final IDirtyBlockEntity blockEntity)
+    {
+        return this.dirtyBlockEntities.contains(blockEntity);
+    }
+
+    /**
+     * Flushes all block entities which have been marked as dirty since the last flush.
+     * Block entities which are marked while the flush is running are processed in the next flush.
+     */
+    public void flush()
+    {
+        final Set<IDirtyBlockEntity> toFlush;
+        synchronized (this)
+        {
+            if (this.dirtyBlockEntities.isEmpty())
+            {
+                return;
+            }
+
+            toFlush = this.dirtyBlockEntities;
+            this.dirtyBlockEntities = Sets.newLinkedHashSet();
+        }
+
+        for (final IDirtyBlockEntity blockEntity : toFlush)
+        {
+            if (blockEntity.canFlushChanges())
+            {
+                blockEntity.flushChanges();
+            }
+        }
+    }
+
+    /**
+     * Drops all pending block entities without flushing them, for example when the server stops.
+     */
+    public synchronized void clear()
+    {
+        this.dirtyBlockEntities = Sets.newLinkedHashSet();
+    }
+}
@@ -0,0 +1,21 @@
+package mod.chiselsandbits.block.entities.dirty;
+
+/**
+ * Represents a block entity whose changes are propagated to the world at the end of the tick,
+ * instead of once per modified bit.
+ */
+public interface IDirtyBlockEntity
+{
+    /**
+     * Indicates if the changes of this block entity can still be flushed.
+     * Block entities which have been removed from their world since they were marked as dirty are skipped.
+     *
+     * @return True when the changes can be flushed, false when not.
+     */
+    boolean canFlushChanges();
+
+    /**
+     * Propagates all changes made since the last flush to the world and the clients tracking it.
+     */
+    void flushChanges();
+}
@@ -0,0 +1,159 @@
+package mod.chiselsandbits.change;
+
+import com.google.common.collect.Lists;
+
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * The changes recorded by a change tracker, newest first, together with the position of the next change to undo.
+ * <p>
+ * Every modification is reported to the observer as an operation,
+ * which can be applied to another history to keep it in sync with this one.
+ *
+ * @param <C> The type of the changes.
+ */
+public final class ChangeHistory<C>
+{
+    private final LinkedList<C>                        changes      = new LinkedList<>();
+    private final Consumer<ChangeHistoryOperation<C>> observer;
+    private       int                                  currentIndex = 0;
+
+    public ChangeHistory()
+    {
+        this(operation -> {});
+    }
+
+    public ChangeHistory(final Consumer<ChangeHistoryOperation<C>> observer)
+    {
+        this.observer = observer;
+    }
+
+    /**
+     * Adds a new change, which becomes the next change to undo.
+     *
+     * @param change The change.
+     */
+    public void push(final C change)
+    {
+        this.changes.addFirst(change);
+        this.currentIndex = 0;
+        this.observer.accept(ChangeHistoryOperation.push(change));
+    }
+
+    /**
+     * Removes the oldest changes until at most the given amount remains.
+     *
+     * @param maxSize The maximal amount of changes to keep.
+     */
+    public void trim(final int maxSize)
+    {
+        if (this.changes.size() <= maxSize)
+        {
+            return;
+        }
+
+        while (this.changes.size() > maxSize)
+        {
+            this.changes.removeLast();
+        }
+        this.observer.accept(ChangeHistoryOperation.trim(maxSize));
+    }
+
+    /**
+     * Moves the current undo change over to the redo side.
+     * Does nothing when there is nothing left to undo.
+     */
+    public void undo()
+    {
+        if (!getCurrentUndo().isPresent())
+        {
+            return;
+        }
+
+        this.currentIndex++;
+        this.observer.accept(ChangeHistoryOperation.undo());
+    }
+
+    /**
+     * Moves the current redo change back over to the undo side.
+     * Does nothing when there is nothing left to redo.
+     */
+    public void redo()
+    {
+        if (!getCurrentRedo().isPresent())
+        {
+            return;
+        }
+
+        this.currentIndex--;
+        this.observer.accept(ChangeHistoryOperation.redo());
+    }
+
+    public void clear()
+    {
+        this.changes.clear();
+        this.currentIndex = 0;
+        this.observer.accept(ChangeHistoryOperation.clear());
+    }
+
+    /**
+     * Replaces the entire history.
+     *
+     * @param changes The new changes, newest first.
+     * @param currentIndex The position of the next change to undo.
+     */
+    public void replaceWith(final List<C> changes, final int currentIndex)
+    {
+        this.changes.clear();
+        this.changes.addAll(changes);
+        this.currentIndex = Math.max(0, Math.min(currentIndex, changes.size()));
+        sync();
+    }
+
+    /**
+     * Reports the entire history to the observer, for example when the other side lost track of it.
+     */
+    public void sync()
+    {
+        this.observer.accept(ChangeHistoryOperation.sync(Lists.newArrayList(this.changes), this.currentIndex));
+    }
+
+    public Optional<C> getCurrentUndo()
+    {
+        if (this.currentIndex >= this.changes.size())
+        {
+            return Optional.empty();
+        }
+
+        return Optional.of(this.changes.get(this.currentIndex));
+    }
+
+    public Optional<C> getCurrentRedo()
+    {
+        if (this.currentIndex < 1)
+        {
+            return Optional.empty();
+        }
+
+        return Optional.of(this.changes.get(this.currentIndex - 1));
+    }
+
+    /**
+     * Gets a readonly view of the changes.
+     *
+     * @return The changes, newest first.
+     */
+    public List<C> getChanges()
+    {
+        return Collections.unmodifiableList(this.changes);
+    }
+
+    public int getCurrentIndex()
+    {
+        return this.currentIndex;
+    }
+}
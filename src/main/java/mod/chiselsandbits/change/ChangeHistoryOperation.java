@@ -0,0 +1,134 @@
+package mod.chiselsandbits.change;
+
+import com.google.common.collect.ImmutableList;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * A single modification of a {@link ChangeHistory}.
+ *
+ * @param <C> The type of the changes.
+ */
+public final class ChangeHistoryOperation<C>
+{
+    public enum Type
+    {
+        PUSH,
+        UNDO,
+        REDO,
+        TRIM,
+        CLEAR,
+        SYNC
+    }
+
+    private final Type    type;
+    private final List<C> changes;
+    private final int     value;
+
+    private ChangeHistoryOperation(final Type type, final List<C> changes, final int value)
+    {
+        this.type = type;
+        this.changes = changes;
+        this.value = value;
+    }
+
+    public static <C> ChangeHistoryOperation<C> push(final C change)
+    {
+        return new ChangeHistoryOperation<>(Type.PUSH, ImmutableList.of(change), 0);
+    }
+
+    public static <C> ChangeHistoryOperation<C> undo()
+    {
+        return new ChangeHistoryOperation<>(Type.UNDO, ImmutableList.of(), 0);
+    }
+
+    public static <C> ChangeHistoryOperation<C> redo()
+    {
+        return new ChangeHistoryOperation<>(Type.REDO, ImmutableList.of(), 0);
+    }
+
+    public static <C> ChangeHistoryOperation<C> trim(final int maxSize)
+    {
+        return new ChangeHistoryOperation<>(Type.TRIM, ImmutableList.of(), maxSize);
+    }
+
+    public static <C> ChangeHistoryOperation<C> clear()
+    {
+        return new ChangeHistoryOperation<>(Type.CLEAR, ImmutableList.of(), 0);
+    }
+
+    public static <C> ChangeHistoryOperation<C> sync(final List<C> changes, final int currentIndex)
+    {
+        return new ChangeHistoryOperation<>(Type.SYNC, ImmutableList.copyOf(changes), currentIndex);
+    }
+
+    public Type getType()
+    {
+        return type;
+    }
+
+    /**
+     * The changes carried by the operation.
+     *
+     * @return The pushed change, or all changes newest first for a sync. Empty for all other operations.
+     */
+    public List<C> getChanges()
+    {
+        return changes;
+    }
+
+    /**
+     * The numeric argument of the operation.
+     *
+     * @return The maximal size for a trim, or the current index for a sync. Zero for all other operations.
+     */
+    public int getValue()
+    {
+        return value;
+    }
+
+    /**
+     * Converts the changes carried by this operation, for example to strip them down to what the other side needs.
+     *
+     * @param mapper The conversion.
+     * @param <T> The type of the converted changes.
+     * @return The converted operation.
+     */
+    public <T> ChangeHistoryOperation<T> map(final Function<C, T> mapper)
+    {
+        final ImmutableList.Builder<T> mapped = ImmutableList.builder();
+        this.changes.forEach(change -> mapped.add(mapper.apply(change)));
+        return new ChangeHistoryOperation<>(type, mapped.build(), value);
+    }
+
+    /**
+     * Performs this operation on the given history.
+     *
+     * @param history The history.
+     */
+    public void applyTo(final ChangeHistory<C> history)
+    {
+        switch (type)
+        {
+            case PUSH:
+                history.push(changes.get(0));
+                break;
+            case UNDO:
+                history.undo();
+                break;
+            case REDO:
+                history.redo();
+                break;
+            case TRIM:
+                history.trim(value);
+                break;
+            case CLEAR:
+                history.clear();
+                break;
+            case SYNC:
+                history.replaceWith(changes, value);
+                break;
+        }
+    }
+}
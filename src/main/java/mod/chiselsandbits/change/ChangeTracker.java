@@ -7,12 +7,14 @@ import mod.chiselsandbits.api.change.changes.IChange;
 import mod.chiselsandbits.api.change.changes.IllegalChangeAttempt;
 import mod.chiselsandbits.api.multistate.snapshot.IMultiStateSnapshot;
 import mod.chiselsandbits.change.changes.BitChange;
+import mod.chiselsandbits.change.changes.ChangeSummary;
 import mod.chiselsandbits.change.changes.CombinedChange;
-import mod.chiselsandbits.network.packets.ChangeTrackerUpdatedPacket;
+import mod.chiselsandbits.network.packets.ChangeTrackerOperationPacket;
 import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.entity.player.ServerPlayerEntity;
 import net.minecraft.nbt.CompoundNBT;
 import net.minecraft.nbt.ListNBT;
+import net.minecraft.server.MinecraftServer;
 import net.minecraft.util.math.BlockPos;
 import net.minecraftforge.common.util.Constants;
 import net.minecraftforge.common.util.INBTSerializable;
@@ -25,20 +27,23 @@ import java.util.stream.Collectors;
 
 public class ChangeTracker implements IChangeTracker
 {
-    protected final PlayerEntity player;
-    protected final LinkedList<CombinedChange> changes = new LinkedList<>();
-    protected int currentIndex = 0;
+    protected final PlayerEntity           player;
+    protected final ChangeHistory<IChange> history;
 
     public ChangeTracker()
     {
         this.player = null;
+        this.history = new ChangeHistory<>();
     }
 
-    public ChangeTracker(final PlayerEntity player) {this.player = player;}
+    public ChangeTracker(final PlayerEntity player)
+    {
+        this.player = player;
+        this.history = new ChangeHistory<>(this::sendUpdate);
+    }
 
     public void reset() {
-        changes.clear();
-        sendUpdate();
+        history.clear();
     }
 
     @Override
@@ -48,7 +53,7 @@ public class ChangeTracker implements IChangeTracker
         if (!beforeStates.keySet().containsAll(afterState.keySet()) || !afterState.keySet().containsAll(beforeStates.keySet()))
             throw new IllegalArgumentException("Initial States and Target States reference difference block positions");
 
-        changes.addFirst(
+        history.push(
           new CombinedChange(
             beforeStates.entrySet().stream()
               .map(e -> new BitChange(
@@ -60,46 +65,29 @@ public class ChangeTracker implements IChangeTracker
           )
         );
 
-        currentIndex = 0;
-
-        final int maxSize = IChiselsAndBitsAPI.getInstance().getConfiguration().getServer().changeTrackerSize.get();
-        if (changes.size() > maxSize) {
-            while(changes.size() > maxSize) {
-                changes.removeLast();
-            }
-        }
-        sendUpdate();
+        history.trim(IChiselsAndBitsAPI.getInstance().getConfiguration().getServer().changeTrackerSize.get());
     }
 
     @Override
     public Deque<IChange> getChanges()
     {
-        return new LinkedList<>(changes);
+        return new LinkedList<>(history.getChanges());
     }
 
     @Override
     public void clear()
     {
-        changes.clear();
-        sendUpdate();
+        history.clear();
     }
 
     public Optional<IChange> getCurrentUndo()
     {
-        if (getChanges().size() <= currentIndex || currentIndex < 0) {
-            return Optional.empty();
-        }
-
-        return Optional.of(changes.get(currentIndex));
+        return history.getCurrentUndo();
     }
 
     public Optional<IChange> getCurrentRedo()
     {
-        if (getChanges().size() < currentIndex || currentIndex < 1) {
-            return Optional.empty();
-        }
-
-        return Optional.of(changes.get(currentIndex - 1));
+        return history.getCurrentRedo();
     }
 
     @Override
@@ -123,8 +111,7 @@ public class ChangeTracker implements IChangeTracker
         if (getCurrentUndo().isPresent()) {
             final IChange change = getCurrentUndo().get();
             change.undo(player);
-            currentIndex = Math.min(changes.size(), currentIndex + 1);
-            sendUpdate();
+            history.undo();
         }
     }
 
@@ -137,35 +124,60 @@ public class ChangeTracker implements IChangeTracker
         if (getCurrentRedo().isPresent()) {
             final IChange change = getCurrentRedo().get();
             change.redo(player);
-            currentIndex = Math.max(0, currentIndex - 1);
-            sendUpdate();
+            history.redo();
         }
     }
 
+    /**
+     * Applies an operation received from the server to this, the client side, tracker.
+     *
+     * @param operation The operation.
+     */
+    public void applyOperation(final ChangeHistoryOperation<ChangeSummary> operation)
+    {
+        operation.<IChange>map(summary -> summary).applyTo(history);
+    }
+
+    /**
+     * Sends the entire history to the player, whose client side tracker might be out of date, for example after logging in again.
+     */
+    public void sync()
+    {
+        history.sync();
+    }
+
     @Override
     public CompoundNBT serializeNBT()
     {
         final CompoundNBT tag = new CompoundNBT();
-        tag.put("changes", this.changes.stream().map(INBTSerializable::serializeNBT).collect(Collectors.toCollection(ListNBT::new)));
-        tag.putInt("index", this.currentIndex);
+        tag.put("changes", this.history.getChanges().stream().map(INBTSerializable::serializeNBT).collect(Collectors.toCollection(ListNBT::new)));
+        tag.putInt("index", this.history.getCurrentIndex());
         return tag;
     }
 
     @Override
     public void deserializeNBT(final CompoundNBT nbt)
     {
-        this.changes.clear();
-        this.changes.addAll(nbt.getList("changes", Constants.NBT.TAG_COMPOUND).stream().map(CombinedChange::new).collect(Collectors.toList()));
-        this.currentIndex = nbt.getInt("index");
-    }
-
-    private void sendUpdate() {
-        if (player != null && player instanceof ServerPlayerEntity)
-        {
-            ChiselsAndBits.getInstance().getNetworkChannel().sendToPlayer(
-              new ChangeTrackerUpdatedPacket(this.serializeNBT()),
-              (ServerPlayerEntity) player
-            );
-        }
+        this.history.replaceWith(
+          nbt.getList("changes", Constants.NBT.TAG_COMPOUND).stream().map(CombinedChange::new).collect(Collectors.toList()),
+          nbt.getInt("index")
+        );
+    }
+
+    private void sendUpdate(final ChangeHistoryOperation<IChange> operation) {
+        if (!(player instanceof ServerPlayerEntity))
+            return;
+
+        //The tracker outlives reconnects, so the message goes to whichever entity currently represents the player.
+        final MinecraftServer server = ((ServerPlayerEntity) player).getServer();
+        final ServerPlayerEntity target = server == null ? null : server.getPlayerList().getPlayer(player.getUUID());
+        if (target == null)
+            return;
+
+        //Only the summaries are sent, the snapshots of the changes never leave the server.
+        ChiselsAndBits.getInstance().getNetworkChannel().sendToPlayer(
+          new ChangeTrackerOperationPacket(operation.map(ChangeSummary::of)),
+          target
+        );
     }
 }
@@ -37,6 +37,24 @@ public class ChangeTrackerManger implements IChangeTrackerManager
         );
     }
 
+    public ChangeTracker getClientChangeTracker()
+    {
+        return clientChangeTracker;
+    }
+
+    /**
+     * Sends the entire change history of the given player to its client.
+     *
+     * @param player The player.
+     */
+    public void sync(final PlayerEntity player)
+    {
+        changeTrackers.computeIfAbsent(
+          player.getUUID(),
+          id -> new ChangeTracker(player)
+        ).sync();
+    }
+
     public void clearCache() {
         changeTrackers.values().forEach(ChangeTracker::reset);
         changeTrackers.clear();
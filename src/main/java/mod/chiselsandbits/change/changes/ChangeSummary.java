@@ -0,0 +1,71 @@
+package mod.chiselsandbits.change.changes;
+
+import mod.chiselsandbits.api.change.changes.IChange;
+import mod.chiselsandbits.api.change.changes.IllegalChangeAttempt;
+import net.minecraft.entity.player.PlayerEntity;
+import net.minecraft.nbt.CompoundNBT;
+
+/**
+ * The client side stand-in for a change recorded on the server.
+ * Only carries what the undo and redo controls need, the server validates and performs the actual operations.
+ */
+public class ChangeSummary implements IChange
+{
+    private int blockCount;
+
+    public ChangeSummary(final int blockCount)
+    {
+        this.blockCount = blockCount;
+    }
+
+    public static ChangeSummary of(final IChange change)
+    {
+        if (change instanceof ChangeSummary)
+            return (ChangeSummary) change;
+
+        return new ChangeSummary(change instanceof CombinedChange ? ((CombinedChange) change).size() : 1);
+    }
+
+    public int getBlockCount()
+    {
+        return blockCount;
+    }
+
+    @Override
+    public boolean canUndo(final PlayerEntity player)
+    {
+        return true;
+    }
+
+    @Override
+    public boolean canRedo(final PlayerEntity player)
+    {
+        return true;
+    }
+
+    @Override
+    public void undo(final PlayerEntity player) throws IllegalChangeAttempt
+    {
+        throw new IllegalChangeAttempt();
+    }
+
+    @Override
+    public void redo(final PlayerEntity player) throws IllegalChangeAttempt
+    {
+        throw new IllegalChangeAttempt();
+    }
+
+    @Override
+    public CompoundNBT serializeNBT()
+    {
+        final CompoundNBT tag = new CompoundNBT();
+        tag.putInt("blocks", this.blockCount);
+        return tag;
+    }
+
+    @Override
+    public void deserializeNBT(final CompoundNBT nbt)
+    {
+        this.blockCount = nbt.getInt("blocks");
+    }
+}
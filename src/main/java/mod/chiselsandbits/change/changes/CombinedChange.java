@@ -27,6 +27,11 @@ public class CombinedChange implements IChange
         this.deserializeNBT((CompoundNBT) tag);
     }
 
+    public int size()
+    {
+        return changes.size();
+    }
+
     @Override
     public boolean canUndo(final PlayerEntity player)
     {
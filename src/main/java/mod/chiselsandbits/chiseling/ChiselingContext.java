@@ -14,6 +14,7 @@ import mod.chiselsandbits.api.util.BlockPosStreamProvider;
 import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.item.ItemStack;
 import net.minecraft.util.Hand;
+import net.minecraft.util.math.AxisAlignedBB;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.vector.Vector3d;
 import net.minecraft.world.IWorld;
@@ -41,6 +42,9 @@ public class ChiselingContext implements IChiselingContext
 
     private boolean           complete = false;
     private IWorldAreaMutator                                   mutator       = null;
+    //The last mutator for which all blocks passed the break permission check, so it does not need to be checked again.
+    private IWorldAreaMutator                                   permittedMutator = null;
+    private final Map<BlockPos, Boolean>                        breakPermissions;
     private Function<IAreaAccessor, Predicate<IStateEntryInfo>> filterBuilder = null;
     private Map<IMetadataKey<?>, Object> metadataKeyMap = Maps.newHashMap();
 
@@ -69,6 +73,7 @@ public class ChiselingContext implements IChiselingContext
         }
 
         this.playerEntity = playerEntity;
+        this.breakPermissions = Maps.newHashMap();
     }
 
     private ChiselingContext(
@@ -77,7 +82,8 @@ public class ChiselingContext implements IChiselingContext
       final ChiselingOperation modeOfOperandus,
       final boolean complete,
       final IWorldAreaMutator mutator,
-      final PlayerEntity playerEntity)
+      final PlayerEntity playerEntity,
+      final Map<BlockPos, Boolean> breakPermissions)
     {
         this.world = world;
         this.chiselMode = chiselMode;
@@ -89,6 +95,7 @@ public class ChiselingContext implements IChiselingContext
         this.complete = complete;
         this.mutator = mutator;
         this.playerEntity = playerEntity;
+        this.breakPermissions = breakPermissions;
     }
 
     private ChiselingContext(
@@ -96,7 +103,8 @@ public class ChiselingContext implements IChiselingContext
       final IChiselMode chiselMode,
       final ChiselingOperation modeOfOperandus,
       final boolean complete,
-      final PlayerEntity playerEntity)
+      final PlayerEntity playerEntity,
+      final Map<BlockPos, Boolean> breakPermissions)
     {
         this.world = world;
         this.chiselMode = chiselMode;
@@ -107,6 +115,7 @@ public class ChiselingContext implements IChiselingContext
         this.modeOfOperandus = modeOfOperandus;
         this.complete = complete;
         this.playerEntity = playerEntity;
+        this.breakPermissions = breakPermissions;
     }
 
     private void setMetadataKeyMap(final Map<IMetadataKey<?>, Object> metadataKeyMap)
@@ -117,24 +126,28 @@ public class ChiselingContext implements IChiselingContext
     @Override
     public @NotNull Optional<IWorldAreaMutator> getMutator()
     {
-        if (mutator == null || playerEntity == null || !(world instanceof World))
+        if (mutator == null || mutator == permittedMutator || playerEntity == null || !(world instanceof World))
             return Optional.ofNullable(mutator);
 
         if (BlockPosStreamProvider.getForRange(mutator.getInWorldStartPoint(), mutator.getInWorldEndPoint())
-          .anyMatch(position -> {
-              BlockEvent.BreakEvent event = new BlockEvent.BreakEvent((World) world, position, world.getBlockState(position), playerEntity);
-              MinecraftForge.EVENT_BUS.post(event);
-              return event.isCanceled();
-          })) {
+          .anyMatch(position -> !breakPermissions.computeIfAbsent(position, this::canBreak))) {
             //We are not allowed to edit the current area.
             //Nuke it.
             mutator = null;
             return Optional.empty();
         }
 
+        permittedMutator = mutator;
         return Optional.of(mutator);
     }
 
+    private boolean canBreak(final BlockPos position)
+    {
+        final BlockEvent.BreakEvent event = new BlockEvent.BreakEvent((World) world, position, world.getBlockState(position), playerEntity);
+        MinecraftForge.EVENT_BUS.post(event);
+        return !event.isCanceled();
+    }
+
     @Override
     public @NotNull IWorld getWorld()
     {
@@ -150,33 +163,50 @@ public class ChiselingContext implements IChiselingContext
     @Override
     public @NotNull IChiselingContext include(final Vector3d worldPosition)
     {
-        if (getMutator().map(m -> !m.isInside(worldPosition)).orElse(true))
+        return include(worldPosition, worldPosition);
+    }
+
+    @Override
+    public @NotNull IChiselingContext include(final AxisAlignedBB worldArea)
+    {
+        return include(
+          new Vector3d(worldArea.minX, worldArea.minY, worldArea.minZ),
+          new Vector3d(worldArea.maxX, worldArea.maxY, worldArea.maxZ)
+        );
+    }
+
+    private IChiselingContext include(final Vector3d min, final Vector3d max)
+    {
+        final Optional<IWorldAreaMutator> currentMutator = getMutator();
+        if (currentMutator.map(m -> m.isInside(min) && m.isInside(max)).orElse(false))
         {
-            if (getMutator().isPresent())
-            {
-                final IWorldAreaMutator worldAreaMutator = getMutator().get();
-
-                Vector3d start = new Vector3d(
-                  Math.min(worldPosition.x(), worldAreaMutator.getInWorldStartPoint().x()),
-                  Math.min(worldPosition.y(), worldAreaMutator.getInWorldStartPoint().y()),
-                  Math.min(worldPosition.z(), worldAreaMutator.getInWorldStartPoint().z())
-                );
-                Vector3d end = new Vector3d(
-                  Math.max(worldPosition.x(), worldAreaMutator.getInWorldEndPoint().x()),
-                  Math.max(worldPosition.y(), worldAreaMutator.getInWorldEndPoint().y()),
-                  Math.max(worldPosition.z(), worldAreaMutator.getInWorldEndPoint().z())
-                );
-
-                this.mutator = IMutatorFactory.getInstance().covering(world, start, end);
-            }
-            else
-            {
-                this.mutator = IMutatorFactory.getInstance().covering(
-                  world,
-                  worldPosition,
-                  worldPosition
-                );
-            }
+            return this;
+        }
+
+        if (currentMutator.isPresent())
+        {
+            final IWorldAreaMutator worldAreaMutator = currentMutator.get();
+
+            Vector3d start = new Vector3d(
+              Math.min(min.x(), worldAreaMutator.getInWorldStartPoint().x()),
+              Math.min(min.y(), worldAreaMutator.getInWorldStartPoint().y()),
+              Math.min(min.z(), worldAreaMutator.getInWorldStartPoint().z())
+            );
+            Vector3d end = new Vector3d(
+              Math.max(max.x(), worldAreaMutator.getInWorldEndPoint().x()),
+              Math.max(max.y(), worldAreaMutator.getInWorldEndPoint().y()),
+              Math.max(max.z(), worldAreaMutator.getInWorldEndPoint().z())
+            );
+
+            this.mutator = IMutatorFactory.getInstance().covering(world, start, end);
+        }
+        else
+        {
+            this.mutator = IMutatorFactory.getInstance().covering(
+              world,
+              min,
+              max
+            );
         }
 
         return this;
@@ -229,7 +259,8 @@ public class ChiselingContext implements IChiselingContext
               chiselMode,
               modeOfOperandus,
               this.complete,
-              playerEntity
+              playerEntity,
+              breakPermissions
             );
         }
 
@@ -243,7 +274,8 @@ public class ChiselingContext implements IChiselingContext
             mutator.getInWorldStartPoint(),
             mutator.getInWorldEndPoint()
           ),
-          playerEntity
+          playerEntity,
+          breakPermissions
         );
     }
 
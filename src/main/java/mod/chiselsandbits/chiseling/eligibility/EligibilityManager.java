@@ -11,7 +11,7 @@ import mod.chiselsandbits.registrars.ModBlocks;
 import mod.chiselsandbits.registrars.ModTags;
 import mod.chiselsandbits.utils.ClassUtils;
 import mod.chiselsandbits.utils.ReflectionHelperBlock;
-import mod.chiselsandbits.utils.SimpleMaxSizedCache;
+import mod.chiselsandbits.utils.StripedLruCache;
 import mod.chiselsandbits.utils.TranslationUtils;
 import net.minecraft.block.*;
 import net.minecraft.block.material.Material;
@@ -31,8 +31,8 @@ public class EligibilityManager implements IEligibilityManager
 {
     private static final EligibilityManager INSTANCE = new EligibilityManager();
 
-    private static final SimpleMaxSizedCache<BlockState, IEligibilityAnalysisResult> cache =
-        new SimpleMaxSizedCache<>(() -> GameData.getBlockStateIDMap().size() == 0 ? 1000 : GameData.getBlockStateIDMap().size());
+    private static final StripedLruCache<BlockState, IEligibilityAnalysisResult> cache =
+        new StripedLruCache<>(() -> GameData.getBlockStateIDMap().size() == 0 ? 1000 : GameData.getBlockStateIDMap().size());
 
     private EligibilityManager()
     {
@@ -53,7 +53,7 @@ public class EligibilityManager implements IEligibilityManager
     @Override
     public IEligibilityAnalysisResult analyse(@NotNull final BlockState state)
     {
-        return cache.get(state, () -> {
+        return cache.computeIfAbsent(state, () -> {
             if (state.getBlock() instanceof ChiseledBlock)
             {
                 return new EligibilityAnalysisResult(
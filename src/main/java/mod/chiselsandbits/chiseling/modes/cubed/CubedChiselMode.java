@@ -11,16 +11,17 @@ import mod.chiselsandbits.api.item.withmode.group.IToolModeGroup;
 import mod.chiselsandbits.api.multistate.StateEntrySize;
 import mod.chiselsandbits.api.multistate.accessor.IAreaAccessor;
 import mod.chiselsandbits.api.multistate.mutator.batched.IBatchMutation;
-import mod.chiselsandbits.api.util.BlockPosStreamProvider;
 import mod.chiselsandbits.api.util.RayTracingUtils;
 import mod.chiselsandbits.api.util.SingleBlockBlockReader;
 import mod.chiselsandbits.registrars.ModChiselModeGroups;
 import mod.chiselsandbits.utils.BitInventoryUtils;
 import mod.chiselsandbits.utils.ItemStackUtils;
 import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
 import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.util.Direction;
 import net.minecraft.util.ResourceLocation;
+import net.minecraft.util.math.AxisAlignedBB;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.BlockRayTraceResult;
 import net.minecraft.util.math.RayTraceResult;
@@ -80,17 +81,17 @@ public class CubedChiselMode extends ForgeRegistryEntry<IChiselMode> implements
               {
                   final Map<BlockState, Integer> resultingBitCount = Maps.newHashMap();
 
-                  mutator.inWorldMutableStream()
-                    .forEach(state -> {
-                        final BlockState currentState = state.getState();
-                        if (context.tryDamageItem())
-                        {
-                            resultingBitCount.putIfAbsent(currentState, 0);
-                            resultingBitCount.computeIfPresent(currentState, (s, currentCount) -> currentCount + 1);
+                  mutator.mutateEachBit((x, y, z, currentState) -> {
+                      if (context.tryDamageItem())
+                      {
+                          resultingBitCount.putIfAbsent(currentState, 0);
+                          resultingBitCount.computeIfPresent(currentState, (s, currentCount) -> currentCount + 1);
 
-                            state.clear();
-                        }
-                    });
+                          return Blocks.AIR.defaultBlockState();
+                      }
+
+                      return currentState;
+                  });
 
                   resultingBitCount.forEach((blockState, count) -> BitInventoryUtils.insertIntoOrSpawn(
                     playerEntity,
@@ -133,9 +134,14 @@ public class CubedChiselMode extends ForgeRegistryEntry<IChiselMode> implements
                   return ClickProcessingState.DEFAULT;
               }
 
-              final int missingBitCount = (int) mutator.stream()
-                                                  .filter(state -> state.getState().isAir(new SingleBlockBlockReader(state.getState()), BlockPos.ZERO))
-                                                  .count();
+              final int[] missingBits = {0};
+              mutator.forEachBit((x, y, z, state) -> {
+                  if (state.isAir(new SingleBlockBlockReader(state), BlockPos.ZERO))
+                  {
+                      missingBits[0]++;
+                  }
+              });
+              final int missingBitCount = missingBits[0];
 
               final IBitInventory playerBitInventory = IBitInventoryManager.getInstance().create(playerEntity);
 
@@ -150,9 +156,7 @@ public class CubedChiselMode extends ForgeRegistryEntry<IChiselMode> implements
                   try (IBatchMutation ignored =
                          mutator.batch(IChangeTrackerManager.getInstance().getChangeTracker(playerEntity)))
                   {
-                      mutator.inWorldMutableStream()
-                        .filter(state -> state.getState().isAir(new SingleBlockBlockReader(state.getState()), BlockPos.ZERO))
-                        .forEach(state -> state.overrideState(heldBlockState)); //We can use override state here to prevent the try-catch block.
+                      mutator.mutateEachBit((x, y, z, state) -> state.isAir(new SingleBlockBlockReader(state), BlockPos.ZERO) ? heldBlockState : state);
                   }
               }
 
@@ -223,14 +227,13 @@ public class CubedChiselMode extends ForgeRegistryEntry<IChiselMode> implements
         }
 
         final Vector3d finalAlignmentOffset = alignmentOffset.multiply(fullFacingVector);
-        BlockPosStreamProvider.getForRange(bitsPerSide)
-          .forEach(bitPos -> context.include(
-            hitVector
-              .subtract(finalAlignmentOffset)
-              .add(Vector3d.atLowerCornerOf(bitPos)
-                     .multiply(fullFacingVector)
-                     .multiply(StateEntrySize.current().getSizePerBit(), StateEntrySize.current().getSizePerBit(), StateEntrySize.current().getSizePerBit()))
-          ));
+        final Vector3d firstTarget = hitVector.subtract(finalAlignmentOffset);
+        final Vector3d lastTarget = firstTarget
+          .add(new Vector3d(bitsPerSide - 1, bitsPerSide - 1, bitsPerSide - 1)
+                 .multiply(fullFacingVector)
+                 .multiply(StateEntrySize.current().getSizePerBit(), StateEntrySize.current().getSizePerBit(), StateEntrySize.current().getSizePerBit()));
+
+        context.include(new AxisAlignedBB(firstTarget, lastTarget));
 
         return Optional.empty();
     }
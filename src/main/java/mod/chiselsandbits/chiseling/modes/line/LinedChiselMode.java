@@ -17,6 +17,7 @@ import mod.chiselsandbits.registrars.ModChiselModeGroups;
 import mod.chiselsandbits.utils.BitInventoryUtils;
 import mod.chiselsandbits.utils.ItemStackUtils;
 import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
 import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.util.Direction;
 import net.minecraft.util.ResourceLocation;
@@ -82,17 +83,17 @@ public class LinedChiselMode extends ForgeRegistryEntry<IChiselMode> implements
 
                   final Map<BlockState, Integer> resultingBitCount = Maps.newHashMap();
 
-                  mutator.inWorldMutableStream()
-                    .forEach(state -> {
-                        final BlockState currentState = state.getState();
+                  mutator.mutateEachBit((x, y, z, currentState) -> {
+                      if (context.tryDamageItem())
+                      {
+                          resultingBitCount.putIfAbsent(currentState, 0);
+                          resultingBitCount.computeIfPresent(currentState, (s, currentCount) -> currentCount + 1);
 
-                        if (context.tryDamageItem()) {
-                            resultingBitCount.putIfAbsent(currentState, 0);
-                            resultingBitCount.computeIfPresent(currentState, (s, currentCount) -> currentCount + 1);
+                          return Blocks.AIR.defaultBlockState();
+                      }
 
-                            state.clear();
-                        }
-                    });
+                      return currentState;
+                  });
 
                   resultingBitCount.forEach((blockState, count) -> BitInventoryUtils.insertIntoOrSpawn(
                     playerEntity,
@@ -135,9 +136,14 @@ public class LinedChiselMode extends ForgeRegistryEntry<IChiselMode> implements
                 return ClickProcessingState.DEFAULT;
             }
 
-              final int missingBitCount = (int) mutator.stream()
-                                                  .filter(state -> state.getState().isAir(new SingleBlockBlockReader(state.getState()), BlockPos.ZERO))
-                                                  .count();
+              final int[] missingBits = {0};
+              mutator.forEachBit((x, y, z, state) -> {
+                  if (state.isAir(new SingleBlockBlockReader(state), BlockPos.ZERO))
+                  {
+                      missingBits[0]++;
+                  }
+              });
+              final int missingBitCount = missingBits[0];
 
               final IBitInventory playerBitInventory = IBitInventoryManager.getInstance().create(playerEntity);
 
@@ -152,9 +158,7 @@ public class LinedChiselMode extends ForgeRegistryEntry<IChiselMode> implements
                   try (IBatchMutation ignored =
                          mutator.batch(IChangeTrackerManager.getInstance().getChangeTracker(playerEntity)))
                   {
-                      mutator.inWorldMutableStream()
-                        .filter(state -> state.getState().isAir(new SingleBlockBlockReader(state.getState()), BlockPos.ZERO))
-                        .forEach(state -> state.overrideState(heldBlockState)); //We can use override state here to prevent the try-catch block.
+                      mutator.mutateEachBit((x, y, z, state) -> state.isAir(new SingleBlockBlockReader(state), BlockPos.ZERO) ? heldBlockState : state);
                   }
               }
 
@@ -141,9 +141,14 @@ public class PlaneChiselMode extends ForgeRegistryEntry<IChiselMode> implements
                   return ClickProcessingState.DEFAULT;
               }
 
-              final int missingBitCount = (int) mutator.stream()
-                                                  .filter(state -> state.getState().isAir(new SingleBlockBlockReader(state.getState()), BlockPos.ZERO))
-                                                  .count();
+              final int[] missingBits = {0};
+              mutator.forEachBit((x, y, z, state) -> {
+                  if (state.isAir(new SingleBlockBlockReader(state), BlockPos.ZERO))
+                  {
+                      missingBits[0]++;
+                  }
+              });
+              final int missingBitCount = missingBits[0];
 
               final IBitInventory playerBitInventory = IBitInventoryManager.getInstance().create(playerEntity);
 
@@ -158,9 +163,7 @@ public class PlaneChiselMode extends ForgeRegistryEntry<IChiselMode> implements
                   try (IBatchMutation ignored =
                          mutator.batch(IChangeTrackerManager.getInstance().getChangeTracker(playerEntity)))
                   {
-                      mutator.inWorldMutableStream()
-                        .filter(state -> state.getState().isAir(new SingleBlockBlockReader(state.getState()), BlockPos.ZERO))
-                        .forEach(state -> state.overrideState(heldBlockState)); //We can use override state here to prevent the try-catch block.
+                      mutator.mutateEachBit((x, y, z, state) -> state.isAir(new SingleBlockBlockReader(state), BlockPos.ZERO) ? heldBlockState : state);
                   }
               }
 
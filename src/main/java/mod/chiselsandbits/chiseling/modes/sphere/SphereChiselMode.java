@@ -16,7 +16,6 @@ import mod.chiselsandbits.api.multistate.accessor.IStateEntryInfo;
 import mod.chiselsandbits.api.multistate.accessor.world.IInWorldStateEntryInfo;
 import mod.chiselsandbits.api.multistate.accessor.world.IWorldAreaAccessor;
 import mod.chiselsandbits.api.multistate.mutator.batched.IBatchMutation;
-import mod.chiselsandbits.api.util.BlockPosStreamProvider;
 import mod.chiselsandbits.api.util.RayTracingUtils;
 import mod.chiselsandbits.api.util.SingleBlockBlockReader;
 import mod.chiselsandbits.registrars.ModChiselModeGroups;
@@ -27,6 +26,7 @@ import net.minecraft.block.BlockState;
 import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.util.Direction;
 import net.minecraft.util.ResourceLocation;
+import net.minecraft.util.math.AxisAlignedBB;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.BlockRayTraceResult;
 import net.minecraft.util.math.RayTraceResult;
@@ -252,15 +252,14 @@ public class SphereChiselMode extends ForgeRegistryEntry<IChiselMode> implements
             return new SphereAreaFilter(context.getModeOfOperandus(), Vector3d.ZERO, center);
         });
 
-        BlockPosStreamProvider.getForRange(diameter)
-          .forEach(bitPos -> {
-              final Vector3d target = center
-                .add(Vector3d.atLowerCornerOf(bitPos.subtract(new Vector3i(diameter / 2, diameter / 2, diameter / 2))).multiply(StateEntrySize.current().getSizePerBit(), StateEntrySize.current().getSizePerBit(), StateEntrySize.current().getSizePerBit()));
+        final Vector3d firstTarget = center
+          .add(Vector3d.atLowerCornerOf(new Vector3i(-(diameter / 2), -(diameter / 2), -(diameter / 2))).multiply(StateEntrySize.current().getSizePerBit(), StateEntrySize.current().getSizePerBit(), StateEntrySize.current().getSizePerBit()));
+        final Vector3d lastTarget = center
+          .add(Vector3d.atLowerCornerOf(new Vector3i(diameter - 1 - diameter / 2, diameter - 1 - diameter / 2, diameter - 1 - diameter / 2)).multiply(StateEntrySize.current().getSizePerBit(), StateEntrySize.current().getSizePerBit(), StateEntrySize.current().getSizePerBit()));
 
-              context.include(
-                target
-              );
-          });
+        context.include(
+          new AxisAlignedBB(firstTarget, lastTarget)
+        );
 
         return Either.right(center);
     }
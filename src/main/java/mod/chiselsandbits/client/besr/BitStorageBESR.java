@@ -13,7 +13,7 @@ import mod.chiselsandbits.client.model.baked.chiseled.ChiseledBlockBakedModelMan
 import mod.chiselsandbits.client.util.FluidCuboidUtils;
 import mod.chiselsandbits.utils.ChunkSectionUtils;
 import mod.chiselsandbits.utils.MultiStateSnapshotUtils;
-import mod.chiselsandbits.utils.SimpleMaxSizedCache;
+import mod.chiselsandbits.utils.StripedLruCache;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.Blocks;
 import net.minecraft.client.Minecraft;
@@ -32,7 +32,7 @@ import java.util.Objects;
 public class BitStorageBESR extends TileEntityRenderer<BitStorageBlockEntity>
 {
 
-    private static final SimpleMaxSizedCache<CacheKey, ChunkSection> STORAGE_CONTENTS_BLOB_CACHE = new SimpleMaxSizedCache<>(Configuration.getInstance().getClient().bitStorageContentCacheSize::get);
+    private static final StripedLruCache<CacheKey, ChunkSection> STORAGE_CONTENTS_BLOB_CACHE = new StripedLruCache<>(Configuration.getInstance().getClient().bitStorageContentCacheSize::get);
 
     public static void clearCache() {
         STORAGE_CONTENTS_BLOB_CACHE.clear();
@@ -8,6 +8,7 @@ import mod.chiselsandbits.api.chiseling.eligibility.IEligibilityManager;
 import mod.chiselsandbits.api.client.chiseling.preview.render.IChiselContextPreviewRenderer;
 import mod.chiselsandbits.api.config.Configuration;
 import mod.chiselsandbits.api.multistate.accessor.IStateEntryInfo;
+import mod.chiselsandbits.api.util.StateEntryFilter;
 import mod.chiselsandbits.api.util.constants.Constants;
 import mod.chiselsandbits.client.render.ModRenderTypes;
 import mod.chiselsandbits.voxelshape.VoxelShapeManager;
@@ -29,6 +30,11 @@ public class ConfigurableColoredVoxelShapeChiselContextPreviewRenderer implement
 {
     static ResourceLocation ID = new ResourceLocation(Constants.MOD_ID, "default");
 
+    private static final StateEntryFilter CHISELABLE = StateEntryFilter.ofState(
+      "chiselable",
+      state -> state.isAir() || IEligibilityManager.getInstance().canBeChiseled(state)
+    );
+
     @Override
     public ResourceLocation getId()
     {
@@ -55,6 +61,10 @@ public class ConfigurableColoredVoxelShapeChiselContextPreviewRenderer implement
                   .map(factory -> factory.apply(areaAccessor))
                   .orElse(currentContextSnapshot.getModeOfOperandus() == ChiselingOperation.CHISELING ? NOT_AIR : ALL);
 
+                //Registered filters keep the cache key stable, so the shape is not calculated again each frame.
+                if (contextPredicate instanceof StateEntryFilter)
+                    return CHISELABLE.and((StateEntryFilter) contextPredicate);
+
                 return new InternalContextFilter(contextPredicate);
             },
             false);
@@ -6,6 +6,7 @@ import mod.chiselsandbits.api.multistate.accessor.IAreaAccessor;
 import mod.chiselsandbits.api.multistate.accessor.IStateEntryInfo;
 import mod.chiselsandbits.client.culling.ICullTest;
 import mod.chiselsandbits.client.culling.MCCullTest;
+import net.minecraft.block.BlockState;
 import net.minecraft.client.renderer.RenderType;
 import net.minecraft.client.renderer.RenderTypeLookup;
 
@@ -49,21 +50,34 @@ public enum ChiselRenderType
             return false;
         }
 
-        return accessor.stream()
-          .anyMatch(this::isRequiredForRendering);
+        final boolean[] required = {false};
+        accessor.forEachBit((x, y, z, state) -> {
+            if (!required[0] && isRequiredForRendering(state))
+            {
+                required[0] = true;
+            }
+        });
+
+        return required[0];
     }
 
     public boolean isRequiredForRendering(
       final IStateEntryInfo stateEntryInfo )
     {
-        if (!this.type.isValidBlockState(stateEntryInfo.getState()))
+        return isRequiredForRendering(stateEntryInfo.getState());
+    }
+
+    public boolean isRequiredForRendering(
+      final BlockState blockState )
+    {
+        if (!this.type.isValidBlockState(blockState))
             return false;
 
         if (this.type.isFluid()) {
-            return RenderTypeLookup.canRenderInLayer(stateEntryInfo.getState().getFluidState(), this.layer);
+            return RenderTypeLookup.canRenderInLayer(blockState.getFluidState(), this.layer);
         }
 
-        return RenderTypeLookup.canRenderInLayer(stateEntryInfo.getState(), this.layer);
+        return RenderTypeLookup.canRenderInLayer(blockState, this.layer);
     }
 
     public static ChiselRenderType fromLayer(
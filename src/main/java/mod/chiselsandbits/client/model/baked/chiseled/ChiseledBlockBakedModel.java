@@ -1,10 +1,8 @@
 package mod.chiselsandbits.client.model.baked.chiseled;
 
-import com.google.common.collect.Lists;
+import mod.chiselsandbits.api.block.state.id.IBlockStateIdManager;
 import mod.chiselsandbits.api.multistate.StateEntrySize;
 import mod.chiselsandbits.api.multistate.accessor.IAreaAccessor;
-import mod.chiselsandbits.api.multistate.accessor.IStateEntryInfo;
-import mod.chiselsandbits.api.multistate.accessor.sortable.IPositionMutator;
 import mod.chiselsandbits.api.util.SingleBlockBlockReader;
 import mod.chiselsandbits.api.util.constants.Constants;
 import mod.chiselsandbits.client.culling.ICullTest;
@@ -232,33 +230,45 @@ public class ChiseledBlockBakedModel extends BaseBakedBlockModel
       final Function<Vector3d, BlockState> neighborStateSupplier,
       final long primaryStateRenderSeed)
     {
-        final List<List<FaceRegion>> resultingFaces = new ArrayList<>();
+        final List<FaceRegion> resultingFaces = new ArrayList<>();
+
+        // snapshot the accessor once, so that neighbor lookups during face generation are plain array reads.
+        final int bitsPerSide = StateEntrySize.current().getBitsPerBlockSide();
+        final BlockState[] states = new BlockState[StateEntrySize.current().getBitsPerBlock()];
+        accessor.forEachBit((x, y, z, state) -> {
+            if (x < 0 || x >= bitsPerSide || y < 0 || y >= bitsPerSide || z < 0 || z >= bitsPerSide)
+            {
+                return;
+            }
+
+            states[getGridIndex(x, y, z)] = state;
+        });
 
         processFaces(
-          accessor,
+          states,
           resultingFaces,
-          IPositionMutator.xzy(),
+          0,
+          2,
+          1,
           X_Faces,
-          Vector3d::x,
-          Vector3d::z,
           neighborStateSupplier
         );
         processFaces(
-          accessor,
+          states,
           resultingFaces,
-          IPositionMutator.zxy(),
+          1,
+          2,
+          0,
           Y_Faces,
-          Vector3d::y,
-          Vector3d::z,
           neighborStateSupplier
         );
         processFaces(
-          accessor,
+          states,
           resultingFaces,
-          IPositionMutator.zyx(),
+          2,
+          1,
+          0,
           Z_Faces,
-          Vector3d::z,
-          Vector3d::y,
           neighborStateSupplier
         );
 
@@ -271,87 +281,82 @@ public class ChiseledBlockBakedModel extends BaseBakedBlockModel
         // single reusable face builder.
         final IFaceBuilder faceBuilder = getBuilder();
 
-        for (final List<FaceRegion> src : resultingFaces)
+        for (final FaceRegion region : resultingFaces)
         {
-            mergeFaces(src);
+            final Direction myFace = region.getFace();
 
-            for (final FaceRegion region : src)
-            {
-                final Direction myFace = region.getFace();
+            // keep integers up until the last moment... ( note I tested
+            // snapping the floats after this stage, it made no
+            // difference. )
+            offsetVec(to, region.getMaxX(), region.getMaxY(), region.getMaxZ());
+            offsetVec(from, region.getMinX(), region.getMinY(), region.getMinZ());
+            final ModelQuadLayer[] mpc = FaceManager.getInstance().getCachedFace(region.getBlockState(), myFace, chiselRenderType.layer, primaryStateRenderSeed);
 
-                // keep integers up until the last moment... ( note I tested
-                // snapping the floats after this stage, it made no
-                // difference. )
-                offsetVec(to, region.getMaxX(), region.getMaxY(), region.getMaxZ());
-                offsetVec(from, region.getMinX(), region.getMinY(), region.getMinZ());
-                final ModelQuadLayer[] mpc = FaceManager.getInstance().getCachedFace(region.getBlockState(), myFace, chiselRenderType.layer, primaryStateRenderSeed);
-
-                if (mpc != null)
+            if (mpc != null)
+            {
+                for (final ModelQuadLayer pc : mpc)
                 {
-                    for (final ModelQuadLayer pc : mpc)
-                    {
-                        VertexFormat builderFormat = faceBuilder.getFormat();
+                    VertexFormat builderFormat = faceBuilder.getFormat();
 
-                        faceBuilder.begin();
-                        faceBuilder.setFace(myFace, pc.getTint());
+                    faceBuilder.begin();
+                    faceBuilder.setFace(myFace, pc.getTint());
 
-                        final float maxLightmap = 32.0f / 0xffff;
-                        getFaceUvs(uvs, myFace, from, to, pc.getUvs());
+                    final float maxLightmap = 32.0f / 0xffff;
+                    getFaceUvs(uvs, myFace, from, to, pc.getUvs());
 
-                        // build it.
-                        for (int vertNum = 0; vertNum < 4; vertNum++)
+                    // build it.
+                    for (int vertNum = 0; vertNum < 4; vertNum++)
+                    {
+                        for (int elementIndex = 0; elementIndex < builderFormat.getElements().size(); elementIndex++)
                         {
-                            for (int elementIndex = 0; elementIndex < builderFormat.getElements().size(); elementIndex++)
+                            final VertexFormatElement element = builderFormat.getElements().get(elementIndex);
+                            switch (element.getUsage())
                             {
-                                final VertexFormatElement element = builderFormat.getElements().get(elementIndex);
-                                switch (element.getUsage())
-                                {
-                                    case POSITION:
-                                        getVertexPos(pos, myFace, vertNum, to, from);
-                                        faceBuilder.put(elementIndex, pos[0], pos[1], pos[2]);
-                                        break;
-
-                                    case COLOR:
-                                        final int cb = pc.getColor();
-                                        faceBuilder.put(elementIndex, byteToFloat(cb >> 16), byteToFloat(cb >> 8), byteToFloat(cb), NotZero(byteToFloat(cb >> 24)));
-                                        break;
-
-                                    case NORMAL:
-                                        // this fixes a bug with Forge AO?? and
-                                        // solid blocks.. I have no idea why...
-                                        final float normalShift = 0.999f;
-                                        faceBuilder.put(elementIndex, normalShift * myFace.getStepX(), normalShift * myFace.getStepY(), normalShift * myFace.getStepZ());
-                                        break;
-
-                                    case UV:
-                                        if (element.getIndex() == 2)
-                                        {
-                                            final float v = maxLightmap * Math.max(0, Math.min(15, pc.getLight()));
-                                            faceBuilder.put(elementIndex, v, v);
-                                        }
-                                        else
-                                        {
-                                            final float u = uvs[faceVertMap[myFace.get3DDataValue()][vertNum] * 2];
-                                            final float v = uvs[faceVertMap[myFace.get3DDataValue()][vertNum] * 2 + 1];
-                                            faceBuilder.put(elementIndex, pc.getSprite().getU(u), pc.getSprite().getV(v));
-                                        }
-                                        break;
-
-                                    default:
-                                        faceBuilder.put(elementIndex);
-                                        break;
-                                }
+                                case POSITION:
+                                    getVertexPos(pos, myFace, vertNum, to, from);
+                                    faceBuilder.put(elementIndex, pos[0], pos[1], pos[2]);
+                                    break;
+
+                                case COLOR:
+                                    final int cb = pc.getColor();
+                                    faceBuilder.put(elementIndex, byteToFloat(cb >> 16), byteToFloat(cb >> 8), byteToFloat(cb), NotZero(byteToFloat(cb >> 24)));
+                                    break;
+
+                                case NORMAL:
+                                    // this fixes a bug with Forge AO?? and
+                                    // solid blocks.. I have no idea why...
+                                    final float normalShift = 0.999f;
+                                    faceBuilder.put(elementIndex, normalShift * myFace.getStepX(), normalShift * myFace.getStepY(), normalShift * myFace.getStepZ());
+                                    break;
+
+                                case UV:
+                                    if (element.getIndex() == 2)
+                                    {
+                                        final float v = maxLightmap * Math.max(0, Math.min(15, pc.getLight()));
+                                        faceBuilder.put(elementIndex, v, v);
+                                    }
+                                    else
+                                    {
+                                        final float u = uvs[faceVertMap[myFace.get3DDataValue()][vertNum] * 2];
+                                        final float v = uvs[faceVertMap[myFace.get3DDataValue()][vertNum] * 2 + 1];
+                                        faceBuilder.put(elementIndex, pc.getSprite().getU(u), pc.getSprite().getV(v));
+                                    }
+                                    break;
+
+                                default:
+                                    faceBuilder.put(elementIndex);
+                                    break;
                             }
                         }
+                    }
 
-                        if (region.isEdge())
-                        {
-                            builder.getList(myFace).add(faceBuilder.create(pc.getSprite()));
-                        }
-                        else
-                        {
-                            builder.getList(null).add(faceBuilder.create(pc.getSprite()));
-                        }
+                    if (region.isEdge())
+                    {
+                        builder.getList(myFace).add(faceBuilder.create(pc.getSprite()));
+                    }
+                    else
+                    {
+                        builder.getList(null).add(faceBuilder.create(pc.getSprite()));
                     }
                 }
             }
@@ -375,151 +380,102 @@ public class ChiseledBlockBakedModel extends BaseBakedBlockModel
         return (i & 0xff) / 255.0f;
     }
 
-    private void mergeFaces(
-      final List<FaceRegion> src)
-    {
-        boolean restart;
+    private void processFaces(
+      final BlockState[] states,
+      final List<FaceRegion> resultingRegions,
+      final int regionBuildingAxis,
+      final int faceBuildingAxis,
+      final int faceExtendingAxis,
+      final Direction[] potentialDirections,
+      final Function<Vector3d, BlockState> neighborStateSupplier) {
+        final ICullTest test = chiselRenderType.getTest();
+        final int bitsPerSide = StateEntrySize.current().getBitsPerBlockSide();
+        final int[] position = new int[3];
+        final int[] mask = new int[bitsPerSide * bitsPerSide];
 
-        do
+        for (final Direction facing : potentialDirections)
         {
-            restart = false;
-
-            final int size = src.size();
-            final int sizeMinusOne = size - 1;
-
-            restart:
-            for (int x = 0; x < sizeMinusOne; ++x)
+            final int regionBuildingStep = new int[] {facing.getStepX(), facing.getStepY(), facing.getStepZ()}[regionBuildingAxis];
+            for (int regionBuildingValue = 0; regionBuildingValue < bitsPerSide; regionBuildingValue++)
             {
-                final FaceRegion faceA = src.get(x);
+                position[regionBuildingAxis] = regionBuildingValue;
+                final int neighborValue = regionBuildingValue + regionBuildingStep;
+                final boolean isEdge = neighborValue < 0 || neighborValue >= bitsPerSide;
 
-                for (int y = x + 1; y < size; ++y)
+                boolean hasVisibleFaces = false;
+                for (int faceBuildingValue = 0; faceBuildingValue < bitsPerSide; faceBuildingValue++)
                 {
-                    final FaceRegion faceB = src.get(y);
-
-                    if (faceA.extend(faceB))
+                    position[faceBuildingAxis] = faceBuildingValue;
+                    for (int faceExtendingValue = 0; faceExtendingValue < bitsPerSide; faceExtendingValue++)
                     {
-                        src.set(y, src.get(sizeMinusOne));
-                        src.remove(sizeMinusOne);
+                        position[faceExtendingAxis] = faceExtendingValue;
+
+                        final BlockState state = states[getGridIndex(position[0], position[1], position[2])];
+                        final boolean isVisible = state != null
+                          && this.chiselRenderType.isRequiredForRendering(state)
+                          && isFaceVisible(states, facing, position[0], position[1], position[2], state, isEdge, test, neighborStateSupplier);
 
-                        restart = true;
-                        break restart;
+                        mask[faceBuildingValue * bitsPerSide + faceExtendingValue] = isVisible ? IBlockStateIdManager.getInstance().getIdFrom(state) : -1;
+                        hasVisibleFaces |= isVisible;
                     }
                 }
-            }
-        }
-        while (restart);
-    }
-
 
-    private void processFaces(
-      final IAreaAccessor accessor,
-      final List<List<FaceRegion>> resultingRegions,
-      final IPositionMutator analysisOrder,
-      final Direction[] potentialDirections,
-      final Function<Vector3d, Double> regionBuildingAxisValueExtractor,
-      final Function<Vector3d, Double> faceBuildingAxisValueExtractor,
-      final Function<Vector3d, BlockState> neighborStateSupplier) {
-        final ArrayList<FaceRegion> regions = Lists.newArrayList();
-        final ICullTest test = chiselRenderType.getTest();
+                if (!hasVisibleFaces)
+                {
+                    continue;
+                }
 
-        for (final Direction facing : potentialDirections)
-        {
-            final FaceBuildingState state = new FaceBuildingState();
-
-            accessor.streamWithPositionMutator(analysisOrder)
-              .filter(this.chiselRenderType::isRequiredForRendering)
-              .forEach(stateEntryInfo -> {
-                  if (state.getRegionBuildingAxisValue() != regionBuildingAxisValueExtractor.apply(stateEntryInfo.getStartPoint())) {
-                      if (!regions.isEmpty()) {
-                          resultingRegions.add(Lists.newArrayList(regions));
-                      }
-                      regions.clear();
-                      state.setCurrentRegion(null);
-                  }
-                  state.setRegionBuildingAxisValue(regionBuildingAxisValueExtractor.apply(stateEntryInfo.getStartPoint()));
-
-                  if (state.getFaceBuildingAxisValue() != faceBuildingAxisValueExtractor.apply(stateEntryInfo.getStartPoint())) {
-                      state.setCurrentRegion(null);
-                  }
-                  state.setFaceBuildingAxisValue(faceBuildingAxisValueExtractor.apply(stateEntryInfo.getStartPoint()));
-
-                  final Optional<FaceRegion> potentialRegionData = buildFaceRegion(
-                    accessor,
-                    facing,
-                    stateEntryInfo,
-                    test,
-                    neighborStateSupplier
-                  );
-
-                  if (!potentialRegionData.isPresent()) {
-                      state.setCurrentRegion(null);
-                      return;
-                  }
-
-
-                  if (state.getCurrentRegion() != null) {
-                      if (state.getCurrentRegion().extend(potentialRegionData.get())) {
-                          return;
-                      }
-                  }
-
-                  state.setCurrentRegion(potentialRegionData.get());
-                  regions.add(potentialRegionData.get());
-              });
-
-            if (!regions.isEmpty()) {
-                resultingRegions.add(Lists.newArrayList(regions));
+                GreedyFaceMesher.mesh(mask, bitsPerSide, (minU, minV, maxU, maxV, id) -> {
+                    final int[] start = new int[3];
+                    final int[] end = new int[3];
+                    start[regionBuildingAxis] = position[regionBuildingAxis];
+                    end[regionBuildingAxis] = position[regionBuildingAxis] + 1;
+                    start[faceBuildingAxis] = minV;
+                    end[faceBuildingAxis] = maxV;
+                    start[faceExtendingAxis] = minU;
+                    end[faceExtendingAxis] = maxU;
+
+                    resultingRegions.add(FaceRegion.createFrom3DObjectWithFacing(
+                      new Vector3d(start[0], start[1], start[2]).multiply(StateEntrySize.current().getSizePerBitScalingVector()),
+                      new Vector3d(end[0], end[1], end[2]).multiply(StateEntrySize.current().getSizePerBitScalingVector()),
+                      facing,
+                      IBlockStateIdManager.getInstance().getBlockStateFrom(id),
+                      isEdge
+                    ));
+                });
             }
-            regions.clear();
         }
     }
 
-    private Optional<FaceRegion> buildFaceRegion(
-      final IAreaAccessor blob,
+    private boolean isFaceVisible(
+      final BlockState[] states,
       final Direction facing,
-      final IStateEntryInfo target,
+      final int x,
+      final int y,
+      final int z,
+      final BlockState state,
+      final boolean isEdge,
       final ICullTest test,
       final Function<Vector3d, BlockState> neighborStateSupplier)
     {
-        return Optional.of(target)
-          .filter(stateEntryInfo -> {
-              final Vector3d faceOffSet = Vector3d.atLowerCornerOf(facing.getNormal()).multiply(
-                StateEntrySize.current().getSizePerBit(),
-                StateEntrySize.current().getSizePerBit(),
-                StateEntrySize.current().getSizePerBit()
-              );
-              final Vector3d offsetTarget = stateEntryInfo.getStartPoint().add(faceOffSet);
-
-              if (!blob.isInside(offsetTarget)) {
-                  final BlockState externalNeighborState = neighborStateSupplier.apply(offsetTarget);
-
-                  return Optional.of(externalNeighborState)
-                           .map(neighborState -> test.isVisible(stateEntryInfo.getState(), neighborState))
-                           .orElseGet(() -> !stateEntryInfo.getState().isAir(new SingleBlockBlockReader(stateEntryInfo.getState()), BlockPos.ZERO));
-              }
-
-              //TODO: Replace isAir in 1.17
-              return blob.getInAreaTarget(offsetTarget)
-                .map(IStateEntryInfo::getState)
-                .map(neighborState -> test.isVisible(stateEntryInfo.getState(), neighborState))
-                .orElseGet(() -> !stateEntryInfo.getState().isAir(new SingleBlockBlockReader(stateEntryInfo.getState()), BlockPos.ZERO));
-          })
-          .map(stateEntryInfo -> {
-              final Vector3d faceOffSet = Vector3d.atLowerCornerOf(facing.getNormal()).multiply(
-                StateEntrySize.current().getSizePerBit(),
-                StateEntrySize.current().getSizePerBit(),
-                StateEntrySize.current().getSizePerBit()
-              );
-              final Vector3d offsetTarget = stateEntryInfo.getStartPoint().add(faceOffSet);
-
-              return FaceRegion.createFrom3DObjectWithFacing(
-                stateEntryInfo.getStartPoint(),
-                stateEntryInfo.getEndPoint(),
-                facing,
-                stateEntryInfo.getState(),
-                !blob.isInside(offsetTarget)
-              );
-          });
+        final int neighborX = x + facing.getStepX();
+        final int neighborY = y + facing.getStepY();
+        final int neighborZ = z + facing.getStepZ();
+
+        final BlockState neighborState = isEdge
+          ? neighborStateSupplier.apply(new Vector3d(neighborX, neighborY, neighborZ).multiply(StateEntrySize.current().getSizePerBitScalingVector()))
+          : states[getGridIndex(neighborX, neighborY, neighborZ)];
+
+        //TODO: Replace isAir in 1.17
+        return neighborState != null
+          ? test.isVisible(state, neighborState)
+          : !state.isAir(new SingleBlockBlockReader(state), BlockPos.ZERO);
+    }
+
+    private static int getGridIndex(final int x, final int y, final int z)
+    {
+        final int bitsPerSide = StateEntrySize.current().getBitsPerBlockSide();
+        return (x * bitsPerSide + y) * bitsPerSide + z;
     }
 
     // generate final pos from static data.
@@ -648,41 +604,4 @@ public class ChiseledBlockBakedModel extends BaseBakedBlockModel
     {
         return Minecraft.getInstance().getTextureAtlas(PlayerContainer.BLOCK_ATLAS).apply(MissingTextureSprite.getLocation());
     }
-
-    private static final class FaceBuildingState {
-        private double regionBuildingAxis = -1d;
-        private double faceBuildingAxis = -1d;
-
-        private FaceRegion currentRegion;
-
-        public double getRegionBuildingAxisValue()
-        {
-            return regionBuildingAxis;
-        }
-
-        public void setRegionBuildingAxisValue(final double regionBuildingAxis)
-        {
-            this.regionBuildingAxis = regionBuildingAxis;
-        }
-
-        public double getFaceBuildingAxisValue()
-        {
-            return faceBuildingAxis;
-        }
-
-        public void setFaceBuildingAxisValue(final double faceBuildingAxis)
-        {
-            this.faceBuildingAxis = faceBuildingAxis;
-        }
-
-        public FaceRegion getCurrentRegion()
-        {
-            return currentRegion;
-        }
-
-        public void setCurrentRegion(final FaceRegion currentRegion)
-        {
-            this.currentRegion = currentRegion;
-        }
-    }
 }
@@ -11,7 +11,7 @@ import mod.chiselsandbits.api.neighborhood.IBlockNeighborhoodBuilder;
 import mod.chiselsandbits.api.profiling.IProfilerSection;
 import mod.chiselsandbits.api.util.VectorUtils;
 import mod.chiselsandbits.profiling.ProfilingManager;
-import mod.chiselsandbits.utils.SimpleMaxSizedCache;
+import mod.chiselsandbits.utils.StripedLruCache;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.Blocks;
 import net.minecraft.client.renderer.RenderType;
@@ -28,7 +28,7 @@ import java.util.function.Function;
 public class ChiseledBlockBakedModelManager {
     private static final ChiseledBlockBakedModelManager INSTANCE = new ChiseledBlockBakedModelManager();
 
-    private final SimpleMaxSizedCache<Key, ChiseledBlockBakedModel> cache = new SimpleMaxSizedCache<>(
+    private final StripedLruCache<Key, ChiseledBlockBakedModel> cache = new StripedLruCache<>(
             () -> Configuration.getInstance().getClient().modelCacheSize.get() * RenderType.chunkBufferLayers().size()
     );
 
@@ -88,7 +88,7 @@ public class ChiseledBlockBakedModelManager {
                             neighborhoodAreaAccessorProvider
                     ),
                     primaryStateRenderSeed);
-            return cache.get(key,
+            return cache.computeIfAbsent(key,
                     () -> {
                         try (IProfilerSection ignored3 = ProfilingManager.getInstance().withSection("Cache mis")) {
                             return new ChiseledBlockBakedModel(
@@ -0,0 +1,107 @@
+package mod.chiselsandbits.client.model.baked.chiseled;
+
+import java.util.Arrays;
+
+/**
+ * Turns a single slice of visible faces into rectangles.
+ * <p>
+ * The slice is a square mask of state ids, indexed as {@code v * side + u}, where a negative id means that there is no visible face.
+ * Every row is split into maximal runs of the same id along u, and a run is stacked onto the rectangle above it along v
+ * when that rectangle covers exactly the same u range with the same id.
+ * This produces the same rectangles as extending the faces of each row and then merging the rows pairwise, but in a single pass.
+ */
+public final class GreedyFaceMesher
+{
+    private GreedyFaceMesher()
+    {
+        throw new IllegalStateException("Can not instantiate an instance of: GreedyFaceMesher. This is a utility class");
+    }
+
+    /**
+     * Emits the rectangles of the given mask.
+     *
+     * @param mask The state id of the visible face at each position, or a negative value if there is none.
+     * @param side The length of a side of the mask.
+     * @param consumer Receives every rectangle once it can not be extended any further.
+     */
+    public static void mesh(final int[] mask, final int side, final RectangleConsumer consumer)
+    {
+        //For every u, the rectangle which starts at it and reached the previous row: its end, its first row and its id.
+        int[] openEnds = new int[side];
+        int[] openStarts = new int[side];
+        int[] openIds = new int[side];
+        int[] nextEnds = new int[side];
+        int[] nextStarts = new int[side];
+        int[] nextIds = new int[side];
+        Arrays.fill(openEnds, -1);
+
+        for (int v = 0; v < side; v++)
+        {
+            Arrays.fill(nextEnds, -1);
+
+            final int rowOffset = v * side;
+            int u = 0;
+            while (u < side)
+            {
+                final int id = mask[rowOffset + u];
+                if (id < 0)
+                {
+                    u++;
+                    continue;
+                }
+
+                final int start = u;
+                while (u < side && mask[rowOffset + u] == id)
+                {
+                    u++;
+                }
+
+                nextEnds[start] = u;
+                nextIds[start] = id;
+                if (openEnds[start] == u && openIds[start] == id)
+                {
+                    nextStarts[start] = openStarts[start];
+                    openEnds[start] = -1;
+                }
+                else
+                {
+                    nextStarts[start] = v;
+                }
+            }
+
+            emitOpen(openEnds, openStarts, openIds, v, side, consumer);
+
+            int[] swap = openEnds;
+            openEnds = nextEnds;
+            nextEnds = swap;
+            swap = openStarts;
+            openStarts = nextStarts;
+            nextStarts = swap;
+            swap = openIds;
+            openIds = nextIds;
+            nextIds = swap;
+        }
+
+        emitOpen(openEnds, openStarts, openIds, side, side, consumer);
+    }
+
+    private static void emitOpen(final int[] ends, final int[] starts, final int[] ids, final int endV, final int side, final RectangleConsumer consumer)
+    {
+        for (int u = 0; u < side; u++)
+        {
+            if (ends[u] >= 0)
+            {
+                consumer.accept(u, starts[u], ends[u], endV, ids[u]);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface RectangleConsumer
+    {
+        /**
+         * Invoked for each rectangle, the maximal coordinates are exclusive.
+         */
+        void accept(int minU, int minV, int maxU, int maxV, int id);
+    }
+}
@@ -8,7 +8,7 @@ import mod.chiselsandbits.client.model.baked.face.model.ModelQuadLayer;
 import mod.chiselsandbits.client.model.baked.face.model.ModelVertexRange;
 import mod.chiselsandbits.client.model.baked.simple.SimpleGeneratedModel;
 import mod.chiselsandbits.utils.ItemStackUtils;
-import mod.chiselsandbits.utils.SimpleMaxSizedCache;
+import mod.chiselsandbits.utils.StripedLruCache;
 import net.minecraft.block.BlockState;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.renderer.RenderType;
@@ -40,10 +40,12 @@ public final class FaceManager
 
     private static final FaceManager                                INSTANCE = new FaceManager();
 
-    private final        SimpleMaxSizedCache<Key, ModelQuadLayer[]> cache    = new SimpleMaxSizedCache<>(
-      IChiselsAndBitsAPI.getInstance().getConfiguration().getClient().faceLayerCacheSize::get
+    //Weighed by the amount of layers, each of which ends up as one quad of the baked model.
+    private final        StripedLruCache<Key, ModelQuadLayer[]> cache    = new StripedLruCache<>(
+      IChiselsAndBitsAPI.getInstance().getConfiguration().getClient().faceLayerCacheSize::get,
+      layers -> Math.max(1, layers.length)
     );
-    private final SimpleMaxSizedCache<BlockState, Integer> colorCache = new SimpleMaxSizedCache<>(
+    private final StripedLruCache<BlockState, Integer> colorCache = new StripedLruCache<>(
       () -> GameData.getBlockStateIDMap().size() > 0 ? GameData.getBlockStateIDMap().size() : 1000
     );
 
@@ -74,7 +76,7 @@ public final class FaceManager
 
         final Key key = new Key(state, layer, face, primaryStateRenderSeed);
 
-        return cache.get(key, () -> {
+        return cache.computeIfAbsent(key, () -> {
             final RenderType original = net.minecraftforge.client.MinecraftForgeClient.getRenderLayer();
             try
             {
@@ -456,7 +458,7 @@ public final class FaceManager
     private int getColorFor(
       final BlockState state)
     {
-        return colorCache.get(state, () -> {
+        return colorCache.computeIfAbsent(state, () -> {
             int out;
             final Fluid fluid = state.getFluidState().getType();
             if ( fluid != Fluids.EMPTY )
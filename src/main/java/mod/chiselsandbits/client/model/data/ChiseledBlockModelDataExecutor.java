@@ -1,9 +1,6 @@
 package mod.chiselsandbits.client.model.data;
 
-import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Maps;
-import com.google.common.collect.Multimap;
-import com.google.common.collect.Multimaps;
 import mod.chiselsandbits.ChiselsAndBits;
 import mod.chiselsandbits.api.IChiselsAndBitsAPI;
 import mod.chiselsandbits.api.multistate.accessor.IAreaAccessor;
@@ -23,30 +20,50 @@ import net.minecraft.client.Minecraft;
 import net.minecraft.client.renderer.RenderType;
 import net.minecraft.client.renderer.model.IBakedModel;
 import net.minecraft.tileentity.TileEntity;
-import net.minecraft.util.math.BlockPos;
-import net.minecraft.util.math.ChunkPos;
 import net.minecraftforge.client.ForgeHooksClient;
 import net.minecraftforge.client.model.ModelDataManager;
 import net.minecraftforge.client.model.data.ModelDataMap;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
 
 import static net.minecraftforge.client.MinecraftForgeClient.getRenderLayer;
 
 public class ChiseledBlockModelDataExecutor
 {
-    private static       ExecutorService              recalculationService;
-    private static final Multimap<ChunkPos, BlockPos> positionsInProcessing = Multimaps.synchronizedSetMultimap(HashMultimap.create());
+    private static final Logger LOGGER = LogManager.getLogger();
 
+    private static       ExecutorService                                recalculationService;
+    private static final ConcurrentMap<ChiseledBlockEntity, BuildState> buildStates = new ConcurrentHashMap<>();
+
+    private static final LongAdder submittedBuilds = new LongAdder();
+    private static final LongAdder coalescedBuilds = new LongAdder();
+    private static final LongAdder cancelledBuilds = new LongAdder();
+    private static final LongAdder completedBuilds = new LongAdder();
+
+    /**
+     * Requests a rebuild of the model data of the given block entity.
+     * Requests which arrive while a build for the block entity is still queued are merged into that build,
+     * and builds which are superseded by a newer request while they run are cancelled, leaving the newest request to complete them.
+     *
+     * @param tileEntity The block entity to rebuild the model data for.
+     * @param onCompleteCallback Invoked once model data which includes this request has been set.
+     */
     public static void updateModelDataCore(final ChiseledBlockEntity tileEntity, final Runnable onCompleteCallback)
     {
         ensureThreadPoolSetup();
 
-        positionsInProcessing.put(new ChunkPos(tileEntity.getBlockPos()), tileEntity.getBlockPos());
         final IBlockNeighborhood neighborhood = IBlockNeighborhoodBuilder.getInstance().build(
           direction -> tileEntity.getLevel().getBlockState(tileEntity.getBlockPos().offset(direction.getNormal())),
           direction -> {
@@ -57,156 +74,279 @@ public class ChiseledBlockModelDataExecutor
               return null;
           }
         );
-        CompletableFuture.supplyAsync(() -> {
-              IBakedModel unknownRenderTypeModel;
-              Map<RenderType, IBakedModel> renderTypedModels = Maps.newHashMap();
-
-              try(IProfilerSection ignored1 = ProfilingManager.getInstance().withSection("Extract model data from data"))
-              {
-                  final RenderType currentType = getRenderLayer();
-                  ForgeHooksClient.setRenderLayer(null);
-                  try(IProfilerSection ignored2 = ProfilingManager.getInstance().withSection("Unknown render layer model building"))
-                  {
-                      final ChiseledBlockBakedModel[] models = new ChiseledBlockBakedModel[ChiselRenderType.values().length];
-                      try(IProfilerSection ignored3 = ProfilingManager.getInstance().withSection("Individual render types building"))
-                      {
-                          ChiselRenderType[] values = ChiselRenderType.values();
-                          for (int i = 0; i < values.length; i++)
-                          {
-                              final ChiselRenderType chiselRenderType = values[i];
-                              try (IProfilerSection ignored4 = ProfilingManager.getInstance().withSection(chiselRenderType.name()))
-                              {
-                                  final ChiseledBlockBakedModel model = ChiseledBlockBakedModelManager.getInstance().get(
-                                    tileEntity,
-                                    tileEntity.getStatistics().getPrimaryState(),
-                                    chiselRenderType,
-                                    neighborhood::getBlockState,
-                                    neighborhood::getAreaAccessor,
-                                    tileEntity.getBlockPos()
-                                  );
-                                  models[i] = model;
-                              }
-                          }
-                      }
-
-                      try(IProfilerSection ignored3 = ProfilingManager.getInstance().withSection("Combining model"))
-                      {
-                          unknownRenderTypeModel = new CombinedModel(models);
-                      }
-                  }
-
-                  try(IProfilerSection ignored2 = ProfilingManager.getInstance().withSection("Known render layer model building"))
-                  {
-
-                      for (final RenderType chunkBufferLayer : RenderType.chunkBufferLayers())
-                      {
-                          try(IProfilerSection ignored3 = ProfilingManager.getInstance().withSection("Known render layer model building for: " + chunkBufferLayer.toString()))
-                          {
-                              ForgeHooksClient.setRenderLayer(chunkBufferLayer);
-                              if (tileEntity.getStatistics().getStateCounts().isEmpty() ||
-                                    (tileEntity.getStatistics().getStateCounts().size() == 1 && tileEntity.getStatistics().getStateCounts().containsKey(Blocks.AIR.defaultBlockState()))) {
-                                  continue;
-                              }
-
-                              IBakedModel baked;
-                              if (FluidRenderingManager.getInstance().isFluidRenderType(chunkBufferLayer))
-                              {
-                                  try(IProfilerSection ignored4 = ProfilingManager.getInstance().withSection("Solid and fluid model building"))
-                                  {
-
-                                      final ChiseledBlockBakedModel solidModel;
-                                      try(IProfilerSection ignored5 = ProfilingManager.getInstance().withSection("Solid"))
-                                      {
-                                          solidModel = ChiseledBlockBakedModelManager.getInstance().get(
-                                            tileEntity,
-                                            tileEntity.getStatistics().getPrimaryState(),
-                                            ChiselRenderType.fromLayer(chunkBufferLayer, false),
-                                            neighborhood::getBlockState,
-                                            neighborhood::getAreaAccessor,
-                                            tileEntity.getBlockPos()
-                                          );
-                                      }
-
-                                      final ChiseledBlockBakedModel fluidModel;
-                                      try(IProfilerSection ignored5 = ProfilingManager.getInstance().withSection("Fluid"))
-                                      {
-                                          fluidModel = ChiseledBlockBakedModelManager.getInstance().get(
-                                            tileEntity,
-                                            tileEntity.getStatistics().getPrimaryState(),
-                                            ChiselRenderType.fromLayer(chunkBufferLayer, true),
-                                            neighborhood::getBlockState,
-                                            neighborhood::getAreaAccessor,
-                                            tileEntity.getBlockPos()
-                                          );
-                                      }
-
-                                      try(IProfilerSection ignored5 = ProfilingManager.getInstance().withSection("Model combining"))
-                                      {
-                                          if (solidModel.isEmpty())
-                                          {
-                                              baked = fluidModel;
-                                          }
-                                          else if (fluidModel.isEmpty())
-                                          {
-                                              baked = solidModel;
-                                          }
-                                          else
-                                          {
-                                              baked = new CombinedModel(solidModel, fluidModel);
-                                          }
-                                      }
-
-                                  }
-                              }
-                              else
-                              {
-                                  try(IProfilerSection ignored4 = ProfilingManager.getInstance().withSection("Solid or fluid model building"))
-                                  {
-                                      baked = ChiseledBlockBakedModelManager.getInstance().get(
-                                        tileEntity,
-                                        tileEntity.getStatistics().getPrimaryState(),
-                                        ChiselRenderType.fromLayer(chunkBufferLayer, false),
-                                        neighborhood::getBlockState,
-                                        neighborhood::getAreaAccessor,
-                                        tileEntity.getBlockPos()
-                                      );
-                                  }
-                              }
-
-                              renderTypedModels.put(chunkBufferLayer, baked);
-                          }
-
-                      }
-                  }
-
-                  ForgeHooksClient.setRenderLayer(currentType);
-              }
 
-              return new ModelDataMap.Builder()
-                .withInitial(
-                  ModModelProperties.UNKNOWN_LAYER_MODEL_PROPERTY, unknownRenderTypeModel
-                )
-                .withInitial(
-                  ModModelProperties.KNOWN_LAYER_MODEL_PROPERTY, renderTypedModels
-                )
-                .build();
-          }, recalculationService)
-          .thenAcceptAsync(tileEntity::setModelData, recalculationService)
-          .thenRunAsync(onCompleteCallback, recalculationService)
-          .thenRunAsync(() -> {
-              positionsInProcessing.remove(new ChunkPos(tileEntity.getBlockPos()), tileEntity.getBlockPos());
-          }, recalculationService)
-          .thenRunAsync(() -> {
-              if (Minecraft.getInstance().level == tileEntity.getLevel()) {
-                  ModelDataManager.requestModelDataRefresh(tileEntity);
-                  Minecraft.getInstance().level.sendBlockUpdated(
-                    tileEntity.getBlockPos(),
-                    tileEntity.getBlockState(),
-                    tileEntity.getBlockState(),
-                    8
-                  );
-              }
-          }, Minecraft.getInstance());
+        while (true)
+        {
+            final BuildState buildState = buildStates.computeIfAbsent(tileEntity, key -> new BuildState());
+            synchronized (buildState)
+            {
+                if (buildState.isRetired)
+                {
+                    continue;
+                }
+
+                buildState.generation++;
+                buildState.neighborhood = neighborhood;
+                buildState.onCompleteCallbacks.add(onCompleteCallback);
+                if (buildState.isQueued)
+                {
+                    coalescedBuilds.increment();
+                    return;
+                }
+
+                buildState.isQueued = true;
+            }
+
+            submittedBuilds.increment();
+            recalculationService.execute(() -> runBuild(tileEntity, buildState));
+            return;
+        }
+    }
+
+    public static long getSubmittedBuildCount()
+    {
+        return submittedBuilds.sum();
+    }
+
+    public static long getCoalescedBuildCount()
+    {
+        return coalescedBuilds.sum();
+    }
+
+    public static long getCancelledBuildCount()
+    {
+        return cancelledBuilds.sum();
+    }
+
+    public static long getCompletedBuildCount()
+    {
+        return completedBuilds.sum();
+    }
+
+    private static void runBuild(final ChiseledBlockEntity tileEntity, final BuildState buildState)
+    {
+        final long generation;
+        final IBlockNeighborhood neighborhood;
+        synchronized (buildState)
+        {
+            buildState.isQueued = false;
+            generation = buildState.generation;
+            neighborhood = buildState.neighborhood;
+        }
+
+        final BooleanSupplier isSuperseded = () -> buildState.generation != generation;
+
+        ModelDataMap modelData = null;
+        try
+        {
+            modelData = buildModelData(tileEntity, neighborhood, isSuperseded);
+        }
+        catch (RuntimeException e)
+        {
+            LOGGER.error("Failed to build the model data of the chiseled block at: " + tileEntity.getBlockPos(), e);
+        }
+
+        final List<Runnable> onCompleteCallbacks;
+        synchronized (buildState)
+        {
+            if (buildState.generation != generation)
+            {
+                //A newer request is queued, it will take care of the callbacks.
+                cancelledBuilds.increment();
+                return;
+            }
+
+            if (modelData != null)
+            {
+                tileEntity.setModelData(modelData);
+            }
+
+            onCompleteCallbacks = new ArrayList<>(buildState.onCompleteCallbacks);
+            buildState.onCompleteCallbacks.clear();
+            buildState.isRetired = true;
+            buildStates.remove(tileEntity, buildState);
+        }
+
+        if (modelData == null)
+        {
+            return;
+        }
+
+        completedBuilds.increment();
+        onCompleteCallbacks.forEach(Runnable::run);
+
+        Minecraft.getInstance().execute(() -> {
+            if (Minecraft.getInstance().level == tileEntity.getLevel()) {
+                ModelDataManager.requestModelDataRefresh(tileEntity);
+                Minecraft.getInstance().level.sendBlockUpdated(
+                  tileEntity.getBlockPos(),
+                  tileEntity.getBlockState(),
+                  tileEntity.getBlockState(),
+                  8
+                );
+            }
+        });
+    }
+
+    /**
+     * Builds the model data, periodically checking whether the build is still needed.
+     *
+     * @return The model data, or null when the build got superseded.
+     */
+    @Nullable
+    private static ModelDataMap buildModelData(
+      final ChiseledBlockEntity tileEntity,
+      final IBlockNeighborhood neighborhood,
+      final BooleanSupplier isSuperseded
+    )
+    {
+        if (isSuperseded.getAsBoolean())
+        {
+            return null;
+        }
+
+        IBakedModel unknownRenderTypeModel;
+        Map<RenderType, IBakedModel> renderTypedModels = Maps.newHashMap();
+
+        try(IProfilerSection ignored1 = ProfilingManager.getInstance().withSection("Extract model data from data"))
+        {
+            final RenderType currentType = getRenderLayer();
+            ForgeHooksClient.setRenderLayer(null);
+            try(IProfilerSection ignored2 = ProfilingManager.getInstance().withSection("Unknown render layer model building"))
+            {
+                final ChiseledBlockBakedModel[] models = new ChiseledBlockBakedModel[ChiselRenderType.values().length];
+                try(IProfilerSection ignored3 = ProfilingManager.getInstance().withSection("Individual render types building"))
+                {
+                    ChiselRenderType[] values = ChiselRenderType.values();
+                    for (int i = 0; i < values.length; i++)
+                    {
+                        final ChiselRenderType chiselRenderType = values[i];
+                        try (IProfilerSection ignored4 = ProfilingManager.getInstance().withSection(chiselRenderType.name()))
+                        {
+                            final ChiseledBlockBakedModel model = ChiseledBlockBakedModelManager.getInstance().get(
+                              tileEntity,
+                              tileEntity.getStatistics().getPrimaryState(),
+                              chiselRenderType,
+                              neighborhood::getBlockState,
+                              neighborhood::getAreaAccessor,
+                              tileEntity.getBlockPos()
+                            );
+                            models[i] = model;
+                        }
+                    }
+                }
+
+                try(IProfilerSection ignored3 = ProfilingManager.getInstance().withSection("Combining model"))
+                {
+                    unknownRenderTypeModel = new CombinedModel(models);
+                }
+            }
+
+            try(IProfilerSection ignored2 = ProfilingManager.getInstance().withSection("Known render layer model building"))
+            {
+
+                for (final RenderType chunkBufferLayer : RenderType.chunkBufferLayers())
+                {
+                    if (isSuperseded.getAsBoolean())
+                    {
+                        break;
+                    }
+
+                    try(IProfilerSection ignored3 = ProfilingManager.getInstance().withSection("Known render layer model building for: " + chunkBufferLayer.toString()))
+                    {
+                        ForgeHooksClient.setRenderLayer(chunkBufferLayer);
+                        if (tileEntity.getStatistics().getStateCounts().isEmpty() ||
+                              (tileEntity.getStatistics().getStateCounts().size() == 1 && tileEntity.getStatistics().getStateCounts().containsKey(Blocks.AIR.defaultBlockState()))) {
+                            continue;
+                        }
+
+                        IBakedModel baked;
+                        if (FluidRenderingManager.getInstance().isFluidRenderType(chunkBufferLayer))
+                        {
+                            try(IProfilerSection ignored4 = ProfilingManager.getInstance().withSection("Solid and fluid model building"))
+                            {
+
+                                final ChiseledBlockBakedModel solidModel;
+                                try(IProfilerSection ignored5 = ProfilingManager.getInstance().withSection("Solid"))
+                                {
+                                    solidModel = ChiseledBlockBakedModelManager.getInstance().get(
+                                      tileEntity,
+                                      tileEntity.getStatistics().getPrimaryState(),
+                                      ChiselRenderType.fromLayer(chunkBufferLayer, false),
+                                      neighborhood::getBlockState,
+                                      neighborhood::getAreaAccessor,
+                                      tileEntity.getBlockPos()
+                                    );
+                                }
+
+                                final ChiseledBlockBakedModel fluidModel;
+                                try(IProfilerSection ignored5 = ProfilingManager.getInstance().withSection("Fluid"))
+                                {
+                                    fluidModel = ChiseledBlockBakedModelManager.getInstance().get(
+                                      tileEntity,
+                                      tileEntity.getStatistics().getPrimaryState(),
+                                      ChiselRenderType.fromLayer(chunkBufferLayer, true),
+                                      neighborhood::getBlockState,
+                                      neighborhood::getAreaAccessor,
+                                      tileEntity.getBlockPos()
+                                    );
+                                }
+
+                                try(IProfilerSection ignored5 = ProfilingManager.getInstance().withSection("Model combining"))
+                                {
+                                    if (solidModel.isEmpty())
+                                    {
+                                        baked = fluidModel;
+                                    }
+                                    else if (fluidModel.isEmpty())
+                                    {
+                                        baked = solidModel;
+                                    }
+                                    else
+                                    {
+                                        baked = new CombinedModel(solidModel, fluidModel);
+                                    }
+                                }
+
+                            }
+                        }
+                        else
+                        {
+                            try(IProfilerSection ignored4 = ProfilingManager.getInstance().withSection("Solid or fluid model building"))
+                            {
+                                baked = ChiseledBlockBakedModelManager.getInstance().get(
+                                  tileEntity,
+                                  tileEntity.getStatistics().getPrimaryState(),
+                                  ChiselRenderType.fromLayer(chunkBufferLayer, false),
+                                  neighborhood::getBlockState,
+                                  neighborhood::getAreaAccessor,
+                                  tileEntity.getBlockPos()
+                                );
+                            }
+                        }
+
+                        renderTypedModels.put(chunkBufferLayer, baked);
+                    }
+
+                }
+            }
+
+            ForgeHooksClient.setRenderLayer(currentType);
+        }
+
+        if (isSuperseded.getAsBoolean())
+        {
+            return null;
+        }
+
+        return new ModelDataMap.Builder()
+          .withInitial(
+            ModModelProperties.UNKNOWN_LAYER_MODEL_PROPERTY, unknownRenderTypeModel
+          )
+          .withInitial(
+            ModModelProperties.KNOWN_LAYER_MODEL_PROPERTY, renderTypedModels
+          )
+          .build();
     }
 
     private static void ensureThreadPoolSetup() {
@@ -225,4 +365,14 @@ public class ChiseledBlockModelDataExecutor
             );
         }
     }
+
+    private static final class BuildState
+    {
+        //Read without holding the lock by running builds, to notice that they got superseded.
+        private volatile long               generation          = 0;
+        private          boolean            isQueued            = false;
+        private          boolean            isRetired           = false;
+        private          IBlockNeighborhood neighborhood;
+        private final    List<Runnable>     onCompleteCallbacks = new ArrayList<>();
+    }
 }
@@ -0,0 +1,20 @@
+package mod.chiselsandbits.events;
+
+import mod.chiselsandbits.api.util.constants.Constants;
+import mod.chiselsandbits.network.scheduling.ChiseledUpdateScheduler;
+import mod.chiselsandbits.network.scheduling.ChunkPayloadScheduler;
+import net.minecraftforge.event.world.ChunkWatchEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+@Mod.EventBusSubscriber(modid = Constants.MOD_ID, bus = Mod.EventBusSubscriber.Bus.FORGE)
+public class ChunkWatchEventHandler
+{
+
+    @SubscribeEvent
+    public static void onChunkUnWatch(final ChunkWatchEvent.UnWatch event)
+    {
+        ChiseledUpdateScheduler.getInstance().discard(event.getPlayer(), event.getPos());
+        ChunkPayloadScheduler.getInstance().discard(event.getPlayer(), event.getPos());
+    }
+}
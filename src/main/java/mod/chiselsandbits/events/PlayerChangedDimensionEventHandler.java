@@ -0,0 +1,27 @@
+package mod.chiselsandbits.events;
+
+import mod.chiselsandbits.api.util.constants.Constants;
+import mod.chiselsandbits.measures.MeasuringManager;
+import net.minecraft.entity.player.ServerPlayerEntity;
+import net.minecraftforge.event.entity.player.PlayerEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+@Mod.EventBusSubscriber(modid = Constants.MOD_ID, bus = Mod.EventBusSubscriber.Bus.FORGE)
+public class PlayerChangedDimensionEventHandler
+{
+    @SubscribeEvent
+    public static void onPlayerChangedDimension(final PlayerEvent.PlayerChangedDimensionEvent event)
+    {
+        if (event.getPlayer() instanceof ServerPlayerEntity)
+            MeasuringManager.getInstance().syncTo((ServerPlayerEntity) event.getPlayer());
+    }
+
+    @SubscribeEvent
+    public static void onPlayerRespawn(final PlayerEvent.PlayerRespawnEvent event)
+    {
+        //Respawning, for example after leaving the end, can move the player into a different dimension as well.
+        if (event.getPlayer() instanceof ServerPlayerEntity)
+            MeasuringManager.getInstance().syncTo((ServerPlayerEntity) event.getPlayer());
+    }
+}
@@ -1,8 +1,10 @@
 package mod.chiselsandbits.events;
 
 import mod.chiselsandbits.api.util.constants.Constants;
+import mod.chiselsandbits.change.ChangeTrackerManger;
 import mod.chiselsandbits.chiseling.ChiselingManager;
 import mod.chiselsandbits.measures.MeasuringManager;
+import net.minecraft.entity.player.ServerPlayerEntity;
 import net.minecraftforge.event.entity.player.PlayerEvent;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 import net.minecraftforge.fml.common.Mod;
@@ -13,7 +15,9 @@ public class PlayerLoggedInEventHandler
     @SubscribeEvent
     public static void onPlayerLoggedIn(final PlayerEvent.PlayerLoggedInEvent event)
     {
-        MeasuringManager.getInstance().syncToAll();
+        if (event.getPlayer() instanceof ServerPlayerEntity)
+            MeasuringManager.getInstance().syncTo((ServerPlayerEntity) event.getPlayer());
         ChiselingManager.getInstance().resetLastChiselCountdown(event.getPlayer());
+        ChangeTrackerManger.getInstance().sync(event.getPlayer());
     }
 }
@@ -0,0 +1,23 @@
+package mod.chiselsandbits.events;
+
+import mod.chiselsandbits.api.util.constants.Constants;
+import mod.chiselsandbits.network.scheduling.ChiseledUpdateScheduler;
+import mod.chiselsandbits.network.scheduling.ChunkPayloadScheduler;
+import net.minecraft.entity.player.ServerPlayerEntity;
+import net.minecraftforge.event.entity.player.PlayerEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+@Mod.EventBusSubscriber(modid = Constants.MOD_ID, bus = Mod.EventBusSubscriber.Bus.FORGE)
+public class PlayerLoggedOutEventHandler
+{
+    @SubscribeEvent
+    public static void onPlayerLoggedOut(final PlayerEvent.PlayerLoggedOutEvent event)
+    {
+        if (event.getPlayer() instanceof ServerPlayerEntity)
+        {
+            ChiseledUpdateScheduler.getInstance().discardAll((ServerPlayerEntity) event.getPlayer());
+            ChunkPayloadScheduler.getInstance().discardAll((ServerPlayerEntity) event.getPlayer());
+        }
+    }
+}
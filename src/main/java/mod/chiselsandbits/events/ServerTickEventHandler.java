@@ -0,0 +1,37 @@
+package mod.chiselsandbits.events;
+
+import mod.chiselsandbits.api.util.constants.Constants;
+import mod.chiselsandbits.block.entities.dirty.DirtyBlockEntityQueue;
+import mod.chiselsandbits.network.scheduling.ChiseledUpdateScheduler;
+import mod.chiselsandbits.network.scheduling.ChunkPayloadScheduler;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.fml.event.server.FMLServerStoppedEvent;
+
+@Mod.EventBusSubscriber(modid = Constants.MOD_ID, bus = Mod.EventBusSubscriber.Bus.FORGE)
+public class ServerTickEventHandler
+{
+
+    @SubscribeEvent
+    public static void onServerTick(final TickEvent.ServerTickEvent event)
+    {
+        if (event.phase != TickEvent.Phase.END)
+        {
+            return;
+        }
+
+        DirtyBlockEntityQueue.getInstance().flush();
+        //The chunk payloads supersede the pending updates of their chunks, so they go first.
+        ChunkPayloadScheduler.getInstance().tick();
+        ChiseledUpdateScheduler.getInstance().tick();
+    }
+
+    @SubscribeEvent
+    public static void onServerStopped(final FMLServerStoppedEvent event)
+    {
+        DirtyBlockEntityQueue.getInstance().clear();
+        ChiseledUpdateScheduler.getInstance().clear();
+        ChunkPayloadScheduler.getInstance().clear();
+    }
+}
@@ -9,9 +9,10 @@ import mod.chiselsandbits.api.item.pattern.IPatternItem;
 import mod.chiselsandbits.api.multistate.StateEntrySize;
 import mod.chiselsandbits.api.multistate.accessor.identifier.IAreaShapeIdentifier;
 import mod.chiselsandbits.api.multistate.accessor.IStateEntryInfo;
-import mod.chiselsandbits.api.multistate.accessor.identifier.ILongArrayBackedAreaShapeIdentifier;
+import mod.chiselsandbits.api.multistate.accessor.callback.BitVisitor;
 import mod.chiselsandbits.api.multistate.accessor.sortable.IPositionMutator;
 import mod.chiselsandbits.api.multistate.mutator.IMutableStateEntryInfo;
+import mod.chiselsandbits.api.multistate.mutator.callback.BitMutator;
 import mod.chiselsandbits.api.multistate.mutator.callback.StateClearer;
 import mod.chiselsandbits.api.multistate.mutator.callback.StateSetter;
 import mod.chiselsandbits.api.multistate.snapshot.IMultiStateSnapshot;
@@ -40,7 +41,6 @@ import net.minecraftforge.common.util.Constants;
 import net.minecraftforge.fml.RegistryObject;
 import org.jetbrains.annotations.NotNull;
 
-import java.util.Arrays;
 import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Stream;
@@ -83,7 +83,8 @@ public class SingleBlockMultiStateItemStack implements IMultiStateItemStack
     @Override
     public IAreaShapeIdentifier createNewShapeIdentifier()
     {
-        return new ShapeIdentifier(this.compressedSection);
+        //Use the same identifiers as the chiseled block entities and snapshots so that they can be compared.
+        return ChunkSectionUtils.toStorage(this.compressedSection).createDetachedShapeIdentifier();
     }
 
     /**
@@ -104,6 +105,22 @@ public class SingleBlockMultiStateItemStack implements IMultiStateItemStack
                  );
     }
 
+    @Override
+    public void forEachBit(final BitVisitor visitor)
+    {
+        final int bitsPerBlockSide = StateEntrySize.current().getBitsPerBlockSide();
+        for (int x = 0; x < bitsPerBlockSide; x++)
+        {
+            for (int y = 0; y < bitsPerBlockSide; y++)
+            {
+                for (int z = 0; z < bitsPerBlockSide; z++)
+                {
+                    visitor.visit(x, y, z, this.compressedSection.getBlockState(x, y, z));
+                }
+            }
+        }
+    }
+
     /**
      * Gets the target state in the current area, using the offset from the area as well as the in area target offset.
      *
@@ -226,6 +243,45 @@ public class SingleBlockMultiStateItemStack implements IMultiStateItemStack
                  );
     }
 
+    @Override
+    public void mutateEachBit(final BitMutator mutator)
+    {
+        boolean changed = false;
+        final int bitsPerBlockSide = StateEntrySize.current().getBitsPerBlockSide();
+        for (int x = 0; x < bitsPerBlockSide; x++)
+        {
+            for (int y = 0; y < bitsPerBlockSide; y++)
+            {
+                for (int z = 0; z < bitsPerBlockSide; z++)
+                {
+                    final BlockState currentState = this.compressedSection.getBlockState(x, y, z);
+                    final BlockState blockState = mutator.mutate(x, y, z, currentState);
+                    if (blockState == currentState)
+                    {
+                        continue;
+                    }
+
+                    this.compressedSection.setBlockState(x, y, z, blockState, true);
+
+                    if (blockState.isAir() && !currentState.isAir()) {
+                        statistics.onBlockStateRemoved(currentState);
+                    } else if (!blockState.isAir() && currentState.isAir()) {
+                        statistics.onBlockStateAdded(blockState);
+                    } else if (!blockState.isAir() && !currentState.isAir()) {
+                        statistics.onBlockStateReplaced(currentState, blockState);
+                    }
+                    changed = true;
+                }
+            }
+        }
+
+        //Only write the stack data once, instead of once per changed bit.
+        if (changed)
+        {
+            this.sourceStack.getOrCreateTag().put(NbtConstants.CHISELED_DATA, serializeNBT());
+        }
+    }
+
     /**
      * Sets the target state in the current area, using the offset from the area as well as the in area target offset.
      *
@@ -523,46 +579,6 @@ public class SingleBlockMultiStateItemStack implements IMultiStateItemStack
         this.sourceStack.getOrCreateTag().put(NbtConstants.CHISELED_DATA, serializeNBT());
     }
 
-    private static final class ShapeIdentifier implements ILongArrayBackedAreaShapeIdentifier
-    {
-        private final long[] dataArray;
-
-        private ShapeIdentifier(final ChunkSection chunkSection)
-        {
-            dataArray = Arrays.copyOf(
-              chunkSection.getStates().storage.getRaw(),
-              chunkSection.getStates().storage.getRaw().length
-            );
-        }
-
-        @Override
-        public boolean equals(final Object o)
-        {
-            if (this == o)
-            {
-                return true;
-            }
-            if (!(o instanceof ILongArrayBackedAreaShapeIdentifier))
-            {
-                return false;
-            }
-            final ILongArrayBackedAreaShapeIdentifier that = (ILongArrayBackedAreaShapeIdentifier) o;
-            return Arrays.equals(dataArray, that.getBackingData());
-        }
-
-        @Override
-        public int hashCode()
-        {
-            return Arrays.hashCode(dataArray);
-        }
-
-        @Override
-        public long[] getBackingData()
-        {
-            return dataArray;
-        }
-    }
-
     private static final class StateEntry implements IMutableStateEntryInfo
     {
 
@@ -1,18 +1,18 @@
 package mod.chiselsandbits.measures;
 
 import com.google.common.collect.HashBasedTable;
-import com.google.common.collect.Lists;
 import com.google.common.collect.Table;
 import mod.chiselsandbits.ChiselsAndBits;
 import mod.chiselsandbits.api.measuring.IMeasurement;
 import mod.chiselsandbits.api.measuring.IMeasuringManager;
 import mod.chiselsandbits.api.measuring.MeasuringMode;
-import mod.chiselsandbits.api.util.IPacketBufferSerializable;
+import mod.chiselsandbits.network.packets.MeasurementAddedPacket;
 import mod.chiselsandbits.network.packets.MeasurementUpdatedPacket;
+import mod.chiselsandbits.network.packets.MeasurementsRemovedPacket;
 import mod.chiselsandbits.network.packets.MeasurementsUpdatedPacket;
 import net.minecraft.client.Minecraft;
 import net.minecraft.entity.player.PlayerEntity;
-import net.minecraft.network.PacketBuffer;
+import net.minecraft.entity.player.ServerPlayerEntity;
 import net.minecraft.util.ResourceLocation;
 import net.minecraft.util.math.vector.Vector3d;
 import net.minecraft.world.World;
@@ -20,14 +20,12 @@ import net.minecraftforge.api.distmarker.Dist;
 import net.minecraftforge.api.distmarker.OnlyIn;
 import net.minecraftforge.event.entity.player.PlayerEvent;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
-import org.jetbrains.annotations.NotNull;
 
 import java.util.*;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 
-public class MeasuringManager implements IMeasuringManager, IPacketBufferSerializable
+public class MeasuringManager implements IMeasuringManager
 {
     private static final MeasuringManager INSTANCE = new MeasuringManager();
 
@@ -70,62 +68,62 @@ public class MeasuringManager implements IMeasuringManager, IPacketBufferSeriali
     @Override
     public void resetMeasurementsFor(final UUID playerId)
     {
-        measurements.columnMap().remove(playerId);
-        syncToAll();
+        final Map<ResourceLocation, Map<MeasuringMode, Measurement>> removed = measurements.columnMap().remove(playerId);
+        if (removed == null)
+            return;
+
+        removed.keySet().forEach(worldKey -> ChiselsAndBits.getInstance().getNetworkChannel().sendToDimension(
+          new MeasurementsRemovedPacket(worldKey, playerId),
+          worldKey
+        ));
     }
 
-    public void syncToAll()
+    /**
+     * Sends all measurements in the world of the given player to it, replacing whatever its client knew about that world.
+     *
+     * @param playerEntity The player.
+     */
+    public void syncTo(final ServerPlayerEntity playerEntity)
     {
-        ChiselsAndBits.getInstance().getNetworkChannel().sendToEveryone(new MeasurementsUpdatedPacket());
+        final ResourceLocation worldKey = playerEntity.level.dimension().location();
+        ChiselsAndBits.getInstance().getNetworkChannel().sendToPlayer(
+          new MeasurementsUpdatedPacket(worldKey, getInWorld(worldKey)),
+          playerEntity
+        );
     }
 
-    @Override
-    public void serializeInto(final @NotNull PacketBuffer packetBuffer)
+    public void addOrUpdate(final Measurement measurement)
     {
-        packetBuffer.writeVarInt(measurements.size());
-        measurements.values().forEach(m -> {
-            packetBuffer.writeVarInt(m.size());
-            m.values().forEach(measurement -> measurement.serializeInto(packetBuffer));
-        });
+        put(measurement);
+
+        ChiselsAndBits.getInstance().getNetworkChannel().sendToDimension(
+          new MeasurementAddedPacket(measurement),
+          measurement.getWorldKey()
+        );
     }
 
-    @Override
-    public void deserializeFrom(final @NotNull PacketBuffer packetBuffer)
+    public void onMeasurementAdded(final Measurement measurement)
     {
-        measurements.clear();
-        Collection<Measurement> measurements = IntStream.range(0, packetBuffer.readVarInt())
-          .mapToObj(index -> {
-              final int measurementCount = packetBuffer.readVarInt();
-
-              final List<Measurement> measurementList = Lists.newArrayList();
-              for (int i = 0; i < measurementCount; i++)
-              {
-                  final Measurement measurement = new Measurement();
-                  measurement.deserializeFrom(packetBuffer);
-                  measurementList.add(measurement);
-              }
-
-              return measurementList;
-          })
-          .flatMap(Collection::stream)
-          .collect(Collectors.toList());
-
-        measurements.forEach(measurement -> {
-            if (!this.measurements.contains(measurement.getWorldKey(), measurement.getOwner()))
-                this.measurements.put(measurement.getWorldKey(), measurement.getOwner(), new HashMap<>());
-
-            this.measurements.get(measurement.getWorldKey(), measurement.getOwner()).put(measurement.getMode(), measurement);
-        });
+        put(measurement);
     }
 
-    public void addOrUpdate(final Measurement measurement)
+    public void onMeasurementsRemoved(final ResourceLocation worldKey, final UUID playerId)
+    {
+        measurements.remove(worldKey, playerId);
+    }
+
+    public void onMeasurementsSynced(final ResourceLocation worldKey, final Collection<Measurement> measurements)
+    {
+        this.measurements.row(worldKey).clear();
+        measurements.forEach(this::put);
+    }
+
+    private void put(final Measurement measurement)
     {
         if (!this.measurements.contains(measurement.getWorldKey(), measurement.getOwner()))
             this.measurements.put(measurement.getWorldKey(), measurement.getOwner(), new HashMap<>());
 
         this.measurements.get(measurement.getWorldKey(), measurement.getOwner()).put(measurement.getMode(), measurement);
-
-        this.syncToAll();
     }
 
     @OnlyIn(Dist.CLIENT)
@@ -8,11 +8,13 @@ import mod.chiselsandbits.api.chiseling.eligibility.IEligibilityManager;
 import mod.chiselsandbits.api.exceptions.SpaceOccupiedException;
 import mod.chiselsandbits.api.multistate.StateEntrySize;
 import mod.chiselsandbits.api.multistate.accessor.IStateEntryInfo;
+import mod.chiselsandbits.api.multistate.accessor.callback.BitVisitor;
 import mod.chiselsandbits.api.multistate.accessor.identifier.IAreaShapeIdentifier;
 import mod.chiselsandbits.api.multistate.accessor.identifier.ISingleStateAreaShareIdentifier;
 import mod.chiselsandbits.api.multistate.accessor.sortable.IPositionMutator;
 import mod.chiselsandbits.api.multistate.mutator.IMutableStateEntryInfo;
 import mod.chiselsandbits.api.multistate.mutator.batched.IBatchMutation;
+import mod.chiselsandbits.api.multistate.mutator.callback.BitMutator;
 import mod.chiselsandbits.api.multistate.mutator.callback.StateClearer;
 import mod.chiselsandbits.api.multistate.mutator.callback.StateSetter;
 import mod.chiselsandbits.api.multistate.mutator.world.IInWorldMutableStateEntryInfo;
@@ -29,9 +31,9 @@ import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.vector.Vector3d;
 import net.minecraft.util.math.vector.Vector3i;
 import net.minecraft.world.IWorld;
-import net.minecraft.world.chunk.ChunkSection;
 import net.minecraftforge.common.util.Constants;
 
+import java.util.Arrays;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Stream;
@@ -96,6 +98,35 @@ public class ChiselAdaptingWorldMutator implements IWorldAreaMutator
         return Stream.empty();
     }
 
+    @SuppressWarnings("deprecation")
+    @Override
+    public void forEachBit(final BitVisitor visitor)
+    {
+        final TileEntity tileEntity = getWorld().getBlockEntity(getPos());
+        if (tileEntity instanceof IMultiStateBlockEntity)
+        {
+            ((IMultiStateBlockEntity) tileEntity).forEachBit(visitor);
+            return;
+        }
+
+        final BlockState currentState = getWorld().getBlockState(getPos());
+        if (IEligibilityManager.getInstance().canBeChiseled(currentState) ||
+              currentState.isAir(new SingleBlockBlockReader(currentState, getPos(), getWorld()), getPos()))
+        {
+            final int bitsPerBlockSide = StateEntrySize.current().getBitsPerBlockSide();
+            for (int x = 0; x < bitsPerBlockSide; x++)
+            {
+                for (int y = 0; y < bitsPerBlockSide; y++)
+                {
+                    for (int z = 0; z < bitsPerBlockSide; z++)
+                    {
+                        visitor.visit(x, y, z, currentState);
+                    }
+                }
+            }
+        }
+    }
+
     /**
      * Gets the target state in the current area, using the offset from the area as well as the in area target offset.
      *
@@ -202,19 +233,7 @@ public class ChiselAdaptingWorldMutator implements IWorldAreaMutator
         }
 
         final BlockState blockState = getWorld().getBlockState(getPos());
-        final ChunkSection temporarySection = new ChunkSection(0);
-        for (int x = 0; x < StateEntrySize.current().getBitsPerBlockSide(); x++)
-        {
-            for (int y = 0; y < StateEntrySize.current().getBitsPerBlockSide(); y++)
-            {
-                for (int z = 0; z < StateEntrySize.current().getBitsPerBlockSide(); z++)
-                {
-                    temporarySection.setBlockState(x, y, z, blockState);
-                }
-            }
-        }
-
-        return MultiStateSnapshotUtils.createFromSection(temporarySection);
+        return MultiStateSnapshotUtils.createFilledWith(blockState);
     }
 
     @Override
@@ -305,6 +324,68 @@ public class ChiselAdaptingWorldMutator implements IWorldAreaMutator
         return Stream.empty();
     }
 
+    @SuppressWarnings("deprecation")
+    @Override
+    public void mutateEachBit(final BitMutator mutator)
+    {
+        final TileEntity tileEntity = getWorld().getBlockEntity(getPos());
+        if (tileEntity instanceof IMultiStateBlockEntity)
+        {
+            ((IMultiStateBlockEntity) tileEntity).mutateEachBit(mutator);
+            return;
+        }
+
+        final BlockState currentState = getWorld().getBlockState(getPos());
+        if (!IEligibilityManager.getInstance().canBeChiseled(currentState) &&
+              !currentState.isAir(new SingleBlockBlockReader(currentState, getPos(), getWorld()), getPos()))
+        {
+            return;
+        }
+
+        //The block is only converted once the first bit actually changes.
+        final int bitsPerBlockSide = StateEntrySize.current().getBitsPerBlockSide();
+        BlockState[] newStates = null;
+        int index = 0;
+        for (int x = 0; x < bitsPerBlockSide; x++)
+        {
+            for (int y = 0; y < bitsPerBlockSide; y++)
+            {
+                for (int z = 0; z < bitsPerBlockSide; z++)
+                {
+                    final BlockState newState = mutator.mutate(x, y, z, currentState);
+                    if (newStates == null && newState != currentState)
+                    {
+                        newStates = new BlockState[StateEntrySize.current().getBitsPerBlock()];
+                        Arrays.fill(newStates, 0, index, currentState);
+                    }
+
+                    if (newStates != null)
+                    {
+                        newStates[index] = newState;
+                    }
+                    index++;
+                }
+            }
+        }
+
+        if (newStates == null)
+        {
+            return;
+        }
+
+        final BlockState[] targetStates = newStates;
+        try (IBatchMutation ignored = batch())
+        {
+            final TileEntity convertedTileEntity = getWorld().getBlockEntity(getPos());
+            if (convertedTileEntity instanceof IMultiStateBlockEntity)
+            {
+                ((IMultiStateBlockEntity) convertedTileEntity).mutateEachBit(
+                  (x, y, z, state) -> targetStates[(x * bitsPerBlockSide + y) * bitsPerBlockSide + z]
+                );
+            }
+        }
+    }
+
     @SuppressWarnings("deprecation")
     @Override
     public void setInAreaTarget(final BlockState blockState, final Vector3d inAreaTarget) throws SpaceOccupiedException
@@ -7,9 +7,11 @@ import mod.chiselsandbits.api.multistate.accessor.IAreaAccessor;
 import mod.chiselsandbits.api.multistate.accessor.IAreaAccessorWithVoxelShape;
 import mod.chiselsandbits.api.multistate.accessor.identifier.IAreaShapeIdentifier;
 import mod.chiselsandbits.api.multistate.accessor.IStateEntryInfo;
+import mod.chiselsandbits.api.multistate.accessor.callback.BitVisitor;
 import mod.chiselsandbits.api.multistate.accessor.sortable.IPositionMutator;
 import mod.chiselsandbits.api.multistate.mutator.IMutableStateEntryInfo;
 import mod.chiselsandbits.api.multistate.mutator.batched.IBatchMutation;
+import mod.chiselsandbits.api.multistate.mutator.callback.BitMutator;
 import mod.chiselsandbits.api.multistate.mutator.world.IInWorldMutableStateEntryInfo;
 import mod.chiselsandbits.api.multistate.mutator.world.IWorldAreaMutator;
 import mod.chiselsandbits.api.multistate.snapshot.IMultiStateSnapshot;
@@ -90,6 +92,32 @@ public class WorldWrappingMutator implements IWorldAreaMutator, IAreaAccessorWit
                  .map(IStateEntryInfo.class::cast);
     }
 
+    @Override
+    public void forEachBit(final BitVisitor visitor)
+    {
+        final int bitsPerBlockSide = StateEntrySize.current().getBitsPerBlockSide();
+        final BlockPos startBlockPos = new BlockPos(getInWorldStartPoint());
+        final Vector3d bitStart = getInWorldStartPoint().multiply(bitsPerBlockSide, bitsPerBlockSide, bitsPerBlockSide);
+        final Vector3d bitEnd = getInWorldEndPoint().multiply(bitsPerBlockSide, bitsPerBlockSide, bitsPerBlockSide);
+
+        BlockPosStreamProvider.getForRange(getInWorldStartPoint(), getInWorldEndPoint())
+          .forEach(blockPos -> {
+              final int offsetX = (blockPos.getX() - startBlockPos.getX()) * bitsPerBlockSide;
+              final int offsetY = (blockPos.getY() - startBlockPos.getY()) * bitsPerBlockSide;
+              final int offsetZ = (blockPos.getZ() - startBlockPos.getZ()) * bitsPerBlockSide;
+              final int worldX = blockPos.getX() * bitsPerBlockSide;
+              final int worldY = blockPos.getY() * bitsPerBlockSide;
+              final int worldZ = blockPos.getZ() * bitsPerBlockSide;
+
+              new ChiselAdaptingWorldMutator(getWorld(), blockPos).forEachBit((x, y, z, state) -> {
+                  if (isBitInside(worldX + x, worldY + y, worldZ + z, bitStart, bitEnd))
+                  {
+                      visitor.visit(offsetX + x, offsetY + y, offsetZ + z, state);
+                  }
+              });
+          });
+    }
+
     /**
      * Gets the target state in the current area, using the offset from the area as well as the in area target offset.
      *
@@ -227,6 +255,45 @@ public class WorldWrappingMutator implements IWorldAreaMutator, IAreaAccessorWit
                  .map(IMutableStateEntryInfo.class::cast);
     }
 
+    @Override
+    public void mutateEachBit(final BitMutator mutator)
+    {
+        final int bitsPerBlockSide = StateEntrySize.current().getBitsPerBlockSide();
+        final BlockPos startBlockPos = new BlockPos(getInWorldStartPoint());
+        final Vector3d bitStart = getInWorldStartPoint().multiply(bitsPerBlockSide, bitsPerBlockSide, bitsPerBlockSide);
+        final Vector3d bitEnd = getInWorldEndPoint().multiply(bitsPerBlockSide, bitsPerBlockSide, bitsPerBlockSide);
+
+        BlockPosStreamProvider.getForRange(getInWorldStartPoint(), getInWorldEndPoint())
+          .forEach(blockPos -> {
+              final int offsetX = (blockPos.getX() - startBlockPos.getX()) * bitsPerBlockSide;
+              final int offsetY = (blockPos.getY() - startBlockPos.getY()) * bitsPerBlockSide;
+              final int offsetZ = (blockPos.getZ() - startBlockPos.getZ()) * bitsPerBlockSide;
+              final int worldX = blockPos.getX() * bitsPerBlockSide;
+              final int worldY = blockPos.getY() * bitsPerBlockSide;
+              final int worldZ = blockPos.getZ() * bitsPerBlockSide;
+
+              new ChiselAdaptingWorldMutator(getWorld(), blockPos).mutateEachBit((x, y, z, state) -> {
+                  if (!isBitInside(worldX + x, worldY + y, worldZ + z, bitStart, bitEnd))
+                  {
+                      return state;
+                  }
+
+                  return mutator.mutate(offsetX + x, offsetY + y, offsetZ + z, state);
+              });
+          });
+    }
+
+    /**
+     * Checks if the bit with the given in world bit coordinates intersects the area between the given start and end bit coordinates.
+     * This mirrors the bounding box intersection check used to filter the entry streams.
+     */
+    private static boolean isBitInside(final int x, final int y, final int z, final Vector3d bitStart, final Vector3d bitEnd)
+    {
+        return x < bitEnd.x() && x + 1 > bitStart.x() &&
+                 y < bitEnd.y() && y + 1 > bitStart.y() &&
+                 z < bitEnd.z() && z + 1 > bitStart.z();
+    }
+
     @Override
     public void setInAreaTarget(final BlockState blockState, final Vector3d inAreaTarget) throws SpaceOccupiedException
     {
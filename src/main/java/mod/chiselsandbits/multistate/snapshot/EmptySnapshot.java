@@ -6,8 +6,10 @@ import mod.chiselsandbits.api.item.multistate.IMultiStateItemStack;
 import mod.chiselsandbits.api.item.multistate.IStatistics;
 import mod.chiselsandbits.api.multistate.accessor.identifier.IAreaShapeIdentifier;
 import mod.chiselsandbits.api.multistate.accessor.IStateEntryInfo;
+import mod.chiselsandbits.api.multistate.accessor.callback.BitVisitor;
 import mod.chiselsandbits.api.multistate.accessor.sortable.IPositionMutator;
 import mod.chiselsandbits.api.multistate.mutator.IMutableStateEntryInfo;
+import mod.chiselsandbits.api.multistate.mutator.callback.BitMutator;
 import mod.chiselsandbits.api.multistate.snapshot.IMultiStateSnapshot;
 import mod.chiselsandbits.api.multistate.statistics.IMultiStateObjectStatistics;
 import net.minecraft.block.BlockState;
@@ -188,6 +190,12 @@ public class EmptySnapshot implements IMultiStateSnapshot
         return Stream.empty();
     }
 
+    @Override
+    public void forEachBit(final BitVisitor visitor)
+    {
+        //Noop
+    }
+
     /**
      * Returns all entries in the current area in a mutable fashion. Includes all empty areas as areas containing an air state.
      *
@@ -199,6 +207,12 @@ public class EmptySnapshot implements IMultiStateSnapshot
         return Stream.empty();
     }
 
+    @Override
+    public void mutateEachBit(final BitMutator mutator)
+    {
+        //Noop
+    }
+
     /**
      * Sets the target state in the current area, using the offset from the area as well as the in area target offset.
      *
@@ -1,24 +1,27 @@
 package mod.chiselsandbits.multistate.snapshot;
 
-import com.google.common.collect.Maps;
+import mod.chiselsandbits.api.block.state.id.IBlockStateIdManager;
 import mod.chiselsandbits.api.exceptions.SpaceOccupiedException;
 import mod.chiselsandbits.api.item.multistate.IMultiStateItemStack;
 import mod.chiselsandbits.api.multistate.StateEntrySize;
 import mod.chiselsandbits.api.multistate.accessor.IStateEntryInfo;
+import mod.chiselsandbits.api.multistate.accessor.callback.BitVisitor;
 import mod.chiselsandbits.api.multistate.accessor.identifier.IAreaShapeIdentifier;
-import mod.chiselsandbits.api.multistate.accessor.identifier.ILongArrayBackedAreaShapeIdentifier;
 import mod.chiselsandbits.api.multistate.accessor.sortable.IPositionMutator;
 import mod.chiselsandbits.api.multistate.mutator.IMutableStateEntryInfo;
+import mod.chiselsandbits.api.multistate.mutator.callback.BitMutator;
 import mod.chiselsandbits.api.multistate.mutator.callback.StateClearer;
 import mod.chiselsandbits.api.multistate.mutator.callback.StateSetter;
 import mod.chiselsandbits.api.multistate.snapshot.IMultiStateSnapshot;
 import mod.chiselsandbits.api.multistate.statistics.IMultiStateObjectStatistics;
 import mod.chiselsandbits.api.util.BlockPosStreamProvider;
 import mod.chiselsandbits.api.util.SingleBlockBlockReader;
+import mod.chiselsandbits.api.util.StateEntryFilter;
 import mod.chiselsandbits.item.ChiseledBlockItem;
 import mod.chiselsandbits.item.multistate.SingleBlockMultiStateItemStack;
 import mod.chiselsandbits.materials.MaterialManager;
 import mod.chiselsandbits.registrars.ModItems;
+import mod.chiselsandbits.storage.PackedStateStorage;
 import mod.chiselsandbits.utils.ChunkSectionUtils;
 import mod.chiselsandbits.utils.MultiStateSnapshotUtils;
 import net.minecraft.block.BlockState;
@@ -30,11 +33,9 @@ import net.minecraft.util.Direction;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.vector.Vector3d;
 import net.minecraft.util.math.vector.Vector3i;
-import net.minecraft.world.chunk.ChunkSection;
 import net.minecraftforge.fml.RegistryObject;
 import org.apache.commons.lang3.NotImplementedException;
 
-import java.util.Arrays;
 import java.util.Map;
 import java.util.Optional;
 import java.util.function.Supplier;
@@ -46,11 +47,24 @@ public class LazilyDecodingSingleBlockMultiStateSnapshot implements IMultiStateS
 
     private CompoundNBT                 lazyNbtCompound;
     private boolean                     loaded                = false;
-    private ChunkSection                lazyChunkSection      = new ChunkSection(0);
+    private PackedStateStorage          lazyStorage           = new PackedStateStorage(StateEntrySize.current().getBitsPerBlockSide(), Blocks.AIR.defaultBlockState());
     private IMultiStateObjectStatistics stateObjectStatistics = null;
 
     public LazilyDecodingSingleBlockMultiStateSnapshot(final CompoundNBT lazyNbtCompound) {this.lazyNbtCompound = lazyNbtCompound;}
 
+    /**
+     * Creates a snapshot which is already decoded and owns the given storage.
+     * The storage should not be modified by the caller afterwards.
+     *
+     * @param storage The storage to use as the contents of the snapshot.
+     */
+    public LazilyDecodingSingleBlockMultiStateSnapshot(final PackedStateStorage storage)
+    {
+        this.lazyNbtCompound = null;
+        this.lazyStorage = storage;
+        this.loaded = true;
+    }
+
     /**
      * Creates a new area shape identifier.
      * <p>
@@ -62,7 +76,7 @@ public class LazilyDecodingSingleBlockMultiStateSnapshot implements IMultiStateS
     public IAreaShapeIdentifier createNewShapeIdentifier()
     {
         load();
-        return new Identifier(this.lazyChunkSection);
+        return this.lazyStorage.createShapeIdentifier();
     }
 
     @Override
@@ -72,12 +86,31 @@ public class LazilyDecodingSingleBlockMultiStateSnapshot implements IMultiStateS
 
         return BlockPosStreamProvider.getForRange(StateEntrySize.current().getBitsPerBlockSide())
                  .map(blockPos -> new StateEntry(
-                   lazyChunkSection.getBlockState(blockPos.getX(), blockPos.getY(), blockPos.getZ()),
+                   lazyStorage.getBlockState(blockPos.getX(), blockPos.getY(), blockPos.getZ()),
                    blockPos,
                    this::setInAreaTarget, this::clearInAreaTarget)
                  );
     }
 
+    @Override
+    public void forEachBit(final BitVisitor visitor)
+    {
+        load();
+
+        this.lazyStorage.forEachBit(visitor);
+    }
+
+    @Override
+    public void forEachMatchingBit(final StateEntryFilter filter, final BitVisitor visitor)
+    {
+        if (!filter.isStateBased())
+            throw new IllegalArgumentException("The filter: " + filter.getName() + " is not state based.");
+
+        load();
+
+        this.lazyStorage.forEachMatchingBit(filter::testStateId, visitor);
+    }
+
     /**
      * Indicates if the given target is inside of the current accessor.
      *
@@ -117,7 +150,7 @@ public class LazilyDecodingSingleBlockMultiStateSnapshot implements IMultiStateS
 
         load();
 
-        final BlockState currentState = this.lazyChunkSection.getBlockState(
+        final BlockState currentState = this.lazyStorage.getBlockState(
           inAreaPos.getX(),
           inAreaPos.getY(),
           inAreaPos.getZ()
@@ -177,7 +210,7 @@ public class LazilyDecodingSingleBlockMultiStateSnapshot implements IMultiStateS
             return new LazilyDecodingSingleBlockMultiStateSnapshot(copyNbtCompound);
         }
 
-        return MultiStateSnapshotUtils.createFromSection(this.lazyChunkSection);
+        return MultiStateSnapshotUtils.createFromStorage(this.lazyStorage);
     }
 
     @Override
@@ -188,7 +221,7 @@ public class LazilyDecodingSingleBlockMultiStateSnapshot implements IMultiStateS
         return BlockPosStreamProvider.getForRange(StateEntrySize.current().getBitsPerBlockSide())
                  .map(positionMutator::mutate)
                  .map(blockPos -> new StateEntry(
-                   this.lazyChunkSection.getBlockState(blockPos.getX(), blockPos.getY(), blockPos.getZ()),
+                   this.lazyStorage.getBlockState(blockPos.getX(), blockPos.getY(), blockPos.getZ()),
                    blockPos,
                    this::setInAreaTarget,
                    this::clearInAreaTarget)
@@ -202,7 +235,7 @@ public class LazilyDecodingSingleBlockMultiStateSnapshot implements IMultiStateS
             return;
         }
 
-        ChunkSectionUtils.deserializeNBT(this.lazyChunkSection, this.lazyNbtCompound);
+        ChunkSectionUtils.deserializeNBT(this.lazyStorage, this.lazyNbtCompound);
         this.loaded = true;
     }
 
@@ -218,12 +251,35 @@ public class LazilyDecodingSingleBlockMultiStateSnapshot implements IMultiStateS
 
         return BlockPosStreamProvider.getForRange(StateEntrySize.current().getBitsPerBlockSide())
                  .map(blockPos -> new StateEntry(
-                   lazyChunkSection.getBlockState(blockPos.getX(), blockPos.getY(), blockPos.getZ()),
+                   lazyStorage.getBlockState(blockPos.getX(), blockPos.getY(), blockPos.getZ()),
                    blockPos,
                    this::setInAreaTarget, this::clearInAreaTarget)
                  );
     }
 
+    @Override
+    public void mutateEachBit(final BitMutator mutator)
+    {
+        load();
+
+        final int bitsPerBlockSide = this.lazyStorage.getSide();
+        for (int x = 0; x < bitsPerBlockSide; x++)
+        {
+            for (int y = 0; y < bitsPerBlockSide; y++)
+            {
+                for (int z = 0; z < bitsPerBlockSide; z++)
+                {
+                    final BlockState currentState = this.lazyStorage.getBlockState(x, y, z);
+                    final BlockState newState = mutator.mutate(x, y, z, currentState);
+                    if (newState != currentState)
+                    {
+                        this.lazyStorage.setBlockState(x, y, z, newState);
+                    }
+                }
+            }
+        }
+    }
+
     @SuppressWarnings("deprecation")
     @Override
     public void setInAreaTarget(final BlockState blockState, final Vector3d inAreaTarget) throws SpaceOccupiedException
@@ -242,19 +298,18 @@ public class LazilyDecodingSingleBlockMultiStateSnapshot implements IMultiStateS
 
         load();
 
-        final BlockState currentState = this.lazyChunkSection.getBlockState(inAreaPos.getX(), inAreaPos.getY(), inAreaPos.getZ());
+        final BlockState currentState = this.lazyStorage.getBlockState(inAreaPos.getX(), inAreaPos.getY(), inAreaPos.getZ());
         // TODO: 1.17 replace with normal isAir();
         if (!currentState.isAir(new SingleBlockBlockReader(currentState), BlockPos.ZERO))
         {
             throw new SpaceOccupiedException();
         }
 
-        this.lazyChunkSection.setBlockState(
+        this.lazyStorage.setBlockState(
           inAreaPos.getX(),
           inAreaPos.getY(),
           inAreaPos.getZ(),
-          blockState,
-          true
+          blockState
         );
     }
 
@@ -296,12 +351,11 @@ public class LazilyDecodingSingleBlockMultiStateSnapshot implements IMultiStateS
 
         final BlockState blockState = Blocks.AIR.defaultBlockState();
 
-        this.lazyChunkSection.setBlockState(
+        this.lazyStorage.setBlockState(
           inAreaPos.getX(),
           inAreaPos.getY(),
           inAreaPos.getZ(),
-          blockState,
-          true
+          blockState
         );
     }
 
@@ -339,7 +393,8 @@ public class LazilyDecodingSingleBlockMultiStateSnapshot implements IMultiStateS
         final Supplier<ChiseledBlockItem> convertedItemProvider = ModItems.MATERIAL_TO_ITEM_CONVERSIONS.getOrDefault(conversionMaterial, ModItems.MATERIAL_TO_ITEM_CONVERSIONS.get(Material.STONE));
         final ChiseledBlockItem chiseledBlockItem = convertedItemProvider.get();
 
-        return new SingleBlockMultiStateItemStack(chiseledBlockItem, ChunkSectionUtils.cloneSection(this.lazyChunkSection));
+        load();
+        return new SingleBlockMultiStateItemStack(chiseledBlockItem, ChunkSectionUtils.toSection(this.lazyStorage));
     }
 
     @Override
@@ -355,12 +410,12 @@ public class LazilyDecodingSingleBlockMultiStateSnapshot implements IMultiStateS
     public void rotate(final Direction.Axis axis, final int rotationCount)
     {
         load();
-        this.lazyChunkSection = ChunkSectionUtils.rotate90Degrees(
-          this.lazyChunkSection,
+        this.lazyStorage = ChunkSectionUtils.rotate90Degrees(
+          this.lazyStorage,
           axis,
           rotationCount
         );
-        this.lazyNbtCompound = ChunkSectionUtils.serializeNBT(this.lazyChunkSection);
+        this.lazyNbtCompound = ChunkSectionUtils.serializeNBT(this.lazyStorage);
         buildStatistics();
     }
 
@@ -368,11 +423,11 @@ public class LazilyDecodingSingleBlockMultiStateSnapshot implements IMultiStateS
     public void mirror(final Direction.Axis axis)
     {
         load();
-        this.lazyChunkSection = ChunkSectionUtils.mirror(
-          this.lazyChunkSection,
+        this.lazyStorage = ChunkSectionUtils.mirror(
+          this.lazyStorage,
           axis
         );
-        this.lazyNbtCompound = ChunkSectionUtils.serializeNBT(this.lazyChunkSection);
+        this.lazyNbtCompound = ChunkSectionUtils.serializeNBT(this.lazyStorage);
         buildStatistics();
     }
 
@@ -456,20 +511,21 @@ public class LazilyDecodingSingleBlockMultiStateSnapshot implements IMultiStateS
 
     private BlockState determinePrimaryState()
     {
-        final Map<BlockState, Integer> countMap = Maps.newHashMap();
-
         load();
 
-        this.lazyChunkSection.getStates().count(countMap::put);
-
         BlockState maxState = Blocks.AIR.defaultBlockState();
         int maxCount = 0;
-        for (final Map.Entry<BlockState, Integer> blockStateIntegerEntry : countMap.entrySet())
+        for (int slot = 0; slot < this.lazyStorage.getPaletteSize(); slot++)
         {
-            if (maxCount < blockStateIntegerEntry.getValue() && !blockStateIntegerEntry.getKey().isAir())
+            final int count = this.lazyStorage.getPaletteCount(slot);
+            if (maxCount < count)
             {
-                maxState = blockStateIntegerEntry.getKey();
-                maxCount = blockStateIntegerEntry.getValue();
+                final BlockState blockState = IBlockStateIdManager.getInstance().getBlockStateFrom(this.lazyStorage.getPaletteStateId(slot));
+                if (!blockState.isAir())
+                {
+                    maxState = blockState;
+                    maxCount = count;
+                }
             }
         }
 
@@ -481,7 +537,7 @@ public class LazilyDecodingSingleBlockMultiStateSnapshot implements IMultiStateS
     {
         load();
         return new LazilyDecodingSingleBlockMultiStateSnapshot(
-          ChunkSectionUtils.serializeNBT(this.lazyChunkSection)
+          ChunkSectionUtils.serializeNBT(this.lazyStorage)
         );
     }
 
@@ -545,48 +601,4 @@ public class LazilyDecodingSingleBlockMultiStateSnapshot implements IMultiStateS
             stateClearer.accept(getStartPoint());
         }
     }
-
-    private static class Identifier implements ILongArrayBackedAreaShapeIdentifier
-    {
-        private final long[] identifyingPayload;
-
-        private Identifier(final ChunkSection section)
-        {
-            this.identifyingPayload = Arrays.copyOf(
-              section.getStates().storage.getRaw(),
-              section.getStates().storage.getRaw().length
-            );
-        }
-
-        @Override
-        public int hashCode()
-        {
-            return Arrays.hashCode(identifyingPayload);
-        }
-
-        @Override
-        public boolean equals(final Object o)
-        {
-            if (this == o)
-            {
-                return true;
-            }
-            if (!(o instanceof ILongArrayBackedAreaShapeIdentifier))
-            {
-                return false;
-            }
-            final ILongArrayBackedAreaShapeIdentifier that = (ILongArrayBackedAreaShapeIdentifier) o;
-            return Arrays.equals(identifyingPayload, that.getBackingData());
-        }
-
-        @Override
-        public long[] getBackingData()
-        {
-            return identifyingPayload;
-        }
-    }
-
-
-
-
 }
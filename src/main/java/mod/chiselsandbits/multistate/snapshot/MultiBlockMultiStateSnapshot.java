@@ -5,10 +5,12 @@ import mod.chiselsandbits.api.item.multistate.IMultiStateItemStack;
 import mod.chiselsandbits.api.multistate.StateEntrySize;
 import mod.chiselsandbits.api.multistate.accessor.IAreaAccessor;
 import mod.chiselsandbits.api.multistate.accessor.IStateEntryInfo;
+import mod.chiselsandbits.api.multistate.accessor.callback.BitVisitor;
 import mod.chiselsandbits.api.multistate.accessor.identifier.IAreaShapeIdentifier;
 import mod.chiselsandbits.api.multistate.accessor.sortable.IPositionMutator;
 import mod.chiselsandbits.api.multistate.mutator.IAreaMutator;
 import mod.chiselsandbits.api.multistate.mutator.IMutableStateEntryInfo;
+import mod.chiselsandbits.api.multistate.mutator.callback.BitMutator;
 import mod.chiselsandbits.api.multistate.snapshot.IMultiStateSnapshot;
 import mod.chiselsandbits.api.multistate.statistics.IMultiStateObjectStatistics;
 import mod.chiselsandbits.api.util.BlockPosStreamProvider;
@@ -68,6 +70,21 @@ public class MultiBlockMultiStateSnapshot implements IMultiStateSnapshot
                  .flatMap(IAreaAccessor::stream);
     }
 
+    @Override
+    public void forEachBit(final BitVisitor visitor)
+    {
+        final int bitsPerBlockSide = StateEntrySize.current().getBitsPerBlockSide();
+        final BlockPos startBlockPos = new BlockPos(startPoint);
+
+        snapshots.forEach((blockPos, snapshot) -> {
+            final int offsetX = (blockPos.getX() - startBlockPos.getX()) * bitsPerBlockSide;
+            final int offsetY = (blockPos.getY() - startBlockPos.getY()) * bitsPerBlockSide;
+            final int offsetZ = (blockPos.getZ() - startBlockPos.getZ()) * bitsPerBlockSide;
+
+            snapshot.forEachBit((x, y, z, state) -> visitor.visit(offsetX + x, offsetY + y, offsetZ + z, state));
+        });
+    }
+
     /**
      * Indicates if the given target is inside of the current accessor.
      *
@@ -181,6 +198,21 @@ public class MultiBlockMultiStateSnapshot implements IMultiStateSnapshot
                  .flatMap(IAreaMutator::mutableStream);
     }
 
+    @Override
+    public void mutateEachBit(final BitMutator mutator)
+    {
+        final int bitsPerBlockSide = StateEntrySize.current().getBitsPerBlockSide();
+        final BlockPos startBlockPos = new BlockPos(startPoint);
+
+        snapshots.forEach((blockPos, snapshot) -> {
+            final int offsetX = (blockPos.getX() - startBlockPos.getX()) * bitsPerBlockSide;
+            final int offsetY = (blockPos.getY() - startBlockPos.getY()) * bitsPerBlockSide;
+            final int offsetZ = (blockPos.getZ() - startBlockPos.getZ()) * bitsPerBlockSide;
+
+            snapshot.mutateEachBit((x, y, z, state) -> mutator.mutate(offsetX + x, offsetY + y, offsetZ + z, state));
+        });
+    }
+
     @Override
     public void setInAreaTarget(final BlockState blockState, final Vector3d inAreaTarget) throws SpaceOccupiedException
     {
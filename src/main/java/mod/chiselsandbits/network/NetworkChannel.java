@@ -22,7 +22,7 @@ import java.util.function.Function;
  */
 public class NetworkChannel
 {
-    private static final String        LATEST_PROTO_VER    = "1.0";
+    private static final String        LATEST_PROTO_VER    = "1.2";
     private static final String        ACCEPTED_PROTO_VERS = LATEST_PROTO_VER;
     /**
      * Forge network channel
@@ -59,9 +59,14 @@ public class NetworkChannel
         registerMessage(index++, MeasurementsUpdatedPacket.class, MeasurementsUpdatedPacket::new);
         registerMessage(index++, MeasurementsResetPacket.class, MeasurementsResetPacket::new);
         registerMessage(index++, NeighborBlockUpdatedPacket.class, NeighborBlockUpdatedPacket::new);
-        registerMessage(index++, ChangeTrackerUpdatedPacket.class, ChangeTrackerUpdatedPacket::new);
+        registerMessage(index++, ChangeTrackerOperationPacket.class, ChangeTrackerOperationPacket::new);
         registerMessage(index++, RequestChangeTrackerOperation.class, RequestChangeTrackerOperation::new);
         registerMessage(index++, ClearChangeTrackerPacket.class, ClearChangeTrackerPacket::new);
+        registerMessage(index++, ChiseledBlockDeltaPacket.class, ChiseledBlockDeltaPacket::new);
+        registerMessage(index++, RequestChiseledBlockResyncPacket.class, RequestChiseledBlockResyncPacket::new);
+        registerMessage(index++, ChunkChiseledBlocksPacket.class, ChunkChiseledBlocksPacket::new);
+        registerMessage(index++, MeasurementAddedPacket.class, MeasurementAddedPacket::new);
+        registerMessage(index++, MeasurementsRemovedPacket.class, MeasurementsRemovedPacket::new);
     }
 
     /**
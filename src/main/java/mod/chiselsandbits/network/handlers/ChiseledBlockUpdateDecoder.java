@@ -0,0 +1,93 @@
+package mod.chiselsandbits.network.handlers;
+
+import mod.chiselsandbits.ChiselsAndBits;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.world.ClientWorld;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Decodes the chiseled block updates the client receives off the main thread, so that the main thread only has to swap in the results.
+ * <p>
+ * The decoding runs on a single thread and every result is handed back to the main thread right after it is decoded,
+ * so the updates are applied in the order they were received, including those which need no decoding at all.
+ * Results which were decoded for a level the client has left in the meantime are dropped.
+ */
+public final class ChiseledBlockUpdateDecoder
+{
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    private static ExecutorService decodingService;
+
+    private ChiseledBlockUpdateDecoder()
+    {
+        throw new IllegalStateException("Can not instantiate an instance of: ChiseledBlockUpdateDecoder. This is a utility class");
+    }
+
+    /**
+     * Decodes an update off the main thread and applies it on the main thread afterwards.
+     * Only invoked on the main thread.
+     *
+     * @param decoder Decodes the update, without touching the level.
+     * @param application Applies the decoded update to the level.
+     * @param <T> The type of the decoded update.
+     */
+    public static <T> void decodeThenApply(final Supplier<T> decoder, final Consumer<T> application)
+    {
+        ensureThreadPoolSetup();
+
+        final ClientWorld level = Minecraft.getInstance().level;
+        decodingService.execute(() -> {
+            final T decoded;
+            try
+            {
+                decoded = decoder.get();
+            }
+            catch (RuntimeException e)
+            {
+                LOGGER.error("Failed to decode a chiseled block update.", e);
+                return;
+            }
+
+            Minecraft.getInstance().execute(() -> {
+                if (Minecraft.getInstance().level != level)
+                {
+                    return;
+                }
+
+                application.accept(decoded);
+            });
+        });
+    }
+
+    /**
+     * Applies an update which needs no decoding on the main thread, after all updates which were received before it.
+     * Only invoked on the main thread.
+     *
+     * @param application Applies the update to the level.
+     */
+    public static void apply(final Runnable application)
+    {
+        decodeThenApply(() -> null, ignored -> application.run());
+    }
+
+    private static void ensureThreadPoolSetup() {
+        if (decodingService == null) {
+            final ClassLoader classLoader = ChiselsAndBits.class.getClassLoader();
+            decodingService = Executors.newSingleThreadExecutor(
+              runnable -> {
+                  final Thread thread = new Thread(runnable);
+                  thread.setContextClassLoader(classLoader);
+                  thread.setName("Chisels and Bits Update decoder");
+                  thread.setDaemon(true);
+                  return thread;
+              }
+            );
+        }
+    }
+}
@@ -1,22 +1,30 @@
 package mod.chiselsandbits.network.handlers;
 
+import mod.chiselsandbits.ChiselsAndBits;
 import mod.chiselsandbits.api.block.entity.IMultiStateBlockEntity;
-import mod.chiselsandbits.api.change.IChangeTrackerManager;
 import mod.chiselsandbits.api.chiseling.conversion.IConversionManager;
 import mod.chiselsandbits.api.client.screen.AbstractChiselsAndBitsScreen;
 import mod.chiselsandbits.api.profiling.IProfilerSection;
+import mod.chiselsandbits.block.entities.ChiseledBlockEntity;
+import mod.chiselsandbits.change.ChangeHistoryOperation;
+import mod.chiselsandbits.change.ChangeTrackerManger;
+import mod.chiselsandbits.change.changes.ChangeSummary;
 import mod.chiselsandbits.client.screens.widgets.ChangeTrackerOperationsWidget;
+import mod.chiselsandbits.network.packets.RequestChiseledBlockResyncPacket;
 import mod.chiselsandbits.profiling.ProfilingManager;
 import net.minecraft.block.Block;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.Blocks;
 import net.minecraft.client.Minecraft;
+import net.minecraft.client.world.ClientWorld;
 import net.minecraft.nbt.CompoundNBT;
 import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.math.BlockPos;
 import net.minecraftforge.common.util.Constants;
 
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 public final class ClientPacketHandlers
 {
@@ -27,6 +35,13 @@ public final class ClientPacketHandlers
     }
 
     public static void handleTileEntityUpdatedPacket(final BlockPos blockPos, final CompoundNBT updateTag) {
+        ChiseledBlockUpdateDecoder.decodeThenApply(
+          () -> ChiseledBlockEntity.decodeUpdateTag(updateTag),
+          decodedUpdate -> applyTileEntityUpdate(blockPos, updateTag, decodedUpdate)
+        );
+    }
+
+    private static void applyTileEntityUpdate(final BlockPos blockPos, final CompoundNBT updateTag, final Optional<ChiseledBlockEntity.DecodedUpdate> decodedUpdate) {
         if (Minecraft.getInstance().level != null) {
             TileEntity tileEntity = Minecraft.getInstance().level.getBlockEntity(blockPos);
             if (!(tileEntity instanceof IMultiStateBlockEntity)) {
@@ -52,7 +67,14 @@ public final class ClientPacketHandlers
                 {
                     try(IProfilerSection ignored2 = ProfilingManager.getInstance().withSection("Updating tile entity"))
                     {
-                        tileEntity.handleUpdateTag(Minecraft.getInstance().level.getBlockState(blockPos), updateTag);
+                        if (tileEntity instanceof ChiseledBlockEntity && decodedUpdate.isPresent())
+                        {
+                            ((ChiseledBlockEntity) tileEntity).applyDecodedUpdate(decodedUpdate.get());
+                        }
+                        else
+                        {
+                            tileEntity.handleUpdateTag(Minecraft.getInstance().level.getBlockState(blockPos), updateTag);
+                        }
                     }
 
                     try(IProfilerSection ignored2 = ProfilingManager.getInstance().withSection("Scheduling refresh"))
@@ -69,8 +91,85 @@ public final class ClientPacketHandlers
         }
     }
 
-    public static void handleChangeTrackerUpdated(final CompoundNBT tag) {
-        IChangeTrackerManager.getInstance().getChangeTracker(Minecraft.getInstance().player).deserializeNBT(tag);
+    public static void handleChiseledBlockDeltaPacket(final BlockPos blockPos, final int baseVersion, final int newVersion, final byte[] delta) {
+        //Deltas need no decoding up front, but can only be applied after the updates which were received before them.
+        ChiseledBlockUpdateDecoder.apply(() -> applyChiseledBlockDelta(blockPos, baseVersion, newVersion, delta));
+    }
+
+    private static void applyChiseledBlockDelta(final BlockPos blockPos, final int baseVersion, final int newVersion, final byte[] delta) {
+        if (Minecraft.getInstance().level == null)
+            return;
+
+        final TileEntity tileEntity = Minecraft.getInstance().level.getBlockEntity(blockPos);
+        if (!(tileEntity instanceof ChiseledBlockEntity)) {
+            ChiselsAndBits.getInstance().getNetworkChannel().sendToServer(new RequestChiseledBlockResyncPacket(blockPos));
+            return;
+        }
+
+        try(IProfilerSection ignored1 = ProfilingManager.getInstance().withSection("Handling chiseled block delta packet"))
+        {
+            if (!((ChiseledBlockEntity) tileEntity).applySyncDelta(baseVersion, newVersion, delta)) {
+                ChiselsAndBits.getInstance().getNetworkChannel().sendToServer(new RequestChiseledBlockResyncPacket(blockPos));
+                return;
+            }
+
+            try(IProfilerSection ignored2 = ProfilingManager.getInstance().withSection("Scheduling refresh"))
+            {
+                Minecraft.getInstance().level.sendBlockUpdated(
+                  blockPos,
+                  Blocks.AIR.defaultBlockState(),
+                  tileEntity.getBlockState(),
+                  Constants.BlockFlags.DEFAULT_AND_RERENDER
+                );
+            }
+        }
+    }
+
+    public static void handleChunkChiseledBlocksPacket(final Supplier<Map<BlockPos, ChiseledBlockEntity.DecodedUpdate>> payloadDecoder) {
+        ChiseledBlockUpdateDecoder.decodeThenApply(payloadDecoder, ClientPacketHandlers::applyChunkChiseledBlocks);
+    }
+
+    private static void applyChunkChiseledBlocks(final Map<BlockPos, ChiseledBlockEntity.DecodedUpdate> decodedUpdates) {
+        final ClientWorld level = Minecraft.getInstance().level;
+        if (level == null || decodedUpdates.isEmpty())
+            return;
+
+        try(IProfilerSection ignored1 = ProfilingManager.getInstance().withSection("Handling chunk chiseled blocks packet"))
+        {
+            int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, minZ = Integer.MAX_VALUE;
+            int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE, maxZ = Integer.MIN_VALUE;
+            for (final Map.Entry<BlockPos, ChiseledBlockEntity.DecodedUpdate> entry : decodedUpdates.entrySet())
+            {
+                final BlockPos blockPos = entry.getKey();
+                final TileEntity tileEntity = level.getBlockEntity(blockPos);
+                if (!(tileEntity instanceof ChiseledBlockEntity))
+                {
+                    //The payload follows the chunk data, so the block was removed in the meantime.
+                    continue;
+                }
+
+                ((ChiseledBlockEntity) tileEntity).applyDecodedUpdate(entry.getValue());
+                minX = Math.min(minX, blockPos.getX());
+                minY = Math.min(minY, blockPos.getY());
+                minZ = Math.min(minZ, blockPos.getZ());
+                maxX = Math.max(maxX, blockPos.getX());
+                maxY = Math.max(maxY, blockPos.getY());
+                maxZ = Math.max(maxZ, blockPos.getZ());
+            }
+
+            if (minX > maxX)
+                return;
+
+            try(IProfilerSection ignored2 = ProfilingManager.getInstance().withSection("Scheduling refresh"))
+            {
+                //One refresh for the whole batch, instead of one per block.
+                Minecraft.getInstance().levelRenderer.setBlocksDirty(minX, minY, minZ, maxX, maxY, maxZ);
+            }
+        }
+    }
+
+    public static void handleChangeTrackerOperation(final ChangeHistoryOperation<ChangeSummary> operation) {
+        ChangeTrackerManger.getInstance().getClientChangeTracker().applyOperation(operation);
         if(Minecraft.getInstance().screen instanceof AbstractChiselsAndBitsScreen)
         {
             ((AbstractChiselsAndBitsScreen) Minecraft.getInstance().screen).getWidgets()
@@ -0,0 +1,86 @@
+package mod.chiselsandbits.network.packets;
+
+import com.google.common.collect.Lists;
+import mod.chiselsandbits.change.ChangeHistoryOperation;
+import mod.chiselsandbits.change.changes.ChangeSummary;
+import mod.chiselsandbits.network.handlers.ClientPacketHandlers;
+import net.minecraft.network.PacketBuffer;
+
+import java.util.List;
+
+public class ChangeTrackerOperationPacket extends ModPacket
+{
+    private ChangeHistoryOperation<ChangeSummary> operation;
+
+    public ChangeTrackerOperationPacket(PacketBuffer byteBuf)
+    {
+        readPayload(byteBuf);
+    }
+
+    public ChangeTrackerOperationPacket(final ChangeHistoryOperation<ChangeSummary> operation)
+    {
+        this.operation = operation;
+    }
+
+    @Override
+    public void writePayload(final PacketBuffer buffer)
+    {
+        buffer.writeEnum(this.operation.getType());
+        switch (this.operation.getType())
+        {
+            case PUSH:
+                buffer.writeVarInt(this.operation.getChanges().get(0).getBlockCount());
+                break;
+            case TRIM:
+                buffer.writeVarInt(this.operation.getValue());
+                break;
+            case SYNC:
+                buffer.writeVarInt(this.operation.getValue());
+                buffer.writeVarInt(this.operation.getChanges().size());
+                this.operation.getChanges().forEach(summary -> buffer.writeVarInt(summary.getBlockCount()));
+                break;
+            default:
+                break;
+        }
+    }
+
+    @Override
+    public void readPayload(final PacketBuffer buffer)
+    {
+        final ChangeHistoryOperation.Type type = buffer.readEnum(ChangeHistoryOperation.Type.class);
+        switch (type)
+        {
+            case PUSH:
+                this.operation = ChangeHistoryOperation.push(new ChangeSummary(buffer.readVarInt()));
+                break;
+            case UNDO:
+                this.operation = ChangeHistoryOperation.undo();
+                break;
+            case REDO:
+                this.operation = ChangeHistoryOperation.redo();
+                break;
+            case TRIM:
+                this.operation = ChangeHistoryOperation.trim(buffer.readVarInt());
+                break;
+            case CLEAR:
+                this.operation = ChangeHistoryOperation.clear();
+                break;
+            case SYNC:
+                final int currentIndex = buffer.readVarInt();
+                final int count = buffer.readVarInt();
+                final List<ChangeSummary> changes = Lists.newArrayListWithCapacity(count);
+                for (int i = 0; i < count; i++)
+                {
+                    changes.add(new ChangeSummary(buffer.readVarInt()));
+                }
+                this.operation = ChangeHistoryOperation.sync(changes, currentIndex);
+                break;
+        }
+    }
+
+    @Override
+    public void client()
+    {
+        ClientPacketHandlers.handleChangeTrackerOperation(this.operation);
+    }
+}
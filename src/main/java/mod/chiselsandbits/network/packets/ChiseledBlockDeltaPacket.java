@@ -0,0 +1,74 @@
+package mod.chiselsandbits.network.packets;
+
+import mod.chiselsandbits.network.handlers.ClientPacketHandlers;
+import net.minecraft.network.PacketBuffer;
+import net.minecraft.util.math.BlockPos;
+import net.minecraftforge.fml.DistExecutor;
+
+import static net.minecraftforge.api.distmarker.Dist.CLIENT;
+
+/**
+ * Carries the bits of a chiseled block which changed between two sync versions.
+ */
+public final class ChiseledBlockDeltaPacket extends ModPacket
+{
+    private BlockPos blockPos;
+    private int baseVersion;
+    private int newVersion;
+    private byte[] delta;
+
+    public ChiseledBlockDeltaPacket(final BlockPos blockPos, final int baseVersion, final int newVersion, final byte[] delta)
+    {
+        this.blockPos = blockPos;
+        this.baseVersion = baseVersion;
+        this.newVersion = newVersion;
+        this.delta = delta;
+    }
+
+    public ChiseledBlockDeltaPacket(final PacketBuffer buffer)
+    {
+        readPayload(buffer);
+    }
+
+    public int getBaseVersion()
+    {
+        return baseVersion;
+    }
+
+    public int getNewVersion()
+    {
+        return newVersion;
+    }
+
+    /**
+     * The estimated amount of bytes this packet takes up on the wire.
+     */
+    public int getEstimatedSize()
+    {
+        return delta.length + 16;
+    }
+
+    @Override
+    public void writePayload(final PacketBuffer buffer)
+    {
+        buffer.writeBlockPos(blockPos);
+        buffer.writeVarInt(baseVersion);
+        buffer.writeVarInt(newVersion);
+        buffer.writeByteArray(delta);
+    }
+
+    @Override
+    public void readPayload(final PacketBuffer buffer)
+    {
+        this.blockPos = buffer.readBlockPos();
+        this.baseVersion = buffer.readVarInt();
+        this.newVersion = buffer.readVarInt();
+        this.delta = buffer.readByteArray();
+    }
+
+    @Override
+    public void client()
+    {
+        DistExecutor.unsafeRunWhenOn(CLIENT, () -> () -> ClientPacketHandlers.handleChiseledBlockDeltaPacket(blockPos, baseVersion, newVersion, delta));
+    }
+}
@@ -0,0 +1,158 @@
+package mod.chiselsandbits.network.packets;
+
+import com.google.common.collect.Lists;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import mod.chiselsandbits.block.entities.ChiseledBlockEntity;
+import mod.chiselsandbits.network.handlers.ClientPacketHandlers;
+import mod.chiselsandbits.storage.SharedPaletteCodec;
+import mod.chiselsandbits.utils.CompressionUtils;
+import net.minecraft.network.PacketBuffer;
+import net.minecraft.util.math.BlockPos;
+import net.minecraftforge.fml.DistExecutor;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+
+import static net.minecraftforge.api.distmarker.Dist.CLIENT;
+
+/**
+ * Carries the bits of all chiseled blocks of a chunk, sent after the chunk data by the {@link mod.chiselsandbits.network.scheduling.ChunkPayloadScheduler},
+ * so the block entities always exist by the time it arrives.
+ * <p>
+ * All block entities share one palette and the whole payload is compressed as a single stream,
+ * so states and shapes which repeat across the blocks of a chunk are only paid for once.
+ */
+public final class ChunkChiseledBlocksPacket extends ModPacket
+{
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    //Keeps the compressed payload well below the maximal size of a custom payload packet, even when it barely compresses.
+    private static final int MAX_UNCOMPRESSED_ENTRY_BYTES = 512 * 1024;
+
+    //Only decoded on the client, off the main thread.
+    private byte[] payload;
+
+    private ChunkChiseledBlocksPacket(final byte[] payload)
+    {
+        this.payload = payload;
+    }
+
+    public ChunkChiseledBlocksPacket(final PacketBuffer buffer)
+    {
+        readPayload(buffer);
+    }
+
+    /**
+     * Creates the packets for the given block entities, which are split over multiple packets when there are too many bits for one.
+     *
+     * @param blockEntities The block entities of the chunk.
+     * @return The packets to send.
+     */
+    public static List<ChunkChiseledBlocksPacket> createFor(final Collection<ChiseledBlockEntity> blockEntities)
+    {
+        final List<ChunkChiseledBlocksPacket> packets = Lists.newArrayList();
+
+        SharedPaletteCodec.Writer writer = new SharedPaletteCodec.Writer();
+        PacketBuffer entries = new PacketBuffer(Unpooled.buffer());
+        int entryCount = 0;
+        for (final ChiseledBlockEntity blockEntity : blockEntities)
+        {
+            entries.writeBlockPos(blockEntity.getBlockPos());
+            blockEntity.writeChunkPayloadEntry(writer, entries);
+            entryCount++;
+
+            if (entries.readableBytes() >= MAX_UNCOMPRESSED_ENTRY_BYTES)
+            {
+                packets.add(create(writer, entries, entryCount));
+                writer = new SharedPaletteCodec.Writer();
+                entries = new PacketBuffer(Unpooled.buffer());
+                entryCount = 0;
+            }
+        }
+
+        if (entryCount > 0)
+        {
+            packets.add(create(writer, entries, entryCount));
+        }
+        else
+        {
+            entries.release();
+        }
+
+        return packets;
+    }
+
+    private static ChunkChiseledBlocksPacket create(final SharedPaletteCodec.Writer writer, final PacketBuffer entries, final int entryCount)
+    {
+        final PacketBuffer payload = new PacketBuffer(Unpooled.buffer(entries.readableBytes() + 1024));
+        payload.writeVarInt(entryCount);
+        writer.writePalette(payload);
+        payload.writeBytes(entries);
+        entries.release();
+
+        final byte[] compressedPayload = CompressionUtils.NETWORK.compress(payload);
+        payload.release();
+        return new ChunkChiseledBlocksPacket(compressedPayload);
+    }
+
+    @Override
+    public void writePayload(final PacketBuffer buffer)
+    {
+        buffer.writeByteArray(payload);
+    }
+
+    @Override
+    public void readPayload(final PacketBuffer buffer)
+    {
+        this.payload = buffer.readByteArray();
+    }
+
+    private Map<BlockPos, ChiseledBlockEntity.DecodedUpdate> decodePayload()
+    {
+        final Map<BlockPos, ChiseledBlockEntity.DecodedUpdate> decodedUpdates = new LinkedHashMap<>();
+        final ByteBuf decompressed;
+        try
+        {
+            decompressed = CompressionUtils.NETWORK.decompress(this.payload);
+        }
+        catch (DataFormatException e)
+        {
+            LOGGER.error("Failed to decompress the chiseled blocks of a chunk.", e);
+            return decodedUpdates;
+        }
+
+        try
+        {
+            final PacketBuffer payloadBuffer = new PacketBuffer(decompressed);
+            final int entryCount = payloadBuffer.readVarInt();
+            final SharedPaletteCodec.Reader reader = new SharedPaletteCodec.Reader(payloadBuffer);
+            for (int i = 0; i < entryCount; i++)
+            {
+                final BlockPos blockPos = payloadBuffer.readBlockPos();
+                decodedUpdates.put(blockPos, ChiseledBlockEntity.readChunkPayloadEntry(reader, payloadBuffer));
+            }
+        }
+        catch (IllegalArgumentException | IndexOutOfBoundsException e)
+        {
+            LOGGER.error("Failed to read the chiseled blocks of a chunk.", e);
+        }
+        finally
+        {
+            decompressed.release();
+        }
+
+        return decodedUpdates;
+    }
+
+    @Override
+    public void client()
+    {
+        DistExecutor.unsafeRunWhenOn(CLIENT, () -> () -> ClientPacketHandlers.handleChunkChiseledBlocksPacket(this::decodePayload));
+    }
+}
@@ -0,0 +1,40 @@
+package mod.chiselsandbits.network.packets;
+
+import mod.chiselsandbits.measures.Measurement;
+import mod.chiselsandbits.measures.MeasuringManager;
+import net.minecraft.network.PacketBuffer;
+
+public final class MeasurementAddedPacket extends ModPacket
+{
+
+    private Measurement measurement;
+
+    public MeasurementAddedPacket(final Measurement measurement)
+    {
+        this.measurement = measurement;
+    }
+
+    public MeasurementAddedPacket(final PacketBuffer buffer)
+    {
+        readPayload(buffer);
+    }
+
+    @Override
+    public void writePayload(final PacketBuffer buffer)
+    {
+        measurement.serializeInto(buffer);
+    }
+
+    @Override
+    public void readPayload(final PacketBuffer buffer)
+    {
+        this.measurement = new Measurement();
+        this.measurement.deserializeFrom(buffer);
+    }
+
+    @Override
+    public void client()
+    {
+        MeasuringManager.getInstance().onMeasurementAdded(measurement);
+    }
+}
@@ -0,0 +1,45 @@
+package mod.chiselsandbits.network.packets;
+
+import mod.chiselsandbits.measures.MeasuringManager;
+import net.minecraft.network.PacketBuffer;
+import net.minecraft.util.ResourceLocation;
+
+import java.util.UUID;
+
+public final class MeasurementsRemovedPacket extends ModPacket
+{
+
+    private ResourceLocation worldKey;
+    private UUID             playerId;
+
+    public MeasurementsRemovedPacket(final ResourceLocation worldKey, final UUID playerId)
+    {
+        this.worldKey = worldKey;
+        this.playerId = playerId;
+    }
+
+    public MeasurementsRemovedPacket(final PacketBuffer buffer)
+    {
+        readPayload(buffer);
+    }
+
+    @Override
+    public void writePayload(final PacketBuffer buffer)
+    {
+        buffer.writeResourceLocation(worldKey);
+        buffer.writeUUID(playerId);
+    }
+
+    @Override
+    public void readPayload(final PacketBuffer buffer)
+    {
+        this.worldKey = buffer.readResourceLocation();
+        this.playerId = buffer.readUUID();
+    }
+
+    @Override
+    public void client()
+    {
+        MeasuringManager.getInstance().onMeasurementsRemoved(worldKey, playerId);
+    }
+}
@@ -1,42 +1,62 @@
 package mod.chiselsandbits.network.packets;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import mod.chiselsandbits.api.measuring.IMeasurement;
+import mod.chiselsandbits.measures.Measurement;
 import mod.chiselsandbits.measures.MeasuringManager;
-import net.minecraft.entity.player.ServerPlayerEntity;
 import net.minecraft.network.PacketBuffer;
+import net.minecraft.util.ResourceLocation;
+
+import java.util.Collection;
+import java.util.List;
 
 public final class MeasurementsUpdatedPacket extends ModPacket
 {
 
+    private ResourceLocation  worldKey;
+    private List<Measurement> measurements;
+
     public MeasurementsUpdatedPacket(final PacketBuffer buffer)
     {
         readPayload(buffer);
     }
 
-    public MeasurementsUpdatedPacket()
+    public MeasurementsUpdatedPacket(final ResourceLocation worldKey, final Collection<? extends IMeasurement> measurements)
     {
+        this.worldKey = worldKey;
+        //Copied, since the packet is written on the network thread.
+        this.measurements = measurements.stream()
+          .filter(Measurement.class::isInstance)
+          .map(Measurement.class::cast)
+          .collect(ImmutableList.toImmutableList());
     }
 
     @Override
     public void writePayload(final PacketBuffer buffer)
     {
-        MeasuringManager.getInstance().serializeInto(buffer);
+        buffer.writeResourceLocation(worldKey);
+        buffer.writeVarInt(measurements.size());
+        measurements.forEach(measurement -> measurement.serializeInto(buffer));
     }
 
     @Override
     public void readPayload(final PacketBuffer buffer)
     {
-        MeasuringManager.getInstance().deserializeFrom(buffer);
-    }
-
-    @Override
-    public void server(final ServerPlayerEntity playerEntity)
-    {
-        //Noop
+        this.worldKey = buffer.readResourceLocation();
+        final int count = buffer.readVarInt();
+        this.measurements = Lists.newArrayListWithCapacity(count);
+        for (int i = 0; i < count; i++)
+        {
+            final Measurement measurement = new Measurement();
+            measurement.deserializeFrom(buffer);
+            this.measurements.add(measurement);
+        }
     }
 
     @Override
     public void client()
     {
-        //Noop
+        MeasuringManager.getInstance().onMeasurementsSynced(worldKey, measurements);
     }
 }
@@ -0,0 +1,69 @@
+package mod.chiselsandbits.network.packets;
+
+import mod.chiselsandbits.block.entities.ChiseledBlockEntity;
+import mod.chiselsandbits.network.scheduling.ChiseledBlockSyncUpdate;
+import mod.chiselsandbits.network.scheduling.ChiseledUpdateScheduler;
+import net.minecraft.entity.player.ServerPlayerEntity;
+import net.minecraft.network.PacketBuffer;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.server.ServerWorld;
+
+/**
+ * Sent by a client which could not apply a delta, because it missed an earlier one or the block entity did not exist yet.
+ */
+public final class RequestChiseledBlockResyncPacket extends ModPacket
+{
+    private BlockPos blockPos;
+
+    public RequestChiseledBlockResyncPacket(final BlockPos blockPos)
+    {
+        this.blockPos = blockPos;
+    }
+
+    public RequestChiseledBlockResyncPacket(final PacketBuffer buffer)
+    {
+        readPayload(buffer);
+    }
+
+    @Override
+    public void writePayload(final PacketBuffer buffer)
+    {
+        buffer.writeBlockPos(blockPos);
+    }
+
+    @Override
+    public void readPayload(final PacketBuffer buffer)
+    {
+        this.blockPos = buffer.readBlockPos();
+    }
+
+    @Override
+    public void server(final ServerPlayerEntity playerEntity)
+    {
+        final ServerWorld level = playerEntity.getLevel();
+        if (!level.isLoaded(blockPos))
+        {
+            return;
+        }
+
+        //Only players which are sent the chunk anyway may request its blocks.
+        final boolean isTracking = level.getChunkSource().chunkMap.getPlayers(new ChunkPos(blockPos), false)
+          .anyMatch(player -> player == playerEntity);
+        if (!isTracking)
+        {
+            return;
+        }
+
+        final TileEntity tileEntity = level.getBlockEntity(blockPos);
+        if (tileEntity instanceof ChiseledBlockEntity)
+        {
+            //Queued like any other sync, so repeated requests are merged and count against the byte budget of the player.
+            ChiseledUpdateScheduler.getInstance().enqueue(
+              playerEntity,
+              ChiseledBlockSyncUpdate.snapshot(blockPos, ((ChiseledBlockEntity) tileEntity).getEstimatedSnapshotSize())
+            );
+        }
+    }
+}
@@ -1,9 +1,9 @@
 package mod.chiselsandbits.network.packets;
 
+import mod.chiselsandbits.block.entities.ChiseledBlockEntity;
 import mod.chiselsandbits.network.handlers.ClientPacketHandlers;
 import net.minecraft.nbt.CompoundNBT;
 import net.minecraft.network.PacketBuffer;
-import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.math.BlockPos;
 import net.minecraftforge.api.distmarker.Dist;
 import net.minecraftforge.fml.DistExecutor;
@@ -16,10 +16,10 @@ public final class TileEntityUpdatedPacket extends ModPacket
     private BlockPos blockPos;
     private CompoundNBT updateData;
 
-    public TileEntityUpdatedPacket(final TileEntity tileEntity)
+    public TileEntityUpdatedPacket(final ChiseledBlockEntity tileEntity)
     {
         this.blockPos = tileEntity.getBlockPos();
-        this.updateData = tileEntity.getUpdateTag();
+        this.updateData = tileEntity.getFullUpdateTag();
     }
 
     public TileEntityUpdatedPacket(final PacketBuffer buffer)
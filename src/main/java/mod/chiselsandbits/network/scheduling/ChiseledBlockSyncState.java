@@ -0,0 +1,96 @@
+package mod.chiselsandbits.network.scheduling;
+
+import mod.chiselsandbits.network.packets.ChiseledBlockDeltaPacket;
+import mod.chiselsandbits.storage.PackedStateStorage;
+import mod.chiselsandbits.storage.StateDeltaCodec;
+import net.minecraft.util.math.BlockPos;
+
+import java.util.BitSet;
+import java.util.function.IntSupplier;
+
+/**
+ * Tracks which bits of a chiseled block changed since its last sync, and the sync version the tracking clients are at.
+ * <p>
+ * All changes made between two flushes end up in a single update, which is a delta against the previous sync version
+ * when possible and a full snapshot otherwise.
+ */
+public final class ChiseledBlockSyncState
+{
+    private       int     syncVersion      = 0;
+    private final BitSet  unsyncedBits;
+    private       boolean requiresFullSync = true;
+
+    /**
+     * Creates a new sync state, which requires a full sync before any delta can be sent.
+     *
+     * @param size The amount of bits in the storage of the block.
+     */
+    public ChiseledBlockSyncState(final int size)
+    {
+        this.unsyncedBits = new BitSet(size);
+    }
+
+    /**
+     * Marks the bit at the given index as changed since the last sync.
+     *
+     * @param index The index of the bit in the storage.
+     */
+    public void markChanged(final int index)
+    {
+        this.unsyncedBits.set(index);
+    }
+
+    /**
+     * Marks the block as changed in a way which a delta can not describe, for example because the whole storage got replaced.
+     */
+    public void requireFullSync()
+    {
+        this.requiresFullSync = true;
+    }
+
+    /**
+     * Creates the update which brings the tracking clients up to date with the changes since the last sync,
+     * and marks those changes as synced.
+     *
+     * @param blockPos The position of the block.
+     * @param storage The current storage of the block.
+     * @param estimatedSnapshotSize Estimates the size of a full snapshot, only invoked when a snapshot is needed.
+     * @return The update.
+     */
+    public ChiseledBlockSyncUpdate createUpdate(final BlockPos blockPos, final PackedStateStorage storage, final IntSupplier estimatedSnapshotSize)
+    {
+        final int baseVersion = this.syncVersion++;
+        final byte[] delta = this.requiresFullSync ? null : StateDeltaCodec.encode(storage, this.unsyncedBits);
+        final ChiseledBlockSyncUpdate update = delta != null
+                                                 ? ChiseledBlockSyncUpdate.delta(blockPos, new ChiseledBlockDeltaPacket(blockPos, baseVersion, this.syncVersion, delta))
+                                                 : ChiseledBlockSyncUpdate.snapshot(blockPos, estimatedSnapshotSize.getAsInt());
+
+        markSynced();
+        return update;
+    }
+
+    /**
+     * Marks all changes as synced without creating an update, which is what the client does with its own changes.
+     */
+    public void markSynced()
+    {
+        this.unsyncedBits.clear();
+        this.requiresFullSync = false;
+    }
+
+    /**
+     * Moves to the given sync version after an update from the server has been applied.
+     *
+     * @param syncVersion The sync version of the applied update.
+     */
+    public void syncedTo(final int syncVersion)
+    {
+        this.unsyncedBits.clear();
+        this.syncVersion = syncVersion;
+    }
+
+    public int getSyncVersion()
+    {
+        return syncVersion;
+    }
+}
@@ -0,0 +1,116 @@
+package mod.chiselsandbits.network.scheduling;
+
+import mod.chiselsandbits.block.entities.ChiseledBlockEntity;
+import mod.chiselsandbits.network.packets.ChiseledBlockDeltaPacket;
+import mod.chiselsandbits.network.packets.ModPacket;
+import mod.chiselsandbits.network.packets.TileEntityUpdatedPacket;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A pending sync of a chiseled block, either a delta or a full snapshot.
+ * <p>
+ * Deltas only apply on top of the sync version they were created against, so merging anything into a pending update
+ * turns it into a full snapshot. Snapshots are only created from the block entity once the update is actually sent,
+ * so snapshots which are replaced by later changes are never serialized or compressed. The same update is queued for every
+ * tracking player, so the snapshot is created once and sent to all of them. Later changes replace the queued update instead of
+ * changing it, so the created snapshot never goes stale.
+ */
+public final class ChiseledBlockSyncUpdate implements IOutboundUpdate<ChiseledBlockSyncUpdate>
+{
+    private final BlockPos  blockPos;
+    //Created on the first send for snapshots.
+    @Nullable
+    private       ModPacket packet;
+    private final boolean   isSnapshot;
+    private final int       size;
+
+    private ChiseledBlockSyncUpdate(final BlockPos blockPos, @Nullable final ModPacket packet, final boolean isSnapshot, final int size)
+    {
+        this.blockPos = blockPos;
+        this.packet = packet;
+        this.isSnapshot = isSnapshot;
+        this.size = size;
+    }
+
+    public static ChiseledBlockSyncUpdate delta(final BlockPos blockPos, final ChiseledBlockDeltaPacket packet)
+    {
+        return new ChiseledBlockSyncUpdate(blockPos, packet, false, packet.getEstimatedSize());
+    }
+
+    /**
+     * Creates a full snapshot of the block at the given position, which is read from the block entity when the update is sent.
+     *
+     * @param blockPos The position of the block.
+     * @param estimatedSize The estimated amount of bytes the snapshot takes up on the wire.
+     * @return The update.
+     */
+    public static ChiseledBlockSyncUpdate snapshot(final BlockPos blockPos, final int estimatedSize)
+    {
+        return new ChiseledBlockSyncUpdate(blockPos, null, true, estimatedSize);
+    }
+
+    public BlockPos getBlockPos()
+    {
+        return blockPos;
+    }
+
+    /**
+     * Indicates if this update sends the full contents of the block, instead of a delta.
+     *
+     * @return True when this update is a snapshot.
+     */
+    public boolean isSnapshot()
+    {
+        return isSnapshot;
+    }
+
+    @Override
+    public int getSize()
+    {
+        return size;
+    }
+
+    @Override
+    public ChiseledBlockSyncUpdate mergeWith(final ChiseledBlockSyncUpdate newer)
+    {
+        if (newer.isSnapshot)
+        {
+            return newer;
+        }
+
+        //The snapshot is at most as large as the bits it replaces, so the sum is a safe estimate.
+        return new ChiseledBlockSyncUpdate(blockPos, null, true, size + newer.size);
+    }
+
+    /**
+     * Creates the packet to send.
+     *
+     * @param level The level of the player the update is sent to.
+     * @return The packet, or null when the chiseled block no longer exists.
+     */
+    @Nullable
+    public ModPacket createPacket(final World level)
+    {
+        if (packet != null)
+        {
+            return packet;
+        }
+
+        if (!level.isLoaded(blockPos))
+        {
+            return null;
+        }
+
+        final TileEntity tileEntity = level.getBlockEntity(blockPos);
+        if (!(tileEntity instanceof ChiseledBlockEntity))
+        {
+            return null;
+        }
+
+        packet = new TileEntityUpdatedPacket((ChiseledBlockEntity) tileEntity);
+        return packet;
+    }
+}
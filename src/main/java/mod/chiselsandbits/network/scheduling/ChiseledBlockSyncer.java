@@ -0,0 +1,99 @@
+package mod.chiselsandbits.network.scheduling;
+
+import mod.chiselsandbits.block.entities.dirty.DirtyBlockEntityQueue;
+import mod.chiselsandbits.block.entities.dirty.IDirtyBlockEntity;
+import mod.chiselsandbits.storage.PackedStateStorage;
+import net.minecraft.util.math.BlockPos;
+
+/**
+ * Propagates the changes of a chiseled block to the world and the players tracking it.
+ * <p>
+ * On the server every change only marks the block as dirty, and all changes made until the dirty queue is flushed at the end of the tick
+ * end up in a single update. On the client the changes are propagated right away and never sent anywhere.
+ */
+public final class ChiseledBlockSyncer implements IDirtyBlockEntity
+{
+    private final ISyncedBlock           block;
+    private final ChiseledBlockSyncState syncState;
+    private final DirtyBlockEntityQueue  dirtyQueue;
+
+    public ChiseledBlockSyncer(final ISyncedBlock block, final ChiseledBlockSyncState syncState, final DirtyBlockEntityQueue dirtyQueue)
+    {
+        this.block = block;
+        this.syncState = syncState;
+        this.dirtyQueue = dirtyQueue;
+    }
+
+    /**
+     * Propagates that the block changed, once on the server, right away on the client.
+     */
+    public void markChanged()
+    {
+        if (block.isClientSide())
+        {
+            flushChanges();
+            return;
+        }
+
+        dirtyQueue.markDirty(this);
+    }
+
+    @Override
+    public boolean canFlushChanges()
+    {
+        return block.canFlushChanges();
+    }
+
+    @Override
+    public void flushChanges()
+    {
+        block.onChangesFlushed();
+
+        if (block.isClientSide())
+        {
+            this.syncState.markSynced();
+            return;
+        }
+
+        //Small changes are sent as a delta against the previous sync version, everything else as a full snapshot.
+        block.sendUpdate(this.syncState.createUpdate(block.getBlockPos(), block.getSyncedStorage(), block::getEstimatedSnapshotSize));
+    }
+
+    /**
+     * The block whose changes are propagated.
+     */
+    public interface ISyncedBlock
+    {
+        BlockPos getBlockPos();
+
+        boolean isClientSide();
+
+        /**
+         * Indicates if the block still exists in its world, so that its changes can be flushed.
+         *
+         * @return True when the changes can be flushed.
+         */
+        boolean canFlushChanges();
+
+        /**
+         * The storage with all changes applied, as it is sent to the players.
+         *
+         * @return The storage.
+         */
+        PackedStateStorage getSyncedStorage();
+
+        int getEstimatedSnapshotSize();
+
+        /**
+         * Propagates the changes to the world, invoked once per flush before the update is created.
+         */
+        void onChangesFlushed();
+
+        /**
+         * Sends the update to the players tracking the block.
+         *
+         * @param update The update.
+         */
+        void sendUpdate(ChiseledBlockSyncUpdate update);
+    }
+}
@@ -0,0 +1,170 @@
+package mod.chiselsandbits.network.scheduling;
+
+import com.google.common.collect.Maps;
+import mod.chiselsandbits.ChiselsAndBits;
+import mod.chiselsandbits.api.config.Configuration;
+import mod.chiselsandbits.network.packets.ModPacket;
+import net.minecraft.entity.player.ServerPlayerEntity;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.RegistryKey;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.vector.Vector3d;
+import net.minecraft.world.World;
+import net.minecraft.world.server.ServerWorld;
+import net.minecraftforge.fml.server.ServerLifecycleHooks;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Sends the syncs of chiseled blocks to the players tracking them, nearest blocks first and limited to a configured amount of bytes per tick.
+ * <p>
+ * The queues are keyed by the id of the player, not the player entity, since respawning and changing dimensions replace the entity.
+ * Only used on the server thread.
+ */
+public final class ChiseledUpdateScheduler
+{
+    private static final ChiseledUpdateScheduler INSTANCE = new ChiseledUpdateScheduler();
+
+    public static ChiseledUpdateScheduler getInstance()
+    {
+        return INSTANCE;
+    }
+
+    private final Map<UUID, PlayerQueue> queues = Maps.newHashMap();
+
+    private ChiseledUpdateScheduler()
+    {
+    }
+
+    /**
+     * Queues the given update for every player which tracks the chunk of the block.
+     *
+     * @param level The level of the block.
+     * @param update The update.
+     */
+    public void enqueue(final ServerWorld level, final ChiseledBlockSyncUpdate update)
+    {
+        level.getChunkSource().chunkMap.getPlayers(new ChunkPos(update.getBlockPos()), false)
+          .forEach(player -> enqueue(player, level.dimension(), update));
+    }
+
+    /**
+     * Queues the given update of a block in the current level of the given player, for that player only.
+     *
+     * @param player The player.
+     * @param update The update.
+     */
+    public void enqueue(final ServerPlayerEntity player, final ChiseledBlockSyncUpdate update)
+    {
+        enqueue(player, player.getLevel().dimension(), update);
+    }
+
+    private void enqueue(final ServerPlayerEntity player, final RegistryKey<World> dimension, final ChiseledBlockSyncUpdate update)
+    {
+        PlayerQueue playerQueue = queues.get(player.getUUID());
+        if (playerQueue == null || playerQueue.dimension != dimension)
+        {
+            playerQueue = new PlayerQueue(dimension);
+            queues.put(player.getUUID(), playerQueue);
+        }
+
+        playerQueue.queue.enqueue(update.getBlockPos(), update);
+    }
+
+    /**
+     * Sends the updates each player may receive this tick.
+     */
+    public void tick()
+    {
+        if (queues.isEmpty())
+        {
+            return;
+        }
+
+        final MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
+        if (server == null)
+        {
+            return;
+        }
+
+        final int bytesPerTick = Configuration.getInstance().getServer().chiseledUpdateBytesPerTick.get();
+        final Iterator<Map.Entry<UUID, PlayerQueue>> iterator = queues.entrySet().iterator();
+        while (iterator.hasNext())
+        {
+            final Map.Entry<UUID, PlayerQueue> entry = iterator.next();
+            final ServerPlayerEntity player = server.getPlayerList().getPlayer(entry.getKey());
+            //The updates of a level the player left are of no use anymore, the chunks of the new level are sent in full.
+            if (player == null || player.hasDisconnected() || player.getLevel().dimension() != entry.getValue().dimension)
+            {
+                iterator.remove();
+                continue;
+            }
+
+            final Vector3d position = player.position();
+            for (final ChiseledBlockSyncUpdate update : entry.getValue().queue.poll(blockPos -> blockPos.distSqr(position.x, position.y, position.z, true), bytesPerTick))
+            {
+                final ModPacket packet = update.createPacket(player.getLevel());
+                if (packet != null)
+                {
+                    ChiselsAndBits.getInstance().getNetworkChannel().sendToPlayer(packet, player);
+                }
+            }
+
+            if (entry.getValue().queue.isEmpty())
+            {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Drops the pending updates of the given player in the given chunk,
+     * for example because the chunk was sent in full or is no longer tracked by the player.
+     *
+     * @param player The player.
+     * @param chunkPos The chunk.
+     */
+    public void discard(final ServerPlayerEntity player, final ChunkPos chunkPos)
+    {
+        final PlayerQueue playerQueue = queues.get(player.getUUID());
+        if (playerQueue == null)
+        {
+            return;
+        }
+
+        playerQueue.queue.discardIf(blockPos -> (blockPos.getX() >> 4) == chunkPos.x && (blockPos.getZ() >> 4) == chunkPos.z);
+        if (playerQueue.queue.isEmpty())
+        {
+            queues.remove(player.getUUID());
+        }
+    }
+
+    /**
+     * Drops all pending updates of the given player, for example because the player logged out.
+     *
+     * @param player The player.
+     */
+    public void discardAll(final ServerPlayerEntity player)
+    {
+        queues.remove(player.getUUID());
+    }
+
+    public void clear()
+    {
+        queues.clear();
+    }
+
+    private static final class PlayerQueue
+    {
+        private final RegistryKey<World>                                    dimension;
+        private final OutboundUpdateQueue<BlockPos, ChiseledBlockSyncUpdate> queue = new OutboundUpdateQueue<>();
+
+        private PlayerQueue(final RegistryKey<World> dimension)
+        {
+            this.dimension = dimension;
+        }
+    }
+}
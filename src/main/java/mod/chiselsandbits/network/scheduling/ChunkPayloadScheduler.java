@@ -0,0 +1,182 @@
+package mod.chiselsandbits.network.scheduling;
+
+import com.google.common.collect.Maps;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import mod.chiselsandbits.ChiselsAndBits;
+import mod.chiselsandbits.block.entities.ChiseledBlockEntity;
+import mod.chiselsandbits.network.packets.ChunkChiseledBlocksPacket;
+import net.minecraft.entity.player.ServerPlayerEntity;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.RegistryKey;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.server.ServerWorld;
+import net.minecraftforge.fml.server.ServerLifecycleHooks;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Sends the bits of all chiseled blocks of a chunk to the players which received the chunk data, once per player and chunk.
+ * <p>
+ * The update tags in the chunk data do not carry the bits. Building them marks the chunk, and at the end of the tick the
+ * payload is sent to every player which tracks the chunk but did not receive its payload yet. Since the chunk data is
+ * always built right before it is sent, this covers chunks sent when a player moves as well as chunks sent once they finish
+ * loading, and the payload always arrives after the chunk data.
+ * Only used on the server thread.
+ */
+public final class ChunkPayloadScheduler
+{
+    private static final ChunkPayloadScheduler INSTANCE = new ChunkPayloadScheduler();
+
+    public static ChunkPayloadScheduler getInstance()
+    {
+        return INSTANCE;
+    }
+
+    private final Map<RegistryKey<World>, LongSet> sentChunkData  = Maps.newHashMap();
+    private final Map<UUID, PlayerChunks>          receivedChunks = Maps.newHashMap();
+
+    private ChunkPayloadScheduler()
+    {
+    }
+
+    /**
+     * Marks the chunk data of the given chunk as being sent to one or more players.
+     *
+     * @param level The level of the chunk.
+     * @param chunkPos The chunk.
+     */
+    public void markChunkDataSent(final ServerWorld level, final ChunkPos chunkPos)
+    {
+        sentChunkData.computeIfAbsent(level.dimension(), dimension -> new LongOpenHashSet()).add(chunkPos.toLong());
+    }
+
+    /**
+     * Sends the payloads of the chunks whose data was sent this tick.
+     */
+    public void tick()
+    {
+        if (sentChunkData.isEmpty())
+        {
+            return;
+        }
+
+        final MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
+        if (server == null)
+        {
+            sentChunkData.clear();
+            return;
+        }
+
+        for (final Map.Entry<RegistryKey<World>, LongSet> entry : sentChunkData.entrySet())
+        {
+            final ServerWorld level = server.getLevel(entry.getKey());
+            if (level == null)
+            {
+                continue;
+            }
+
+            final LongIterator iterator = entry.getValue().iterator();
+            while (iterator.hasNext())
+            {
+                sendPayload(level, new ChunkPos(iterator.nextLong()));
+            }
+        }
+        sentChunkData.clear();
+    }
+
+    private void sendPayload(final ServerWorld level, final ChunkPos chunkPos)
+    {
+        final Chunk chunk = level.getChunkSource().getChunkNow(chunkPos.x, chunkPos.z);
+        if (chunk == null)
+        {
+            return;
+        }
+
+        final List<ServerPlayerEntity> recipients = level.getChunkSource().chunkMap.getPlayers(chunkPos, false)
+          .filter(player -> getReceivedChunks(player).add(chunkPos.toLong()))
+          .collect(Collectors.toList());
+        if (recipients.isEmpty())
+        {
+            return;
+        }
+
+        final List<ChiseledBlockEntity> blockEntities = chunk.getBlockEntities().values()
+          .stream()
+          .filter(ChiseledBlockEntity.class::isInstance)
+          .map(ChiseledBlockEntity.class::cast)
+          .collect(Collectors.toList());
+
+        final List<ChunkChiseledBlocksPacket> packets = ChunkChiseledBlocksPacket.createFor(blockEntities);
+        for (final ServerPlayerEntity player : recipients)
+        {
+            //Everything which is still pending for this chunk is superseded by the payload.
+            ChiseledUpdateScheduler.getInstance().discard(player, chunkPos);
+            for (final ChunkChiseledBlocksPacket packet : packets)
+            {
+                ChiselsAndBits.getInstance().getNetworkChannel().sendToPlayer(packet, player);
+            }
+        }
+    }
+
+    private LongSet getReceivedChunks(final ServerPlayerEntity player)
+    {
+        final RegistryKey<World> dimension = player.getLevel().dimension();
+        PlayerChunks playerChunks = receivedChunks.get(player.getUUID());
+        if (playerChunks == null || playerChunks.dimension != dimension)
+        {
+            playerChunks = new PlayerChunks(dimension);
+            receivedChunks.put(player.getUUID(), playerChunks);
+        }
+
+        return playerChunks.chunks;
+    }
+
+    /**
+     * Forgets that the given player received the payload of the given chunk, since the client dropped the chunk.
+     *
+     * @param player The player.
+     * @param chunkPos The chunk.
+     */
+    public void discard(final ServerPlayerEntity player, final ChunkPos chunkPos)
+    {
+        final PlayerChunks playerChunks = receivedChunks.get(player.getUUID());
+        if (playerChunks != null)
+        {
+            playerChunks.chunks.remove(chunkPos.toLong());
+        }
+    }
+
+    /**
+     * Forgets all chunks the given player received, for example because the player logged out.
+     *
+     * @param player The player.
+     */
+    public void discardAll(final ServerPlayerEntity player)
+    {
+        receivedChunks.remove(player.getUUID());
+    }
+
+    public void clear()
+    {
+        sentChunkData.clear();
+        receivedChunks.clear();
+    }
+
+    private static final class PlayerChunks
+    {
+        private final RegistryKey<World> dimension;
+        private final LongSet            chunks = new LongOpenHashSet();
+
+        private PlayerChunks(final RegistryKey<World> dimension)
+        {
+            this.dimension = dimension;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package mod.chiselsandbits.network.scheduling;
+
+/**
+ * An update which waits in an {@link OutboundUpdateQueue} until it is sent to a player.
+ *
+ * @param <U> The type of the update itself.
+ */
+public interface IOutboundUpdate<U extends IOutboundUpdate<U>>
+{
+    /**
+     * The estimated amount of bytes this update takes up on the wire.
+     *
+     * @return The estimated size in bytes.
+     */
+    int getSize();
+
+    /**
+     * Combines this pending update with a newer update for the same position.
+     * The result brings the receiver to the state of the newer update, as if both had been sent.
+     *
+     * @param newer The newer update.
+     * @return The combined update.
+     */
+    U mergeWith(U newer);
+}
@@ -0,0 +1,111 @@
+package mod.chiselsandbits.network.scheduling;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * The pending updates of a single player, keyed by their position.
+ * <p>
+ * Updates to a position which already has a pending update are merged into it, so each position is sent at most once per poll.
+ * Each poll hands out the pending updates nearest to the player first, until the byte budget of the tick is used up.
+ *
+ * @param <K> The type of the positions.
+ * @param <U> The type of the updates.
+ */
+public final class OutboundUpdateQueue<K, U extends IOutboundUpdate<U>>
+{
+    private final Map<K, U> pendingUpdates = Maps.newLinkedHashMap();
+    private long budget = 0;
+
+    /**
+     * Adds an update, merging it into the pending update of the same position if there is one.
+     *
+     * @param position The position the update is for.
+     * @param update The update.
+     */
+    public void enqueue(final K position, final U update)
+    {
+        this.pendingUpdates.merge(position, update, IOutboundUpdate::mergeWith);
+    }
+
+    /**
+     * Adds the bytes of one tick to the budget and removes the pending updates which fit into it, nearest first.
+     * <p>
+     * The nearest update is handed out whenever the budget is positive, even when it is larger than the remaining budget.
+     * The excess is paid off in the following ticks. Unused budget does not carry over into the next tick.
+     *
+     * @param distanceToPlayer The distance of a position to the player, only used for ordering.
+     * @param bytesPerTick The amount of bytes which may be sent each tick.
+     * @return The updates to send, nearest first.
+     */
+    public List<U> poll(final ToDoubleFunction<K> distanceToPlayer, final int bytesPerTick)
+    {
+        this.budget = Math.min(this.budget + bytesPerTick, bytesPerTick);
+        if (this.pendingUpdates.isEmpty() || this.budget <= 0)
+        {
+            return Collections.emptyList();
+        }
+
+        final List<Candidate<K>> candidates = Lists.newArrayListWithCapacity(this.pendingUpdates.size());
+        for (final K position : this.pendingUpdates.keySet())
+        {
+            candidates.add(new Candidate<>(position, distanceToPlayer.applyAsDouble(position)));
+        }
+        //The sort is stable, so positions at the same distance are sent in the order they were first queued.
+        candidates.sort(Comparator.comparingDouble(candidate -> candidate.distance));
+
+        final List<U> updates = Lists.newArrayList();
+        for (final Candidate<K> candidate : candidates)
+        {
+            if (this.budget <= 0)
+            {
+                break;
+            }
+
+            final U update = this.pendingUpdates.remove(candidate.position);
+            updates.add(update);
+            this.budget -= update.getSize();
+        }
+
+        return updates;
+    }
+
+    /**
+     * Drops all pending updates whose position matches the given filter.
+     *
+     * @param filter The filter for the positions to drop.
+     */
+    public void discardIf(final Predicate<K> filter)
+    {
+        this.pendingUpdates.keySet().removeIf(filter);
+    }
+
+    public boolean isEmpty()
+    {
+        return this.pendingUpdates.isEmpty();
+    }
+
+    public int size()
+    {
+        return this.pendingUpdates.size();
+    }
+
+    private static final class Candidate<K>
+    {
+        private final K      position;
+        private final double distance;
+
+        private Candidate(final K position, final double distance)
+        {
+            this.position = position;
+            this.distance = distance;
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package mod.chiselsandbits.storage;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Encodes the palette slots of a {@link PackedStateStorage} into a compact, versioned byte array which is stored without any
+ * inner compression, so that the region file compression is the only compression applied to it.
+ * <p>
+ * The array starts with the format version and the encoding, followed by the encoded slots:
+ * <ul>
+ *     <li>{@link #UNIFORM}: nothing, all entries use the first palette slot.</li>
+ *     <li>{@link #PACKED}: every slot with as few bits as the palette requires, as one continuous little endian bit stream.</li>
+ *     <li>{@link #RUNS}: the amount of runs followed by the length and slot of each run, all as varints.</li>
+ * </ul>
+ * The encoder picks whichever of the last two is smaller.
+ */
+public final class CompactStorageCodec
+{
+    public static final int FORMAT_VERSION = 1;
+
+    static final int UNIFORM = 0;
+    static final int PACKED  = 1;
+    static final int RUNS    = 2;
+
+    private CompactStorageCodec()
+    {
+        throw new IllegalStateException("Can not instantiate an instance of: CompactStorageCodec. This is a utility class");
+    }
+
+    /**
+     * Encodes the given slots.
+     *
+     * @param slots The palette slot of each entry.
+     * @param paletteLength The amount of palette entries, every slot needs to be smaller.
+     * @return The encoded data.
+     */
+    public static byte[] encode(final int[] slots, final int paletteLength)
+    {
+        if (paletteLength <= 1)
+        {
+            return new byte[] {FORMAT_VERSION, UNIFORM};
+        }
+
+        final int bits = bitsFor(paletteLength);
+        final int packedLength = (slots.length * bits + 7) / 8;
+
+        final ByteArrayOutputStream runs = new ByteArrayOutputStream();
+        int runCount = 0;
+        int runStart = 0;
+        for (int index = 1; index <= slots.length && runs.size() < packedLength; index++)
+        {
+            if (index == slots.length || slots[index] != slots[runStart])
+            {
+                writeVarInt(runs, index - runStart);
+                writeVarInt(runs, slots[runStart]);
+                runStart = index;
+                runCount++;
+            }
+        }
+
+        if (runStart == slots.length && runs.size() + 5 < packedLength)
+        {
+            final ByteArrayOutputStream output = new ByteArrayOutputStream(runs.size() + 7);
+            output.write(FORMAT_VERSION);
+            output.write(RUNS);
+            writeVarInt(output, runCount);
+            final byte[] runData = runs.toByteArray();
+            output.write(runData, 0, runData.length);
+            return output.toByteArray();
+        }
+
+        final byte[] data = new byte[2 + packedLength];
+        data[0] = FORMAT_VERSION;
+        data[1] = PACKED;
+        long buffer = 0;
+        int bufferedBits = 0;
+        int position = 2;
+        for (final int slot : slots)
+        {
+            buffer |= ((long) slot) << bufferedBits;
+            bufferedBits += bits;
+            while (bufferedBits >= 8)
+            {
+                data[position++] = (byte) buffer;
+                buffer >>>= 8;
+                bufferedBits -= 8;
+            }
+        }
+        if (bufferedBits > 0)
+        {
+            data[position] = (byte) buffer;
+        }
+
+        return data;
+    }
+
+    /**
+     * Decodes the slots of the given data.
+     *
+     * @param data The encoded data.
+     * @param size The amount of entries.
+     * @param paletteLength The amount of palette entries.
+     * @return The palette slot of each entry.
+     * @throws IllegalArgumentException When the data uses an unknown version or is malformed.
+     */
+    public static int[] decode(final byte[] data, final int size, final int paletteLength)
+    {
+        if (data.length < 2)
+        {
+            throw new IllegalArgumentException("Compact storage data is truncated.");
+        }
+        if (data[0] != FORMAT_VERSION)
+        {
+            throw new IllegalArgumentException("Unknown compact storage format version: " + data[0]);
+        }
+
+        final int[] slots = new int[size];
+        switch (data[1])
+        {
+            case UNIFORM:
+                return slots;
+            case PACKED:
+                decodePacked(data, slots, paletteLength);
+                return slots;
+            case RUNS:
+                decodeRuns(data, slots, paletteLength);
+                return slots;
+            default:
+                throw new IllegalArgumentException("Unknown compact storage encoding: " + data[1]);
+        }
+    }
+
+    private static void decodePacked(final byte[] data, final int[] slots, final int paletteLength)
+    {
+        final int bits = bitsFor(paletteLength);
+        if (data.length < 2 + (slots.length * bits + 7) / 8)
+        {
+            throw new IllegalArgumentException("Compact storage data is truncated.");
+        }
+
+        final long mask = (1L << bits) - 1;
+        long buffer = 0;
+        int bufferedBits = 0;
+        int position = 2;
+        for (int index = 0; index < slots.length; index++)
+        {
+            while (bufferedBits < bits)
+            {
+                buffer |= (data[position++] & 0xFFL) << bufferedBits;
+                bufferedBits += 8;
+            }
+
+            slots[index] = checkSlot((int) (buffer & mask), paletteLength);
+            buffer >>>= bits;
+            bufferedBits -= bits;
+        }
+    }
+
+    private static void decodeRuns(final byte[] data, final int[] slots, final int paletteLength)
+    {
+        final int[] position = new int[] {2};
+        final int runCount = readVarInt(data, position);
+        int index = 0;
+        for (int run = 0; run < runCount; run++)
+        {
+            final int length = readVarInt(data, position);
+            final int slot = checkSlot(readVarInt(data, position), paletteLength);
+            if (length <= 0 || index + length > slots.length)
+            {
+                throw new IllegalArgumentException("Compact storage run exceeds the storage size.");
+            }
+
+            for (int end = index + length; index < end; index++)
+            {
+                slots[index] = slot;
+            }
+        }
+
+        if (index != slots.length)
+        {
+            throw new IllegalArgumentException("Compact storage runs do not cover the storage.");
+        }
+    }
+
+    private static int checkSlot(final int slot, final int paletteLength)
+    {
+        if (slot >= paletteLength)
+        {
+            throw new IllegalArgumentException("Compact storage slot is outside of the palette: " + slot);
+        }
+        return slot;
+    }
+
+    private static void writeVarInt(final ByteArrayOutputStream output, int value)
+    {
+        while ((value & -128) != 0)
+        {
+            output.write(value & 127 | 128);
+            value >>>= 7;
+        }
+        output.write(value);
+    }
+
+    private static int readVarInt(final byte[] data, final int[] position)
+    {
+        int value = 0;
+        int shift = 0;
+        byte current;
+        do
+        {
+            if (position[0] >= data.length || shift > 28)
+            {
+                throw new IllegalArgumentException("Compact storage varint is malformed.");
+            }
+
+            current = data[position[0]++];
+            value |= (current & 127) << shift;
+            shift += 7;
+        }
+        while ((current & 128) == 128);
+
+        return value;
+    }
+
+    private static int bitsFor(final int paletteLength)
+    {
+        return Math.max(1, 32 - Integer.numberOfLeadingZeros(paletteLength - 1));
+    }
+}
@@ -0,0 +1,88 @@
+package mod.chiselsandbits.storage;
+
+import net.minecraft.nbt.CompoundNBT;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Holds the loaded nbt of a storage until a bit of the storage is first accessed, so that storages which are loaded
+ * but never looked at are never decoded.
+ * <p>
+ * Setting new data or clearing it discards the held data without decoding it, which is what happens when the storage
+ * is replaced as a whole before anything accessed it.
+ */
+public final class LazilyDecodedStorageData
+{
+    @Nullable
+    private volatile CompoundNBT data;
+
+    private long decodeCount = 0;
+
+    /**
+     * Holds the given data until the next call to {@link #decodeInto(PackedStateStorage, BiConsumer)}.
+     *
+     * @param data The loaded data, which is not copied.
+     */
+    public void set(final CompoundNBT data)
+    {
+        this.data = data;
+    }
+
+    public void clear()
+    {
+        this.data = null;
+    }
+
+    /**
+     * Indicates if data is held which was not decoded yet.
+     *
+     * @return True when the storage still needs to be decoded.
+     */
+    public boolean isPending()
+    {
+        return this.data != null;
+    }
+
+    /**
+     * Creates the data to save, without decoding anything.
+     *
+     * @param writer Writes the data of the decoded storage, only invoked when the held data was decoded or replaced.
+     * @return A copy of the held data when nothing decoded it, since it is still exactly what was loaded, otherwise the written data.
+     */
+    public CompoundNBT save(final Supplier<CompoundNBT> writer)
+    {
+        final CompoundNBT pendingData = this.data;
+        if (pendingData != null)
+        {
+            return pendingData.copy();
+        }
+
+        return writer.get();
+    }
+
+    /**
+     * Decodes the held data into the given storage, if there is any, and discards it afterwards.
+     *
+     * @param storage The storage to decode into.
+     * @param decoder Reads the data into the storage.
+     */
+    public synchronized void decodeInto(final PackedStateStorage storage, final BiConsumer<PackedStateStorage, CompoundNBT> decoder)
+    {
+        final CompoundNBT pendingData = this.data;
+        if (pendingData == null)
+        {
+            return;
+        }
+
+        decoder.accept(storage, pendingData);
+        this.data = null;
+        this.decodeCount++;
+    }
+
+    public long getDecodeCount()
+    {
+        return decodeCount;
+    }
+}
@@ -0,0 +1,1025 @@
+package mod.chiselsandbits.storage;
+
+import mod.chiselsandbits.api.block.state.id.IBlockStateIdManager;
+import mod.chiselsandbits.api.multistate.accessor.callback.BitVisitor;
+import mod.chiselsandbits.api.util.constants.NbtConstants;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.nbt.CompoundNBT;
+import net.minecraft.nbt.ListNBT;
+import net.minecraft.nbt.NBTUtil;
+import net.minecraft.network.PacketBuffer;
+import net.minecraftforge.common.util.Constants;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * A compact storage for the states of all bits in a single block.
+ *
+ * The storage keeps a palette of blockstate ids and a bit packed array of indices into that palette.
+ * When all bits share the same state no index array is allocated at all.
+ *
+ * Entries are addressed the same way a vanilla chunk section addresses its blocks: (y * side + z) * side + x.
+ * The packing layout of the indices matches the vanilla layout as well: entries never span two longs and
+ * are stored starting with the least significant bits.
+ *
+ * Next to the entries the storage keeps a Zobrist style content hash, the xor of a hash of every index and its state id.
+ * Writes update it incrementally, so identifying the contents of the storage never requires a pass over all entries.
+ */
+public class PackedStateStorage
+{
+    private static final int LINEAR_LOOKUP_LIMIT = 8;
+    private static final int DIVISION_SHIFT      = 24;
+
+    private final int side;
+    private final int size;
+
+    private int[]   paletteIds;
+    //A block never has more than 4096 bits, so the counts always fit into a short.
+    private short[] paletteCounts;
+    private int   paletteSize;
+
+    private short[] lookup;
+    private int   lookupEntries;
+
+    private int    bitsPerEntry;
+    private long   entryMask;
+    private int    valuesPerLong;
+    private long   divisionMultiplier;
+    private long[] data;
+
+    private long    contentHash;
+    private boolean isContentHashValid = false;
+    private int     version            = 0;
+    //Shared by all identifiers which were handed out for the current version, cleared on the next modification.
+    private WeakReference<StorageShapeIdentifier.PayloadSource> identifierSource;
+
+    public PackedStateStorage(final int side, final int initialStateId)
+    {
+        this.side = side;
+        this.size = side * side * side;
+        this.paletteIds = new int[] {initialStateId};
+        this.paletteCounts = new short[] {(short) size};
+        this.paletteSize = 1;
+    }
+
+    public PackedStateStorage(final int side, final BlockState initialState)
+    {
+        this(side, IBlockStateIdManager.getInstance().getIdFrom(initialState));
+    }
+
+    private PackedStateStorage(final PackedStateStorage source)
+    {
+        this.side = source.side;
+        this.size = source.size;
+        this.paletteIds = Arrays.copyOf(source.paletteIds, source.paletteIds.length);
+        this.paletteCounts = Arrays.copyOf(source.paletteCounts, source.paletteCounts.length);
+        this.paletteSize = source.paletteSize;
+        this.lookup = source.lookup == null ? null : Arrays.copyOf(source.lookup, source.lookup.length);
+        this.lookupEntries = source.lookupEntries;
+        this.bitsPerEntry = source.bitsPerEntry;
+        this.entryMask = source.entryMask;
+        this.valuesPerLong = source.valuesPerLong;
+        this.divisionMultiplier = source.divisionMultiplier;
+        this.data = source.data == null ? null : Arrays.copyOf(source.data, source.data.length);
+        this.contentHash = source.contentHash;
+        this.isContentHashValid = source.isContentHashValid;
+    }
+
+    public int getSide()
+    {
+        return side;
+    }
+
+    public int getSize()
+    {
+        return size;
+    }
+
+    public int getIndex(final int x, final int y, final int z)
+    {
+        return (y * side + z) * side + x;
+    }
+
+    /**
+     * Indicates if all bits in this storage have the same state.
+     * In this case no index array is allocated.
+     *
+     * @return True when the storage is uniform.
+     */
+    public boolean isUniform()
+    {
+        return data == null;
+    }
+
+    public int getStateId(final int index)
+    {
+        if (data == null)
+        {
+            return paletteIds[0];
+        }
+
+        return paletteIds[readSlot(index)];
+    }
+
+    public int getStateId(final int x, final int y, final int z)
+    {
+        return getStateId(getIndex(x, y, z));
+    }
+
+    public BlockState getBlockState(final int index)
+    {
+        return IBlockStateIdManager.getInstance().getBlockStateFrom(getStateId(index));
+    }
+
+    public BlockState getBlockState(final int x, final int y, final int z)
+    {
+        return getBlockState(getIndex(x, y, z));
+    }
+
+    /**
+     * Sets the state id of the entry with the given index.
+     *
+     * @param index The index of the entry.
+     * @param stateId The new state id.
+     * @return The state id that was stored at the given index before.
+     */
+    public int setStateId(final int index, final int stateId)
+    {
+        final int currentSlot = data == null ? 0 : readSlot(index);
+        final int currentId = paletteIds[currentSlot];
+        if (currentId == stateId)
+        {
+            return currentId;
+        }
+
+        onModification();
+        if (isContentHashValid)
+        {
+            contentHash ^= hashEntry(index, currentId) ^ hashEntry(index, stateId);
+        }
+
+        int slot = findSlot(stateId);
+        if (slot < 0)
+        {
+            slot = addToPalette(stateId);
+        }
+
+        writeSlot(index, slot);
+        paletteCounts[currentSlot]--;
+        paletteCounts[slot]++;
+
+        if (paletteCounts[slot] == size)
+        {
+            collapseTo(stateId);
+        }
+
+        return currentId;
+    }
+
+    public int setStateId(final int x, final int y, final int z, final int stateId)
+    {
+        return setStateId(getIndex(x, y, z), stateId);
+    }
+
+    public BlockState setBlockState(final int x, final int y, final int z, final BlockState blockState)
+    {
+        return IBlockStateIdManager.getInstance().getBlockStateFrom(
+          setStateId(getIndex(x, y, z), IBlockStateIdManager.getInstance().getIdFrom(blockState))
+        );
+    }
+
+    /**
+     * Sets all entries in the storage to the given state id.
+     *
+     * @param stateId The state id.
+     */
+    public void fill(final int stateId)
+    {
+        onModification();
+        isContentHashValid = false;
+        collapseTo(stateId);
+    }
+
+    public void fill(final BlockState blockState)
+    {
+        fill(IBlockStateIdManager.getInstance().getIdFrom(blockState));
+    }
+
+    /**
+     * The amount of palette slots. Some slots might be unused, in which case their count is 0.
+     *
+     * @return The amount of palette slots.
+     */
+    public int getPaletteSize()
+    {
+        return paletteSize;
+    }
+
+    public int getPaletteStateId(final int slot)
+    {
+        return paletteIds[slot];
+    }
+
+    public int getPaletteCount(final int slot)
+    {
+        return paletteCounts[slot];
+    }
+
+    /**
+     * Returns the palette slot of the entry at the given index.
+     *
+     * @param index The index of the entry.
+     * @return The palette slot.
+     */
+    public int getPaletteSlot(final int index)
+    {
+        return data == null ? 0 : readSlot(index);
+    }
+
+    /**
+     * The amount of different states that are in use in this storage.
+     *
+     * @return The amount of states in use.
+     */
+    public int getUsedStateCount()
+    {
+        int count = 0;
+        for (int i = 0; i < paletteSize; i++)
+        {
+            if (paletteCounts[i] > 0)
+            {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public int getBitsPerEntry()
+    {
+        return bitsPerEntry;
+    }
+
+    /**
+     * The amount of longs in the index array.
+     *
+     * @return The length of the index array, zero when the storage is uniform.
+     */
+    int getDataLength()
+    {
+        return data == null ? 0 : data.length;
+    }
+
+    /**
+     * Visits all entries in the same x, y, z loop order as the block position stream provider uses.
+     * The states of the palette are only looked up once per call, not once per entry.
+     *
+     * @param visitor The visitor to invoke for each entry.
+     */
+    public void forEachBit(final BitVisitor visitor)
+    {
+        if (data == null)
+        {
+            final BlockState state = IBlockStateIdManager.getInstance().getBlockStateFrom(paletteIds[0]);
+            for (int x = 0; x < side; x++)
+            {
+                for (int y = 0; y < side; y++)
+                {
+                    for (int z = 0; z < side; z++)
+                    {
+                        visitor.visit(x, y, z, state);
+                    }
+                }
+            }
+            return;
+        }
+
+        final BlockState[] states = new BlockState[paletteSize];
+        for (int slot = 0; slot < paletteSize; slot++)
+        {
+            if (paletteCounts[slot] > 0)
+            {
+                states[slot] = IBlockStateIdManager.getInstance().getBlockStateFrom(paletteIds[slot]);
+            }
+        }
+
+        for (int x = 0; x < side; x++)
+        {
+            for (int y = 0; y < side; y++)
+            {
+                for (int z = 0; z < side; z++)
+                {
+                    visitor.visit(x, y, z, states[readSlot(getIndex(x, y, z))]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Visits the entries whose state id matches the given filter, in the same order as {@link #forEachBit(BitVisitor)}.
+     * The filter is evaluated once per palette slot in use, not once per entry.
+     *
+     * @param stateIdFilter The filter for the state ids to visit.
+     * @param visitor The visitor to invoke for each matching entry.
+     */
+    public void forEachMatchingBit(final IntPredicate stateIdFilter, final BitVisitor visitor)
+    {
+        if (data == null)
+        {
+            if (stateIdFilter.test(paletteIds[0]))
+            {
+                forEachBit(visitor);
+            }
+            return;
+        }
+
+        final boolean[] matches = new boolean[paletteSize];
+        final BlockState[] states = new BlockState[paletteSize];
+        boolean anyMatches = false;
+        for (int slot = 0; slot < paletteSize; slot++)
+        {
+            if (paletteCounts[slot] > 0 && stateIdFilter.test(paletteIds[slot]))
+            {
+                matches[slot] = true;
+                states[slot] = IBlockStateIdManager.getInstance().getBlockStateFrom(paletteIds[slot]);
+                anyMatches = true;
+            }
+        }
+
+        if (!anyMatches)
+        {
+            return;
+        }
+
+        for (int x = 0; x < side; x++)
+        {
+            for (int y = 0; y < side; y++)
+            {
+                for (int z = 0; z < side; z++)
+                {
+                    final int slot = readSlot(getIndex(x, y, z));
+                    if (matches[slot])
+                    {
+                        visitor.visit(x, y, z, states[slot]);
+                    }
+                }
+            }
+        }
+    }
+
+    public PackedStateStorage copy()
+    {
+        return new PackedStateStorage(this);
+    }
+
+    /**
+     * Creates a copy in which every entry is taken from another index of this storage.
+     * Only the packed palette slots are moved, the palette and its counts carry over unchanged.
+     *
+     * @param sourceIndices For each index of the copy, the index in this storage to take its entry from. Needs to be a permutation.
+     * @return The permuted copy.
+     */
+    public PackedStateStorage permute(final int[] sourceIndices)
+    {
+        final PackedStateStorage result = new PackedStateStorage(this);
+        if (data == null)
+        {
+            return result;
+        }
+
+        final long[] permutedData = new long[data.length];
+        for (int index = 0; index < size; index++)
+        {
+            final int word = (int) ((index * divisionMultiplier) >>> DIVISION_SHIFT);
+            final int offset = (index - word * valuesPerLong) * bitsPerEntry;
+            permutedData[word] |= ((long) readSlot(sourceIndices[index])) << offset;
+        }
+
+        result.data = permutedData;
+        result.isContentHashValid = false;
+        return result;
+    }
+
+    /**
+     * The version of the contents, which changes whenever an entry is modified.
+     *
+     * @return The current version.
+     */
+    public int getVersion()
+    {
+        return version;
+    }
+
+    /**
+     * The Zobrist style hash of the contents, two storages with the same contents always have the same hash.
+     * It is maintained incrementally by writes and only calculated from scratch after the storage was filled or loaded.
+     *
+     * @return The 64-bit content hash.
+     */
+    public long getContentHash()
+    {
+        if (!isContentHashValid)
+        {
+            long hash = 0;
+            for (int index = 0; index < size; index++)
+            {
+                hash ^= hashEntry(index, getStateId(index));
+            }
+            contentHash = hash;
+            isContentHashValid = true;
+        }
+
+        return contentHash;
+    }
+
+    /**
+     * Creates an identifier for the current contents without copying them.
+     * All identifiers created for the same version share the lazily build payload they fall back to on a hash collision.
+     *
+     * @return The identifier.
+     */
+    public StorageShapeIdentifier createShapeIdentifier()
+    {
+        StorageShapeIdentifier.PayloadSource source = identifierSource == null ? null : identifierSource.get();
+        if (source == null)
+        {
+            source = new StorageShapeIdentifier.PayloadSource(this, version);
+            identifierSource = new WeakReference<>(source);
+        }
+
+        return new StorageShapeIdentifier(getContentHash(), version, source);
+    }
+
+    /**
+     * Creates an identifier which captures the payload right away, for storages which are discarded after the identifier was created.
+     *
+     * @return The identifier.
+     */
+    public StorageShapeIdentifier createDetachedShapeIdentifier()
+    {
+        return new StorageShapeIdentifier(getContentHash(), version, new StorageShapeIdentifier.PayloadSource(createIdentifierPayload()));
+    }
+
+    /**
+     * Creates a payload which uniquely identifies the contents of this storage.
+     * Two storages with the same contents produce the same payload, regardless of the order in which their palettes were build.
+     *
+     * @return The identifying payload.
+     */
+    public long[] createIdentifierPayload()
+    {
+        if (data == null)
+        {
+            return new long[] {1, paletteIds[0]};
+        }
+
+        final int[] remap = new int[paletteSize];
+        Arrays.fill(remap, -1);
+        final int[] orderedIds = new int[paletteSize];
+        int usedCount = 0;
+        for (int i = 0; i < size; i++)
+        {
+            final int slot = readSlot(i);
+            if (remap[slot] == -1)
+            {
+                remap[slot] = usedCount;
+                orderedIds[usedCount] = paletteIds[slot];
+                usedCount++;
+            }
+        }
+
+        final int payloadBits = bitsFor(usedCount);
+        final long[] packed = pack(remap, payloadBits);
+        final long[] payload = new long[1 + usedCount + packed.length];
+        payload[0] = usedCount;
+        for (int i = 0; i < usedCount; i++)
+        {
+            payload[1 + i] = orderedIds[i];
+        }
+        System.arraycopy(packed, 0, payload, 1 + usedCount, packed.length);
+        return payload;
+    }
+
+    /**
+     * Estimates the amount of heap memory used by this storage, assuming a 64-bit JVM with compressed object pointers.
+     *
+     * @return The estimated size in bytes.
+     */
+    public long getEstimatedHeapSize()
+    {
+        long total = align(12 + 4 * 6 + 8 * 2 + 4 * 4);
+        total += intArraySize(paletteIds.length);
+        total += shortArraySize(paletteCounts.length);
+        if (lookup != null)
+        {
+            total += shortArraySize(lookup.length);
+        }
+        if (data != null)
+        {
+            total += align(16 + 8L * data.length);
+        }
+        return total;
+    }
+
+    /**
+     * Writes the storage in the same nbt layout as a vanilla paletted container uses.
+     * This keeps the data readable by the legacy chunk section based loading code.
+     *
+     * @return The nbt data.
+     */
+    public CompoundNBT serializeNBT()
+    {
+        final CompoundNBT nbt = new CompoundNBT();
+
+        final int[] remap = new int[paletteSize];
+        final ListNBT paletteList = new ListNBT();
+        for (int i = 0; i < paletteSize; i++)
+        {
+            if (paletteCounts[i] > 0)
+            {
+                remap[i] = paletteList.size();
+                paletteList.add(NBTUtil.writeBlockState(IBlockStateIdManager.getInstance().getBlockStateFrom(paletteIds[i])));
+            }
+        }
+
+        nbt.put(NbtConstants.PALETTE, paletteList);
+        nbt.putLongArray(NbtConstants.BLOCK_STATES, pack(remap, Math.max(4, ceilLog2(paletteList.size()))));
+        return nbt;
+    }
+
+    public void deserializeNBT(final CompoundNBT nbt)
+    {
+        final ListNBT paletteList = nbt.getList(NbtConstants.PALETTE, Constants.NBT.TAG_COMPOUND);
+        final long[] rawData = nbt.getLongArray(NbtConstants.BLOCK_STATES);
+
+        final int[] ids = new int[paletteList.size()];
+        for (int i = 0; i < ids.length; i++)
+        {
+            ids[i] = IBlockStateIdManager.getInstance().getIdFrom(NBTUtil.readBlockState(paletteList.getCompound(i)));
+        }
+
+        int rawBits = Math.max(4, ceilLog2(ids.length));
+        if (rawData.length != packedLength(rawBits) && rawData.length > 0)
+        {
+            rawBits = rawData.length * 64 / size;
+        }
+
+        load(ids, rawData, rawBits);
+    }
+
+    /**
+     * Writes the storage in the compact format: the palette as nbt block states and the slots as a plain byte array,
+     * see {@link CompactStorageCodec}. Unlike the vanilla layout the data is not wrapped in another layer of compression.
+     *
+     * @return The nbt data.
+     */
+    public CompoundNBT serializeCompactNBT()
+    {
+        final CompoundNBT nbt = new CompoundNBT();
+
+        final int[] remap = new int[paletteSize];
+        final ListNBT paletteList = new ListNBT();
+        for (int i = 0; i < paletteSize; i++)
+        {
+            if (paletteCounts[i] > 0)
+            {
+                remap[i] = paletteList.size();
+                paletteList.add(NBTUtil.writeBlockState(IBlockStateIdManager.getInstance().getBlockStateFrom(paletteIds[i])));
+            }
+        }
+
+        final int[] slots = new int[size];
+        if (data != null)
+        {
+            for (int i = 0; i < size; i++)
+            {
+                slots[i] = remap[readSlot(i)];
+            }
+        }
+
+        nbt.put(NbtConstants.PALETTE, paletteList);
+        nbt.putByteArray(NbtConstants.COMPACT_DATA, CompactStorageCodec.encode(slots, paletteList.size()));
+        return nbt;
+    }
+
+    /**
+     * Reads data written by {@link #serializeCompactNBT()}.
+     *
+     * @param nbt The nbt data.
+     * @throws IllegalArgumentException When the compact data uses an unknown version or is malformed.
+     */
+    public void deserializeCompactNBT(final CompoundNBT nbt)
+    {
+        final ListNBT paletteList = nbt.getList(NbtConstants.PALETTE, Constants.NBT.TAG_COMPOUND);
+        final int[] ids = new int[paletteList.size()];
+        for (int i = 0; i < ids.length; i++)
+        {
+            ids[i] = IBlockStateIdManager.getInstance().getIdFrom(NBTUtil.readBlockState(paletteList.getCompound(i)));
+        }
+
+        loadCompact(ids, nbt.getByteArray(NbtConstants.COMPACT_DATA));
+    }
+
+    /**
+     * Loads the slots encoded by {@link CompactStorageCodec} with the given palette.
+     *
+     * @param ids The state ids of the palette.
+     * @param compactData The encoded slots.
+     * @throws IllegalArgumentException When the compact data uses an unknown version or is malformed.
+     */
+    public void loadCompact(final int[] ids, final byte[] compactData)
+    {
+        if (ids.length <= 1)
+        {
+            load(ids, new long[0], 0);
+            return;
+        }
+
+        loadSlots(ids, CompactStorageCodec.decode(compactData, size, ids.length));
+    }
+
+    /**
+     * Estimates the amount of bytes {@link #serializeInto(PacketBuffer)} writes, without serializing anything.
+     * Compressing the written data only makes it smaller, so this is an upper bound for the compressed size as well.
+     *
+     * @return The estimated size in bytes.
+     */
+    public int getEstimatedSerializedSize()
+    {
+        final int usedCount = getUsedStateCount();
+        //Var ints take up at most five bytes.
+        int estimatedSize = 5 + usedCount * 5;
+        if (usedCount > 1)
+        {
+            estimatedSize += 1 + 5 + packedLength(bitsFor(usedCount)) * Long.BYTES;
+        }
+        return estimatedSize;
+    }
+
+    public void serializeInto(@NotNull final PacketBuffer packetBuffer)
+    {
+        final int[] remap = new int[paletteSize];
+        int usedCount = 0;
+        for (int i = 0; i < paletteSize; i++)
+        {
+            if (paletteCounts[i] > 0)
+            {
+                remap[i] = usedCount++;
+            }
+        }
+
+        packetBuffer.writeVarInt(usedCount);
+        for (int i = 0; i < paletteSize; i++)
+        {
+            if (paletteCounts[i] > 0)
+            {
+                packetBuffer.writeVarInt(paletteIds[i]);
+            }
+        }
+
+        if (usedCount > 1)
+        {
+            final int bits = bitsFor(usedCount);
+            packetBuffer.writeByte(bits);
+            packetBuffer.writeLongArray(pack(remap, bits));
+        }
+    }
+
+    public void deserializeFrom(@NotNull final PacketBuffer packetBuffer)
+    {
+        final int[] ids = new int[packetBuffer.readVarInt()];
+        for (int i = 0; i < ids.length; i++)
+        {
+            ids[i] = packetBuffer.readVarInt();
+        }
+
+        if (ids.length > 1)
+        {
+            final int bits = packetBuffer.readByte();
+            load(ids, packetBuffer.readLongArray(null), bits);
+            return;
+        }
+
+        load(ids, new long[0], 0);
+    }
+
+    private void load(final int[] ids, final long[] rawData, final int rawBits)
+    {
+        onModification();
+        isContentHashValid = false;
+
+        if (ids.length == 0)
+        {
+            collapseTo(IBlockStateIdManager.getInstance().getIdFrom(Blocks.AIR.defaultBlockState()));
+            return;
+        }
+
+        if (ids.length == 1 || rawBits <= 0 || rawData.length == 0)
+        {
+            collapseTo(ids[0]);
+            return;
+        }
+
+        this.paletteIds = Arrays.copyOf(ids, ids.length);
+        this.paletteCounts = new short[ids.length];
+        this.paletteSize = ids.length;
+        this.lookup = null;
+        this.lookupEntries = 0;
+        setupData(bitsFor(ids.length));
+
+        final int rawValuesPerLong = 64 / rawBits;
+        final long rawMask = (1L << rawBits) - 1L;
+        for (int i = 0; i < size; i++)
+        {
+            final int word = i / rawValuesPerLong;
+            int slot = word < rawData.length ? (int) ((rawData[word] >>> ((i - word * rawValuesPerLong) * rawBits)) & rawMask) : 0;
+            if (slot >= paletteSize)
+            {
+                slot = 0;
+            }
+
+            writeSlot(i, slot);
+            paletteCounts[slot]++;
+        }
+
+        finishLoad();
+    }
+
+    private void loadSlots(final int[] ids, final int[] slots)
+    {
+        onModification();
+        isContentHashValid = false;
+
+        this.paletteIds = Arrays.copyOf(ids, ids.length);
+        this.paletteCounts = new short[ids.length];
+        this.paletteSize = ids.length;
+        this.lookup = null;
+        this.lookupEntries = 0;
+        setupData(bitsFor(ids.length));
+
+        for (int i = 0; i < size; i++)
+        {
+            writeSlot(i, slots[i]);
+            paletteCounts[slots[i]]++;
+        }
+
+        finishLoad();
+    }
+
+    private void finishLoad()
+    {
+        for (int i = 0; i < paletteSize; i++)
+        {
+            if (paletteCounts[i] == size)
+            {
+                collapseTo(paletteIds[i]);
+                return;
+            }
+        }
+
+        rebuildLookup();
+    }
+
+    private long[] pack(final int[] remap, final int bits)
+    {
+        final int targetValuesPerLong = 64 / bits;
+        final long[] packed = new long[packedLength(bits)];
+        for (int i = 0; i < size; i++)
+        {
+            final int slot = data == null ? 0 : readSlot(i);
+            final int word = i / targetValuesPerLong;
+            packed[word] |= ((long) remap[slot]) << ((i - word * targetValuesPerLong) * bits);
+        }
+        return packed;
+    }
+
+    private int packedLength(final int bits)
+    {
+        final int targetValuesPerLong = 64 / bits;
+        return (size + targetValuesPerLong - 1) / targetValuesPerLong;
+    }
+
+    private int readSlot(final int index)
+    {
+        final int word = (int) ((index * divisionMultiplier) >>> DIVISION_SHIFT);
+        final int offset = (index - word * valuesPerLong) * bitsPerEntry;
+        return (int) ((data[word] >>> offset) & entryMask);
+    }
+
+    private void writeSlot(final int index, final int slot)
+    {
+        final int word = (int) ((index * divisionMultiplier) >>> DIVISION_SHIFT);
+        final int offset = (index - word * valuesPerLong) * bitsPerEntry;
+        data[word] = (data[word] & ~(entryMask << offset)) | (((long) slot) << offset);
+    }
+
+    private int findSlot(final int stateId)
+    {
+        if (lookup == null)
+        {
+            for (int i = 0; i < paletteSize; i++)
+            {
+                if (paletteIds[i] == stateId && paletteCounts[i] > 0)
+                {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        final int mask = lookup.length - 1;
+        int position = mix(stateId) & mask;
+        while (lookup[position] != 0)
+        {
+            final int slot = lookup[position] - 1;
+            if (paletteIds[slot] == stateId && paletteCounts[slot] > 0)
+            {
+                return slot;
+            }
+            position = (position + 1) & mask;
+        }
+        return -1;
+    }
+
+    private int addToPalette(final int stateId)
+    {
+        int slot = -1;
+        for (int i = 0; i < paletteSize; i++)
+        {
+            if (paletteCounts[i] == 0)
+            {
+                slot = i;
+                break;
+            }
+        }
+
+        if (slot == -1)
+        {
+            slot = paletteSize++;
+            if (slot >= paletteIds.length)
+            {
+                final int newLength = Math.min(size, Math.max(2, paletteIds.length * 2));
+                paletteIds = Arrays.copyOf(paletteIds, newLength);
+                paletteCounts = Arrays.copyOf(paletteCounts, newLength);
+            }
+        }
+
+        paletteIds[slot] = stateId;
+
+        if (data == null)
+        {
+            setupData(bitsFor(paletteSize));
+        }
+        else if (slot > entryMask)
+        {
+            resize(bitsFor(paletteSize));
+        }
+
+        if (paletteSize > LINEAR_LOOKUP_LIMIT)
+        {
+            if (lookup == null || (lookupEntries + 1) * 4 > lookup.length * 3)
+            {
+                rebuildLookup();
+            }
+            else
+            {
+                insertIntoLookup(slot);
+            }
+        }
+
+        return slot;
+    }
+
+    private void rebuildLookup()
+    {
+        if (paletteSize <= LINEAR_LOOKUP_LIMIT)
+        {
+            lookup = null;
+            lookupEntries = 0;
+            return;
+        }
+
+        int capacity = 16;
+        while (capacity < paletteSize * 2)
+        {
+            capacity <<= 1;
+        }
+
+        lookup = new short[capacity];
+        lookupEntries = 0;
+        for (int i = 0; i < paletteSize; i++)
+        {
+            insertIntoLookup(i);
+        }
+    }
+
+    private void insertIntoLookup(final int slot)
+    {
+        final int mask = lookup.length - 1;
+        int position = mix(paletteIds[slot]) & mask;
+        while (lookup[position] != 0)
+        {
+            position = (position + 1) & mask;
+        }
+        lookup[position] = (short) (slot + 1);
+        lookupEntries++;
+    }
+
+    private void setupData(final int bits)
+    {
+        this.bitsPerEntry = bits;
+        this.entryMask = (1L << bits) - 1L;
+        this.valuesPerLong = 64 / bits;
+        this.divisionMultiplier = ((1L << DIVISION_SHIFT) + valuesPerLong - 1) / valuesPerLong;
+        this.data = new long[(size + valuesPerLong - 1) / valuesPerLong];
+    }
+
+    private void resize(final int bits)
+    {
+        final long[] oldData = this.data;
+        final int oldBits = this.bitsPerEntry;
+        final int oldValuesPerLong = this.valuesPerLong;
+        final long oldMask = this.entryMask;
+
+        setupData(bits);
+        for (int i = 0; i < size; i++)
+        {
+            final int word = i / oldValuesPerLong;
+            writeSlot(i, (int) ((oldData[word] >>> ((i - word * oldValuesPerLong) * oldBits)) & oldMask));
+        }
+    }
+
+    private void collapseTo(final int stateId)
+    {
+        this.paletteIds = new int[] {stateId};
+        this.paletteCounts = new short[] {(short) size};
+        this.paletteSize = 1;
+        this.lookup = null;
+        this.lookupEntries = 0;
+        this.bitsPerEntry = 0;
+        this.entryMask = 0;
+        this.valuesPerLong = 0;
+        this.divisionMultiplier = 0;
+        this.data = null;
+    }
+
+    private void onModification()
+    {
+        if (identifierSource != null)
+        {
+            final StorageShapeIdentifier.PayloadSource source = identifierSource.get();
+            if (source != null)
+            {
+                source.capture(this);
+            }
+            identifierSource = null;
+        }
+
+        version++;
+    }
+
+    /**
+     * Hashes a single entry with the finalizer of murmur3, which is a bijection so that no two entries share a hash.
+     */
+    private static long hashEntry(final int index, final int stateId)
+    {
+        long hash = (((long) stateId) << 32) | (index & 0xFFFFFFFFL);
+        hash = (hash ^ (hash >>> 33)) * 0xFF51AFD7ED558CCDL;
+        hash = (hash ^ (hash >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return hash ^ (hash >>> 33);
+    }
+
+    private static int mix(final int value)
+    {
+        final int hash = value * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    private static int bitsFor(final int entryCount)
+    {
+        return Math.max(1, ceilLog2(entryCount));
+    }
+
+    private static int ceilLog2(final int value)
+    {
+        return value <= 1 ? 0 : 32 - Integer.numberOfLeadingZeros(value - 1);
+    }
+
+    private static long intArraySize(final int length)
+    {
+        return align(16 + 4L * length);
+    }
+
+    private static long shortArraySize(final int length)
+    {
+        return align(16 + 2L * length);
+    }
+
+    private static long align(final long size)
+    {
+        return (size + 7) & ~7L;
+    }
+}
@@ -0,0 +1,139 @@
+package mod.chiselsandbits.storage;
+
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import net.minecraft.network.PacketBuffer;
+
+/**
+ * Writes and reads many storages against one shared palette, so that all chiseled blocks of a chunk can be sent at once.
+ * <p>
+ * The shared palette is written once, ahead of all storages. Each storage is written as the amount of states it uses,
+ * the shared palette slot of each of those states and, when it uses more than one state, its slots encoded with {@link CompactStorageCodec}.
+ */
+public final class SharedPaletteCodec
+{
+    private SharedPaletteCodec()
+    {
+        throw new IllegalStateException("Can not instantiate an instance of: SharedPaletteCodec. This is a utility class");
+    }
+
+    public static final class Writer
+    {
+        private final Int2IntOpenHashMap sharedSlotsByStateId = new Int2IntOpenHashMap();
+        private final IntArrayList       sharedStateIds       = new IntArrayList();
+
+        public Writer()
+        {
+            this.sharedSlotsByStateId.defaultReturnValue(-1);
+        }
+
+        /**
+         * Writes the given storage, adding the states it uses to the shared palette.
+         *
+         * @param storage The storage to write.
+         * @param buffer The buffer to write to.
+         */
+        public void writeStorage(final PackedStateStorage storage, final PacketBuffer buffer)
+        {
+            final int[] localSlots = new int[storage.getPaletteSize()];
+            int usedCount = 0;
+            for (int slot = 0; slot < localSlots.length; slot++)
+            {
+                if (storage.getPaletteCount(slot) > 0)
+                {
+                    localSlots[slot] = usedCount++;
+                }
+            }
+
+            buffer.writeVarInt(usedCount);
+            for (int slot = 0; slot < localSlots.length; slot++)
+            {
+                if (storage.getPaletteCount(slot) > 0)
+                {
+                    buffer.writeVarInt(getOrCreateSharedSlot(storage.getPaletteStateId(slot)));
+                }
+            }
+
+            if (usedCount <= 1)
+            {
+                return;
+            }
+
+            final int[] slots = new int[storage.getSize()];
+            for (int i = 0; i < slots.length; i++)
+            {
+                slots[i] = localSlots[storage.getPaletteSlot(i)];
+            }
+            buffer.writeByteArray(CompactStorageCodec.encode(slots, usedCount));
+        }
+
+        /**
+         * Writes the shared palette, which needs to be read before any of the storages.
+         *
+         * @param buffer The buffer to write to.
+         */
+        public void writePalette(final PacketBuffer buffer)
+        {
+            buffer.writeVarInt(this.sharedStateIds.size());
+            for (int slot = 0; slot < this.sharedStateIds.size(); slot++)
+            {
+                buffer.writeVarInt(this.sharedStateIds.getInt(slot));
+            }
+        }
+
+        private int getOrCreateSharedSlot(final int stateId)
+        {
+            int slot = this.sharedSlotsByStateId.get(stateId);
+            if (slot < 0)
+            {
+                slot = this.sharedStateIds.size();
+                this.sharedStateIds.add(stateId);
+                this.sharedSlotsByStateId.put(stateId, slot);
+            }
+
+            return slot;
+        }
+    }
+
+    public static final class Reader
+    {
+        private final int[] sharedStateIds;
+
+        /**
+         * Creates a new reader, reading the shared palette from the given buffer.
+         *
+         * @param buffer The buffer to read the palette from.
+         */
+        public Reader(final PacketBuffer buffer)
+        {
+            this.sharedStateIds = new int[buffer.readVarInt()];
+            for (int slot = 0; slot < this.sharedStateIds.length; slot++)
+            {
+                this.sharedStateIds[slot] = buffer.readVarInt();
+            }
+        }
+
+        /**
+         * Reads the next storage into the given target.
+         *
+         * @param target The storage to load the data into.
+         * @param buffer The buffer to read from.
+         * @throws IllegalArgumentException When the data references states outside of the shared palette or is malformed.
+         */
+        public void readStorage(final PackedStateStorage target, final PacketBuffer buffer)
+        {
+            final int[] ids = new int[buffer.readVarInt()];
+            for (int i = 0; i < ids.length; i++)
+            {
+                final int sharedSlot = buffer.readVarInt();
+                if (sharedSlot >= this.sharedStateIds.length)
+                {
+                    throw new IllegalArgumentException("Storage references a slot outside of the shared palette: " + sharedSlot);
+                }
+                ids[i] = this.sharedStateIds[sharedSlot];
+            }
+
+            target.loadCompact(ids, ids.length > 1 ? buffer.readByteArray() : new byte[0]);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package mod.chiselsandbits.storage;
+
+import java.util.Arrays;
+
+/**
+ * A compact buffer of pending changes to a {@link PackedStateStorage}, mapping a bit index to its new state id.
+ * Writing the same index twice keeps only the last state id, so the buffer never holds more entries than the storage has bits.
+ */
+public class StateChangeBuffer
+{
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final int size;
+
+    //Position of each index in the entry arrays plus one, so that zero means not buffered. Allocated on the first write.
+    private short[] positions;
+    private int[]   indices  = new int[INITIAL_CAPACITY];
+    private int[]   stateIds = new int[INITIAL_CAPACITY];
+    private int     count    = 0;
+
+    public StateChangeBuffer(final int size)
+    {
+        this.size = size;
+    }
+
+    /**
+     * The amount of bits in the storage this buffer is meant for.
+     *
+     * @return The largest index plus one.
+     */
+    public int getCapacity()
+    {
+        return size;
+    }
+
+    public boolean isEmpty()
+    {
+        return count == 0;
+    }
+
+    /**
+     * The amount of buffered changes.
+     *
+     * @return The amount of distinct indices which have a pending change.
+     */
+    public int size()
+    {
+        return count;
+    }
+
+    public void put(final int index, final int stateId)
+    {
+        if (positions == null)
+        {
+            positions = new short[size];
+        }
+
+        final int position = positions[index] - 1;
+        if (position >= 0)
+        {
+            stateIds[position] = stateId;
+            return;
+        }
+
+        if (count == indices.length)
+        {
+            final int newCapacity = Math.min(size, count * 2);
+            indices = Arrays.copyOf(indices, newCapacity);
+            stateIds = Arrays.copyOf(stateIds, newCapacity);
+        }
+
+        indices[count] = index;
+        stateIds[count] = stateId;
+        count++;
+        positions[index] = (short) count;
+    }
+
+    public boolean contains(final int index)
+    {
+        return count > 0 && positions[index] != 0;
+    }
+
+    /**
+     * Returns the buffered state id of the given index.
+     *
+     * @param index The index to look up.
+     * @param defaultStateId The state id to return when the index has no pending change.
+     * @return The buffered state id, or the default.
+     */
+    public int getStateId(final int index, final int defaultStateId)
+    {
+        if (count == 0)
+        {
+            return defaultStateId;
+        }
+
+        final int position = positions[index] - 1;
+        return position >= 0 ? stateIds[position] : defaultStateId;
+    }
+
+    public int getIndexAt(final int position)
+    {
+        return indices[position];
+    }
+
+    public int getStateIdAt(final int position)
+    {
+        return stateIds[position];
+    }
+
+    /**
+     * Writes all buffered changes into the given storage, in the order in which the indices were first written.
+     * The buffer itself is left untouched.
+     *
+     * @param storage The storage to write into.
+     */
+    public void applyTo(final PackedStateStorage storage)
+    {
+        for (int position = 0; position < count; position++)
+        {
+            storage.setStateId(indices[position], stateIds[position]);
+        }
+    }
+
+    public void clear()
+    {
+        for (int position = 0; position < count; position++)
+        {
+            positions[indices[position]] = 0;
+        }
+        count = 0;
+    }
+}
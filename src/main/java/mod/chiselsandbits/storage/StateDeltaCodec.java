@@ -0,0 +1,155 @@
+package mod.chiselsandbits.storage;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import net.minecraft.network.PacketBuffer;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Encodes the changed bits of a {@link PackedStateStorage} as runs of consecutive indices.
+ * <p>
+ * The format is a small palette of the state ids used by the changed bits, followed by the runs.
+ * Each run is written as the gap to the end of the previous run, its length and one palette index per bit.
+ */
+public final class StateDeltaCodec
+{
+    /**
+     * Deltas which are larger than this are not worth sending, a compressed full snapshot is smaller or close to it at that point.
+     */
+    public static final int MAXIMUM_DELTA_SIZE = 1024;
+
+    private StateDeltaCodec()
+    {
+        throw new IllegalStateException("Can not instantiate an instance of: StateDeltaCodec. This is a utility class");
+    }
+
+    /**
+     * Encodes the given changed bits of the storage.
+     *
+     * @param storage The storage to read the new states from.
+     * @param changedIndices The indices of the bits which changed.
+     * @return The encoded delta, or null when the delta would exceed {@link #MAXIMUM_DELTA_SIZE} and a full snapshot should be sent instead.
+     */
+    @Nullable
+    public static byte[] encode(final PackedStateStorage storage, final BitSet changedIndices)
+    {
+        //Every changed bit takes at least one byte, so there is no need to try when there are more.
+        if (changedIndices.cardinality() > MAXIMUM_DELTA_SIZE)
+        {
+            return null;
+        }
+
+        final ByteBuf buffer = Unpooled.buffer();
+        try
+        {
+            write(storage, changedIndices, new PacketBuffer(buffer));
+            if (buffer.writerIndex() > MAXIMUM_DELTA_SIZE)
+            {
+                return null;
+            }
+
+            final byte[] data = new byte[buffer.writerIndex()];
+            buffer.getBytes(0, data);
+            return data;
+        }
+        finally
+        {
+            buffer.release();
+        }
+    }
+
+    public static void write(final PackedStateStorage storage, final BitSet changedIndices, final PacketBuffer buffer)
+    {
+        final int[] slotToLocal = new int[storage.getPaletteSize()];
+        Arrays.fill(slotToLocal, -1);
+        int[] localIds = new int[4];
+        int localCount = 0;
+        int runCount = 0;
+
+        for (int index = changedIndices.nextSetBit(0); index >= 0; index = changedIndices.nextSetBit(index + 1))
+        {
+            if (index == 0 || !changedIndices.get(index - 1))
+            {
+                runCount++;
+            }
+
+            final int slot = storage.getPaletteSlot(index);
+            if (slotToLocal[slot] < 0)
+            {
+                if (localCount == localIds.length)
+                {
+                    localIds = Arrays.copyOf(localIds, localCount * 2);
+                }
+
+                slotToLocal[slot] = localCount;
+                localIds[localCount++] = storage.getPaletteStateId(slot);
+            }
+        }
+
+        buffer.writeVarInt(localCount);
+        for (int i = 0; i < localCount; i++)
+        {
+            buffer.writeVarInt(localIds[i]);
+        }
+
+        buffer.writeVarInt(runCount);
+        int previousEnd = 0;
+        for (int start = changedIndices.nextSetBit(0); start >= 0; start = changedIndices.nextSetBit(previousEnd))
+        {
+            final int end = changedIndices.nextClearBit(start);
+
+            buffer.writeVarInt(start - previousEnd);
+            buffer.writeVarInt(end - start);
+            for (int index = start; index < end; index++)
+            {
+                buffer.writeVarInt(slotToLocal[storage.getPaletteSlot(index)]);
+            }
+
+            previousEnd = end;
+        }
+    }
+
+    /**
+     * Reads a delta and writes its changes into the given buffer.
+     *
+     * @param buffer The buffer to read the delta from.
+     * @param target The buffer to write the changes into.
+     * @throws IllegalArgumentException When the delta references indices or palette entries which do not exist.
+     */
+    public static void read(final PacketBuffer buffer, final StateChangeBuffer target)
+    {
+        final int[] localIds = new int[buffer.readVarInt()];
+        for (int i = 0; i < localIds.length; i++)
+        {
+            localIds[i] = buffer.readVarInt();
+        }
+
+        final int runCount = buffer.readVarInt();
+        int position = 0;
+        for (int run = 0; run < runCount; run++)
+        {
+            position += buffer.readVarInt();
+            final int length = buffer.readVarInt();
+            if (position < 0 || length < 0 || position + length > target.getCapacity())
+            {
+                throw new IllegalArgumentException("The delta run " + position + "+" + length + " is outside of the storage.");
+            }
+
+            for (int index = position; index < position + length; index++)
+            {
+                final int localIndex = buffer.readVarInt();
+                if (localIndex < 0 || localIndex >= localIds.length)
+                {
+                    throw new IllegalArgumentException("The delta references the unknown palette entry: " + localIndex);
+                }
+
+                target.put(index, localIds[localIndex]);
+            }
+
+            position += length;
+        }
+    }
+}
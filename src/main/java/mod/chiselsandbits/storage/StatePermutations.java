@@ -0,0 +1,174 @@
+package mod.chiselsandbits.storage;
+
+import net.minecraft.util.Direction;
+
+/**
+ * Rotates and mirrors a {@link PackedStateStorage} by gathering its entries through precomputed index permutation tables.
+ * <p>
+ * Each table maps the index of an entry in the transformed storage to the index of the entry in the source storage which ends up there.
+ * The tables only depend on the side length of the storage, so they are build once on first use and shared afterwards.
+ * Since a permutation only moves entries around, the palette of the source storage carries over unchanged.
+ */
+public final class StatePermutations
+{
+    private static final int ROTATION_TABLES = Direction.Axis.values().length * 3;
+
+    private static volatile Tables tables = new Tables(0);
+
+    private StatePermutations()
+    {
+        throw new IllegalStateException("Can not instantiate an instance of: StatePermutations. This is a utility class");
+    }
+
+    /**
+     * Rotates the given storage around its center in steps of 90 degrees.
+     * The direction of the rotation matches the one of {@link mod.chiselsandbits.api.util.VectorUtils#rotate90Degrees}.
+     *
+     * @param source The storage to rotate, it is not modified.
+     * @param axis The axis to rotate around.
+     * @param rotationCount The amount of quarter turns, negative values rotate in the opposite direction.
+     * @return The rotated storage, or the source itself when the rotation count is a multiple of four.
+     */
+    public static PackedStateStorage rotate(final PackedStateStorage source, final Direction.Axis axis, final int rotationCount)
+    {
+        final int quarterTurns = Math.floorMod(rotationCount, 4);
+        if (quarterTurns == 0)
+        {
+            return source;
+        }
+
+        return source.permute(getTables(source.getSide()).getRotation(axis, quarterTurns));
+    }
+
+    /**
+     * Mirrors the given storage along the given axis.
+     *
+     * @param source The storage to mirror, it is not modified.
+     * @param axis The axis whose coordinates are inverted.
+     * @return The mirrored storage.
+     */
+    public static PackedStateStorage mirror(final PackedStateStorage source, final Direction.Axis axis)
+    {
+        return source.permute(getTables(source.getSide()).getMirror(axis));
+    }
+
+    private static Tables getTables(final int side)
+    {
+        Tables current = tables;
+        if (current.side != side)
+        {
+            current = new Tables(side);
+            tables = current;
+        }
+
+        return current;
+    }
+
+    private static final class Tables
+    {
+        private final int     side;
+        //Filled on demand, a race only causes the same table to be computed twice.
+        private final int[][] rotations = new int[ROTATION_TABLES][];
+        private final int[][] mirrors   = new int[Direction.Axis.values().length][];
+
+        private Tables(final int side)
+        {
+            this.side = side;
+        }
+
+        private int[] getRotation(final Direction.Axis axis, final int quarterTurns)
+        {
+            final int tableIndex = axis.ordinal() * 3 + quarterTurns - 1;
+            int[] table = rotations[tableIndex];
+            if (table == null)
+            {
+                table = buildRotation(axis, quarterTurns);
+                rotations[tableIndex] = table;
+            }
+
+            return table;
+        }
+
+        private int[] getMirror(final Direction.Axis axis)
+        {
+            int[] table = mirrors[axis.ordinal()];
+            if (table == null)
+            {
+                table = buildMirror(axis);
+                mirrors[axis.ordinal()] = table;
+            }
+
+            return table;
+        }
+
+        private int[] buildRotation(final Direction.Axis axis, final int quarterTurns)
+        {
+            final int max = side - 1;
+            final int[] table = new int[side * side * side];
+            for (int y = 0; y < side; y++)
+            {
+                for (int z = 0; z < side; z++)
+                {
+                    for (int x = 0; x < side; x++)
+                    {
+                        int targetX = x;
+                        int targetY = y;
+                        int targetZ = z;
+                        for (int i = 0; i < quarterTurns; i++)
+                        {
+                            final int previousX = targetX;
+                            final int previousY = targetY;
+                            final int previousZ = targetZ;
+                            switch (axis)
+                            {
+                                case X:
+                                    targetY = max - previousZ;
+                                    targetZ = previousY;
+                                    break;
+                                case Y:
+                                    targetX = previousZ;
+                                    targetZ = max - previousX;
+                                    break;
+                                case Z:
+                                    targetX = max - previousY;
+                                    targetY = previousX;
+                                    break;
+                            }
+                        }
+
+                        table[getIndex(targetX, targetY, targetZ)] = getIndex(x, y, z);
+                    }
+                }
+            }
+
+            return table;
+        }
+
+        private int[] buildMirror(final Direction.Axis axis)
+        {
+            final int max = side - 1;
+            final int[] table = new int[side * side * side];
+            for (int y = 0; y < side; y++)
+            {
+                for (int z = 0; z < side; z++)
+                {
+                    for (int x = 0; x < side; x++)
+                    {
+                        final int mirroredX = axis == Direction.Axis.X ? max - x : x;
+                        final int mirroredY = axis == Direction.Axis.Y ? max - y : y;
+                        final int mirroredZ = axis == Direction.Axis.Z ? max - z : z;
+
+                        table[getIndex(mirroredX, mirroredY, mirroredZ)] = getIndex(x, y, z);
+                    }
+                }
+            }
+
+            return table;
+        }
+
+        private int getIndex(final int x, final int y, final int z)
+        {
+            return (y * side + z) * side + x;
+        }
+    }
+}
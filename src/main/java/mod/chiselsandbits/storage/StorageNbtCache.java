@@ -0,0 +1,64 @@
+package mod.chiselsandbits.storage;
+
+import net.minecraft.nbt.CompoundNBT;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.function.Supplier;
+
+/**
+ * Remembers the nbt which was last written for a storage, so that saving an unchanged storage only copies the cached nbt.
+ * <p>
+ * The cached nbt is reused as long as the storage is the same instance and still has the version it had when the nbt was written,
+ * so every modification of the storage invalidates it without any further bookkeeping.
+ */
+public final class StorageNbtCache
+{
+    @Nullable
+    private PackedStateStorage storage;
+    private int                version;
+    @Nullable
+    private CompoundNBT        data;
+
+    private long writeCount = 0;
+    private long reuseCount = 0;
+
+    /**
+     * Returns a copy of the cached nbt of the given storage, writing it first when the cache does not hold it.
+     *
+     * @param storage The storage to get the nbt of.
+     * @param writer Writes the nbt of the storage, invoked on a cache miss.
+     * @return A copy of the nbt, which the caller is free to modify.
+     */
+    public CompoundNBT getOrWrite(final PackedStateStorage storage, final Supplier<CompoundNBT> writer)
+    {
+        if (this.data == null || this.storage != storage || this.version != storage.getVersion())
+        {
+            this.data = writer.get();
+            this.storage = storage;
+            this.version = storage.getVersion();
+            this.writeCount++;
+        }
+        else
+        {
+            this.reuseCount++;
+        }
+
+        return this.data.copy();
+    }
+
+    public void invalidate()
+    {
+        this.storage = null;
+        this.data = null;
+    }
+
+    public long getWriteCount()
+    {
+        return writeCount;
+    }
+
+    public long getReuseCount()
+    {
+        return reuseCount;
+    }
+}
@@ -0,0 +1,145 @@
+package mod.chiselsandbits.storage;
+
+import mod.chiselsandbits.api.multistate.accessor.identifier.ILongArrayBackedAreaShapeIdentifier;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+
+/**
+ * Identifies the contents of a {@link PackedStateStorage} at a given version by its content hash.
+ * <p>
+ * Creating an identifier does not copy the contents of the storage. All identifiers of the same storage version share a
+ * {@link PayloadSource}, which only holds a weak reference to the storage. The full identifying payload is build lazily, either
+ * when two identifiers with the same hash are compared, or right before the storage is modified for the first time afterwards.
+ * If the storage is garbage collected before either happens, the 64-bit content hash alone decides equality.
+ */
+public final class StorageShapeIdentifier implements ILongArrayBackedAreaShapeIdentifier
+{
+    private static final long[] NO_PAYLOAD = new long[0];
+
+    private final long          contentHash;
+    private final int           version;
+    private final PayloadSource source;
+
+    StorageShapeIdentifier(final long contentHash, final int version, final PayloadSource source)
+    {
+        this.contentHash = contentHash;
+        this.version = version;
+        this.source = source;
+    }
+
+    public long getContentHash()
+    {
+        return contentHash;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Long.hashCode(contentHash);
+    }
+
+    @Override
+    public boolean equals(final Object o)
+    {
+        if (this == o)
+        {
+            return true;
+        }
+        if (o instanceof StorageShapeIdentifier)
+        {
+            final StorageShapeIdentifier that = (StorageShapeIdentifier) o;
+            if (contentHash != that.contentHash)
+            {
+                return false;
+            }
+            if (source == that.source)
+            {
+                return true;
+            }
+
+            //Same hash, only the full payloads can tell a collision apart.
+            final long[] payload = source.getPayload();
+            final long[] otherPayload = that.source.getPayload();
+            return payload == null || otherPayload == null || Arrays.equals(payload, otherPayload);
+        }
+        if (!(o instanceof ILongArrayBackedAreaShapeIdentifier))
+        {
+            return false;
+        }
+        final ILongArrayBackedAreaShapeIdentifier that = (ILongArrayBackedAreaShapeIdentifier) o;
+        return Arrays.equals(getBackingData(), that.getBackingData());
+    }
+
+    @Override
+    public String toString()
+    {
+        return "StorageShapeIdentifier{" +
+                 "contentHash=" + Long.toHexString(contentHash) +
+                 ", version=" + version +
+                 '}';
+    }
+
+    /**
+     * The full identifying payload, see {@link PackedStateStorage#createIdentifierPayload()}.
+     *
+     * @return The payload, or an empty array when the storage was garbage collected before the payload was build.
+     */
+    @Override
+    public long[] getBackingData()
+    {
+        final long[] payload = source.getPayload();
+        return payload == null ? NO_PAYLOAD : payload;
+    }
+
+    /**
+     * Builds the identifying payload of a single version of a storage on demand.
+     */
+    static final class PayloadSource
+    {
+        private final WeakReference<PackedStateStorage> storage;
+        private final int                               version;
+        private       long[]                            payload;
+
+        PayloadSource(final PackedStateStorage storage, final int version)
+        {
+            this.storage = new WeakReference<>(storage);
+            this.version = version;
+        }
+
+        PayloadSource(final long[] payload)
+        {
+            this.storage = new WeakReference<>(null);
+            this.version = -1;
+            this.payload = payload;
+        }
+
+        @Nullable
+        synchronized long[] getPayload()
+        {
+            if (payload == null)
+            {
+                final PackedStateStorage current = storage.get();
+                //The storage captures the payload before it is modified, so a changed version can not be observed here.
+                if (current != null && current.getVersion() == version)
+                {
+                    payload = current.createIdentifierPayload();
+                }
+            }
+
+            return payload;
+        }
+
+        /**
+         * Invoked by the storage right before it is modified, so that the payload of this version remains available.
+         */
+        synchronized void capture(final PackedStateStorage current)
+        {
+            if (payload == null)
+            {
+                payload = current.createIdentifierPayload();
+            }
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package mod.chiselsandbits.utils;
+
+import com.google.common.collect.Maps;
+import mod.chiselsandbits.api.util.SingleBlockBlockReader;
+import net.minecraft.block.BlockState;
+import net.minecraft.util.Direction;
+import net.minecraft.util.math.BlockPos;
+
+import java.util.Map;
+
+/**
+ * Caches the properties of blockstates which are needed to calculate the statistics of a chiseled block.
+ * The properties are looked up once per blockstate, in an isolated single block reader, and then reused
+ * for every bit which is added or removed.
+ */
+@SuppressWarnings("deprecation")
+public final class BlockStatePropertyTable
+{
+    private static final Map<BlockState, Properties> PROPERTIES = Maps.newConcurrentMap();
+
+    private BlockStatePropertyTable()
+    {
+        throw new IllegalStateException("Can not instantiate an instance of: BlockStatePropertyTable. This is a utility class");
+    }
+
+    /**
+     * Returns the cached properties of the given blockstate, calculating them if needed.
+     *
+     * @param blockState The blockstate to get the properties for.
+     * @return The properties of the blockstate.
+     */
+    public static Properties get(final BlockState blockState)
+    {
+        final Properties properties = PROPERTIES.get(blockState);
+        if (properties != null)
+        {
+            return properties;
+        }
+
+        return PROPERTIES.computeIfAbsent(blockState, Properties::new);
+    }
+
+    public static final class Properties
+    {
+        private final boolean isAir;
+        private final int     lightEmission;
+        private final float   slipperiness;
+        private final boolean checksWeakPower;
+        private final boolean propagatesSkylightDown;
+        private final float   hardness;
+
+        private Properties(final BlockState blockState)
+        {
+            final SingleBlockBlockReader reader = new SingleBlockBlockReader(blockState);
+
+            this.isAir = blockState.isAir();
+            this.lightEmission = blockState.getLightValue(reader, BlockPos.ZERO);
+            this.slipperiness = blockState.getSlipperiness(reader, BlockPos.ZERO, null);
+            this.checksWeakPower = blockState.shouldCheckWeakPower(reader, BlockPos.ZERO, Direction.NORTH);
+            this.propagatesSkylightDown = blockState.propagatesSkylightDown(reader, BlockPos.ZERO);
+            this.hardness = blockState.getDestroySpeed(reader, BlockPos.ZERO);
+        }
+
+        public boolean isAir()
+        {
+            return isAir;
+        }
+
+        public int getLightEmission()
+        {
+            return lightEmission;
+        }
+
+        public float getSlipperiness()
+        {
+            return slipperiness;
+        }
+
+        public boolean checksWeakPower()
+        {
+            return checksWeakPower;
+        }
+
+        public boolean propagatesSkylightDown()
+        {
+            return propagatesSkylightDown;
+        }
+
+        public float getHardness()
+        {
+            return hardness;
+        }
+    }
+}
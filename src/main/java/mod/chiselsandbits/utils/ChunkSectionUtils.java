@@ -3,6 +3,8 @@ package mod.chiselsandbits.utils;
 import mod.chiselsandbits.api.multistate.StateEntrySize;
 import mod.chiselsandbits.api.util.VectorUtils;
 import mod.chiselsandbits.api.util.constants.NbtConstants;
+import mod.chiselsandbits.storage.PackedStateStorage;
+import mod.chiselsandbits.storage.StatePermutations;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.Blocks;
 import net.minecraft.nbt.CompoundNBT;
@@ -41,14 +43,22 @@ public class ChunkSectionUtils
     }
 
     public static CompoundNBT serializeNBTCompressed(final ChunkSection chunkSection) {
-        final CompoundNBT compressedSectionData = new CompoundNBT();
+        return compress(serializeNBT(chunkSection));
+    }
 
-        chunkSection.getStates().write(
-          compressedSectionData,
-          NbtConstants.PALETTE,
-          NbtConstants.BLOCK_STATES
-        );
+    public static CompoundNBT serializeNBT(final PackedStateStorage storage) {
+        return storage.serializeNBT();
+    }
+
+    public static CompoundNBT serializeNBTCompressed(final PackedStateStorage storage) {
+        return compress(serializeNBT(storage));
+    }
 
+    public static CompoundNBT serializeNBTCompact(final PackedStateStorage storage) {
+        return storage.serializeCompactNBT();
+    }
+
+    private static CompoundNBT compress(final CompoundNBT compressedSectionData) {
         try
         {
             final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
@@ -70,6 +80,14 @@ public class ChunkSectionUtils
         if (nbt.isEmpty())
             return;
 
+        if (nbt.contains(NbtConstants.COMPACT_DATA, Constants.NBT.TAG_BYTE_ARRAY)) {
+            //Block entities write the compact format, which can end up here when their data is copied onto an item.
+            final PackedStateStorage storage = new PackedStateStorage(StateEntrySize.current().getBitsPerBlockSide(), Blocks.AIR.defaultBlockState());
+            deserializeNBT(storage, nbt);
+            deserializeNBT(chunkSection, storage.serializeNBT());
+            return;
+        }
+
         if (nbt.contains(NbtConstants.DATA_IS_COMPRESSED, Constants.NBT.TAG_BYTE)
               && nbt.getBoolean(NbtConstants.DATA_IS_COMPRESSED)
               && nbt.contains(NbtConstants.COMPRESSED_DATA, Constants.NBT.TAG_BYTE_ARRAY)) {
@@ -104,6 +122,57 @@ public class ChunkSectionUtils
         chunkSection.recalcBlockCounts();
     }
 
+    public static void deserializeNBT(final PackedStateStorage storage, final CompoundNBT nbt) {
+        if (nbt.isEmpty())
+            return;
+
+        if (nbt.contains(NbtConstants.COMPACT_DATA, Constants.NBT.TAG_BYTE_ARRAY)) {
+            try
+            {
+                storage.deserializeCompactNBT(nbt);
+                return;
+            }
+            catch (IllegalArgumentException e)
+            {
+                LOGGER.error("Failed to read compact chiseled block entity data. Resetting data.", e);
+                storage.fill(Blocks.AIR.defaultBlockState());
+                return;
+            }
+        }
+
+        if (nbt.contains(NbtConstants.DATA_IS_COMPRESSED, Constants.NBT.TAG_BYTE)
+              && nbt.getBoolean(NbtConstants.DATA_IS_COMPRESSED)
+              && nbt.contains(NbtConstants.COMPRESSED_DATA, Constants.NBT.TAG_BYTE_ARRAY)) {
+            try
+            {
+                final byte[] compressedData = nbt.getByteArray(NbtConstants.COMPRESSED_DATA);
+                final ByteArrayInputStream inputStream = new ByteArrayInputStream(compressedData);
+                storage.deserializeNBT(CompressedStreamTools.readCompressed(inputStream));
+                return;
+            }
+            catch (Exception e)
+            {
+                LOGGER.error("Failed to decompress chiseled block entity data. Resetting data.");
+                storage.fill(Blocks.AIR.defaultBlockState());
+                return;
+            }
+        }
+
+        storage.deserializeNBT(nbt);
+    }
+
+    public static PackedStateStorage toStorage(final ChunkSection chunkSection) {
+        final PackedStateStorage storage = new PackedStateStorage(StateEntrySize.current().getBitsPerBlockSide(), Blocks.AIR.defaultBlockState());
+        storage.deserializeNBT(serializeNBT(chunkSection));
+        return storage;
+    }
+
+    public static ChunkSection toSection(final PackedStateStorage storage) {
+        final ChunkSection chunkSection = new ChunkSection(0);
+        deserializeNBT(chunkSection, storage.serializeNBT());
+        return chunkSection;
+    }
+
     public static ChunkSection rotate90Degrees(final ChunkSection source, final Direction.Axis axis, final int rotationCount) {
         if (rotationCount == 0)
             return source;
@@ -146,6 +215,10 @@ public class ChunkSectionUtils
         return target;
     }
 
+    public static PackedStateStorage rotate90Degrees(final PackedStateStorage source, final Direction.Axis axis, final int rotationCount) {
+        return StatePermutations.rotate(source, axis, rotationCount);
+    }
+
     public static ChunkSection cloneSection(final ChunkSection lazyChunkSection)
     {
         final ChunkSection clone = new ChunkSection(0);
@@ -210,4 +283,9 @@ public class ChunkSectionUtils
 
         return result;
     }
+
+    public static PackedStateStorage mirror(final PackedStateStorage source, final Direction.Axis axis)
+    {
+        return StatePermutations.mirror(source, axis);
+    }
 }
@@ -1,55 +1,265 @@
 package mod.chiselsandbits.utils;
 
-import org.apache.logging.log4j.LogManager;
-import org.apache.logging.log4j.Logger;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.jetbrains.annotations.Nullable;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.zip.DataFormatException;
 import java.util.zip.Deflater;
 import java.util.zip.Inflater;
 
-public class CompressionUtils {
-    private static final Logger LOG = LogManager.getLogger(CompressionUtils.class);
+/**
+ * Deflate based compression of byte buffers.
+ * <p>
+ * Each use site picks a {@link Codec} with its own compression level and optional preset dictionary.
+ * Codecs keep a few deflaters and inflaters around, so the native zlib state is not recreated for every call,
+ * and read and write the buffers directly, limited to their readable bytes.
+ */
+public final class CompressionUtils
+{
+    /**
+     * The codec for data which is sent to clients, favouring speed since the data is compressed on the server thread.
+     */
+    public static final Codec NETWORK = new Codec(Deflater.BEST_SPEED, null);
 
+    private static final int MINIMAL_CHUNK_SIZE = 256;
 
-    public static byte[] compress(byte[] data) throws IOException
+    //Enough for the threads which compress or decompress at the same time, surplus coders are ended once they are returned.
+    private static final int MAX_POOLED_CODERS = 4;
+
+    //Scratch buffers which grew past this for a large payload are dropped instead of being kept around.
+    private static final int MAX_RETAINED_SCRATCH_SIZE = 256 * 1024;
+
+    private CompressionUtils()
     {
-        Deflater deflater = new Deflater();
-        deflater.setInput(data);
+        throw new IllegalStateException("Can not instantiate an instance of: CompressionUtils. This is a utility class");
+    }
 
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(data.length);
+    public static final class Codec
+    {
+        private final int    level;
+        @Nullable
+        private final byte[] dictionary;
 
-        deflater.finish();
-        byte[] buffer = new byte[1024];
-        while (!deflater.finished()) {
-            int count = deflater.deflate(buffer); // returns the generated code... index
-            outputStream.write(buffer, 0, count);
+        private final BlockingQueue<Deflater> deflaters      = new ArrayBlockingQueue<>(MAX_POOLED_CODERS);
+        private final BlockingQueue<Inflater> inflaters      = new ArrayBlockingQueue<>(MAX_POOLED_CODERS);
+        private final BlockingQueue<ByteBuf>  scratchBuffers = new ArrayBlockingQueue<>(MAX_POOLED_CODERS);
+
+        /**
+         * Creates a new codec.
+         *
+         * @param level The deflate compression level, see {@link Deflater#setLevel(int)}.
+         * @param dictionary The preset dictionary, both sides need to use the same one. Null for none.
+         */
+        public Codec(final int level, @Nullable final byte[] dictionary)
+        {
+            this.level = level;
+            this.dictionary = dictionary == null ? null : dictionary.clone();
         }
-        outputStream.close();
-        byte[] output = outputStream.toByteArray();
 
-        LOG.debug("Original: " + data.length / 1024 + " Kb");
-        LOG.debug("Compressed: " + output.length / 1024 + " Kb");
-        return output;
-    }
+        /**
+         * Compresses the readable bytes of the source into the target.
+         * The reader index of the source is moved past the compressed bytes, the writer index of the target past the written data.
+         *
+         * @param source The buffer to compress.
+         * @param target The buffer to write the compressed data to.
+         */
+        public void compress(final ByteBuf source, final ByteBuf target)
+        {
+            Deflater deflater = deflaters.poll();
+            if (deflater == null)
+            {
+                deflater = new Deflater(level);
+            }
 
-    public static byte[] decompress(byte[] data) throws IOException, DataFormatException
-    {
-        Inflater inflater = new Inflater();
-        inflater.setInput(data);
-
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream(data.length);
-        byte[] buffer = new byte[1024];
-        while (!inflater.finished()) {
-            int count = inflater.inflate(buffer);
-            outputStream.write(buffer, 0, count);
+            try
+            {
+                compress(deflater, source, target);
+            }
+            finally
+            {
+                deflater.reset();
+                if (!deflaters.offer(deflater))
+                {
+                    deflater.end();
+                }
+            }
+        }
+
+        private void compress(final Deflater deflater, final ByteBuf source, final ByteBuf target)
+        {
+            if (dictionary != null)
+            {
+                deflater.setDictionary(dictionary);
+            }
+
+            final int length = source.readableBytes();
+            if (source.hasArray())
+            {
+                deflater.setInput(source.array(), source.arrayOffset() + source.readerIndex(), length);
+            }
+            else
+            {
+                final byte[] input = new byte[length];
+                source.getBytes(source.readerIndex(), input);
+                deflater.setInput(input);
+            }
+            deflater.finish();
+
+            while (!deflater.finished())
+            {
+                target.ensureWritable(Math.max(MINIMAL_CHUNK_SIZE, length / 2));
+                if (target.hasArray())
+                {
+                    final int written = deflater.deflate(target.array(), target.arrayOffset() + target.writerIndex(), target.writableBytes());
+                    target.writerIndex(target.writerIndex() + written);
+                }
+                else
+                {
+                    final byte[] chunk = new byte[target.writableBytes()];
+                    final int written = deflater.deflate(chunk);
+                    target.writeBytes(chunk, 0, written);
+                }
+            }
+
+            source.skipBytes(length);
+        }
+
+        /**
+         * Compresses the readable bytes of the source.
+         *
+         * @param source The buffer to compress, its reader index is moved past the compressed bytes.
+         * @return The compressed data, exactly as long as required.
+         */
+        public byte[] compress(final ByteBuf source)
+        {
+            ByteBuf scratch = scratchBuffers.poll();
+            if (scratch == null)
+            {
+                scratch = Unpooled.buffer();
+            }
+
+            try
+            {
+                compress(source, scratch);
+
+                final byte[] compressed = new byte[scratch.readableBytes()];
+                scratch.readBytes(compressed);
+                return compressed;
+            }
+            finally
+            {
+                scratch.clear();
+                if (scratch.capacity() > MAX_RETAINED_SCRATCH_SIZE || !scratchBuffers.offer(scratch))
+                {
+                    scratch.release();
+                }
+            }
         }
-        outputStream.close();
-        byte[] output = outputStream.toByteArray();
 
-        LOG.debug("Original: " + data.length / 1024 + " Kb");
-        LOG.debug("Decompressed: " + output.length / 1024 + " Kb");
-        return output;
+        /**
+         * Decompresses the readable bytes of the source into the target.
+         * The reader index of the source is moved past the compressed data, the writer index of the target past the decompressed data.
+         *
+         * @param source The buffer holding the compressed data.
+         * @param target The buffer to write the decompressed data to.
+         * @throws DataFormatException When the data is malformed or truncated.
+         */
+        public void decompress(final ByteBuf source, final ByteBuf target) throws DataFormatException
+        {
+            Inflater inflater = inflaters.poll();
+            if (inflater == null)
+            {
+                inflater = new Inflater();
+            }
+
+            try
+            {
+                decompress(inflater, source, target);
+            }
+            finally
+            {
+                inflater.reset();
+                if (!inflaters.offer(inflater))
+                {
+                    inflater.end();
+                }
+            }
+        }
+
+        private void decompress(final Inflater inflater, final ByteBuf source, final ByteBuf target) throws DataFormatException
+        {
+
+            final int length = source.readableBytes();
+            if (source.hasArray())
+            {
+                inflater.setInput(source.array(), source.arrayOffset() + source.readerIndex(), length);
+            }
+            else
+            {
+                final byte[] input = new byte[length];
+                source.getBytes(source.readerIndex(), input);
+                inflater.setInput(input);
+            }
+
+            while (!inflater.finished())
+            {
+                target.ensureWritable(Math.max(MINIMAL_CHUNK_SIZE, length * 2));
+                final int written;
+                if (target.hasArray())
+                {
+                    written = inflater.inflate(target.array(), target.arrayOffset() + target.writerIndex(), target.writableBytes());
+                    target.writerIndex(target.writerIndex() + written);
+                }
+                else
+                {
+                    final byte[] chunk = new byte[target.writableBytes()];
+                    written = inflater.inflate(chunk);
+                    target.writeBytes(chunk, 0, written);
+                }
+
+                if (written == 0 && !inflater.finished())
+                {
+                    if (inflater.needsDictionary())
+                    {
+                        if (dictionary == null)
+                        {
+                            throw new DataFormatException("Compressed data requires a preset dictionary.");
+                        }
+                        inflater.setDictionary(dictionary);
+                    }
+                    else if (inflater.needsInput())
+                    {
+                        throw new DataFormatException("Compressed data is truncated.");
+                    }
+                }
+            }
+
+            source.skipBytes(length - inflater.getRemaining());
+        }
+
+        /**
+         * Decompresses the given data.
+         *
+         * @param data The compressed data.
+         * @return A new buffer holding the decompressed data, the caller is responsible for releasing it.
+         * @throws DataFormatException When the data is malformed or truncated.
+         */
+        public ByteBuf decompress(final byte[] data) throws DataFormatException
+        {
+            final ByteBuf target = Unpooled.buffer(data.length * 2);
+            try
+            {
+                decompress(Unpooled.wrappedBuffer(data), target);
+                return target;
+            }
+            catch (final DataFormatException | RuntimeException e)
+            {
+                target.release();
+                throw e;
+            }
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,310 @@
+package mod.chiselsandbits.utils;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * A size bounded cache which is split into independently locked segments.
+ * <p>
+ * Each segment evicts its least recently used entries once its share of the maximum weight is exceeded.
+ * By default every entry weighs one, so the maximum weight is the maximum amount of entries.
+ * Values are computed outside of the segment locks. Threads which miss on a key which is already being computed
+ * wait for that computation instead of computing the value again.
+ *
+ * @param <K> The type of the key.
+ * @param <V> The type of the value.
+ */
+public class StripedLruCache<K, V>
+{
+    private static final int SEGMENT_COUNT = 16;
+
+    private final Segment<K, V>[]   segments;
+    private final LongSupplier      maxWeightSupplier;
+    private final ToLongFunction<V> weigher;
+
+    private final LongAdder hitCount      = new LongAdder();
+    private final LongAdder missCount     = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    public StripedLruCache(final LongSupplier maxSizeSupplier)
+    {
+        this(maxSizeSupplier, value -> 1);
+    }
+
+    /**
+     * Creates a new cache which is bounded by the total weight of its values instead of their amount.
+     *
+     * @param maxWeightSupplier The maximum total weight, queried on every insertion so that configuration changes are picked up.
+     * @param weigher Calculates the weight of a value, needs to be at least one.
+     */
+    @SuppressWarnings("unchecked")
+    public StripedLruCache(final LongSupplier maxWeightSupplier, final ToLongFunction<V> weigher)
+    {
+        this.maxWeightSupplier = maxWeightSupplier;
+        this.weigher = weigher;
+        this.segments = new Segment[SEGMENT_COUNT];
+        for (int i = 0; i < SEGMENT_COUNT; i++)
+        {
+            this.segments[i] = new Segment<>();
+        }
+    }
+
+    @Nullable
+    public V get(final K key)
+    {
+        final V value = getSegment(key).get(key);
+        if (value == null)
+        {
+            missCount.increment();
+        }
+        else
+        {
+            hitCount.increment();
+        }
+
+        return value;
+    }
+
+    public Optional<V> getIfPresent(final K key)
+    {
+        return Optional.ofNullable(get(key));
+    }
+
+    /**
+     * Returns the cached value of the key, computing and storing it when it is not present.
+     * No lock is held while the value is computed, other threads which miss on the same key in the meantime
+     * wait for the value instead of computing it as well. Null values are returned but not stored.
+     * The supplier must not compute the same key of this cache again, since it would wait for itself.
+     *
+     * @param key The key to look up.
+     * @param valueSupplier Computes the value on a miss.
+     * @return The cached or newly computed value.
+     */
+    public V computeIfAbsent(final K key, final Supplier<V> valueSupplier)
+    {
+        final Segment<K, V> segment = getSegment(key);
+        final V cached = segment.get(key);
+        if (cached != null)
+        {
+            hitCount.increment();
+            return cached;
+        }
+
+        missCount.increment();
+        final CompletableFuture<V> computation = new CompletableFuture<>();
+        final CompletableFuture<V> existing = segment.getOrStartComputation(key, computation);
+        if (existing != null)
+        {
+            return awaitComputation(existing);
+        }
+
+        final V value;
+        try
+        {
+            value = valueSupplier.get();
+        }
+        catch (RuntimeException | Error e)
+        {
+            segment.finishComputation(key, null, 0, getSegmentMaxWeight(), evictionCount);
+            computation.completeExceptionally(e);
+            throw e;
+        }
+
+        final V storedValue = segment.finishComputation(key, value, value == null ? 0 : weigher.applyAsLong(value), getSegmentMaxWeight(), evictionCount);
+        computation.complete(storedValue);
+        return storedValue;
+    }
+
+    private static <V> V awaitComputation(final CompletableFuture<V> computation)
+    {
+        try
+        {
+            return computation.join();
+        }
+        catch (CompletionException e)
+        {
+            if (e.getCause() instanceof RuntimeException)
+            {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error)
+            {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    public void put(final K key, final V value)
+    {
+        getSegment(key).put(key, value, weigher.applyAsLong(value), getSegmentMaxWeight(), evictionCount);
+    }
+
+    public void clear()
+    {
+        for (final Segment<K, V> segment : segments)
+        {
+            segment.clear();
+        }
+    }
+
+    /**
+     * The amount of entries, summed over all segments without locking them together.
+     *
+     * @return The approximate amount of cached entries.
+     */
+    public int size()
+    {
+        int size = 0;
+        for (final Segment<K, V> segment : segments)
+        {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    public long getHitCount()
+    {
+        return hitCount.sum();
+    }
+
+    public long getMissCount()
+    {
+        return missCount.sum();
+    }
+
+    public long getEvictionCount()
+    {
+        return evictionCount.sum();
+    }
+
+    private Segment<K, V> getSegment(final K key)
+    {
+        final int hash = key.hashCode();
+        return segments[(hash ^ (hash >>> 16)) & (SEGMENT_COUNT - 1)];
+    }
+
+    private long getSegmentMaxWeight()
+    {
+        return Math.max(1, (maxWeightSupplier.getAsLong() + SEGMENT_COUNT - 1) / SEGMENT_COUNT);
+    }
+
+    private static final class Segment<K, V>
+    {
+        //Access ordered, so the first entry is always the least recently used one.
+        private final Map<K, WeightedValue<V>>     entries      = new LinkedHashMap<>(16, 0.75f, true);
+        private final Map<K, CompletableFuture<V>> computations = new HashMap<>();
+        private       long                         weight       = 0;
+
+        private synchronized V get(final K key)
+        {
+            final WeightedValue<V> entry = entries.get(key);
+            return entry == null ? null : entry.value;
+        }
+
+        /**
+         * Registers the given computation for the key, unless the key got stored or is being computed in the meantime.
+         *
+         * @return The running computation or the stored value, or null when the given computation got registered.
+         */
+        @Nullable
+        private synchronized CompletableFuture<V> getOrStartComputation(final K key, final CompletableFuture<V> computation)
+        {
+            final WeightedValue<V> existing = entries.get(key);
+            if (existing != null)
+            {
+                return CompletableFuture.completedFuture(existing.value);
+            }
+
+            return computations.putIfAbsent(key, computation);
+        }
+
+        /**
+         * Unregisters the computation of the key and stores its value, unless a value got put for the key in the meantime.
+         *
+         * @return The value which is stored for the key, or null when the computation did not produce a value.
+         */
+        @Nullable
+        private synchronized V finishComputation(
+          final K key,
+          @Nullable final V value,
+          final long valueWeight,
+          final long maxWeight,
+          final LongAdder evictionCount)
+        {
+            computations.remove(key);
+            if (value == null)
+            {
+                return null;
+            }
+
+            final WeightedValue<V> existing = entries.get(key);
+            if (existing != null)
+            {
+                return existing.value;
+            }
+
+            insert(key, value, valueWeight, maxWeight, evictionCount);
+            return value;
+        }
+
+        private synchronized void put(final K key, final V value, final long valueWeight, final long maxWeight, final LongAdder evictionCount)
+        {
+            final WeightedValue<V> previous = entries.remove(key);
+            if (previous != null)
+            {
+                weight -= previous.weight;
+            }
+
+            insert(key, value, valueWeight, maxWeight, evictionCount);
+        }
+
+        private void insert(final K key, final V value, final long valueWeight, final long maxWeight, final LongAdder evictionCount)
+        {
+            final Iterator<WeightedValue<V>> iterator = entries.values().iterator();
+            while (iterator.hasNext() && weight + valueWeight > maxWeight)
+            {
+                weight -= iterator.next().weight;
+                iterator.remove();
+                evictionCount.increment();
+            }
+
+            entries.put(key, new WeightedValue<>(value, valueWeight));
+            weight += valueWeight;
+        }
+
+        private synchronized void clear()
+        {
+            entries.clear();
+            weight = 0;
+        }
+
+        private synchronized int size()
+        {
+            return entries.size();
+        }
+    }
+
+    private static final class WeightedValue<V>
+    {
+        private final V    value;
+        private final long weight;
+
+        private WeightedValue(final V value, final long weight)
+        {
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+}
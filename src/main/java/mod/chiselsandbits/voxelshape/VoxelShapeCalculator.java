@@ -1,19 +1,31 @@
 package mod.chiselsandbits.voxelshape;
 
 import mod.chiselsandbits.aabb.AABBManager;
+import mod.chiselsandbits.api.multistate.StateEntrySize;
 import mod.chiselsandbits.api.multistate.accessor.IAreaAccessor;
 import mod.chiselsandbits.api.multistate.accessor.IAreaAccessorWithVoxelShape;
 import mod.chiselsandbits.api.multistate.accessor.IStateEntryInfo;
+import mod.chiselsandbits.api.multistate.accessor.callback.BitVisitor;
+import mod.chiselsandbits.api.util.StateEntryFilter;
+import net.minecraft.util.math.AxisAlignedBB;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.shapes.BitSetVoxelShapePart;
 import net.minecraft.util.math.shapes.IBooleanFunction;
 import net.minecraft.util.math.shapes.VoxelShape;
+import net.minecraft.util.math.shapes.VoxelShapeCube;
 import net.minecraft.util.math.shapes.VoxelShapes;
 
+import java.util.Collection;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
 
 public class VoxelShapeCalculator
 {
+    private static final int MAX_BITS_PER_BLOCK_SIDE = 16;
+
     public static VoxelShape calculate(
       final IAreaAccessor areaAccessor,
       final BlockPos offset,
@@ -22,20 +34,122 @@ public class VoxelShapeCalculator
         if (areaAccessor instanceof IAreaAccessorWithVoxelShape)
             return ((IAreaAccessorWithVoxelShape) areaAccessor).provideShape(selectablePredicateBuilder, offset, simplify);
 
-        final VoxelShape shape =
-            AABBManager.getInstance()
-              .get(areaAccessor, selectablePredicateBuilder)
-              .stream()
-              .map(aabb -> aabb.move(offset))
-        .reduce(
-          VoxelShapes.empty(),
-          (voxelShape, axisAlignedBB) -> {
-              final VoxelShape bbShape = VoxelShapes.create(axisAlignedBB);
-              return VoxelShapes.joinUnoptimized(voxelShape, bbShape, IBooleanFunction.OR);
-          },
-          (voxelShape, voxelShape2) -> VoxelShapes.joinUnoptimized(voxelShape, voxelShape2, IBooleanFunction.OR)
-        );
-
-        return simplify ? shape.optimize() : shape;
+        final VoxelShape shape = calculate(areaAccessor, offset, selectablePredicateBuilder);
+        return simplify ? simplify(shape) : shape;
+    }
+
+    /**
+     * Calculates the shape of the selected entries of the given accessor, without simplifying it.
+     * <p>
+     * When the entries form the bit grid of a single block, their occupancy is written straight into a discrete voxel shape.
+     * Otherwise the shape is joined together from the compressed bounding boxes of the entries.
+     *
+     * @param areaAccessor The accessor.
+     * @param offset The offset to move the shape by.
+     * @param selectablePredicateBuilder The builder for the filter of the entries to include.
+     * @return The shape.
+     */
+    public static VoxelShape calculate(
+      final IAreaAccessor areaAccessor,
+      final BlockPos offset,
+      final Function<IAreaAccessor, Predicate<IStateEntryInfo>> selectablePredicateBuilder) {
+        return calculate(areaAccessor, offset, selectablePredicateBuilder, StateEntrySize.current().getBitsPerBlockSide());
+    }
+
+    static VoxelShape calculate(
+      final IAreaAccessor areaAccessor,
+      final BlockPos offset,
+      final Function<IAreaAccessor, Predicate<IStateEntryInfo>> selectablePredicateBuilder,
+      final int bitsPerSide) {
+        final VoxelShape shape = createFromBitGrid(areaAccessor, selectablePredicateBuilder.apply(areaAccessor), bitsPerSide)
+          .orElseGet(() -> join(AABBManager.getInstance().get(areaAccessor, selectablePredicateBuilder)));
+
+        if (shape.isEmpty() || offset.equals(BlockPos.ZERO))
+            return shape;
+
+        return shape.move(offset.getX(), offset.getY(), offset.getZ());
+    }
+
+    /**
+     * Simplifies the given shape, which reduces the amount of boxes it is made of.
+     * This is expensive for intricate shapes, so its result should be cached.
+     *
+     * @param shape The shape to simplify.
+     * @return The simplified shape.
+     */
+    public static VoxelShape simplify(final VoxelShape shape) {
+        return shape.optimize();
+    }
+
+    /**
+     * Joins the given boxes into a single shape.
+     *
+     * @param boxes The boxes.
+     * @return The unsimplified union of all boxes.
+     */
+    public static VoxelShape join(final Collection<AxisAlignedBB> boxes) {
+        return boxes.stream()
+          .reduce(
+            VoxelShapes.empty(),
+            (voxelShape, axisAlignedBB) -> {
+                final VoxelShape bbShape = VoxelShapes.create(axisAlignedBB);
+                return VoxelShapes.joinUnoptimized(voxelShape, bbShape, IBooleanFunction.OR);
+            },
+            (voxelShape, voxelShape2) -> VoxelShapes.joinUnoptimized(voxelShape, voxelShape2, IBooleanFunction.OR)
+          );
+    }
+
+    private static Optional<VoxelShape> createFromBitGrid(
+      final IAreaAccessor areaAccessor,
+      final Predicate<IStateEntryInfo> selectablePredicate,
+      final int bitsPerSide) {
+        //Accessors backed by a palette evaluate state based filters once per palette entry instead of once per bit.
+        if (selectablePredicate instanceof StateEntryFilter && ((StateEntryFilter) selectablePredicate).isStateBased())
+            return createFromBits(visitor -> areaAccessor.forEachMatchingBit((StateEntryFilter) selectablePredicate, visitor), bitsPerSide);
+
+        //Other predicates inspect the entries of the accessor themselves, for example their position in the world,
+        //so the selected entries are mapped onto the bit grid the same way the accessor visits its bits.
+        return createFromBits(visitor -> areaAccessor.stream()
+          .filter(selectablePredicate)
+          .forEach(entry -> visitor.visit(
+            (int) Math.floor(entry.getStartPoint().x() * bitsPerSide),
+            (int) Math.floor(entry.getStartPoint().y() * bitsPerSide),
+            (int) Math.floor(entry.getStartPoint().z() * bitsPerSide),
+            entry.getState()
+          )), bitsPerSide);
+    }
+
+    /**
+     * Writes the visited bits straight into a discrete voxel shape, by their bit coordinates.
+     *
+     * @param bits Visits the bits to include.
+     * @param bitsPerSide The amount of bits along each side of the block.
+     * @return The shape, or an empty optional when the bits cover more than a single block.
+     */
+    private static Optional<VoxelShape> createFromBits(final Consumer<BitVisitor> bits, final int bitsPerSide) {
+        if (bitsPerSide > MAX_BITS_PER_BLOCK_SIDE)
+            return Optional.empty();
+
+        final BitSetVoxelShapePart part = new BitSetVoxelShapePart(bitsPerSide, bitsPerSide, bitsPerSide);
+        final AtomicBoolean isEmpty = new AtomicBoolean(true);
+        final AtomicBoolean isOutsideOfBlock = new AtomicBoolean(false);
+        bits.accept((x, y, z, state) -> {
+            if (x < 0 || y < 0 || z < 0 || x >= bitsPerSide || y >= bitsPerSide || z >= bitsPerSide)
+            {
+                isOutsideOfBlock.set(true);
+                return;
+            }
+
+            part.setFull(x, y, z, true, true);
+            isEmpty.set(false);
+        });
+
+        if (isOutsideOfBlock.get())
+            return Optional.empty();
+
+        if (isEmpty.get())
+            return Optional.of(VoxelShapes.empty());
+
+        return Optional.of(new VoxelShapeCube(part));
     }
 }
@@ -2,15 +2,18 @@ package mod.chiselsandbits.voxelshape;
 
 import mod.chiselsandbits.api.IChiselsAndBitsAPI;
 import mod.chiselsandbits.api.multistate.accessor.IAreaAccessor;
+import mod.chiselsandbits.api.multistate.accessor.IAreaAccessorWithVoxelShape;
 import mod.chiselsandbits.api.multistate.accessor.IStateEntryInfo;
 import mod.chiselsandbits.api.multistate.accessor.identifier.IAreaShapeIdentifier;
+import mod.chiselsandbits.api.util.StateEntryFilter;
 import mod.chiselsandbits.api.voxelshape.IVoxelShapeManager;
-import mod.chiselsandbits.utils.SimpleMaxSizedCache;
+import mod.chiselsandbits.utils.StripedLruCache;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.shapes.VoxelShape;
 import net.minecraft.util.math.shapes.VoxelShapes;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.Objects;
 import java.util.Optional;
@@ -22,7 +25,7 @@ public class VoxelShapeManager implements IVoxelShapeManager
     private static final Logger LOGGER = LogManager.getLogger();
     private static final VoxelShapeManager INSTANCE = new VoxelShapeManager();
 
-    private final SimpleMaxSizedCache<Key, VoxelShape> cache = new SimpleMaxSizedCache<>(
+    private final StripedLruCache<Key, VoxelShape> cache = new StripedLruCache<>(
       IChiselsAndBitsAPI.getInstance().getConfiguration().getCommon().collisionBoxCacheSize::get
     );
 
@@ -48,9 +51,12 @@ public class VoxelShapeManager implements IVoxelShapeManager
           selectablePredicateBuilder.apply(accessor),
           simplify);
 
-        return cache.get(cacheKey,
+        return cache.computeIfAbsent(cacheKey,
           () -> {
-            final VoxelShape calculatedShape = VoxelShapeCalculator.calculate(accessor, offset, selectablePredicateBuilder, simplify);
+            //Simplifying is a separate stage on top of the cached unsimplified shape, so it is only done once per shape.
+            final VoxelShape calculatedShape = simplify && !(accessor instanceof IAreaAccessorWithVoxelShape)
+                                                 ? VoxelShapeCalculator.simplify(get(accessor, offset, selectablePredicateBuilder, false))
+                                                 : VoxelShapeCalculator.calculate(accessor, offset, selectablePredicateBuilder, simplify);
             if (calculatedShape.isEmpty())
                 return VoxelShapes.empty();
 
@@ -78,16 +84,25 @@ public class VoxelShapeManager implements IVoxelShapeManager
         this.cache.clear();
     }
 
+    /**
+     * The key of a cached shape: the identifier of the shape, the filter of the entries, the offset and whether the shape is simplified.
+     * Registered filters are keyed by their id, other predicates by their own equality.
+     */
     private static final class Key {
+        private static final int UNREGISTERED_FILTER_ID = -1;
+
         private final IAreaShapeIdentifier identifier;
         private final BlockPos offset;
-        private final Predicate<IStateEntryInfo> predicate;
+        private final int filterId;
+        @Nullable
+        private final Predicate<IStateEntryInfo> unregisteredPredicate;
         private final boolean simplify;
 
         private Key(final IAreaShapeIdentifier identifier, final BlockPos offset, final Predicate<IStateEntryInfo> predicate, final boolean simplify) {
             this.identifier = identifier;
             this.offset = offset;
-            this.predicate = predicate;
+            this.filterId = predicate instanceof StateEntryFilter ? ((StateEntryFilter) predicate).getId() : UNREGISTERED_FILTER_ID;
+            this.unregisteredPredicate = predicate instanceof StateEntryFilter ? null : predicate;
             this.simplify = simplify;
         }
 
@@ -97,7 +112,8 @@ public class VoxelShapeManager implements IVoxelShapeManager
             return "Key{" +
                      "identifier=" + identifier.toString() +
                      ", offset=" + offset +
-                     ", predicate=" + predicate +
+                     ", filterId=" + filterId +
+                     ", unregisteredPredicate=" + unregisteredPredicate +
                      ", simplify=" + simplify +
                      '}';
         }
@@ -120,6 +136,10 @@ public class VoxelShapeManager implements IVoxelShapeManager
             {
                 return false;
             }
+            if (filterId != key.filterId)
+            {
+                return false;
+            }
             if (!Objects.equals(identifier, key.identifier))
             {
                 return false;
@@ -128,15 +148,16 @@ public class VoxelShapeManager implements IVoxelShapeManager
             {
                 return false;
             }
-            return Objects.equals(predicate, key.predicate);
+            return Objects.equals(unregisteredPredicate, key.unregisteredPredicate);
         }
 
         @Override
         public int hashCode()
         {
             int result = identifier != null ? identifier.hashCode() : 0;
+            result = 31 * result + filterId;
             result = 31 * result + (offset != null ? offset.hashCode() : 0);
-            result = 31 * result + (predicate != null ? predicate.hashCode() : 0);
+            result = 31 * result + (unregisteredPredicate != null ? unregisteredPredicate.hashCode() : 0);
             result = 31 * result + (simplify ? 1 : 0);
             return result;
         }
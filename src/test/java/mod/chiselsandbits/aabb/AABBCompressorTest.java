@@ -2,6 +2,7 @@ package mod.chiselsandbits.aabb;
 
 import mod.chiselsandbits.api.multistate.accessor.IAreaAccessor;
 import mod.chiselsandbits.api.multistate.accessor.IStateEntryInfo;
+import net.minecraft.block.BlockState;
 import net.minecraft.util.Direction;
 import net.minecraft.util.math.AxisAlignedBB;
 import net.minecraft.util.math.vector.Vector3d;
@@ -13,8 +14,11 @@ import org.mockito.stubbing.Answer;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Random;
+import java.util.function.IntPredicate;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static org.mockito.Matchers.any;
@@ -23,6 +27,7 @@ import static org.mockito.Mockito.when;
 
 public class AABBCompressorTest
 {
+    private static final int SIDE = 16;
 
     @Test
     public void RunDirectNorthNeighborhoodTest() {
@@ -54,6 +59,111 @@ public class AABBCompressorTest
         RunDirectNeighboringTest(Direction.DOWN);
     }
     
+    @Test
+    public void RunEmptyShapeTest() {
+        final Collection<AxisAlignedBB> boxes = AABBCompressor.compressStates(createAccessor(index -> false), TestEntry::isOccupied);
+        Assert.assertTrue(boxes.isEmpty());
+    }
+
+    @Test
+    public void RunSolidShapeTest() {
+        final Collection<AxisAlignedBB> boxes = AABBCompressor.compressStates(createAccessor(index -> true), TestEntry::isOccupied);
+        Assert.assertEquals(Lists.newArrayList(new AxisAlignedBB(0, 0, 0, 1, 1, 1)), boxes);
+    }
+
+    @Test
+    public void RunRandomShapeCoverageTest() {
+        for (int seed = 0; seed < 20; seed++)
+        {
+            final Random random = new Random(seed);
+            final boolean[] occupied = createShape(index -> random.nextBoolean());
+            RunCoverageTest(occupied, "Random shape " + seed);
+        }
+    }
+
+    @Test
+    public void RunSparseShapeCoverageTest() {
+        for (int seed = 0; seed < 20; seed++)
+        {
+            final Random random = new Random(seed);
+            final boolean[] occupied = createShape(index -> random.nextInt(50) == 0);
+            RunCoverageTest(occupied, "Sparse shape " + seed);
+        }
+    }
+
+    @Test
+    public void RunStructuredShapeCoverageTest() {
+        RunCoverageTest(createShape(index -> toY(index) < 8), "Slab");
+        RunCoverageTest(createShape(index -> toX(index) == 7 || toY(index) == 7 || toZ(index) == 7), "Cross");
+        RunCoverageTest(createShape(index -> toX(index) < 1 || toX(index) > 14 || toY(index) < 1 || toY(index) > 14 || toZ(index) < 1 || toZ(index) > 14), "Hollow cube");
+        RunCoverageTest(createShape(index -> toX(index) + toY(index) < toZ(index)), "Stairs");
+    }
+
+    private void RunCoverageTest(final boolean[] occupied, final String testName) {
+        final Collection<AxisAlignedBB> boxes = AABBCompressor.compressStates(createAccessor(index -> occupied[index]), TestEntry::isOccupied);
+
+        final int[] coverage = new int[occupied.length];
+        for (final AxisAlignedBB box : boxes)
+        {
+            for (int x = toCell(box.minX); x < toCell(box.maxX); x++)
+            {
+                for (int y = toCell(box.minY); y < toCell(box.maxY); y++)
+                {
+                    for (int z = toCell(box.minZ); z < toCell(box.maxZ); z++)
+                    {
+                        coverage[toIndex(x, y, z)]++;
+                    }
+                }
+            }
+        }
+
+        for (int index = 0; index < occupied.length; index++)
+        {
+            Assert.assertEquals(String.format("%s: Coverage of %d, %d, %d", testName, toX(index), toY(index), toZ(index)), occupied[index] ? 1 : 0, coverage[index]);
+        }
+    }
+
+    private static boolean[] createShape(final IntPredicate occupied) {
+        final boolean[] shape = new boolean[SIDE * SIDE * SIDE];
+        for (int index = 0; index < shape.length; index++)
+        {
+            shape[index] = occupied.test(index);
+        }
+        return shape;
+    }
+
+    private static IAreaAccessor createAccessor(final IntPredicate occupied) {
+        final List<IStateEntryInfo> entries = IntStream.range(0, SIDE * SIDE * SIDE)
+          .mapToObj(index -> new TestEntry(toX(index), toY(index), toZ(index), occupied.test(index)))
+          .collect(Collectors.toList());
+
+        final IAreaAccessor mock = mock(IAreaAccessor.class);
+        when(mock.streamWithPositionMutator(any())).then((Answer<Stream<IStateEntryInfo>>) invocation -> entries.stream());
+        return mock;
+    }
+
+    private static int toCell(final double coordinate) {
+        final double cell = coordinate * SIDE;
+        Assert.assertEquals("Box is not aligned to the bit grid.", Math.rint(cell), cell, 0);
+        return (int) cell;
+    }
+
+    private static int toIndex(final int x, final int y, final int z) {
+        return (x * SIDE + y) * SIDE + z;
+    }
+
+    private static int toX(final int index) {
+        return index / (SIDE * SIDE);
+    }
+
+    private static int toY(final int index) {
+        return (index / SIDE) % SIDE;
+    }
+
+    private static int toZ(final int index) {
+        return index % SIDE;
+    }
+
     private void RunDirectNeighboringTest(final Direction direction) {
         final AxisAlignedBB initialBox = AxisAlignedBB.ofSize(1, 1, 1);
         final AxisAlignedBB neighborBox = initialBox.move(direction.getStepX(), direction.getStepY(), direction.getStepZ());
@@ -116,4 +226,41 @@ public class AABBCompressorTest
 
         Assert.assertEquals(String.format("The calculated results for: %s do not match.", testName), expectedResults, calculatedResults);
     }
-}
\ No newline at end of file
+
+    private static final class TestEntry implements IStateEntryInfo
+    {
+        private final Vector3d startPoint;
+        private final Vector3d endPoint;
+        private final boolean  occupied;
+
+        private TestEntry(final int x, final int y, final int z, final boolean occupied)
+        {
+            this.startPoint = new Vector3d(x / (double) SIDE, y / (double) SIDE, z / (double) SIDE);
+            this.endPoint = new Vector3d((x + 1) / (double) SIDE, (y + 1) / (double) SIDE, (z + 1) / (double) SIDE);
+            this.occupied = occupied;
+        }
+
+        private static boolean isOccupied(final IStateEntryInfo stateEntryInfo)
+        {
+            return ((TestEntry) stateEntryInfo).occupied;
+        }
+
+        @Override
+        public BlockState getState()
+        {
+            return null;
+        }
+
+        @Override
+        public Vector3d getStartPoint()
+        {
+            return startPoint;
+        }
+
+        @Override
+        public Vector3d getEndPoint()
+        {
+            return endPoint;
+        }
+    }
+}
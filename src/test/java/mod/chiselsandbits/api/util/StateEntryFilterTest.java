@@ -0,0 +1,91 @@
+package mod.chiselsandbits.api.util;
+
+import mod.chiselsandbits.api.multistate.accessor.IStateEntryInfo;
+import net.minecraft.block.BlockState;
+import org.junit.Assert;
+import org.junit.Test;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class StateEntryFilterTest
+{
+    private final BlockState stone = mock(BlockState.class);
+    private final BlockState dirt  = mock(BlockState.class);
+
+    @Test
+    public void filtersAreInternedByName()
+    {
+        final StateEntryFilter first = StateEntryFilter.ofState("test_interned", state -> state == stone);
+        final StateEntryFilter second = StateEntryFilter.ofState("test_interned", state -> state == dirt);
+
+        Assert.assertSame(first, second);
+        Assert.assertTrue(second.test(stone));
+    }
+
+    @Test
+    public void filtersCanBeLookedUpByNameAndId()
+    {
+        final StateEntryFilter filter = StateEntryFilter.ofState("test_lookup", state -> true);
+
+        Assert.assertSame(filter, StateEntryFilter.get("test_lookup").orElse(null));
+        Assert.assertSame(filter, StateEntryFilter.get(filter.getId()).orElse(null));
+        Assert.assertFalse(StateEntryFilter.get("test_unknown").isPresent());
+        Assert.assertFalse(StateEntryFilter.get(-1).isPresent());
+    }
+
+    @Test
+    public void idsAreSmallAndDistinct()
+    {
+        final StateEntryFilter first = StateEntryFilter.ofState("test_first_id", state -> true);
+        final StateEntryFilter second = StateEntryFilter.ofState("test_second_id", state -> true);
+
+        Assert.assertEquals(first.getId() + 1, second.getId());
+        Assert.assertNotEquals(first, second);
+        Assert.assertEquals(first.getId(), first.hashCode());
+    }
+
+    @Test
+    public void stateBasedFiltersTestTheStateOfEntries()
+    {
+        final StateEntryFilter filter = StateEntryFilter.ofState("test_stone", state -> state == stone);
+
+        Assert.assertTrue(filter.isStateBased());
+        Assert.assertTrue(filter.test(createEntry(stone)));
+        Assert.assertFalse(filter.test(createEntry(dirt)));
+        Assert.assertFalse(filter.test(dirt));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void entryFiltersCanNotTestStates()
+    {
+        final StateEntryFilter filter = StateEntryFilter.ofEntry("test_entry", stateEntryInfo -> true);
+
+        Assert.assertFalse(filter.isStateBased());
+        filter.test(stone);
+    }
+
+    @Test
+    public void combinedFiltersAreInterned()
+    {
+        final StateEntryFilter notDirt = StateEntryFilter.ofState("test_not_dirt", state -> state != dirt);
+        final StateEntryFilter stoneOnly = StateEntryFilter.ofState("test_stone_only", state -> state == stone);
+        final StateEntryFilter entries = StateEntryFilter.ofEntry("test_all_entries", stateEntryInfo -> true);
+
+        final StateEntryFilter combined = notDirt.and(stoneOnly);
+        Assert.assertSame(combined, notDirt.and(stoneOnly));
+        Assert.assertTrue(combined.isStateBased());
+        Assert.assertTrue(combined.test(stone));
+        Assert.assertFalse(combined.test(dirt));
+
+        Assert.assertFalse(notDirt.and(entries).isStateBased());
+        Assert.assertTrue(notDirt.and(entries).test(createEntry(stone)));
+    }
+
+    private static IStateEntryInfo createEntry(final BlockState state)
+    {
+        final IStateEntryInfo entry = mock(IStateEntryInfo.class);
+        when(entry.getState()).thenReturn(state);
+        return entry;
+    }
+}
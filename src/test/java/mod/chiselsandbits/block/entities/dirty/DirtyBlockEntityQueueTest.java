@@ -0,0 +1,260 @@
+package mod.chiselsandbits.block.entities.dirty;
+
+import com.google.common.collect.Lists;
+import mod.chiselsandbits.network.packets.ChiseledBlockDeltaPacket;
+import mod.chiselsandbits.network.scheduling.ChiseledBlockSyncState;
+import mod.chiselsandbits.network.scheduling.ChiseledBlockSyncUpdate;
+import mod.chiselsandbits.network.scheduling.ChiseledBlockSyncer;
+import mod.chiselsandbits.storage.PackedStateStorage;
+import net.minecraft.util.math.BlockPos;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+
+/**
+ * Drives the sync path of a chiseled block, from marking it changed to the packets sent to the tracking players,
+ * with the real syncer, sync state, storage and dirty queue.
+ */
+public class DirtyBlockEntityQueueTest
+{
+    private static final int SIDE = 16;
+    private static final int SIZE = SIDE * SIDE * SIDE;
+
+    @Test
+    public void manyEditsInOneTickSendOneDelta()
+    {
+        final DirtyBlockEntityQueue queue = new DirtyBlockEntityQueue();
+        final TestBlock block = new TestBlock(queue, new BlockPos(0, 64, 0));
+        block.syncFully();
+
+        for (int i = 0; i < 100; i++)
+        {
+            block.editBit(i * 7, 1);
+        }
+
+        Assert.assertTrue(block.sentUpdates.isEmpty());
+        Assert.assertTrue(queue.isDirty(block.syncer));
+
+        queue.flush();
+
+        final ChiseledBlockDeltaPacket packet = block.pollDelta();
+        Assert.assertEquals(1, packet.getBaseVersion());
+        Assert.assertEquals(2, packet.getNewVersion());
+        Assert.assertEquals(1, block.worldUpdates);
+        Assert.assertFalse(queue.isDirty(block.syncer));
+    }
+
+    @Test
+    public void editingEveryBitInOneTickSendsOneSnapshot()
+    {
+        final DirtyBlockEntityQueue queue = new DirtyBlockEntityQueue();
+        final TestBlock block = new TestBlock(queue, new BlockPos(0, 64, 0));
+        block.syncFully();
+
+        for (int i = 0; i < SIZE; i++)
+        {
+            block.editBit(i, 1 + i % 3);
+        }
+        queue.flush();
+
+        Assert.assertEquals(1, block.sentUpdates.size());
+        Assert.assertTrue(block.sentUpdates.remove(0).isSnapshot());
+        Assert.assertEquals(2, block.syncState.getSyncVersion());
+    }
+
+    @Test
+    public void editsInSeparateTicksSendOneDeltaPerTick()
+    {
+        final DirtyBlockEntityQueue queue = new DirtyBlockEntityQueue();
+        final TestBlock block = new TestBlock(queue, new BlockPos(0, 64, 0));
+        block.syncFully();
+
+        for (int tick = 0; tick < 3; tick++)
+        {
+            for (int i = 0; i < 10; i++)
+            {
+                block.editBit(tick * 10 + i, 1);
+            }
+            queue.flush();
+
+            final ChiseledBlockDeltaPacket packet = block.pollDelta();
+            Assert.assertEquals(tick + 1, packet.getBaseVersion());
+            Assert.assertEquals(tick + 2, packet.getNewVersion());
+        }
+
+        //A tick without edits does not send anything.
+        queue.flush();
+
+        Assert.assertTrue(block.sentUpdates.isEmpty());
+        Assert.assertEquals(3, block.worldUpdates);
+    }
+
+    @Test
+    public void everyDirtyBlockIsFlushedOnce()
+    {
+        final DirtyBlockEntityQueue queue = new DirtyBlockEntityQueue();
+        final TestBlock first = new TestBlock(queue, new BlockPos(0, 64, 0));
+        final TestBlock second = new TestBlock(queue, new BlockPos(1, 64, 0));
+        first.syncFully();
+        second.syncFully();
+
+        first.editBit(0, 1);
+        second.editBit(0, 1);
+        first.editBit(1, 1);
+
+        queue.flush();
+
+        first.pollDelta();
+        second.pollDelta();
+    }
+
+    @Test
+    public void removedBlocksAreSkipped()
+    {
+        final DirtyBlockEntityQueue queue = new DirtyBlockEntityQueue();
+        final TestBlock block = new TestBlock(queue, new BlockPos(0, 64, 0));
+
+        block.editBit(0, 1);
+        block.removed = true;
+        queue.flush();
+
+        Assert.assertTrue(block.sentUpdates.isEmpty());
+        Assert.assertEquals(0, block.worldUpdates);
+        Assert.assertFalse(queue.isDirty(block.syncer));
+    }
+
+    @Test
+    public void editsDuringFlushAreDeferredToTheNextTick()
+    {
+        final DirtyBlockEntityQueue queue = new DirtyBlockEntityQueue();
+        final TestBlock block = new TestBlock(queue, new BlockPos(0, 64, 0)) {
+            @Override
+            public void onChangesFlushed()
+            {
+                super.onChangesFlushed();
+                if (worldUpdates == 1)
+                {
+                    editBit(1, 1);
+                }
+            }
+        };
+
+        block.editBit(0, 1);
+        queue.flush();
+
+        Assert.assertEquals(1, block.sentUpdates.size());
+        Assert.assertTrue(queue.isDirty(block.syncer));
+
+        queue.flush();
+        Assert.assertEquals(2, block.sentUpdates.size());
+        Assert.assertEquals(2, block.syncState.getSyncVersion());
+    }
+
+    @Test
+    public void clientSideChangesAreNotSent()
+    {
+        final DirtyBlockEntityQueue queue = new DirtyBlockEntityQueue();
+        final TestBlock block = new TestBlock(queue, new BlockPos(0, 64, 0));
+        block.clientSide = true;
+
+        block.editBit(0, 1);
+
+        Assert.assertEquals("The client propagates its changes right away.", 1, block.worldUpdates);
+        Assert.assertFalse(queue.isDirty(block.syncer));
+        Assert.assertTrue(block.sentUpdates.isEmpty());
+    }
+
+    /**
+     * The world side of a chiseled block: records the world updates and the sent sync updates, and marks the syncer changed on every edit,
+     * the way the block entity does for every modified bit.
+     */
+    private static class TestBlock implements ChiseledBlockSyncer.ISyncedBlock
+    {
+        private final DirtyBlockEntityQueue         queue;
+        private final BlockPos                      blockPos;
+        private final PackedStateStorage            storage     = new PackedStateStorage(SIDE, 0);
+        final         ChiseledBlockSyncState        syncState   = new ChiseledBlockSyncState(SIZE);
+        final         ChiseledBlockSyncer           syncer;
+        final         List<ChiseledBlockSyncUpdate> sentUpdates = Lists.newArrayList();
+        int     worldUpdates = 0;
+        boolean removed      = false;
+        boolean clientSide   = false;
+
+        private TestBlock(final DirtyBlockEntityQueue queue, final BlockPos blockPos)
+        {
+            this.queue = queue;
+            this.blockPos = blockPos;
+            this.syncer = new ChiseledBlockSyncer(this, syncState, queue);
+        }
+
+        void editBit(final int index, final int stateId)
+        {
+            storage.setStateId(index, stateId);
+            syncState.markChanged(index);
+            syncer.markChanged();
+        }
+
+        /**
+         * Sends the initial snapshot, after which changes can be sent as deltas.
+         */
+        void syncFully()
+        {
+            syncer.markChanged();
+            queue.flush();
+            Assert.assertTrue(sentUpdates.remove(0).isSnapshot());
+            worldUpdates = 0;
+        }
+
+        ChiseledBlockDeltaPacket pollDelta()
+        {
+            Assert.assertEquals(1, sentUpdates.size());
+            final ChiseledBlockSyncUpdate update = sentUpdates.remove(0);
+            Assert.assertFalse(update.isSnapshot());
+            //Deltas carry their packet, the level is only needed to read snapshots from the block entity.
+            return (ChiseledBlockDeltaPacket) update.createPacket(null);
+        }
+
+        @Override
+        public BlockPos getBlockPos()
+        {
+            return blockPos;
+        }
+
+        @Override
+        public boolean isClientSide()
+        {
+            return clientSide;
+        }
+
+        @Override
+        public boolean canFlushChanges()
+        {
+            return !removed;
+        }
+
+        @Override
+        public PackedStateStorage getSyncedStorage()
+        {
+            return storage;
+        }
+
+        @Override
+        public int getEstimatedSnapshotSize()
+        {
+            return SIZE;
+        }
+
+        @Override
+        public void onChangesFlushed()
+        {
+            worldUpdates++;
+        }
+
+        @Override
+        public void sendUpdate(final ChiseledBlockSyncUpdate update)
+        {
+            sentUpdates.add(update);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package mod.chiselsandbits.change;
+
+import com.google.common.collect.Lists;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+public class ChangeHistoryTest
+{
+    private static final int MAX_SIZE = 10;
+
+    @Test
+    public void undoAndRedoMoveTheCurrentChange()
+    {
+        final ChangeHistory<Integer> history = new ChangeHistory<>();
+        history.push(1);
+        history.push(2);
+
+        Assert.assertEquals(Integer.valueOf(2), history.getCurrentUndo().orElse(null));
+        Assert.assertFalse(history.getCurrentRedo().isPresent());
+
+        history.undo();
+        Assert.assertEquals(Integer.valueOf(1), history.getCurrentUndo().orElse(null));
+        Assert.assertEquals(Integer.valueOf(2), history.getCurrentRedo().orElse(null));
+
+        history.undo();
+        Assert.assertFalse(history.getCurrentUndo().isPresent());
+        Assert.assertEquals(Integer.valueOf(1), history.getCurrentRedo().orElse(null));
+
+        history.redo();
+        Assert.assertEquals(Integer.valueOf(1), history.getCurrentUndo().orElse(null));
+        Assert.assertEquals(Integer.valueOf(2), history.getCurrentRedo().orElse(null));
+    }
+
+    @Test
+    public void operationsWithoutEffectAreNotReported()
+    {
+        final List<ChangeHistoryOperation<Integer>> operations = Lists.newArrayList();
+        final ChangeHistory<Integer> history = new ChangeHistory<>(operations::add);
+
+        history.undo();
+        history.redo();
+        history.trim(MAX_SIZE);
+        Assert.assertTrue(operations.isEmpty());
+
+        history.push(1);
+        history.redo();
+        history.trim(MAX_SIZE);
+        Assert.assertEquals(1, operations.size());
+        Assert.assertEquals(ChangeHistoryOperation.Type.PUSH, operations.get(0).getType());
+    }
+
+    @Test
+    public void onlyPushesAndSyncsCarryChanges()
+    {
+        final List<ChangeHistoryOperation<Integer>> operations = Lists.newArrayList();
+        final ChangeHistory<Integer> history = new ChangeHistory<>(operations::add);
+        for (int i = 0; i < MAX_SIZE * 2; i++)
+        {
+            history.push(i);
+            history.trim(MAX_SIZE);
+        }
+        history.undo();
+        history.redo();
+        history.clear();
+
+        for (final ChangeHistoryOperation<Integer> operation : operations)
+        {
+            final int expected = operation.getType() == ChangeHistoryOperation.Type.PUSH ? 1 : 0;
+            Assert.assertEquals(operation.getType().name(), expected, operation.getChanges().size());
+        }
+    }
+
+    @Test
+    public void clientViewStaysConsistentOverRandomOperations()
+    {
+        for (int seed = 0; seed < 50; seed++)
+        {
+            runRandomOperations(new Random(seed), 500);
+        }
+    }
+
+    private static void runRandomOperations(final Random random, final int steps)
+    {
+        final ClientView client = new ClientView();
+        final ChangeHistory<Integer> server = new ChangeHistory<>(client::receive);
+
+        int nextChange = 0;
+        for (int step = 0; step < steps; step++)
+        {
+            final int roll = random.nextInt(100);
+            if (roll < 40)
+            {
+                server.push(nextChange++);
+                server.trim(MAX_SIZE);
+            }
+            else if (roll < 65)
+            {
+                server.undo();
+            }
+            else if (roll < 90)
+            {
+                server.redo();
+            }
+            else if (roll < 95)
+            {
+                server.clear();
+            }
+            else
+            {
+                //The client logs in again with whatever it last knew, and gets the whole history.
+                client.history.push("stale");
+                server.sync();
+            }
+
+            assertConsistent(server, client.history);
+        }
+    }
+
+    private static void assertConsistent(final ChangeHistory<Integer> server, final ChangeHistory<String> client)
+    {
+        Assert.assertEquals(server.getChanges().stream().map(ChangeHistoryTest::summarize).collect(Collectors.toList()), client.getChanges());
+        Assert.assertEquals(server.getCurrentIndex(), client.getCurrentIndex());
+        Assert.assertEquals(server.getCurrentUndo().map(ChangeHistoryTest::summarize), client.getCurrentUndo());
+        Assert.assertEquals(server.getCurrentRedo().map(ChangeHistoryTest::summarize), client.getCurrentRedo());
+    }
+
+    private static String summarize(final Integer change)
+    {
+        return "change-" + change;
+    }
+
+    private static final class ClientView
+    {
+        private final ChangeHistory<String> history = new ChangeHistory<>();
+
+        private void receive(final ChangeHistoryOperation<Integer> operation)
+        {
+            operation.map(ChangeHistoryTest::summarize).applyTo(history);
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package mod.chiselsandbits.client.model.baked.chiseled;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+public class GreedyFaceMesherTest
+{
+    private static final int SIDE = 16;
+
+    @Test
+    public void emptyMaskProducesNoRectangles()
+    {
+        Assert.assertEquals(Collections.emptyList(), mesh(createMask(-1)));
+    }
+
+    @Test
+    public void fullMaskProducesASingleRectangle()
+    {
+        Assert.assertEquals(Collections.singletonList("0,0-16,16#3"), mesh(createMask(3)));
+    }
+
+    @Test
+    public void rowsAreOnlyStackedWhenTheirRunsAreIdentical()
+    {
+        final int[] mask = createMask(-1);
+        fill(mask, 0, 0, 2, 1, 1);
+        fill(mask, 0, 1, 3, 2, 1);
+        fill(mask, 0, 2, 3, 3, 1);
+        fill(mask, 0, 3, 2, 4, 1);
+
+        Assert.assertEquals(Arrays.asList("0,0-2,1#1", "0,1-3,3#1", "0,3-2,4#1"), mesh(mask));
+    }
+
+    @Test
+    public void differentIdsAreNotMerged()
+    {
+        final int[] mask = createMask(-1);
+        fill(mask, 0, 0, 4, 4, 1);
+        fill(mask, 4, 0, 8, 4, 2);
+        fill(mask, 0, 4, 8, 6, 1);
+
+        Assert.assertEquals(Arrays.asList("0,0-4,4#1", "0,4-8,6#1", "4,0-8,4#2"), mesh(mask));
+    }
+
+    @Test
+    public void checkerboardMatchesPreviousMesher()
+    {
+        final int[] mask = createMask(-1);
+        for (int v = 0; v < SIDE; v++)
+        {
+            for (int u = 0; u < SIDE; u++)
+            {
+                mask[v * SIDE + u] = (u + v) % 2 == 0 ? 1 : -1;
+            }
+        }
+
+        assertMatchesPreviousMesher(mask);
+        Assert.assertEquals(SIDE * SIDE / 2, mesh(mask).size());
+    }
+
+    @Test
+    public void staircaseMatchesPreviousMesher()
+    {
+        final int[] mask = createMask(-1);
+        for (int v = 0; v < SIDE; v++)
+        {
+            fill(mask, 0, v, v + 1, v + 1, 5);
+        }
+
+        assertMatchesPreviousMesher(mask);
+    }
+
+    @Test
+    public void ringMatchesPreviousMesher()
+    {
+        final int[] mask = createMask(7);
+        fill(mask, 4, 4, 12, 12, -1);
+
+        assertMatchesPreviousMesher(mask);
+        Assert.assertEquals(Arrays.asList("0,0-16,4#7", "0,12-16,16#7", "0,4-4,12#7", "12,4-16,12#7"), mesh(mask));
+    }
+
+    @Test
+    public void randomShapesMatchPreviousMesher()
+    {
+        final Random random = new Random(1234);
+        for (int iteration = 0; iteration < 200; iteration++)
+        {
+            final int[] mask = createMask(-1);
+            final int idCount = 1 + random.nextInt(3);
+            final float density = random.nextFloat();
+            for (int i = 0; i < mask.length; i++)
+            {
+                mask[i] = random.nextFloat() < density ? random.nextInt(idCount) : -1;
+            }
+
+            assertMatchesPreviousMesher(mask);
+        }
+    }
+
+    @Test
+    public void randomBoxesMatchPreviousMesher()
+    {
+        final Random random = new Random(5678);
+        for (int iteration = 0; iteration < 200; iteration++)
+        {
+            final int[] mask = createMask(-1);
+            for (int box = 0; box < 6; box++)
+            {
+                final int minU = random.nextInt(SIDE);
+                final int minV = random.nextInt(SIDE);
+                fill(mask, minU, minV, minU + 1 + random.nextInt(SIDE - minU), minV + 1 + random.nextInt(SIDE - minV), random.nextInt(2));
+            }
+
+            assertMatchesPreviousMesher(mask);
+        }
+    }
+
+    private static void assertMatchesPreviousMesher(final int[] mask)
+    {
+        Assert.assertEquals(meshWithPreviousMesher(mask), mesh(mask));
+    }
+
+    private static List<String> mesh(final int[] mask)
+    {
+        final List<String> rectangles = new ArrayList<>();
+        GreedyFaceMesher.mesh(mask, SIDE, (minU, minV, maxU, maxV, id) -> rectangles.add(minU + "," + minV + "-" + maxU + "," + maxV + "#" + id));
+        Collections.sort(rectangles);
+        return rectangles;
+    }
+
+    /**
+     * The row extension and pairwise merging which the baked model used before the greedy mesher, reduced to a single slice.
+     */
+    private static List<String> meshWithPreviousMesher(final int[] mask)
+    {
+        final List<int[]> regions = new ArrayList<>();
+        for (int v = 0; v < SIDE; v++)
+        {
+            int[] current = null;
+            for (int u = 0; u < SIDE; u++)
+            {
+                final int id = mask[v * SIDE + u];
+                if (id < 0)
+                {
+                    current = null;
+                    continue;
+                }
+
+                final int[] potential = new int[] {u, v, u + 1, v + 1, id};
+                if (current != null && extend(current, potential))
+                {
+                    continue;
+                }
+
+                current = potential;
+                regions.add(potential);
+            }
+        }
+
+        boolean restart;
+        do
+        {
+            restart = false;
+            final int size = regions.size();
+
+            restart:
+            for (int a = 0; a < size - 1; a++)
+            {
+                for (int b = a + 1; b < size; b++)
+                {
+                    if (extend(regions.get(a), regions.get(b)))
+                    {
+                        regions.set(b, regions.get(size - 1));
+                        regions.remove(size - 1);
+                        restart = true;
+                        break restart;
+                    }
+                }
+            }
+        }
+        while (restart);
+
+        final List<String> rectangles = new ArrayList<>();
+        for (final int[] region : regions)
+        {
+            rectangles.add(region[0] + "," + region[1] + "-" + region[2] + "," + region[3] + "#" + region[4]);
+        }
+        Collections.sort(rectangles);
+        return rectangles;
+    }
+
+    private static boolean extend(final int[] region, final int[] other)
+    {
+        if (region[4] != other[4])
+        {
+            return false;
+        }
+
+        final boolean a = region[2] == other[0] && region[3] == other[3] && region[1] == other[1];
+        final boolean b = region[0] == other[2] && region[3] == other[3] && region[1] == other[1];
+        final boolean c = region[3] == other[1] && region[2] == other[2] && region[0] == other[0];
+        final boolean d = region[1] == other[3] && region[2] == other[2] && region[0] == other[0];
+        if (!(a || b || c || d))
+        {
+            return false;
+        }
+
+        region[0] = Math.min(region[0], other[0]);
+        region[1] = Math.min(region[1], other[1]);
+        region[2] = Math.max(region[2], other[2]);
+        region[3] = Math.max(region[3], other[3]);
+        return true;
+    }
+
+    private static int[] createMask(final int id)
+    {
+        final int[] mask = new int[SIDE * SIDE];
+        Arrays.fill(mask, id);
+        return mask;
+    }
+
+    private static void fill(final int[] mask, final int minU, final int minV, final int maxU, final int maxV, final int id)
+    {
+        for (int v = minV; v < maxV; v++)
+        {
+            for (int u = minU; u < maxU; u++)
+            {
+                mask[v * SIDE + u] = id;
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package mod.chiselsandbits.network.packets;
+
+import com.google.common.collect.Lists;
+import io.netty.buffer.Unpooled;
+import mod.chiselsandbits.api.measuring.MeasuringMode;
+import mod.chiselsandbits.measures.Measurement;
+import net.minecraft.network.PacketBuffer;
+import net.minecraft.util.ResourceLocation;
+import net.minecraft.util.math.vector.Vector3d;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+public class MeasurementPacketsTest
+{
+    private static final ResourceLocation OVERWORLD = new ResourceLocation("minecraft", "overworld");
+
+    @Test
+    public void addedMeasurementPacketSizeIsIndependentOfTheMeasurementCount()
+    {
+        final Random random = new Random(0);
+        final Measurement added = createMeasurement(random);
+
+        int fullSyncSize = 0;
+        int deltaSize = -1;
+        for (final int count : new int[] {1, 10, 100, 1000})
+        {
+            final List<Measurement> measurements = Lists.newArrayList();
+            for (int i = 0; i < count; i++)
+            {
+                measurements.add(createMeasurement(random));
+            }
+            measurements.add(added);
+
+            final int currentFullSyncSize = sizeOf(new MeasurementsUpdatedPacket(OVERWORLD, measurements));
+            final int currentDeltaSize = sizeOf(new MeasurementAddedPacket(added));
+
+            Assert.assertTrue("The full sync grows with the amount of measurements.", currentFullSyncSize > fullSyncSize);
+            if (deltaSize >= 0)
+            {
+                Assert.assertEquals("The delta does not depend on the amount of measurements.", deltaSize, currentDeltaSize);
+            }
+
+            fullSyncSize = currentFullSyncSize;
+            deltaSize = currentDeltaSize;
+        }
+
+        Assert.assertTrue(deltaSize * 1000 < fullSyncSize);
+    }
+
+    @Test
+    public void packetsRoundTrip()
+    {
+        final Random random = new Random(1);
+        final Measurement measurement = createMeasurement(random);
+
+        final PacketBuffer buffer = new PacketBuffer(Unpooled.buffer());
+        new MeasurementsUpdatedPacket(OVERWORLD, Lists.newArrayList(measurement, createMeasurement(random))).writePayload(buffer);
+        new MeasurementAddedPacket(measurement).writePayload(buffer);
+        new MeasurementsRemovedPacket(OVERWORLD, measurement.getOwner()).writePayload(buffer);
+
+        new MeasurementsUpdatedPacket(buffer);
+        new MeasurementAddedPacket(buffer);
+        new MeasurementsRemovedPacket(buffer);
+        Assert.assertEquals(0, buffer.readableBytes());
+    }
+
+    private static Measurement createMeasurement(final Random random)
+    {
+        return new Measurement(
+          UUID.randomUUID(),
+          new Vector3d(random.nextInt(1000), random.nextInt(256), random.nextInt(1000)),
+          new Vector3d(random.nextInt(1000), random.nextInt(256), random.nextInt(1000)),
+          MeasuringMode.values()[random.nextInt(MeasuringMode.values().length)],
+          OVERWORLD
+        );
+    }
+
+    private static int sizeOf(final ModPacket packet)
+    {
+        final PacketBuffer buffer = new PacketBuffer(Unpooled.buffer());
+        packet.writePayload(buffer);
+        return buffer.readableBytes();
+    }
+}
@@ -0,0 +1,265 @@
+package mod.chiselsandbits.network.scheduling;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+public class OutboundUpdateQueueTest
+{
+    private static final int UNLIMITED = Integer.MAX_VALUE;
+
+    @Test
+    public void nearestPositionsAreSentFirst()
+    {
+        final OutboundUpdateQueue<Position, TestUpdate> queue = new OutboundUpdateQueue<>();
+        final Random random = new Random(0);
+        for (int i = 0; i < 200; i++)
+        {
+            final Position position = new Position(random.nextInt(256) - 128, random.nextInt(64), random.nextInt(256) - 128);
+            queue.enqueue(position, new TestUpdate(position, 1, 100));
+        }
+
+        final Position player = new Position(10, 32, -20);
+        final List<TestUpdate> updates = queue.poll(player::distanceTo, UNLIMITED);
+
+        Assert.assertEquals(200, updates.size());
+        for (int i = 1; i < updates.size(); i++)
+        {
+            Assert.assertTrue(player.distanceTo(updates.get(i - 1).position) <= player.distanceTo(updates.get(i).position));
+        }
+    }
+
+    @Test
+    public void equallyDistantPositionsKeepTheirQueueOrder()
+    {
+        final OutboundUpdateQueue<Position, TestUpdate> queue = new OutboundUpdateQueue<>();
+        final Position first = new Position(1, 0, 0);
+        final Position second = new Position(-1, 0, 0);
+        final Position third = new Position(0, 0, 1);
+        queue.enqueue(first, new TestUpdate(first, 1, 10));
+        queue.enqueue(second, new TestUpdate(second, 1, 10));
+        queue.enqueue(third, new TestUpdate(third, 1, 10));
+
+        final List<TestUpdate> updates = queue.poll(new Position(0, 0, 0)::distanceTo, UNLIMITED);
+
+        Assert.assertEquals(first, updates.get(0).position);
+        Assert.assertEquals(second, updates.get(1).position);
+        Assert.assertEquals(third, updates.get(2).position);
+    }
+
+    @Test
+    public void updatesToTheSamePositionAreCoalesced()
+    {
+        final OutboundUpdateQueue<Position, TestUpdate> queue = new OutboundUpdateQueue<>();
+        final Position position = new Position(4, 5, 6);
+        for (int version = 1; version <= 10; version++)
+        {
+            queue.enqueue(position, new TestUpdate(position, version, 100));
+        }
+
+        Assert.assertEquals(1, queue.size());
+
+        final List<TestUpdate> updates = queue.poll(new Position(0, 0, 0)::distanceTo, UNLIMITED);
+        Assert.assertEquals(1, updates.size());
+        Assert.assertEquals(10, updates.get(0).version);
+        Assert.assertEquals(10, updates.get(0).mergedCount);
+        Assert.assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void bytesPerTickAreCapped()
+    {
+        final OutboundUpdateQueue<Position, TestUpdate> queue = new OutboundUpdateQueue<>();
+        for (int i = 0; i < 20; i++)
+        {
+            final Position position = new Position(i, 0, 0);
+            queue.enqueue(position, new TestUpdate(position, 1, 1000));
+        }
+
+        final Position player = new Position(0, 0, 0);
+        Assert.assertEquals(5, queue.poll(player::distanceTo, 5000).size());
+        Assert.assertEquals(5, queue.poll(player::distanceTo, 5000).size());
+        Assert.assertEquals(10, queue.size());
+    }
+
+    @Test
+    public void oversizedUpdatesAreSentAndPaidOffLater()
+    {
+        final OutboundUpdateQueue<Position, TestUpdate> queue = new OutboundUpdateQueue<>();
+        final Position large = new Position(0, 0, 0);
+        final Position small = new Position(1, 0, 0);
+        queue.enqueue(large, new TestUpdate(large, 1, 12000));
+        queue.enqueue(small, new TestUpdate(small, 1, 100));
+
+        final Position player = new Position(0, 0, 0);
+        Assert.assertEquals(1, queue.poll(player::distanceTo, 5000).size());
+        Assert.assertEquals("The oversized update is paid off first.", 0, queue.poll(player::distanceTo, 5000).size());
+        Assert.assertEquals(1, queue.poll(player::distanceTo, 5000).size());
+    }
+
+    @Test
+    public void discardedPositionsAreNotSent()
+    {
+        final OutboundUpdateQueue<Position, TestUpdate> queue = new OutboundUpdateQueue<>();
+        for (int i = 0; i < 10; i++)
+        {
+            final Position position = new Position(i, 0, 0);
+            queue.enqueue(position, new TestUpdate(position, 1, 10));
+        }
+
+        queue.discardIf(position -> position.x % 2 == 0);
+
+        for (final TestUpdate update : queue.poll(new Position(0, 0, 0)::distanceTo, UNLIMITED))
+        {
+            Assert.assertEquals(1, update.position.x % 2);
+        }
+    }
+
+    /**
+     * Simulates a player walking through an area in which blocks are edited every tick,
+     * and checks that every block ends up at its latest version, that each tick stays within its budget
+     * and that near blocks arrive sooner than far ones.
+     */
+    @Test
+    public void simulatedPlayerReceivesTheLatestStateOfEveryBlock()
+    {
+        final int bytesPerTick = 8000;
+        final Random random = new Random(1);
+        final OutboundUpdateQueue<Position, TestUpdate> queue = new OutboundUpdateQueue<>();
+        final Map<Position, Integer> serverVersions = new HashMap<>();
+        final Map<Position, Integer> clientVersions = new HashMap<>();
+
+        int largestUpdate = 0;
+        long nearLatency = 0;
+        long nearCount = 0;
+        long farLatency = 0;
+        long farCount = 0;
+        final Map<Position, Integer> queuedAt = new HashMap<>();
+
+        for (int tick = 0; tick < 400; tick++)
+        {
+            if (tick < 300)
+            {
+                for (int edit = 0; edit < 6; edit++)
+                {
+                    final Position position = new Position(random.nextInt(128) - 64, random.nextInt(32), random.nextInt(128) - 64);
+                    final int version = serverVersions.merge(position, 1, Integer::sum);
+                    final int size = 50 + random.nextInt(2000);
+                    largestUpdate = Math.max(largestUpdate, size);
+                    queue.enqueue(position, new TestUpdate(position, version, size));
+                    queuedAt.putIfAbsent(position, tick);
+                }
+            }
+
+            final Position player = new Position(-64 + tick / 4, 16, 0);
+            int sentBytes = 0;
+            for (final TestUpdate update : queue.poll(player::distanceTo, bytesPerTick))
+            {
+                sentBytes += update.size;
+                final Integer previous = clientVersions.put(update.position, update.version);
+                Assert.assertTrue("Updates may never go back in time.", previous == null || previous < update.version);
+
+                final int latency = tick - queuedAt.remove(update.position);
+                if (player.distanceTo(update.position) < 32 * 32)
+                {
+                    nearLatency += latency;
+                    nearCount++;
+                }
+                else
+                {
+                    farLatency += latency;
+                    farCount++;
+                }
+            }
+
+            Assert.assertTrue("Tick " + tick + " sent " + sentBytes + " bytes.", sentBytes < bytesPerTick + largestUpdate);
+        }
+
+        Assert.assertTrue(queue.isEmpty());
+        Assert.assertEquals(serverVersions, clientVersions);
+        Assert.assertTrue(
+          String.format("Near blocks waited %.1f ticks, far blocks %.1f ticks.", nearLatency / (double) nearCount, farLatency / (double) farCount),
+          nearLatency / (double) nearCount < farLatency / (double) farCount
+        );
+    }
+
+    private static final class Position
+    {
+        private final int x;
+        private final int y;
+        private final int z;
+
+        private Position(final int x, final int y, final int z)
+        {
+            this.x = x;
+            this.y = y;
+            this.z = z;
+        }
+
+        private double distanceTo(final Position other)
+        {
+            final double dx = x - other.x;
+            final double dy = y - other.y;
+            final double dz = z - other.z;
+            return dx * dx + dy * dy + dz * dz;
+        }
+
+        @Override
+        public boolean equals(final Object o)
+        {
+            if (this == o)
+            {
+                return true;
+            }
+            if (!(o instanceof Position))
+            {
+                return false;
+            }
+            final Position position = (Position) o;
+            return x == position.x && y == position.y && z == position.z;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return (x * 31 + y) * 31 + z;
+        }
+    }
+
+    private static final class TestUpdate implements IOutboundUpdate<TestUpdate>
+    {
+        private final Position position;
+        private final int      version;
+        private final int      size;
+        private final int      mergedCount;
+
+        private TestUpdate(final Position position, final int version, final int size)
+        {
+            this(position, version, size, 1);
+        }
+
+        private TestUpdate(final Position position, final int version, final int size, final int mergedCount)
+        {
+            this.position = position;
+            this.version = version;
+            this.size = size;
+            this.mergedCount = mergedCount;
+        }
+
+        @Override
+        public int getSize()
+        {
+            return size;
+        }
+
+        @Override
+        public TestUpdate mergeWith(final TestUpdate newer)
+        {
+            return new TestUpdate(position, newer.version, Math.max(size, newer.size), mergedCount + newer.mergedCount);
+        }
+    }
+}
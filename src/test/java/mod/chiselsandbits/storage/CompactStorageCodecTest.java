@@ -0,0 +1,334 @@
+package mod.chiselsandbits.storage;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+public class CompactStorageCodecTest
+{
+    private static final int SIDE = 16;
+    private static final int SIZE = SIDE * SIDE * SIDE;
+
+    @Test
+    public void uniformSlotsOnlyWriteTheHeader()
+    {
+        final byte[] data = CompactStorageCodec.encode(new int[SIZE], 1);
+
+        Assert.assertEquals(2, data.length);
+        Assert.assertEquals(CompactStorageCodec.UNIFORM, data[1]);
+        Assert.assertArrayEquals(new int[SIZE], CompactStorageCodec.decode(data, SIZE, 1));
+    }
+
+    @Test
+    public void largeRunsUseRunLengthEncoding()
+    {
+        final int[] slots = new int[SIZE];
+        for (int i = SIZE / 2; i < SIZE; i++)
+        {
+            slots[i] = 1;
+        }
+
+        final byte[] data = assertRoundTrip(slots, 2);
+        Assert.assertEquals(CompactStorageCodec.RUNS, data[1]);
+        Assert.assertTrue("Two runs should only need a few bytes, but used: " + data.length, data.length < 16);
+    }
+
+    @Test
+    public void noisyShapesUseBitPacking()
+    {
+        for (final int paletteLength : new int[] {2, 3, 5, 16, 17, 300, 4096})
+        {
+            final Random random = new Random(paletteLength);
+            final int[] slots = new int[SIZE];
+            for (int i = 0; i < SIZE; i++)
+            {
+                slots[i] = random.nextInt(paletteLength);
+            }
+
+            final byte[] data = assertRoundTrip(slots, paletteLength);
+            Assert.assertEquals(CompactStorageCodec.PACKED, data[1]);
+            Assert.assertEquals(2 + (SIZE * (32 - Integer.numberOfLeadingZeros(paletteLength - 1)) + 7) / 8, data.length);
+        }
+    }
+
+    @Test
+    public void generatedShapesRoundTrip()
+    {
+        for (final Map.Entry<String, int[]> shape : createCorpus().entrySet())
+        {
+            assertRoundTrip(shape.getValue(), getPaletteLength(shape.getValue()));
+        }
+    }
+
+    @Test
+    public void unknownVersionsAreRejected()
+    {
+        final byte[] data = CompactStorageCodec.encode(new int[SIZE], 1);
+        data[0] = CompactStorageCodec.FORMAT_VERSION + 1;
+
+        assertRejected(data, 1);
+    }
+
+    @Test
+    public void malformedDataIsRejected()
+    {
+        final int[] slots = new int[SIZE];
+        slots[10] = 1;
+        final byte[] runs = CompactStorageCodec.encode(slots, 2);
+        final byte[] truncatedRuns = new byte[runs.length - 1];
+        System.arraycopy(runs, 0, truncatedRuns, 0, truncatedRuns.length);
+        assertRejected(truncatedRuns, 2);
+
+        final Random random = new Random(0);
+        for (int i = 0; i < SIZE; i++)
+        {
+            slots[i] = random.nextInt(3);
+        }
+        final byte[] packed = CompactStorageCodec.encode(slots, 3);
+        final byte[] truncatedPacked = new byte[packed.length / 2];
+        System.arraycopy(packed, 0, truncatedPacked, 0, truncatedPacked.length);
+        assertRejected(truncatedPacked, 3);
+
+        assertRejected(new byte[] {CompactStorageCodec.FORMAT_VERSION, 7}, 2);
+        assertRejected(new byte[] {CompactStorageCodec.FORMAT_VERSION}, 2);
+    }
+
+    @Test
+    public void slotsOutsideOfThePaletteAreRejected()
+    {
+        final int[] slots = new int[SIZE];
+        slots[0] = 3;
+        final byte[] data = CompactStorageCodec.encode(slots, 4);
+
+        assertRejected(data, 3);
+    }
+
+    /**
+     * Compares the compact format with the previous one, which wrote the vanilla long array layout and compressed it with gzip,
+     * on a corpus of generated shapes. The palette is written the same way by both formats, so only the slots are compared.
+     * The region file size is approximated by deflating the data once more, the same way region files compress chunks.
+     */
+    @Test
+    public void compactFormatIsSmallerInRegionFilesThanNestedCompression() throws IOException
+    {
+        long legacyRegionSize = 0;
+        long compactRegionSize = 0;
+        for (final int[] slots : createCorpus().values())
+        {
+            final int paletteLength = getPaletteLength(slots);
+
+            final byte[] legacy = gzip(packLegacy(slots, paletteLength));
+            Assert.assertArrayEquals(slots, unpackLegacy(gunzip(legacy), paletteLength));
+
+            legacyRegionSize += deflate(legacy);
+            compactRegionSize += deflate(assertRoundTrip(slots, paletteLength));
+        }
+
+        Assert.assertTrue("Compact: " + compactRegionSize + " bytes, legacy: " + legacyRegionSize + " bytes.", compactRegionSize < legacyRegionSize);
+    }
+
+    private static byte[] assertRoundTrip(final int[] slots, final int paletteLength)
+    {
+        final byte[] data = CompactStorageCodec.encode(slots, paletteLength);
+        Assert.assertArrayEquals(slots, CompactStorageCodec.decode(data, SIZE, paletteLength));
+        return data;
+    }
+
+    private static void assertRejected(final byte[] data, final int paletteLength)
+    {
+        try
+        {
+            CompactStorageCodec.decode(data, SIZE, paletteLength);
+            Assert.fail("Malformed data was decoded.");
+        }
+        catch (IllegalArgumentException expected)
+        {
+            //Expected.
+        }
+    }
+
+    private static Map<String, int[]> createCorpus()
+    {
+        final Map<String, int[]> corpus = new LinkedHashMap<>();
+        final Random random = new Random(42);
+
+        corpus.put("single bit", fill((x, y, z) -> x == 0 && y == 0 && z == 0 ? 1 : 0));
+        corpus.put("slab", fill((x, y, z) -> y < SIDE / 2 ? 1 : 0));
+        corpus.put("stairs", fill((x, y, z) -> y < SIDE / 2 || z < SIDE / 2 ? 1 : 0));
+        corpus.put("sphere", fill((x, y, z) -> square(x - 7.5) + square(y - 7.5) + square(z - 7.5) < 56 ? 1 : 0));
+        corpus.put("hollow box", fill((x, y, z) -> x == 0 || y == 0 || z == 0 || x == SIDE - 1 || y == SIDE - 1 || z == SIDE - 1 ? 1 : 0));
+        corpus.put("pillar", fill((x, y, z) -> Math.abs(x - 7.5) < 4 && Math.abs(z - 7.5) < 4 ? 1 : 0));
+        corpus.put("checkerboard", fill((x, y, z) -> (x + y + z) % 2));
+        corpus.put("striped", fill((x, y, z) -> y % 4));
+        corpus.put("carved letters", fill((x, y, z) -> z == 0 && ((x * 7 + y * 3) % 5 == 0) ? 0 : 1));
+
+        final int[] heights = new int[SIDE * SIDE];
+        for (int i = 0; i < heights.length; i++)
+        {
+            heights[i] = 4 + random.nextInt(8);
+        }
+        corpus.put("terrain", fill((x, y, z) -> y < heights[x * SIDE + z] ? (y < heights[x * SIDE + z] - 2 ? 1 : 2) : 0));
+
+        for (int shape = 0; shape < 10; shape++)
+        {
+            final int[] slots = new int[SIZE];
+            int paletteLength = 1;
+            for (int box = 0; box < 4; box++)
+            {
+                final int minX = random.nextInt(SIDE), minY = random.nextInt(SIDE), minZ = random.nextInt(SIDE);
+                final int maxX = minX + 1 + random.nextInt(SIDE - minX), maxY = minY + 1 + random.nextInt(SIDE - minY), maxZ = minZ + 1 + random.nextInt(SIDE - minZ);
+                final int slot = paletteLength++;
+                for (int y = minY; y < maxY; y++)
+                {
+                    for (int z = minZ; z < maxZ; z++)
+                    {
+                        for (int x = minX; x < maxX; x++)
+                        {
+                            slots[(y * SIDE + z) * SIDE + x] = slot;
+                        }
+                    }
+                }
+            }
+            corpus.put("boxes " + shape, normalize(slots));
+        }
+
+        corpus.put("noise", fill((x, y, z) -> random.nextInt(4)));
+        return corpus;
+    }
+
+    private static int[] fill(final SlotFunction function)
+    {
+        final int[] slots = new int[SIZE];
+        for (int y = 0; y < SIDE; y++)
+        {
+            for (int z = 0; z < SIDE; z++)
+            {
+                for (int x = 0; x < SIDE; x++)
+                {
+                    slots[(y * SIDE + z) * SIDE + x] = function.apply(x, y, z);
+                }
+            }
+        }
+        return normalize(slots);
+    }
+
+    /**
+     * Renumbers the slots in order of appearance, the same way a storage only writes the palette entries which are in use.
+     */
+    private static int[] normalize(final int[] slots)
+    {
+        final List<Integer> seen = new ArrayList<>();
+        final int[] normalized = new int[slots.length];
+        for (int i = 0; i < slots.length; i++)
+        {
+            int slot = seen.indexOf(slots[i]);
+            if (slot < 0)
+            {
+                slot = seen.size();
+                seen.add(slots[i]);
+            }
+            normalized[i] = slot;
+        }
+        return normalized;
+    }
+
+    private static int getPaletteLength(final int[] slots)
+    {
+        int max = 0;
+        for (final int slot : slots)
+        {
+            max = Math.max(max, slot);
+        }
+        return max + 1;
+    }
+
+    private static double square(final double value)
+    {
+        return value * value;
+    }
+
+    private static byte[] packLegacy(final int[] slots, final int paletteLength)
+    {
+        final int bits = Math.max(4, 32 - Integer.numberOfLeadingZeros(paletteLength - 1));
+        final int valuesPerLong = 64 / bits;
+        final ByteBuffer buffer = ByteBuffer.allocate(8 * ((SIZE + valuesPerLong - 1) / valuesPerLong));
+        final long[] packed = new long[buffer.capacity() / 8];
+        for (int i = 0; i < SIZE; i++)
+        {
+            packed[i / valuesPerLong] |= ((long) slots[i]) << ((i % valuesPerLong) * bits);
+        }
+        buffer.asLongBuffer().put(packed);
+        return buffer.array();
+    }
+
+    private static int[] unpackLegacy(final byte[] data, final int paletteLength)
+    {
+        final int bits = Math.max(4, 32 - Integer.numberOfLeadingZeros(paletteLength - 1));
+        final int valuesPerLong = 64 / bits;
+        final ByteBuffer buffer = ByteBuffer.wrap(data);
+        final int[] slots = new int[SIZE];
+        for (int i = 0; i < SIZE; i++)
+        {
+            slots[i] = (int) ((buffer.getLong((i / valuesPerLong) * 8) >>> ((i % valuesPerLong) * bits)) & ((1L << bits) - 1));
+        }
+        return slots;
+    }
+
+    private static byte[] gzip(final byte[] data) throws IOException
+    {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(output))
+        {
+            gzip.write(data);
+        }
+        return output.toByteArray();
+    }
+
+    private static byte[] gunzip(final byte[] data) throws IOException
+    {
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(data)))
+        {
+            final ByteArrayOutputStream output = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[4096];
+            int read;
+            while ((read = gzip.read(buffer)) > 0)
+            {
+                output.write(buffer, 0, read);
+            }
+            return output.toByteArray();
+        }
+    }
+
+    private static int deflate(final byte[] data)
+    {
+        final Deflater deflater = new Deflater();
+        deflater.setInput(data);
+        deflater.finish();
+        final byte[] buffer = new byte[data.length + 64];
+        int size = 0;
+        while (!deflater.finished())
+        {
+            size += deflater.deflate(buffer);
+        }
+        deflater.end();
+        return size;
+    }
+
+    @FunctionalInterface
+    private interface SlotFunction
+    {
+        int apply(int x, int y, int z);
+    }
+}
@@ -0,0 +1,130 @@
+package mod.chiselsandbits.storage;
+
+import net.minecraft.nbt.CompoundNBT;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Loads and saves the data of a storage the way a chiseled block entity does, which only decodes it once a bit is first accessed.
+ */
+public class LazilyDecodedStorageDataTest
+{
+    private static final int SIDE = 16;
+    private static final int SIZE = SIDE * SIDE * SIDE;
+
+    private static final Supplier<CompoundNBT> FAILING_WRITER = () -> {
+        throw new AssertionError("The storage was written although nothing decoded it.");
+    };
+
+    @Test
+    public void loadingDoesNotDecode()
+    {
+        final LazilyDecodedStorageData undecodedData = new LazilyDecodedStorageData();
+        undecodedData.set(createData(createSource()));
+
+        Assert.assertTrue(undecodedData.isPending());
+        Assert.assertEquals(0, undecodedData.getDecodeCount());
+    }
+
+    @Test
+    public void savingBeforeTheFirstAccessWritesTheLoadedBytesBack()
+    {
+        final CompoundNBT data = createData(createSource());
+        final LazilyDecodedStorageData undecodedData = new LazilyDecodedStorageData();
+        undecodedData.set(data);
+
+        final CompoundNBT saved = undecodedData.save(FAILING_WRITER);
+
+        Assert.assertNotSame("The saved data should be a copy.", data, saved);
+        Assert.assertArrayEquals(data.getByteArray("data"), saved.getByteArray("data"));
+        Assert.assertEquals(0, undecodedData.getDecodeCount());
+        Assert.assertTrue(undecodedData.isPending());
+    }
+
+    @Test
+    public void loadedDataIsOnlyDecodedOnFirstAccess()
+    {
+        final PackedStateStorage source = createSource();
+        final LazilyDecodedStorageData undecodedData = new LazilyDecodedStorageData();
+        undecodedData.set(createData(source));
+
+        final PackedStateStorage storage = new PackedStateStorage(SIDE, 0);
+        final BiConsumer<PackedStateStorage, CompoundNBT> decoder = createDecoder(source);
+        undecodedData.decodeInto(storage, decoder);
+        undecodedData.decodeInto(storage, decoder);
+
+        Assert.assertEquals(1, undecodedData.getDecodeCount());
+        Assert.assertFalse(undecodedData.isPending());
+        for (int i = 0; i < SIZE; i++)
+        {
+            Assert.assertEquals(source.getStateId(i), storage.getStateId(i));
+        }
+    }
+
+    @Test
+    public void savingAfterTheFirstAccessWritesTheStorage()
+    {
+        final PackedStateStorage source = createSource();
+        final LazilyDecodedStorageData undecodedData = new LazilyDecodedStorageData();
+        undecodedData.set(createData(source));
+        undecodedData.decodeInto(new PackedStateStorage(SIDE, 0), createDecoder(source));
+
+        final CompoundNBT written = new CompoundNBT();
+        Assert.assertSame(written, undecodedData.save(() -> written));
+    }
+
+    @Test
+    public void replacedDataIsNeverDecoded()
+    {
+        final LazilyDecodedStorageData undecodedData = new LazilyDecodedStorageData();
+        undecodedData.set(new CompoundNBT());
+        undecodedData.clear();
+
+        undecodedData.decodeInto(new PackedStateStorage(SIDE, 0), (target, nbt) -> {
+            throw new AssertionError("The replaced data was decoded.");
+        });
+        Assert.assertEquals(0, undecodedData.getDecodeCount());
+    }
+
+    private static PackedStateStorage createSource()
+    {
+        final PackedStateStorage source = new PackedStateStorage(SIDE, 0);
+        final Random random = new Random(5);
+        for (int i = 0; i < SIZE; i++)
+        {
+            source.setStateId(i, random.nextInt(3));
+        }
+        return source;
+    }
+
+    /**
+     * Writes the compact data of the given storage, with the palette kept aside for {@link #createDecoder(PackedStateStorage)}.
+     */
+    private static CompoundNBT createData(final PackedStateStorage source)
+    {
+        final int[] slots = new int[SIZE];
+        for (int i = 0; i < SIZE; i++)
+        {
+            slots[i] = source.getPaletteSlot(i);
+        }
+
+        final CompoundNBT data = new CompoundNBT();
+        data.putByteArray("data", CompactStorageCodec.encode(slots, source.getPaletteSize()));
+        return data;
+    }
+
+    private static BiConsumer<PackedStateStorage, CompoundNBT> createDecoder(final PackedStateStorage source)
+    {
+        final int[] ids = new int[source.getPaletteSize()];
+        for (int slot = 0; slot < ids.length; slot++)
+        {
+            ids[slot] = source.getPaletteStateId(slot);
+        }
+
+        return (target, nbt) -> target.loadCompact(ids, nbt.getByteArray("data"));
+    }
+}
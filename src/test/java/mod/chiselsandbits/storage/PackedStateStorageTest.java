@@ -0,0 +1,157 @@
+package mod.chiselsandbits.storage;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class PackedStateStorageTest
+{
+    private static final int SIDE = 16;
+    private static final int SIZE = SIDE * SIDE * SIDE;
+
+    @Test
+    public void uniformStorageHasNoIndexArray()
+    {
+        final PackedStateStorage storage = new PackedStateStorage(SIDE, 5);
+
+        Assert.assertTrue(storage.isUniform());
+        Assert.assertEquals(5, storage.getStateId(3, 7, 11));
+        Assert.assertEquals(1, storage.getUsedStateCount());
+    }
+
+    @Test
+    public void storageCollapsesWhenBecomingUniformAgain()
+    {
+        final PackedStateStorage storage = new PackedStateStorage(SIDE, 0);
+        storage.setStateId(10, 1);
+        Assert.assertFalse(storage.isUniform());
+
+        for (int i = 0; i < SIZE; i++)
+        {
+            storage.setStateId(i, 1);
+        }
+
+        Assert.assertTrue(storage.isUniform());
+        Assert.assertEquals(1, storage.getStateId(0));
+    }
+
+    @Test
+    public void randomWritesMatchReference()
+    {
+        for (final int stateCount : new int[] {2, 3, 5, 17, 64, 300, 4096})
+        {
+            final Random random = new Random(stateCount);
+            final int[] reference = new int[SIZE];
+            final PackedStateStorage storage = new PackedStateStorage(SIDE, 0);
+
+            for (int i = 0; i < SIZE * 4; i++)
+            {
+                final int index = random.nextInt(SIZE);
+                final int stateId = random.nextInt(stateCount);
+                Assert.assertEquals(reference[index], storage.setStateId(index, stateId));
+                reference[index] = stateId;
+            }
+
+            for (int i = 0; i < SIZE; i++)
+            {
+                Assert.assertEquals("State count: " + stateCount, reference[i], storage.getStateId(i));
+            }
+        }
+    }
+
+    @Test
+    public void identifierPayloadIgnoresPaletteOrder()
+    {
+        final PackedStateStorage first = new PackedStateStorage(SIDE, 0);
+        final PackedStateStorage second = new PackedStateStorage(SIDE, 0);
+
+        first.setStateId(1, 7);
+        first.setStateId(2, 9);
+        second.setStateId(2, 9);
+        second.setStateId(1, 7);
+
+        Assert.assertArrayEquals(first.createIdentifierPayload(), second.createIdentifierPayload());
+
+        second.setStateId(3, 9);
+        Assert.assertFalse(Arrays.equals(first.createIdentifierPayload(), second.createIdentifierPayload()));
+    }
+
+    @Test
+    public void matchingBitsAreFilteredOncePerPaletteSlot()
+    {
+        final PackedStateStorage storage = new PackedStateStorage(SIDE, 0);
+        for (int i = 0; i < SIZE; i++)
+        {
+            storage.setStateId(i, i % 4);
+        }
+
+        final int[] filterCalls = {0};
+        final boolean[] visited = new boolean[SIZE];
+        storage.forEachMatchingBit(stateId -> {
+            filterCalls[0]++;
+            return stateId >= 2;
+        }, (x, y, z, state) -> visited[storage.getIndex(x, y, z)] = true);
+
+        Assert.assertTrue(filterCalls[0] <= storage.getPaletteSize());
+        for (int i = 0; i < SIZE; i++)
+        {
+            Assert.assertEquals("Index: " + i, storage.getStateId(i) >= 2, visited[i]);
+        }
+    }
+
+    @Test
+    public void matchingBitsOfUniformStorageAreAllOrNothing()
+    {
+        final PackedStateStorage storage = new PackedStateStorage(SIDE, 5);
+
+        final int[] visitedCount = {0};
+        storage.forEachMatchingBit(stateId -> stateId != 5, (x, y, z, state) -> visitedCount[0]++);
+        Assert.assertEquals(0, visitedCount[0]);
+
+        storage.forEachMatchingBit(stateId -> stateId == 5, (x, y, z, state) -> visitedCount[0]++);
+        Assert.assertEquals(SIZE, visitedCount[0]);
+    }
+
+    @Test
+    public void singleStateStorageHasNoIndexArray()
+    {
+        runFootprintTest(1, 0);
+    }
+
+    @Test
+    public void twoStateStorageUsesOneBitPerEntry()
+    {
+        runFootprintTest(2, 1);
+    }
+
+    @Test
+    public void sixtyFourStateStorageUsesSixBitsPerEntry()
+    {
+        runFootprintTest(64, 6);
+    }
+
+    private static void runFootprintTest(final int stateCount, final int expectedBitsPerEntry)
+    {
+        final PackedStateStorage storage = new PackedStateStorage(SIDE, 0);
+        for (int i = 0; i < SIZE; i++)
+        {
+            storage.setStateId(i, i % stateCount);
+        }
+
+        Assert.assertEquals(stateCount, storage.getUsedStateCount());
+        Assert.assertEquals(expectedBitsPerEntry, storage.getBitsPerEntry());
+        if (expectedBitsPerEntry == 0)
+        {
+            Assert.assertTrue(storage.isUniform());
+            Assert.assertEquals(0, storage.getDataLength());
+            return;
+        }
+
+        //Entries never span two longs, so every long holds as many whole entries as fit.
+        final int entriesPerLong = 64 / expectedBitsPerEntry;
+        Assert.assertFalse(storage.isUniform());
+        Assert.assertEquals((SIZE + entriesPerLong - 1) / entriesPerLong, storage.getDataLength());
+    }
+}
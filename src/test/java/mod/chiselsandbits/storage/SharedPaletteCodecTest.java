@@ -0,0 +1,218 @@
+package mod.chiselsandbits.storage;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import mod.chiselsandbits.utils.CompressionUtils;
+import net.minecraft.network.PacketBuffer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class SharedPaletteCodecTest
+{
+    private static final int SIDE = 16;
+    private static final int SIZE = SIDE * SIDE * SIDE;
+
+    @Test
+    public void storagesRoundTrip()
+    {
+        final List<PackedStateStorage> storages = createChunk(new Random(0), 64);
+        storages.add(new PackedStateStorage(SIDE, 0));
+        storages.add(new PackedStateStorage(SIDE, 12345));
+
+        final ByteBuf buffer = Unpooled.buffer();
+        writeAll(storages, new PacketBuffer(buffer));
+
+        final PacketBuffer input = new PacketBuffer(buffer);
+        final SharedPaletteCodec.Reader reader = new SharedPaletteCodec.Reader(input);
+        for (final PackedStateStorage expected : storages)
+        {
+            final PackedStateStorage actual = new PackedStateStorage(SIDE, 0);
+            reader.readStorage(actual, input);
+            for (int i = 0; i < SIZE; i++)
+            {
+                Assert.assertEquals(expected.getStateId(i), actual.getStateId(i));
+            }
+        }
+        Assert.assertEquals(0, buffer.readableBytes());
+    }
+
+    @Test
+    public void sharedPaletteOnlyContainsEachStateOnce()
+    {
+        final PackedStateStorage first = new PackedStateStorage(SIDE, 7);
+        first.setStateId(0, 8);
+        final PackedStateStorage second = new PackedStateStorage(SIDE, 8);
+        second.setStateId(0, 7);
+        second.setStateId(1, 9);
+
+        final SharedPaletteCodec.Writer writer = new SharedPaletteCodec.Writer();
+        writer.writeStorage(first, new PacketBuffer(Unpooled.buffer()));
+        writer.writeStorage(second, new PacketBuffer(Unpooled.buffer()));
+
+        final ByteBuf palette = Unpooled.buffer();
+        writer.writePalette(new PacketBuffer(palette));
+        final PacketBuffer paletteInput = new PacketBuffer(palette);
+        Assert.assertEquals(3, paletteInput.readVarInt());
+        Assert.assertEquals(7, paletteInput.readVarInt());
+        Assert.assertEquals(8, paletteInput.readVarInt());
+        Assert.assertEquals(9, paletteInput.readVarInt());
+    }
+
+    @Test
+    public void slotsOutsideOfTheSharedPaletteAreRejected()
+    {
+        final ByteBuf buffer = Unpooled.buffer();
+        final PacketBuffer output = new PacketBuffer(buffer);
+        output.writeVarInt(1);
+        output.writeVarInt(5);
+        output.writeVarInt(1);
+        output.writeVarInt(1);
+
+        final PacketBuffer input = new PacketBuffer(buffer);
+        final SharedPaletteCodec.Reader reader = new SharedPaletteCodec.Reader(input);
+        try
+        {
+            reader.readStorage(new PackedStateStorage(SIDE, 0), input);
+            Assert.fail("Reading a slot outside of the shared palette should fail.");
+        }
+        catch (IllegalArgumentException expected)
+        {
+            //Expected.
+        }
+    }
+
+    /**
+     * Compares the bytes on the wire for a generated chunk, once sent as one compressed update per block
+     * and once as a single compressed payload with a shared palette.
+     */
+    @Test
+    public void chunkPayloadIsSmallerThanPerBlockUpdates()
+    {
+        final List<PackedStateStorage> storages = createChunk(new Random(1), 256);
+
+        long perBlockBytes = 0;
+        for (final PackedStateStorage storage : storages)
+        {
+            final ByteBuf buffer = Unpooled.buffer();
+            storage.serializeInto(new PacketBuffer(buffer));
+            perBlockBytes += CompressionUtils.NETWORK.compress(buffer).length;
+        }
+
+        final ByteBuf buffer = Unpooled.buffer();
+        writeAll(storages, new PacketBuffer(buffer));
+        final long chunkBytes = CompressionUtils.NETWORK.compress(buffer).length;
+
+        Assert.assertTrue("Chunk payload: " + chunkBytes + " bytes, per-block updates: " + perBlockBytes + " bytes.", chunkBytes < perBlockBytes);
+    }
+
+    @Test
+    public void singleStateStoragesOnlyWriteTheirSharedSlot()
+    {
+        final SharedPaletteCodec.Writer writer = new SharedPaletteCodec.Writer();
+
+        final ByteBuf first = Unpooled.buffer();
+        writer.writeStorage(new PackedStateStorage(SIDE, 12345), new PacketBuffer(first));
+        final ByteBuf second = Unpooled.buffer();
+        writer.writeStorage(new PackedStateStorage(SIDE, 12345), new PacketBuffer(second));
+
+        //The amount of used states and the shared slot, one byte each.
+        Assert.assertEquals(2, first.readableBytes());
+        Assert.assertEquals(2, second.readableBytes());
+
+        //The size of the palette and the state id, which needs two bytes.
+        final ByteBuf palette = Unpooled.buffer();
+        writer.writePalette(new PacketBuffer(palette));
+        Assert.assertEquals(3, palette.readableBytes());
+    }
+
+    @Test
+    public void repeatedStatesDoNotGrowThePalette()
+    {
+        final PackedStateStorage storage = new PackedStateStorage(SIDE, 0);
+        storage.setStateId(0, 17);
+        storage.setStateId(1, 1345);
+
+        final SharedPaletteCodec.Writer writer = new SharedPaletteCodec.Writer();
+        final ByteBuf first = Unpooled.buffer();
+        writer.writeStorage(storage, new PacketBuffer(first));
+        final ByteBuf afterFirst = Unpooled.buffer();
+        writer.writePalette(new PacketBuffer(afterFirst));
+
+        final ByteBuf second = Unpooled.buffer();
+        writer.writeStorage(storage, new PacketBuffer(second));
+        final ByteBuf afterSecond = Unpooled.buffer();
+        writer.writePalette(new PacketBuffer(afterSecond));
+
+        Assert.assertEquals(first.readableBytes(), second.readableBytes());
+        Assert.assertEquals(afterFirst.readableBytes(), afterSecond.readableBytes());
+    }
+
+    private static void writeAll(final List<PackedStateStorage> storages, final PacketBuffer output)
+    {
+        final SharedPaletteCodec.Writer writer = new SharedPaletteCodec.Writer();
+        final ByteBuf entries = Unpooled.buffer();
+        for (final PackedStateStorage storage : storages)
+        {
+            writer.writeStorage(storage, new PacketBuffer(entries));
+        }
+
+        writer.writePalette(output);
+        final byte[] entryData = new byte[entries.readableBytes()];
+        entries.readBytes(entryData);
+        output.writeBytes(entryData);
+    }
+
+    /**
+     * Generates the chiseled blocks of a build: a handful of materials, mostly cut into slabs, pillars and stairs, some of them carved freely.
+     */
+    private static List<PackedStateStorage> createChunk(final Random random, final int blockCount)
+    {
+        final int[] materials = new int[] {1, 17, 243, 1345, 4021, 9876, 11000, 15002};
+        final List<PackedStateStorage> storages = new ArrayList<>();
+        for (int block = 0; block < blockCount; block++)
+        {
+            final int material = materials[random.nextInt(materials.length)];
+            final int secondMaterial = materials[random.nextInt(materials.length)];
+            final int shape = random.nextInt(4);
+            final int cut = 2 + random.nextInt(12);
+
+            final PackedStateStorage storage = new PackedStateStorage(SIDE, 0);
+            for (int y = 0; y < SIDE; y++)
+            {
+                for (int z = 0; z < SIDE; z++)
+                {
+                    for (int x = 0; x < SIDE; x++)
+                    {
+                        final boolean filled;
+                        switch (shape)
+                        {
+                            case 0:
+                                filled = y < cut;
+                                break;
+                            case 1:
+                                filled = x >= 4 && x < 12 && z >= 4 && z < 12;
+                                break;
+                            case 2:
+                                filled = y < SIDE / 2 || z < SIDE / 2;
+                                break;
+                            default:
+                                filled = random.nextInt(3) != 0;
+                                break;
+                        }
+
+                        if (filled)
+                        {
+                            storage.setStateId(x, y, z, y == SIDE - 1 ? secondMaterial : material);
+                        }
+                    }
+                }
+            }
+            storages.add(storage);
+        }
+        return storages;
+    }
+}
@@ -0,0 +1,81 @@
+package mod.chiselsandbits.storage;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class StateChangeBufferTest
+{
+    private static final int SIDE = 16;
+    private static final int SIZE = SIDE * SIDE * SIDE;
+
+    @Test
+    public void emptyBufferReturnsDefaults()
+    {
+        final StateChangeBuffer buffer = new StateChangeBuffer(SIZE);
+
+        Assert.assertTrue(buffer.isEmpty());
+        Assert.assertFalse(buffer.contains(12));
+        Assert.assertEquals(3, buffer.getStateId(12, 3));
+    }
+
+    @Test
+    public void rewritingAnIndexKeepsTheLastState()
+    {
+        final StateChangeBuffer buffer = new StateChangeBuffer(SIZE);
+
+        buffer.put(100, 1);
+        buffer.put(100, 2);
+        buffer.put(100, 3);
+
+        Assert.assertEquals(1, buffer.size());
+        Assert.assertEquals(3, buffer.getStateId(100, 0));
+    }
+
+    @Test
+    public void applyingTheBufferMatchesDirectWrites()
+    {
+        final Random random = new Random(42);
+        final PackedStateStorage direct = new PackedStateStorage(SIDE, 0);
+        final PackedStateStorage buffered = new PackedStateStorage(SIDE, 0);
+        final StateChangeBuffer buffer = new StateChangeBuffer(SIZE);
+
+        for (int i = 0; i < SIZE * 2; i++)
+        {
+            final int index = random.nextInt(SIZE);
+            final int stateId = random.nextInt(9);
+
+            direct.setStateId(index, stateId);
+            buffer.put(index, stateId);
+        }
+
+        Assert.assertTrue(buffer.size() <= SIZE);
+
+        buffer.applyTo(buffered);
+        for (int i = 0; i < SIZE; i++)
+        {
+            Assert.assertEquals(direct.getStateId(i), buffered.getStateId(i));
+        }
+    }
+
+    @Test
+    public void clearedBufferCanBeReused()
+    {
+        final StateChangeBuffer buffer = new StateChangeBuffer(SIZE);
+
+        buffer.put(5, 1);
+        buffer.put(4095, 2);
+        buffer.clear();
+
+        Assert.assertTrue(buffer.isEmpty());
+        Assert.assertFalse(buffer.contains(5));
+        Assert.assertFalse(buffer.contains(4095));
+
+        buffer.put(4095, 7);
+        Assert.assertEquals(1, buffer.size());
+        Assert.assertEquals(4095, buffer.getIndexAt(0));
+        Assert.assertEquals(7, buffer.getStateIdAt(0));
+        Assert.assertEquals(9, buffer.getStateId(5, 9));
+    }
+}
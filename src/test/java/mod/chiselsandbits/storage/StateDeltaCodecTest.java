@@ -0,0 +1,144 @@
+package mod.chiselsandbits.storage;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import net.minecraft.network.PacketBuffer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+
+public class StateDeltaCodecTest
+{
+    private static final int SIDE = 16;
+    private static final int SIZE = SIDE * SIDE * SIDE;
+
+    @Test
+    public void singleChangedBitRoundTrips()
+    {
+        final byte[] delta = runRoundTrip(1);
+
+        Assert.assertNotNull(delta);
+        Assert.assertTrue("A single bit should fit in a handful of bytes, but used: " + delta.length, delta.length <= 8);
+    }
+
+    @Test
+    public void hundredChangedBitsRoundTrip()
+    {
+        final byte[] delta = runRoundTrip(100);
+
+        Assert.assertNotNull(delta);
+        Assert.assertTrue(delta.length <= StateDeltaCodec.MAXIMUM_DELTA_SIZE);
+    }
+
+    @Test
+    public void allChangedBitsFallBackToFullSnapshot()
+    {
+        Assert.assertNull(runRoundTrip(SIZE));
+    }
+
+    @Test
+    public void deltaPayloadsAreSmallerThanFullSnapshot()
+    {
+        final byte[] single = runRoundTrip(1);
+        final byte[] hundred = runRoundTrip(100);
+        final int fullSnapshotSize = getFullSnapshotSize(createSource(new Random(0)));
+
+        Assert.assertNotNull(single);
+        Assert.assertNotNull(hundred);
+        Assert.assertTrue(single.length < hundred.length);
+        Assert.assertTrue(
+          String.format("A delta of 100 bits uses %d bytes, the full snapshot uses %d bytes.", hundred.length, fullSnapshotSize),
+          hundred.length < fullSnapshotSize
+        );
+    }
+
+    @Test
+    public void contiguousChangesAreEncodedAsOneRun()
+    {
+        final PackedStateStorage source = new PackedStateStorage(SIDE, 0);
+        final PackedStateStorage target = source.copy();
+        final BitSet changed = new BitSet(SIZE);
+        for (int index = 256; index < 512; index++)
+        {
+            target.setStateId(index, 1);
+            changed.set(index);
+        }
+
+        final byte[] delta = StateDeltaCodec.encode(target, changed);
+        Assert.assertNotNull(delta);
+        //Palette (2 bytes), run count (1), gap (2), length (2) and one byte per bit.
+        Assert.assertEquals(2 + 1 + 2 + 2 + 256, delta.length);
+
+        applyDelta(source, delta);
+        assertSameContents(target, source);
+    }
+
+    private static byte[] runRoundTrip(final int changedBitCount)
+    {
+        final Random random = new Random(changedBitCount);
+        final PackedStateStorage source = createSource(new Random(0));
+        final PackedStateStorage target = source.copy();
+
+        final BitSet changed = new BitSet(SIZE);
+        while (changed.cardinality() < changedBitCount)
+        {
+            final int index = random.nextInt(SIZE);
+            if (changed.get(index))
+            {
+                continue;
+            }
+
+            changed.set(index);
+            target.setStateId(index, 10 + random.nextInt(3));
+        }
+
+        final byte[] delta = StateDeltaCodec.encode(target, changed);
+        if (delta == null)
+        {
+            return null;
+        }
+
+        applyDelta(source, delta);
+        assertSameContents(target, source);
+        return delta;
+    }
+
+    private static PackedStateStorage createSource(final Random random)
+    {
+        final PackedStateStorage storage = new PackedStateStorage(SIDE, 0);
+        for (int i = 0; i < SIZE; i++)
+        {
+            storage.setStateId(i, random.nextInt(4));
+        }
+        return storage;
+    }
+
+    private static void applyDelta(final PackedStateStorage storage, final byte[] delta)
+    {
+        final StateChangeBuffer changes = new StateChangeBuffer(SIZE);
+        final ByteBuf buffer = Unpooled.wrappedBuffer(delta);
+        StateDeltaCodec.read(new PacketBuffer(buffer), changes);
+        buffer.release();
+
+        changes.applyTo(storage);
+    }
+
+    private static int getFullSnapshotSize(final PackedStateStorage storage)
+    {
+        final ByteBuf buffer = Unpooled.buffer();
+        storage.serializeInto(new PacketBuffer(buffer));
+        final int size = buffer.writerIndex();
+        buffer.release();
+        return size;
+    }
+
+    private static void assertSameContents(final PackedStateStorage expected, final PackedStateStorage actual)
+    {
+        for (int i = 0; i < SIZE; i++)
+        {
+            Assert.assertEquals("Mismatch at index: " + i, expected.getStateId(i), actual.getStateId(i));
+        }
+    }
+}
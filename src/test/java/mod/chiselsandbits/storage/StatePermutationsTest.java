@@ -0,0 +1,208 @@
+package mod.chiselsandbits.storage;
+
+import net.minecraft.util.Direction;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class StatePermutationsTest
+{
+    private static final int SIDE = 16;
+    private static final int SIZE = SIDE * SIDE * SIDE;
+
+    @Test
+    public void rotationsMatchPreviousImplementation()
+    {
+        for (final PackedStateStorage source : createSources())
+        {
+            for (final Direction.Axis axis : Direction.Axis.values())
+            {
+                for (int rotationCount = 1; rotationCount < 8; rotationCount++)
+                {
+                    assertSameContents(
+                      "Rotation " + rotationCount + " around " + axis,
+                      rotateWithPreviousImplementation(source, axis, rotationCount),
+                      StatePermutations.rotate(source, axis, rotationCount)
+                    );
+                }
+            }
+        }
+    }
+
+    @Test
+    public void mirrorsMatchPreviousImplementation()
+    {
+        for (final PackedStateStorage source : createSources())
+        {
+            for (final Direction.Axis axis : Direction.Axis.values())
+            {
+                assertSameContents(
+                  "Mirror along " + axis,
+                  mirrorWithPreviousImplementation(source, axis),
+                  StatePermutations.mirror(source, axis)
+                );
+            }
+        }
+    }
+
+    @Test
+    public void zeroRotationReturnsSource()
+    {
+        final PackedStateStorage source = createRandomSource(new Random(1), 4);
+
+        Assert.assertTrue(StatePermutations.rotate(source, Direction.Axis.Y, 0) == source);
+        Assert.assertTrue(StatePermutations.rotate(source, Direction.Axis.Y, 4) == source);
+    }
+
+    @Test
+    public void negativeRotationUndoesPositiveRotation()
+    {
+        final PackedStateStorage source = createRandomSource(new Random(2), 4);
+        for (final Direction.Axis axis : Direction.Axis.values())
+        {
+            assertSameContents("Inverse rotation around " + axis, source, StatePermutations.rotate(StatePermutations.rotate(source, axis, 1), axis, -1));
+        }
+    }
+
+    @Test
+    public void paletteAndCountsCarryOver()
+    {
+        final PackedStateStorage source = createRandomSource(new Random(3), 20);
+        final PackedStateStorage rotated = StatePermutations.rotate(source, Direction.Axis.X, 1);
+
+        Assert.assertEquals(source.getPaletteSize(), rotated.getPaletteSize());
+        for (int slot = 0; slot < source.getPaletteSize(); slot++)
+        {
+            Assert.assertEquals(source.getPaletteStateId(slot), rotated.getPaletteStateId(slot));
+            Assert.assertEquals(source.getPaletteCount(slot), rotated.getPaletteCount(slot));
+        }
+    }
+
+    @Test
+    public void sourceIsNotModified()
+    {
+        final PackedStateStorage source = createRandomSource(new Random(4), 4);
+        final PackedStateStorage expected = source.copy();
+
+        StatePermutations.rotate(source, Direction.Axis.Z, 1);
+        StatePermutations.mirror(source, Direction.Axis.Z);
+
+        assertSameContents("Source", expected, source);
+    }
+
+    private static PackedStateStorage[] createSources()
+    {
+        final PackedStateStorage gradient = new PackedStateStorage(SIDE, 0);
+        for (int y = 0; y < SIDE; y++)
+        {
+            for (int z = 0; z < SIDE; z++)
+            {
+                for (int x = 0; x < SIDE; x++)
+                {
+                    gradient.setStateId(x, y, z, x + y * 3 + z * 7);
+                }
+            }
+        }
+
+        final PackedStateStorage corner = new PackedStateStorage(SIDE, 0);
+        corner.setStateId(0, 0, 0, 1);
+        corner.setStateId(SIDE - 1, 0, 0, 2);
+        corner.setStateId(0, SIDE - 1, 0, 3);
+        corner.setStateId(0, 0, SIDE - 1, 4);
+
+        return new PackedStateStorage[] {
+          new PackedStateStorage(SIDE, 5),
+          corner,
+          gradient,
+          createRandomSource(new Random(0), 2),
+          createRandomSource(new Random(0), 300)
+        };
+    }
+
+    private static PackedStateStorage createRandomSource(final Random random, final int stateCount)
+    {
+        final PackedStateStorage storage = new PackedStateStorage(SIDE, 0);
+        for (int i = 0; i < SIZE; i++)
+        {
+            storage.setStateId(i, random.nextInt(stateCount));
+        }
+        return storage;
+    }
+
+    /**
+     * The vector based rotation which was used before the permutation tables, with the vector math of VectorUtils inlined.
+     */
+    private static PackedStateStorage rotateWithPreviousImplementation(final PackedStateStorage source, final Direction.Axis axis, final int rotationCount)
+    {
+        final double center = 7.5d;
+        final PackedStateStorage target = new PackedStateStorage(source.getSide(), source.getStateId(0));
+        for (int x = 0; x < 16; x++)
+        {
+            for (int y = 0; y < 16; y++)
+            {
+                for (int z = 0; z < 16; z++)
+                {
+                    double[] rotated = new double[] {x - center, y - center, z - center};
+                    for (int i = 0; i < rotationCount; i++)
+                    {
+                        rotated = rotate90Degrees(rotated, axis);
+                    }
+
+                    final int targetX = (int) Math.floor(Math.round((rotated[0] + center) * 1000) * (1 / 1000d));
+                    final int targetY = (int) Math.floor(Math.round((rotated[1] + center) * 1000) * (1 / 1000d));
+                    final int targetZ = (int) Math.floor(Math.round((rotated[2] + center) * 1000) * (1 / 1000d));
+
+                    target.setStateId(targetX, targetY, targetZ, source.getStateId(x, y, z));
+                }
+            }
+        }
+
+        return target;
+    }
+
+    private static double[] rotate90Degrees(final double[] vector, final Direction.Axis axis)
+    {
+        final double angle = 90 * ((2 * Math.PI) / 360d);
+        final double cos = Math.cos((float) angle);
+        final double sin = Math.sin((float) angle);
+        switch (axis)
+        {
+            case X:
+                return new double[] {vector[0], vector[1] * cos - vector[2] * sin, vector[1] * sin + vector[2] * cos};
+            case Y:
+                return new double[] {vector[0] * cos + vector[2] * sin, vector[1], -vector[0] * sin + vector[2] * cos};
+            default:
+                return new double[] {vector[0] * cos - vector[1] * sin, vector[0] * sin + vector[1] * cos, vector[2]};
+        }
+    }
+
+    private static PackedStateStorage mirrorWithPreviousImplementation(final PackedStateStorage source, final Direction.Axis axis)
+    {
+        final PackedStateStorage result = new PackedStateStorage(source.getSide(), source.getStateId(0));
+        for (int y = 0; y < source.getSide(); y++)
+        {
+            for (int x = 0; x < source.getSide(); x++)
+            {
+                for (int z = 0; z < source.getSide(); z++)
+                {
+                    final int mirroredX = axis == Direction.Axis.X ? (source.getSide() - x - 1) : x;
+                    final int mirroredY = axis == Direction.Axis.Y ? (source.getSide() - y - 1) : y;
+                    final int mirroredZ = axis == Direction.Axis.Z ? (source.getSide() - z - 1) : z;
+
+                    result.setStateId(mirroredX, mirroredY, mirroredZ, source.getStateId(x, y, z));
+                }
+            }
+        }
+
+        return result;
+    }
+
+    private static void assertSameContents(final String message, final PackedStateStorage expected, final PackedStateStorage actual)
+    {
+        for (int i = 0; i < SIZE; i++)
+        {
+            Assert.assertEquals(message + ", mismatch at index: " + i, expected.getStateId(i), actual.getStateId(i));
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package mod.chiselsandbits.storage;
+
+import net.minecraft.nbt.CompoundNBT;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.function.Supplier;
+
+public class StorageNbtCacheTest
+{
+    private static final int    SIDE = 16;
+    private static final int    SIZE = SIDE * SIDE * SIDE;
+    private static final String DATA = "data";
+
+    @Test
+    public void unchangedStorageReusesTheWrittenNbt()
+    {
+        final PackedStateStorage storage = createStorage(new Random(0));
+        final StorageNbtCache cache = new StorageNbtCache();
+
+        final CompoundNBT first = cache.getOrWrite(storage, writer(storage));
+        final CompoundNBT second = cache.getOrWrite(storage, () -> {
+            throw new AssertionError("The unchanged storage was written again.");
+        });
+
+        Assert.assertEquals(1, cache.getWriteCount());
+        Assert.assertEquals(1, cache.getReuseCount());
+        Assert.assertArrayEquals(first.getByteArray(DATA), second.getByteArray(DATA));
+    }
+
+    @Test
+    public void returnedNbtIsACopy()
+    {
+        final PackedStateStorage storage = createStorage(new Random(1));
+        final StorageNbtCache cache = new StorageNbtCache();
+
+        final CompoundNBT first = cache.getOrWrite(storage, writer(storage));
+        final byte[] expected = first.getByteArray(DATA).clone();
+        first.getByteArray(DATA)[0]++;
+
+        Assert.assertArrayEquals(expected, cache.getOrWrite(storage, writer(storage)).getByteArray(DATA));
+    }
+
+    @Test
+    public void modificationsInvalidateTheCache()
+    {
+        final PackedStateStorage storage = createStorage(new Random(2));
+        final StorageNbtCache cache = new StorageNbtCache();
+        cache.getOrWrite(storage, writer(storage));
+
+        storage.setStateId(0, 77);
+        final CompoundNBT afterWrite = cache.getOrWrite(storage, writer(storage));
+        Assert.assertEquals(2, cache.getWriteCount());
+        Assert.assertArrayEquals(encode(storage), afterWrite.getByteArray(DATA));
+
+        storage.setStateId(0, 77);
+        cache.getOrWrite(storage, writer(storage));
+        Assert.assertEquals("Writing the same state should not invalidate the cache.", 2, cache.getWriteCount());
+
+        storage.fill(3);
+        cache.getOrWrite(storage, writer(storage));
+        Assert.assertEquals(3, cache.getWriteCount());
+    }
+
+    @Test
+    public void replacedStorageInvalidatesTheCache()
+    {
+        final PackedStateStorage storage = createStorage(new Random(3));
+        final StorageNbtCache cache = new StorageNbtCache();
+        cache.getOrWrite(storage, writer(storage));
+
+        final PackedStateStorage copy = storage.copy();
+        cache.getOrWrite(copy, writer(copy));
+        Assert.assertEquals(2, cache.getWriteCount());
+
+        cache.invalidate();
+        cache.getOrWrite(copy, writer(copy));
+        Assert.assertEquals(3, cache.getWriteCount());
+    }
+
+    /**
+     * Saves a chunk worth of untouched block entities repeatedly, only the first save encodes the storages.
+     */
+    @Test
+    public void savingUntouchedStoragesOnlyCopiesTheCachedNbt()
+    {
+        final int blockCount = 256;
+        final Random random = new Random(4);
+        final PackedStateStorage[] storages = new PackedStateStorage[blockCount];
+        final StorageNbtCache[] caches = new StorageNbtCache[blockCount];
+        for (int i = 0; i < blockCount; i++)
+        {
+            storages[i] = createStorage(random);
+            caches[i] = new StorageNbtCache();
+        }
+
+        for (int round = 0; round < 5; round++)
+        {
+            for (int i = 0; i < blockCount; i++)
+            {
+                caches[i].getOrWrite(storages[i], writer(storages[i]));
+            }
+        }
+
+        for (final StorageNbtCache cache : caches)
+        {
+            Assert.assertEquals(1, cache.getWriteCount());
+            Assert.assertEquals(4, cache.getReuseCount());
+        }
+    }
+
+    private static Supplier<CompoundNBT> writer(final PackedStateStorage storage)
+    {
+        return () -> {
+            final CompoundNBT nbt = new CompoundNBT();
+            nbt.putByteArray(DATA, encode(storage));
+            return nbt;
+        };
+    }
+
+    private static byte[] encode(final PackedStateStorage storage)
+    {
+        final int[] slots = new int[SIZE];
+        for (int i = 0; i < SIZE; i++)
+        {
+            slots[i] = storage.getPaletteSlot(i);
+        }
+        return CompactStorageCodec.encode(slots, storage.getPaletteSize());
+    }
+
+    private static PackedStateStorage createStorage(final Random random)
+    {
+        final PackedStateStorage storage = new PackedStateStorage(SIDE, 0);
+        final int height = 2 + random.nextInt(12);
+        for (int i = 0; i < SIZE; i++)
+        {
+            final int y = i / (SIDE * SIDE);
+            storage.setStateId(i, y < height ? 1 + random.nextInt(3) : 0);
+        }
+        return storage;
+    }
+}
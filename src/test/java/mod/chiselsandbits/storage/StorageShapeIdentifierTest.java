@@ -0,0 +1,220 @@
+package mod.chiselsandbits.storage;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import net.minecraft.network.PacketBuffer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class StorageShapeIdentifierTest
+{
+    private static final int SIDE = 16;
+    private static final int SIZE = SIDE * SIDE * SIDE;
+
+    @Test
+    public void incrementalHashMatchesRecalculatedHash()
+    {
+        final Random random = new Random(0);
+        final PackedStateStorage storage = new PackedStateStorage(SIDE, 0);
+        for (int write = 0; write < 20000; write++)
+        {
+            storage.setStateId(random.nextInt(SIZE), random.nextInt(40));
+            if (write % 1000 == 0)
+            {
+                Assert.assertEquals(reload(storage).getContentHash(), storage.getContentHash());
+            }
+        }
+
+        Assert.assertEquals(reload(storage).getContentHash(), storage.getContentHash());
+    }
+
+    @Test
+    public void revertedWritesRestoreTheHash()
+    {
+        final PackedStateStorage storage = createRandomStorage(new Random(1), 4);
+        final long originalHash = storage.getContentHash();
+
+        final int previous = storage.setStateId(100, 17);
+        Assert.assertNotEquals(originalHash, storage.getContentHash());
+
+        storage.setStateId(100, previous);
+        Assert.assertEquals(originalHash, storage.getContentHash());
+    }
+
+    @Test
+    public void sameContentsWithDifferentPalettesAreEqual()
+    {
+        final PackedStateStorage forward = new PackedStateStorage(SIDE, 0);
+        final PackedStateStorage backward = new PackedStateStorage(SIDE, 2);
+        for (int i = 0; i < SIZE; i++)
+        {
+            forward.setStateId(i, i % 3);
+        }
+        for (int i = SIZE - 1; i >= 0; i--)
+        {
+            backward.setStateId(i, i % 3);
+        }
+
+        assertEqualIdentifiers(forward.createShapeIdentifier(), backward.createShapeIdentifier());
+    }
+
+    @Test
+    public void uniformStoragesAreEqualRegardlessOfHowTheyWereFilled()
+    {
+        final PackedStateStorage filled = new PackedStateStorage(SIDE, 0);
+        filled.fill(7);
+
+        final PackedStateStorage written = new PackedStateStorage(SIDE, 0);
+        for (int i = 0; i < SIZE; i++)
+        {
+            written.setStateId(i, 7);
+        }
+
+        assertEqualIdentifiers(new PackedStateStorage(SIDE, 7).createShapeIdentifier(), filled.createShapeIdentifier());
+        assertEqualIdentifiers(filled.createShapeIdentifier(), written.createShapeIdentifier());
+    }
+
+    @Test
+    public void identifierKeepsItsContentsAfterTheStorageChanges()
+    {
+        final PackedStateStorage storage = createRandomStorage(new Random(2), 4);
+        final PackedStateStorage original = storage.copy();
+        final StorageShapeIdentifier before = storage.createShapeIdentifier();
+
+        storage.setStateId(0, 99);
+        final StorageShapeIdentifier after = storage.createShapeIdentifier();
+
+        Assert.assertNotEquals(before, after);
+        assertEqualIdentifiers(original.createShapeIdentifier(), before);
+        Assert.assertArrayEquals(original.createIdentifierPayload(), before.getBackingData());
+    }
+
+    @Test
+    public void identifiersOfTheSameVersionShareTheirPayload()
+    {
+        final PackedStateStorage storage = createRandomStorage(new Random(3), 4);
+        final StorageShapeIdentifier first = storage.createShapeIdentifier();
+        final StorageShapeIdentifier second = storage.createShapeIdentifier();
+
+        Assert.assertTrue(first != second);
+        assertEqualIdentifiers(first, second);
+        Assert.assertTrue(first.getBackingData() == second.getBackingData());
+    }
+
+    @Test
+    public void detachedIdentifiersEqualAttachedIdentifiers()
+    {
+        final PackedStateStorage storage = createRandomStorage(new Random(4), 8);
+
+        assertEqualIdentifiers(storage.createShapeIdentifier(), storage.copy().createDetachedShapeIdentifier());
+    }
+
+    @Test
+    public void hashCollisionsFallBackToThePayload()
+    {
+        final PackedStateStorage first = createRandomStorage(new Random(5), 4);
+        final PackedStateStorage second = createRandomStorage(new Random(6), 4);
+        final PackedStateStorage copyOfFirst = first.copy();
+
+        final StorageShapeIdentifier collidingFirst = new StorageShapeIdentifier(42, 0, new StorageShapeIdentifier.PayloadSource(first, first.getVersion()));
+        final StorageShapeIdentifier collidingSecond = new StorageShapeIdentifier(42, 0, new StorageShapeIdentifier.PayloadSource(second, second.getVersion()));
+        final StorageShapeIdentifier collidingCopy = new StorageShapeIdentifier(42, 0, new StorageShapeIdentifier.PayloadSource(copyOfFirst, copyOfFirst.getVersion()));
+
+        Assert.assertEquals(collidingFirst.hashCode(), collidingSecond.hashCode());
+        Assert.assertNotEquals(collidingFirst, collidingSecond);
+        Assert.assertNotEquals(collidingSecond, collidingFirst);
+        assertEqualIdentifiers(collidingFirst, collidingCopy);
+    }
+
+    @Test
+    public void equalityIsConsistentWithContents()
+    {
+        final Random random = new Random(7);
+        final List<PackedStateStorage> storages = new ArrayList<>();
+        for (int i = 0; i < 12; i++)
+        {
+            final PackedStateStorage storage = createRandomStorage(new Random(i % 4), 1 + i % 4);
+            storage.setStateId(random.nextInt(SIZE), random.nextInt(3));
+            storages.add(storage);
+        }
+
+        for (final PackedStateStorage a : storages)
+        {
+            final StorageShapeIdentifier identifierOfA = a.createShapeIdentifier();
+            Assert.assertEquals(identifierOfA, identifierOfA);
+            Assert.assertNotEquals(identifierOfA, null);
+
+            for (final PackedStateStorage b : storages)
+            {
+                final StorageShapeIdentifier identifierOfB = b.createShapeIdentifier();
+                final boolean sameContents = hasSameContents(a, b);
+
+                Assert.assertEquals(sameContents, identifierOfA.equals(identifierOfB));
+                Assert.assertEquals(sameContents, identifierOfB.equals(identifierOfA));
+                if (sameContents)
+                {
+                    Assert.assertEquals(identifierOfA.hashCode(), identifierOfB.hashCode());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void singleBitChangesAlwaysChangeTheHash()
+    {
+        final PackedStateStorage storage = createRandomStorage(new Random(8), 3);
+        final long originalHash = storage.getContentHash();
+        for (int index = 0; index < SIZE; index++)
+        {
+            final int previous = storage.setStateId(index, 3);
+            Assert.assertNotEquals("Unchanged hash at index: " + index, originalHash, storage.getContentHash());
+            storage.setStateId(index, previous);
+        }
+
+        Assert.assertEquals(originalHash, storage.getContentHash());
+    }
+
+    private static void assertEqualIdentifiers(final StorageShapeIdentifier expected, final StorageShapeIdentifier actual)
+    {
+        Assert.assertEquals(expected, actual);
+        Assert.assertEquals(actual, expected);
+        Assert.assertEquals(expected.hashCode(), actual.hashCode());
+    }
+
+    private static boolean hasSameContents(final PackedStateStorage a, final PackedStateStorage b)
+    {
+        for (int i = 0; i < SIZE; i++)
+        {
+            if (a.getStateId(i) != b.getStateId(i))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static PackedStateStorage createRandomStorage(final Random random, final int stateCount)
+    {
+        final PackedStateStorage storage = new PackedStateStorage(SIDE, 0);
+        for (int i = 0; i < SIZE; i++)
+        {
+            storage.setStateId(i, random.nextInt(stateCount));
+        }
+        return storage;
+    }
+
+    private static PackedStateStorage reload(final PackedStateStorage storage)
+    {
+        final ByteBuf buffer = Unpooled.buffer();
+        storage.serializeInto(new PacketBuffer(buffer));
+
+        final PackedStateStorage reloaded = new PackedStateStorage(SIDE, 0);
+        reloaded.deserializeFrom(new PacketBuffer(buffer));
+        buffer.release();
+        return reloaded;
+    }
+}
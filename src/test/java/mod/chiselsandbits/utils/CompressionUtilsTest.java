@@ -0,0 +1,138 @@
+package mod.chiselsandbits.utils;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+
+public class CompressionUtilsTest
+{
+    @Test
+    public void dataRoundTrips() throws DataFormatException
+    {
+        final Random random = new Random(0);
+        for (int length : new int[] {0, 1, 100, 4096, 70000, 600000})
+        {
+            final byte[] data = createData(random, length);
+            final ByteBuf decompressed = CompressionUtils.NETWORK.decompress(CompressionUtils.NETWORK.compress(Unpooled.wrappedBuffer(data)));
+
+            Assert.assertArrayEquals(data, readAll(decompressed));
+        }
+    }
+
+    @Test
+    public void onlyReadableBytesAreCompressed() throws DataFormatException
+    {
+        final byte[] data = createData(new Random(1), 1000);
+        final ByteBuf source = Unpooled.buffer(64 * 1024);
+        source.writeBytes(new byte[] {1, 2, 3});
+        source.writeBytes(data);
+        source.skipBytes(3);
+
+        final byte[] compressed = CompressionUtils.NETWORK.compress(source);
+
+        Assert.assertEquals(0, source.readableBytes());
+        Assert.assertArrayEquals(data, readAll(CompressionUtils.NETWORK.decompress(compressed)));
+    }
+
+    @Test
+    public void compressionAppendsToTheTarget() throws DataFormatException
+    {
+        final CompressionUtils.Codec codec = new CompressionUtils.Codec(Deflater.DEFAULT_COMPRESSION, null);
+        final byte[] data = createData(new Random(2), 5000);
+        final ByteBuf target = Unpooled.buffer();
+        target.writeInt(42);
+        codec.compress(Unpooled.wrappedBuffer(data), target);
+        target.writeInt(43);
+
+        Assert.assertEquals(42, target.readInt());
+        final ByteBuf decompressed = Unpooled.buffer();
+        codec.decompress(target, decompressed);
+
+        Assert.assertArrayEquals(data, readAll(decompressed));
+    }
+
+    @Test
+    public void pooledCodersAreResetBetweenCalls() throws DataFormatException
+    {
+        final Random random = new Random(3);
+        final byte[] first = createData(random, 3000);
+        final byte[] second = createData(random, 17);
+
+        final byte[] compressedFirst = CompressionUtils.NETWORK.compress(Unpooled.wrappedBuffer(first));
+        final byte[] compressedSecond = CompressionUtils.NETWORK.compress(Unpooled.wrappedBuffer(second));
+
+        Assert.assertArrayEquals(compressedFirst, CompressionUtils.NETWORK.compress(Unpooled.wrappedBuffer(first)));
+        Assert.assertArrayEquals(second, readAll(CompressionUtils.NETWORK.decompress(compressedSecond)));
+        Assert.assertArrayEquals(first, readAll(CompressionUtils.NETWORK.decompress(compressedFirst)));
+    }
+
+    @Test
+    public void presetDictionariesAreUsedByBothSides() throws DataFormatException
+    {
+        final byte[] dictionary = "minecraft:stone minecraft:oak_planks minecraft:glass".getBytes(StandardCharsets.US_ASCII);
+        final CompressionUtils.Codec withDictionary = new CompressionUtils.Codec(Deflater.BEST_COMPRESSION, dictionary);
+        final CompressionUtils.Codec withoutDictionary = new CompressionUtils.Codec(Deflater.BEST_COMPRESSION, null);
+        final byte[] data = "minecraft:glass minecraft:stone".getBytes(StandardCharsets.US_ASCII);
+
+        final byte[] compressedWithDictionary = withDictionary.compress(Unpooled.wrappedBuffer(data));
+        final byte[] compressedWithoutDictionary = withoutDictionary.compress(Unpooled.wrappedBuffer(data));
+
+        Assert.assertTrue(compressedWithDictionary.length < compressedWithoutDictionary.length);
+        Assert.assertArrayEquals(data, readAll(withDictionary.decompress(compressedWithDictionary)));
+
+        try
+        {
+            withoutDictionary.decompress(compressedWithDictionary);
+            Assert.fail("Decompressing without the dictionary should fail.");
+        }
+        catch (DataFormatException expected)
+        {
+            //Expected.
+        }
+    }
+
+    @Test
+    public void truncatedDataIsRejected()
+    {
+        final byte[] compressed = CompressionUtils.NETWORK.compress(Unpooled.wrappedBuffer(createData(new Random(4), 2000)));
+        final byte[] truncated = new byte[compressed.length / 2];
+        System.arraycopy(compressed, 0, truncated, 0, truncated.length);
+
+        try
+        {
+            CompressionUtils.NETWORK.decompress(truncated);
+            Assert.fail("Decompressing truncated data should fail.");
+        }
+        catch (DataFormatException expected)
+        {
+            //Expected.
+        }
+    }
+
+    private static byte[] readAll(final ByteBuf buffer)
+    {
+        final byte[] data = new byte[buffer.readableBytes()];
+        buffer.readBytes(data);
+        buffer.release();
+        return data;
+    }
+
+    /**
+     * Creates data which compresses somewhat, like the palette indices of a chiseled block.
+     */
+    private static byte[] createData(final Random random, final int length)
+    {
+        final byte[] data = new byte[length];
+        for (int i = 0; i < length; i++)
+        {
+            data[i] = (byte) (random.nextInt(4) == 0 ? random.nextInt(256) : i / 64);
+        }
+        return data;
+    }
+}
@@ -0,0 +1,168 @@
+package mod.chiselsandbits.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class StripedLruCacheTest
+{
+    //Small integer keys which are a multiple of the segment count all end up in the same segment.
+    private static final int SEGMENT_COUNT = 16;
+
+    @Test
+    public void leastRecentlyUsedEntryIsEvicted()
+    {
+        final StripedLruCache<Integer, String> cache = new StripedLruCache<>(() -> 2 * SEGMENT_COUNT);
+        cache.put(sameSegment(0), "first");
+        cache.put(sameSegment(1), "second");
+        Assert.assertEquals("first", cache.get(sameSegment(0)));
+
+        cache.put(sameSegment(2), "third");
+
+        Assert.assertEquals("first", cache.get(sameSegment(0)));
+        Assert.assertNull(cache.get(sameSegment(1)));
+        Assert.assertEquals("third", cache.get(sameSegment(2)));
+        Assert.assertEquals(1, cache.getEvictionCount());
+    }
+
+    @Test
+    public void segmentsHoldTheirShareOfTheMaximumRoundedUp()
+    {
+        final StripedLruCache<Integer, String> roundedUp = new StripedLruCache<>(() -> SEGMENT_COUNT + 1);
+        for (int i = 0; i < 5; i++)
+        {
+            roundedUp.put(sameSegment(i), "value");
+        }
+        Assert.assertEquals(2, roundedUp.size());
+
+        final StripedLruCache<Integer, String> exact = new StripedLruCache<>(() -> SEGMENT_COUNT);
+        for (int i = 0; i < 5; i++)
+        {
+            exact.put(sameSegment(i), "value");
+        }
+        Assert.assertEquals(1, exact.size());
+
+        final StripedLruCache<Integer, String> empty = new StripedLruCache<>(() -> 0);
+        empty.put(sameSegment(0), "value");
+        Assert.assertEquals("Every segment holds at least one entry.", 1, empty.size());
+    }
+
+    @Test
+    public void entriesAreEvictedByWeight()
+    {
+        final StripedLruCache<Integer, String> cache = new StripedLruCache<>(() -> 10 * SEGMENT_COUNT, String::length);
+        cache.put(sameSegment(0), "aaaaaa");
+        cache.put(sameSegment(1), "bbbb");
+        Assert.assertEquals(2, cache.size());
+
+        cache.put(sameSegment(2), "ccc");
+        Assert.assertNull(cache.get(sameSegment(0)));
+        Assert.assertEquals("bbbb", cache.get(sameSegment(1)));
+        Assert.assertEquals("ccc", cache.get(sameSegment(2)));
+
+        cache.put(sameSegment(3), "dddddddddddd");
+        Assert.assertEquals("A value heavier than the segment only evicts the other entries.", 1, cache.size());
+        Assert.assertEquals(3, cache.getEvictionCount());
+    }
+
+    @Test
+    public void hitsAndMissesAreCounted()
+    {
+        final StripedLruCache<Integer, String> cache = new StripedLruCache<>(() -> 100);
+
+        Assert.assertNull(cache.get(1));
+        Assert.assertEquals("value", cache.computeIfAbsent(1, () -> "value"));
+        Assert.assertEquals("value", cache.computeIfAbsent(1, () -> "other"));
+        Assert.assertEquals("value", cache.get(1));
+        Assert.assertFalse(cache.getIfPresent(2).isPresent());
+
+        Assert.assertEquals(2, cache.getHitCount());
+        Assert.assertEquals(3, cache.getMissCount());
+    }
+
+    @Test
+    public void nullValuesAreNotStored()
+    {
+        final StripedLruCache<Integer, String> cache = new StripedLruCache<>(() -> 100);
+
+        Assert.assertNull(cache.computeIfAbsent(1, () -> null));
+        Assert.assertEquals("value", cache.computeIfAbsent(1, () -> "value"));
+    }
+
+    @Test
+    public void failedComputationsAreNotStored()
+    {
+        final StripedLruCache<Integer, String> cache = new StripedLruCache<>(() -> 100);
+
+        try
+        {
+            cache.computeIfAbsent(1, () -> {
+                throw new IllegalStateException("Failed.");
+            });
+            Assert.fail("The failure of the computation should be passed on.");
+        }
+        catch (IllegalStateException expected)
+        {
+            //Expected.
+        }
+
+        Assert.assertEquals("value", cache.computeIfAbsent(1, () -> "value"));
+    }
+
+    @Test
+    public void concurrentMissesComputeOnce() throws InterruptedException
+    {
+        final StripedLruCache<Integer, String> cache = new StripedLruCache<>(() -> 100);
+        final AtomicInteger computations = new AtomicInteger();
+        final CountDownLatch computing = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        final Thread first = new Thread(() -> cache.computeIfAbsent(1, () -> {
+            computations.incrementAndGet();
+            computing.countDown();
+            awaitUninterruptibly(release);
+            return "value";
+        }));
+        first.start();
+        computing.await();
+
+        final AtomicReference<String> secondValue = new AtomicReference<>();
+        final Thread second = new Thread(() -> secondValue.set(cache.computeIfAbsent(1, () -> {
+            computations.incrementAndGet();
+            return "other";
+        })));
+        second.start();
+
+        //The second thread counts its miss right before it starts to wait for the first one.
+        while (cache.getMissCount() < 2)
+        {
+            Thread.yield();
+        }
+        release.countDown();
+        first.join();
+        second.join();
+
+        Assert.assertEquals(1, computations.get());
+        Assert.assertEquals("value", secondValue.get());
+    }
+
+    private static int sameSegment(final int index)
+    {
+        return index * SEGMENT_COUNT;
+    }
+
+    private static void awaitUninterruptibly(final CountDownLatch latch)
+    {
+        try
+        {
+            latch.await();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
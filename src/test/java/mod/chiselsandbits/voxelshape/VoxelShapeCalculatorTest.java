@@ -0,0 +1,205 @@
+package mod.chiselsandbits.voxelshape;
+
+import mod.chiselsandbits.aabb.AABBCompressor;
+import mod.chiselsandbits.api.multistate.accessor.IAreaAccessor;
+import mod.chiselsandbits.api.multistate.accessor.IStateEntryInfo;
+import mod.chiselsandbits.api.multistate.accessor.identifier.IAreaShapeIdentifier;
+import net.minecraft.block.BlockState;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.shapes.IBooleanFunction;
+import net.minecraft.util.math.shapes.VoxelShape;
+import net.minecraft.util.math.shapes.VoxelShapes;
+import net.minecraft.util.math.vector.Vector3d;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.stubbing.Answer;
+
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntPredicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class VoxelShapeCalculatorTest
+{
+    private static final int SIDE = 16;
+
+    @Test
+    public void emptyShapeIsEmpty()
+    {
+        Assert.assertTrue(calculate(createAccessor(index -> false), BlockPos.ZERO).isEmpty());
+    }
+
+    @Test
+    public void solidShapeMatchesJoinedShape()
+    {
+        assertMatchesJoinedShape(createAccessor(index -> true), "Solid shape");
+    }
+
+    @Test
+    public void randomShapesMatchJoinedShapes()
+    {
+        for (int seed = 0; seed < 10; seed++)
+        {
+            final Random random = new Random(seed);
+            final boolean[] occupied = createShape(index -> random.nextBoolean());
+            assertMatchesJoinedShape(createAccessor(index -> occupied[index]), "Random shape " + seed);
+        }
+    }
+
+    @Test
+    public void sparseShapesMatchJoinedShapes()
+    {
+        for (int seed = 0; seed < 10; seed++)
+        {
+            final Random random = new Random(seed);
+            final boolean[] occupied = createShape(index -> random.nextInt(50) == 0);
+            assertMatchesJoinedShape(createAccessor(index -> occupied[index]), "Sparse shape " + seed);
+        }
+    }
+
+    @Test
+    public void structuredShapesMatchJoinedShapes()
+    {
+        assertMatchesJoinedShape(createAccessor(index -> toY(index) < 8), "Slab");
+        assertMatchesJoinedShape(createAccessor(index -> toX(index) + toY(index) < toZ(index)), "Stairs");
+    }
+
+    @Test
+    public void offsetIsApplied()
+    {
+        final IAreaAccessor accessor = createAccessor(index -> toY(index) < 8);
+        final BlockPos offset = new BlockPos(3, -2, 7);
+
+        final VoxelShape calculated = calculate(accessor, offset);
+        final VoxelShape expected = VoxelShapes.box(0, 0, 0, 1, 0.5, 1).move(offset.getX(), offset.getY(), offset.getZ());
+
+        assertSameSpace(expected, calculated, "Offset slab");
+    }
+
+    @Test
+    public void entriesOutsideOfTheBlockMatchJoinedShape()
+    {
+        final IAreaAccessor accessor = createAccessor(IntStream.range(0, SIDE * SIDE * SIDE)
+          .<IStateEntryInfo>mapToObj(index -> new TestEntry(toX(index) + SIDE, toY(index), toZ(index), toY(index) < 8))
+          .collect(Collectors.toList()));
+
+        final VoxelShape calculated = calculate(accessor, BlockPos.ZERO);
+
+        assertSameSpace(VoxelShapes.box(1, 0, 0, 2, 0.5, 1), calculated, "Slab in the next block");
+    }
+
+    @Test
+    public void simplifiedShapeCoversTheSameSpace()
+    {
+        final Random random = new Random(7);
+        final boolean[] occupied = createShape(index -> random.nextInt(4) != 0);
+        final VoxelShape calculated = calculate(createAccessor(index -> occupied[index]), BlockPos.ZERO);
+
+        assertSameSpace(calculated, VoxelShapeCalculator.simplify(calculated), "Simplified shape");
+    }
+
+    private static void assertMatchesJoinedShape(final IAreaAccessor accessor, final String testName)
+    {
+        final VoxelShape calculated = calculate(accessor, BlockPos.ZERO);
+        final VoxelShape joined = VoxelShapeCalculator.join(AABBCompressor.compressStates(accessor, TestEntry::isOccupied));
+
+        assertSameSpace(joined, calculated, testName);
+    }
+
+    private static void assertSameSpace(final VoxelShape expected, final VoxelShape actual, final String testName)
+    {
+        Assert.assertFalse(testName + ": Space is missing.", VoxelShapes.joinIsNotEmpty(expected, actual, IBooleanFunction.ONLY_FIRST));
+        Assert.assertFalse(testName + ": Space is added.", VoxelShapes.joinIsNotEmpty(expected, actual, IBooleanFunction.ONLY_SECOND));
+    }
+
+    private static VoxelShape calculate(final IAreaAccessor accessor, final BlockPos offset)
+    {
+        return VoxelShapeCalculator.calculate(accessor, offset, areaAccessor -> TestEntry::isOccupied, SIDE);
+    }
+
+    private static boolean[] createShape(final IntPredicate occupied)
+    {
+        final boolean[] shape = new boolean[SIDE * SIDE * SIDE];
+        for (int index = 0; index < shape.length; index++)
+        {
+            shape[index] = occupied.test(index);
+        }
+        return shape;
+    }
+
+    private static IAreaAccessor createAccessor(final IntPredicate occupied)
+    {
+        return createAccessor(IntStream.range(0, SIDE * SIDE * SIDE)
+          .<IStateEntryInfo>mapToObj(index -> new TestEntry(toX(index), toY(index), toZ(index), occupied.test(index)))
+          .collect(Collectors.toList()));
+    }
+
+    private static IAreaAccessor createAccessor(final List<IStateEntryInfo> entries)
+    {
+        final IAreaAccessor mock = mock(IAreaAccessor.class);
+        when(mock.stream()).then((Answer<Stream<IStateEntryInfo>>) invocation -> entries.stream());
+        when(mock.streamWithPositionMutator(any())).then((Answer<Stream<IStateEntryInfo>>) invocation -> entries.stream());
+        //Every accessor gets its own identifier, so the boxes of the joined shapes are not shared between them.
+        final IAreaShapeIdentifier identifier = mock(IAreaShapeIdentifier.class);
+        when(mock.createNewShapeIdentifier()).thenReturn(identifier);
+        return mock;
+    }
+
+    private static int toX(final int index)
+    {
+        return index / (SIDE * SIDE);
+    }
+
+    private static int toY(final int index)
+    {
+        return (index / SIDE) % SIDE;
+    }
+
+    private static int toZ(final int index)
+    {
+        return index % SIDE;
+    }
+
+    private static final class TestEntry implements IStateEntryInfo
+    {
+        private final Vector3d startPoint;
+        private final Vector3d endPoint;
+        private final boolean  occupied;
+
+        private TestEntry(final int x, final int y, final int z, final boolean occupied)
+        {
+            this.startPoint = new Vector3d(x / (double) SIDE, y / (double) SIDE, z / (double) SIDE);
+            this.endPoint = new Vector3d((x + 1) / (double) SIDE, (y + 1) / (double) SIDE, (z + 1) / (double) SIDE);
+            this.occupied = occupied;
+        }
+
+        private static boolean isOccupied(final IStateEntryInfo stateEntryInfo)
+        {
+            return ((TestEntry) stateEntryInfo).occupied;
+        }
+
+        @Override
+        public BlockState getState()
+        {
+            return null;
+        }
+
+        @Override
+        public Vector3d getStartPoint()
+        {
+            return startPoint;
+        }
+
+        @Override
+        public Vector3d getEndPoint()
+        {
+            return endPoint;
+        }
+    }
+}